@@ -96,6 +96,48 @@ object CommonConfig {
     classType = classOf[String],
     description = "maven repository used for built-in compilation")
 
+  val MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB: InternalOption = InternalOption(
+    key = "streampark.maven.fat-jar-cache.max-size-mb",
+    defaultValue = 10240L,
+    classType = classOf[JavaLong],
+    description = "max size(MB) of the local fat-jar cache, the least recently used fat-jars are evicted")
+
+  val PIPELINE_MAX_CONCURRENT_BUILDS: InternalOption = InternalOption(
+    key = "streampark.pipeline.max-concurrent.builds",
+    defaultValue = 16,
+    classType = classOf[JavaInt],
+    description = "max number of the building pipelines running at the same time, the others are queued")
+
+  val PIPELINE_MAX_CONCURRENT_CPU: InternalOption = InternalOption(
+    key = "streampark.pipeline.max-concurrent.cpu",
+    defaultValue = 4,
+    classType = classOf[JavaInt],
+    description = "max number of the cpu-bound building steps running at the same time, e.g. shading fat-jars")
+
+  val PIPELINE_MAX_CONCURRENT_DISK_IO: InternalOption = InternalOption(
+    key = "streampark.pipeline.max-concurrent.disk-io",
+    defaultValue = 4,
+    classType = classOf[JavaInt],
+    description = "max number of the disk io-bound building steps running at the same time, e.g. building images")
+
+  val PIPELINE_MAX_CONCURRENT_NETWORK: InternalOption = InternalOption(
+    key = "streampark.pipeline.max-concurrent.network",
+    defaultValue = 4,
+    classType = classOf[JavaInt],
+    description = "max number of the network-bound building steps running at the same time, e.g. pushing images")
+
+  val PIPELINE_BUILD_TIMEOUT_MIN: InternalOption = InternalOption(
+    key = "streampark.pipeline.build-timeout-min",
+    defaultValue = 20,
+    classType = classOf[JavaInt],
+    description = "timeout(minutes) of running a building pipeline, the time queued excluded")
+
+  val PIPELINE_QUEUE_TIMEOUT_MIN: InternalOption = InternalOption(
+    key = "streampark.pipeline.queue-timeout-min",
+    defaultValue = 120,
+    classType = classOf[JavaInt],
+    description = "timeout(minutes) of a building pipeline waiting in the queue")
+
   val KERBEROS_TTL: InternalOption = InternalOption(
     key = "security.kerberos.ttl",
     defaultValue = "2h",
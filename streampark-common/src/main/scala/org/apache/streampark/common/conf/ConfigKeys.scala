@@ -177,6 +177,16 @@ object ConfigKeys {
 
   val DEFAULT_JDBC_INSERT_BATCH = 1
 
+  /** the interval(ms) of flushing the batch, not flushed at the interval if not positive */
+  val KEY_JDBC_INSERT_BATCH_INTERVAL = "batch.interval"
+
+  val DEFAULT_JDBC_INSERT_BATCH_INTERVAL = 1000L
+
+  /** the rows of a multi-row statement of the typed jdbc sink, if the dialect supports */
+  val KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT = "batch.rows-per-statement"
+
+  val DEFAULT_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT = 100
+
   val MONGO_PREFIX = "mongodb."
 
   /** about config HBase */
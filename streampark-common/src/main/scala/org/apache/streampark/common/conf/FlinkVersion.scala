@@ -22,6 +22,7 @@ import org.apache.streampark.common.util.Implicits._
 
 import java.io.File
 import java.net.URL
+import java.util.concurrent.ConcurrentHashMap
 import java.util.function.Consumer
 import java.util.regex.Pattern
 
@@ -65,7 +66,14 @@ class FlinkVersion(val flinkHome: String) extends Serializable with Logger {
 
   lazy val flinkLibs: List[URL] = flinkLib.listFiles().map(_.toURI.toURL).toList
 
+  // the version is parsed by a java process, only once per flink-dist jar
   lazy val version: String = {
+    val distJar = flinkDistJar
+    val key = s"${distJar.getAbsolutePath}:${distJar.lastModified()}:${distJar.length()}"
+    FlinkVersion.VERSION_CACHE.computeIfAbsent(key, _ => parseVersion())
+  }
+
+  private[this] def parseVersion(): String = {
     val cmd = List(
       s"java -classpath ${flinkDistJar.getName} org.apache.flink.client.cli.CliFrontend --version")
     var flinkVersion: String = null
@@ -159,3 +167,10 @@ class FlinkVersion(val flinkHome: String) extends Serializable with Logger {
        |""".stripMargin
 
 }
+
+object FlinkVersion {
+
+  // flink-dist jar path:last modified:length -> flink version
+  private val VERSION_CACHE = new ConcurrentHashMap[String, String]()
+
+}
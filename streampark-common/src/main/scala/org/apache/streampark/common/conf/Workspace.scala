@@ -39,6 +39,9 @@ object Workspace {
   /** dirPath of the maven local repository with built-in compilation process */
   lazy val MAVEN_LOCAL_PATH = s"$localWorkspace/mvnrepo"
 
+  /** dirPath of the fat-jars cached by the content of their jars */
+  lazy val FAT_JAR_CACHE_PATH = s"$localWorkspace/fatjar-cache"
+
   /** local sourceCode path.(for git...) */
   lazy val PROJECT_LOCAL_PATH = s"$localWorkspace/project"
 
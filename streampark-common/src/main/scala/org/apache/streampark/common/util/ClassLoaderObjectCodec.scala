@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.util.Implicits._
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, File, ObjectOutputStream}
+import java.lang.reflect.{Array => JavaArray, Constructor, Method}
+import java.net.{URI, URL}
+import java.util
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Copy the objects across the class loaders, e.g. the requests and the responses of the shims
+ * class loader, without a full java serialization round-trip:
+ *
+ *   - The immutable types loaded parent-first, such as `String`, the boxed primitives and the
+ *     shared enums, are passed as they are.
+ *   - The enums loaded by both class loaders are resolved by name.
+ *   - The case classes are rebuilt by the constructor of the target class from their product
+ *     elements, the state derived in their bodies such as the lazy vals is computed again.
+ *   - The common java collections, maps and arrays are copied with their elements converted.
+ *   - Any other object falls back to the java serialization through a pooled buffer.
+ *
+ * The plan of a class is resolved once per target class loader. The classes are accessed by
+ * reflection only, as even `scala.Product` may be loaded twice.
+ */
+object ClassLoaderObjectCodec {
+
+  // the nesting depth over which the object is serialized, in case of a cyclic graph
+  private[this] val MAX_DEPTH = 64
+
+  // the pooled buffers larger than this are not kept
+  private[this] val MAX_POOLED_BUFFER_SIZE = 1024 * 1024
+
+  private[this] val IMMUTABLE_CLASSES: Set[Class[_]] = Set(
+    classOf[String],
+    classOf[java.lang.Boolean],
+    classOf[java.lang.Byte],
+    classOf[java.lang.Short],
+    classOf[java.lang.Integer],
+    classOf[java.lang.Long],
+    classOf[java.lang.Float],
+    classOf[java.lang.Double],
+    classOf[java.lang.Character],
+    classOf[java.math.BigDecimal],
+    classOf[java.math.BigInteger],
+    classOf[util.UUID],
+    classOf[URL],
+    classOf[URI],
+    classOf[File])
+
+  private[this] val MAP_CLASSES: Set[Class[_]] = Set(
+    classOf[util.HashMap[_, _]],
+    classOf[util.LinkedHashMap[_, _]],
+    classOf[util.Hashtable[_, _]],
+    classOf[ConcurrentHashMap[_, _]])
+
+  private[this] val COLLECTION_CLASSES: Set[Class[_]] = Set(
+    classOf[util.ArrayList[_]],
+    classOf[util.LinkedList[_]],
+    classOf[util.HashSet[_]],
+    classOf[util.LinkedHashSet[_]])
+
+  // source class -> target class loader -> plan
+  private[this] val plans = new ClassValue[ConcurrentHashMap[ClassLoader, Plan]] {
+    override def computeValue(clazz: Class[_]): ConcurrentHashMap[ClassLoader, Plan] =
+      new ConcurrentHashMap[ClassLoader, Plan]()
+  }
+
+  private[this] val buffers = new ThreadLocal[PooledByteArrayOutputStream] {
+    override def initialValue(): PooledByteArrayOutputStream = new PooledByteArrayOutputStream
+  }
+
+  /**
+   * Copy the object to the classes of the class loader.
+   *
+   * @param loader
+   *   the target class loader
+   * @param obj
+   *   the object
+   * @return
+   *   the object of the classes of the target class loader
+   */
+  @throws[Exception]
+  def convert[T](loader: ClassLoader, obj: Object): T = convertNode(loader, obj, 0).asInstanceOf[T]
+
+  /**
+   * Copy the object by the java serialization only.
+   *
+   * @param loader
+   *   the target class loader
+   * @param obj
+   *   the object
+   * @return
+   *   the object deserialized by the target class loader
+   */
+  @throws[Exception]
+  def serialize[T](loader: ClassLoader, obj: Object): T = {
+    val buffer = buffers.get()
+    try {
+      new ObjectOutputStream(buffer).autoClose(_.writeObject(obj))
+      new ClassLoaderObjectInputStream(loader, buffer.toInputStream)
+        .autoClose(_.readObject())
+        .asInstanceOf[T]
+    } finally {
+      if (buffer.capacity > MAX_POOLED_BUFFER_SIZE) {
+        buffers.remove()
+      } else {
+        buffer.reset()
+      }
+    }
+  }
+
+  private[this] def convertNode(loader: ClassLoader, obj: Object, depth: Int): Object = {
+    if (obj == null) {
+      null
+    } else if (depth > MAX_DEPTH) {
+      serialize[Object](loader, obj)
+    } else {
+      val perLoader = plans.get(obj.getClass)
+      var plan = perLoader.get(loader)
+      if (plan == null) {
+        plan = planOf(obj, loader)
+        perLoader.putIfAbsent(loader, plan)
+      }
+      plan.convert(loader, obj, depth)
+    }
+  }
+
+  private[this] def planOf(obj: Object, loader: ClassLoader): Plan = {
+    val clazz = obj.getClass
+    val target =
+      try {
+        Class.forName(clazz.getName, false, loader)
+      } catch {
+        case _: ClassNotFoundException => null
+      }
+    if (target == null) {
+      SerializePlan
+    } else if (clazz.isArray) {
+      if (clazz.getComponentType.isPrimitive) PrimitiveArrayPlan else ArrayPlan(target.getComponentType)
+    } else if (clazz.isEnum) {
+      if (target eq clazz) IdentityPlan else EnumPlan(target.asInstanceOf[Class[_ <: Enum[_]]])
+    } else if (target eq clazz) {
+      if (IMMUTABLE_CLASSES.contains(clazz)) IdentityPlan
+      else if (MAP_CLASSES.contains(clazz)) MapPlan
+      else if (COLLECTION_CLASSES.contains(clazz)) CollectionPlan
+      else productPlan(obj, target).getOrElse(SerializePlan)
+    } else {
+      productPlan(obj, target).getOrElse(SerializePlan)
+    }
+  }
+
+  /** The plan of a scala object or a case class, none if the class is not one of them. */
+  private[this] def productPlan(obj: Object, target: Class[_]): Option[Plan] = {
+    val clazz = obj.getClass
+    if (clazz.getName.startsWith("scala.") || !isProduct(clazz)) {
+      // the scala library types, such as List and Option, are left to the java serialization
+      None
+    } else if (clazz.getName.endsWith("$")) {
+      // a case object, the singleton of the target class loader
+      Some(ModulePlan(target.getField("MODULE$").get(null)))
+    } else {
+      val arity = clazz.getMethod("productArity").invoke(obj).asInstanceOf[Int]
+      // a case class is created by its primary constructor of all its elements, which takes the
+      // same parameters as its copy method, the auxiliary constructors may have the same arity
+      val signatures =
+        if (arity == 0) List(Nil)
+        else {
+          clazz.getMethods.toList
+            .filter(m => m.getName == "copy" && m.getParameterCount == arity)
+            .map(_.getParameterTypes.map(_.getName).toList)
+        }
+      target.getConstructors
+        .find(c => signatures.contains(c.getParameterTypes.map(_.getName).toList))
+        .map(ProductPlan(clazz.getMethod("productElement", classOf[Int]), _))
+    }
+  }
+
+  private[this] def isProduct(clazz: Class[_]): Boolean = {
+    if (clazz == null || clazz == classOf[Object]) false
+    else {
+      clazz.getInterfaces.exists(i => i.getName == "scala.Product" || isProduct(i)) ||
+      isProduct(clazz.getSuperclass)
+    }
+  }
+
+  private[this] sealed trait Plan {
+    def convert(loader: ClassLoader, obj: Object, depth: Int): Object
+  }
+
+  private[this] object IdentityPlan extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = obj
+  }
+
+  private[this] object SerializePlan extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object =
+      serialize[Object](loader, obj)
+  }
+
+  private[this] case class EnumPlan(target: Class[_ <: Enum[_]]) extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object =
+      Enum.valueOf(target.asInstanceOf[Class[Nothing]], obj.asInstanceOf[Enum[_]].name())
+  }
+
+  private[this] case class ModulePlan(module: Object) extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = module
+  }
+
+  private[this] object MapPlan extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = {
+      val source = obj.asInstanceOf[util.Map[Object, Object]]
+      val target = obj.getClass.newInstance().asInstanceOf[util.Map[Object, Object]]
+      val iterator = source.entrySet().iterator()
+      while (iterator.hasNext) {
+        val entry = iterator.next()
+        target.put(
+          convertNode(loader, entry.getKey, depth + 1),
+          convertNode(loader, entry.getValue, depth + 1))
+      }
+      target
+    }
+  }
+
+  private[this] object CollectionPlan extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = {
+      val source = obj.asInstanceOf[util.Collection[Object]]
+      val target = obj.getClass.newInstance().asInstanceOf[util.Collection[Object]]
+      val iterator = source.iterator()
+      while (iterator.hasNext) {
+        target.add(convertNode(loader, iterator.next(), depth + 1))
+      }
+      target
+    }
+  }
+
+  private[this] object PrimitiveArrayPlan extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = {
+      val length = JavaArray.getLength(obj)
+      val target = JavaArray.newInstance(obj.getClass.getComponentType, length)
+      System.arraycopy(obj, 0, target, 0, length)
+      target
+    }
+  }
+
+  private[this] case class ArrayPlan(component: Class[_]) extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = {
+      val source = obj.asInstanceOf[Array[Object]]
+      val target = JavaArray.newInstance(component, source.length).asInstanceOf[Array[Object]]
+      for (i <- source.indices) {
+        target(i) = convertNode(loader, source(i), depth + 1)
+      }
+      target
+    }
+  }
+
+  private[this] case class ProductPlan(element: Method, constructor: Constructor[_]) extends Plan {
+    override def convert(loader: ClassLoader, obj: Object, depth: Int): Object = {
+      val args = new Array[Object](constructor.getParameterCount)
+      for (i <- args.indices) {
+        args(i) = convertNode(loader, element.invoke(obj, Int.box(i)), depth + 1)
+      }
+      constructor.newInstance(args: _*).asInstanceOf[Object]
+    }
+  }
+
+  /** A reusable buffer, read back without copying its bytes. */
+  private[this] class PooledByteArrayOutputStream extends ByteArrayOutputStream(4096) {
+
+    def capacity: Int = buf.length
+
+    def toInputStream: ByteArrayInputStream = new ByteArrayInputStream(buf, 0, count)
+  }
+
+}
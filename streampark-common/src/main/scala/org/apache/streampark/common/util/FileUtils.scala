@@ -24,10 +24,9 @@ import java.net.URL
 import java.nio.ByteBuffer
 import java.nio.channels.Channels
 import java.nio.charset.StandardCharsets
-import java.nio.file.{Files, Paths}
+import java.nio.file.Files
 import java.util
 import java.util.Scanner
-import java.util.stream.Collectors
 
 import scala.collection.mutable
 
@@ -258,13 +257,20 @@ object FileUtils {
     })
   }
 
+  // the line offset indexes of the recently viewed log files, keyed by the absolute path
+  private[this] val LINE_INDEXES = new util.LinkedHashMap[String, LineOffsetIndex](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: util.Map.Entry[String, LineOffsetIndex]): Boolean =
+      size() > 64
+  }
+
   /**
-   * Roll View Log.
+   * Roll View Log. The page is read from the nearest checkpoint of the line offset index of the
+   * file, see [[LineOffsetIndex]].
    *
    * @param path
    *   The file path.
    * @param offset
-   *   The offset.
+   *   The offset, a negative offset reads the last lines backward from the end of the file.
    * @param limit
    *   The limit.
    * @return
@@ -273,16 +279,17 @@ object FileUtils {
   def tailOf(path: String, offset: Int, limit: Int): String = {
     val file = new File(path)
     if (file.exists && file.isFile) {
-      Files
-        .lines(Paths.get(path))
-        .autoClose(stream =>
-          stream
-            .skip(offset)
-            .limit(limit)
-            .collect(Collectors.joining("\r\n")))
+      val lines =
+        if (offset < 0) lineIndexOf(file).lastLines(limit)
+        else lineIndexOf(file).lines(offset, limit)
+      String.join("\r\n", lines)
     } else null
   }
 
+  private[this] def lineIndexOf(file: File): LineOffsetIndex = LINE_INDEXES.synchronized {
+    LINE_INDEXES.computeIfAbsent(file.getAbsolutePath, _ => new LineOffsetIndex(file))
+  }
+
   @throws[IOException]
   def readString(file: File): String = {
     require(file != null && file.isFile)
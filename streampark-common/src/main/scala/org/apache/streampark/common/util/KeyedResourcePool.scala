@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import java.io.IOException
+import java.util
+import java.util.concurrent.{Executors, RejectedExecutionException, ScheduledExecutorService, TimeoutException, TimeUnit}
+import java.util.concurrent.atomic.LongAdder
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Failure, Success, Try}
+
+/**
+ * A pool of the shared resources by key, e.g. the clients of the clusters:
+ *   - A resource is shared by all the users of its key, it is counted by reference and closed
+ *     only when it is evicted and no longer in use.
+ *   - The resources idle for long are evicted, the least recently used idle resources are evicted
+ *     when the pool is full. The pool never blocks, the resources in use may exceed the size.
+ *   - A resource idle for a while is checked before use, a resource broken in use is discarded.
+ *
+ * @param name
+ *   the name of the pool
+ * @param create
+ *   create the resource of the key
+ * @param destroy
+ *   close the resource
+ * @param validate
+ *   check whether the resource is healthy
+ * @param maxSize
+ *   the max number of the resources kept
+ * @param maxIdleMillis
+ *   the idle time after which the resource is evicted
+ * @param validateIdleMillis
+ *   the idle time after which the resource is checked before use
+ * @param isBroken
+ *   whether the failure of a function breaks the resource used, any failure by default
+ */
+class KeyedResourcePool[K, V](
+    name: String,
+    create: K => V,
+    destroy: V => Unit,
+    validate: V => Boolean,
+    maxSize: Int,
+    maxIdleMillis: Long,
+    validateIdleMillis: Long,
+    isBroken: Throwable => Boolean = _ => true)
+  extends AutoCloseable
+  with Logger {
+
+  require(maxSize > 0, s"[StreamPark] $name: maxSize must be positive")
+
+  private[this] class Entry(val key: K) {
+    // guarded by the entry, set once the resource is created
+    var value: V = _
+    // guarded by the entries
+    var refCount = 0
+    var lastUsed: Long = System.currentTimeMillis()
+    var retired = false
+  }
+
+  // in access order, the eldest is the least recently used
+  private[this] val entries = new util.LinkedHashMap[K, Entry](16, 0.75f, true)
+
+  private[this] val hits = new LongAdder
+
+  private[this] val misses = new LongAdder
+
+  private[this] val evictions = new LongAdder
+
+  private[this] val failures = new LongAdder
+
+  private[this] val evictor: ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory(s"$name-evictor"))
+
+  private[this] val evictPeriod = math.max(1000L, maxIdleMillis / 2)
+
+  evictor.scheduleWithFixedDelay(
+    () => Try(evictIdle()).failed.foreach(e => logWarn(s"$name: evict idle resources failed: $e")),
+    evictPeriod,
+    evictPeriod,
+    TimeUnit.MILLISECONDS)
+
+  @volatile private[this] var closed = false
+
+  /**
+   * Run the function with the shared resource of the key, the resource is discarded if the function
+   * fails with a failure breaking it.
+   */
+  def use[T](key: K)(func: V => T): T = {
+    val entry = borrow(key)
+    var broken = false
+    try {
+      func(entry.value)
+    } catch {
+      case e: Throwable =>
+        broken = Try(isBroken(e)).getOrElse(true)
+        throw e
+    } finally {
+      release(entry, broken)
+    }
+  }
+
+  /** Discard the resource of the key, it is closed once no longer in use. */
+  def invalidate(key: K): Unit = {
+    val retired = entries.synchronized {
+      Option(entries.get(key)).filter(retire).toList
+    }
+    retired.foreach(destroyEntry)
+  }
+
+  /** Close the idle resources now, the resources in use are closed when released. */
+  override def close(): Unit = {
+    closed = true
+    evictor.shutdownNow()
+    val retired = entries.synchronized {
+      val all = new ArrayBuffer[Entry]()
+      entries.values().forEach(e => all += e)
+      all.filter(retire)
+    }
+    retired.foreach(destroyEntry)
+  }
+
+  /** The metrics of the pool, e.g. the hits and the resources in use. */
+  def getMetrics: Map[String, Long] = {
+    val (size, inUse) = entries.synchronized {
+      var inUse = 0L
+      entries.values().forEach(e => if (e.refCount > 0) inUse += 1)
+      entries.size().toLong -> inUse
+    }
+    Map(
+      "size" -> size,
+      "inUse" -> inUse,
+      "hits" -> hits.sum(),
+      "misses" -> misses.sum(),
+      "evictions" -> evictions.sum(),
+      "failures" -> failures.sum())
+  }
+
+  /** Evict the resources idle for longer than maxIdleMillis. */
+  def evictIdle(): Unit = {
+    val now = System.currentTimeMillis()
+    val retired = entries.synchronized {
+      val idle = new ArrayBuffer[Entry]()
+      entries.values().forEach(e => if (e.refCount == 0 && now - e.lastUsed >= maxIdleMillis) idle += e)
+      idle.filter(retire)
+    }
+    retired.foreach(destroyEntry)
+  }
+
+  private[this] def borrow(key: K): Entry = {
+    require(!closed, s"[StreamPark] $name is closed")
+    val overflow = new ArrayBuffer[Entry]()
+    val entry = entries.synchronized {
+      val entry = entries.get(key) match {
+        case null =>
+          misses.increment()
+          val entry = new Entry(key)
+          entries.put(key, entry)
+          // the least recently used idle entries over the size
+          val iterator = entries.values().iterator()
+          while (entries.size() - overflow.size > maxSize && iterator.hasNext) {
+            val eldest = iterator.next()
+            if (eldest.refCount == 0 && (eldest ne entry)) overflow += eldest
+          }
+          entry
+        case entry =>
+          hits.increment()
+          entry
+      }
+      entry.refCount += 1
+      overflow.foreach(retire)
+      entry
+    }
+    overflow.foreach(destroyEntry)
+
+    val usable = entry.synchronized {
+      if (entry.value == null) {
+        // the first user creates the resource, the others wait for it
+        Try(create(key)) match {
+          case Success(value) =>
+            entry.value = value
+            true
+          case Failure(e) =>
+            failures.increment()
+            release(entry, broken = true)
+            throw e
+        }
+      } else {
+        val idle = System.currentTimeMillis() - entry.lastUsed
+        idle < validateIdleMillis || Try(validate(entry.value)).getOrElse(false)
+      }
+    }
+    if (usable) entry
+    else {
+      logWarn(s"$name: the resource of $key is unhealthy, recreate it.")
+      failures.increment()
+      release(entry, broken = true)
+      borrow(key)
+    }
+  }
+
+  private[this] def release(entry: Entry, broken: Boolean): Unit = {
+    val destroyNow = entries.synchronized {
+      entry.refCount -= 1
+      entry.lastUsed = System.currentTimeMillis()
+      if (broken) retire(entry)
+      if (closed) retire(entry)
+      entry.retired && entry.refCount == 0
+    }
+    if (destroyNow) destroyEntry(entry)
+  }
+
+  /** Remove the entry from the pool, it should be destroyed if no longer in use. */
+  private[this] def retire(entry: Entry): Boolean = {
+    if (!entry.retired) {
+      entry.retired = true
+      entries.remove(entry.key, entry)
+      evictions.increment()
+    }
+    entry.refCount == 0
+  }
+
+  private[this] def destroyEntry(entry: Entry): Unit = entry.synchronized {
+    if (entry.value != null) {
+      Try(destroy(entry.value)).failed.foreach(e => logWarn(s"$name: close resource failed: $e"))
+      entry.value = null.asInstanceOf[V]
+    }
+  }
+
+}
+
+object KeyedResourcePool {
+
+  /**
+   * Whether the failure is caused by the connection or the rpc rather than the response, e.g. the
+   * client of a cluster is broken by a connection failure, but not by a job not found.
+   */
+  def isConnectionFailure(e: Throwable): Boolean = {
+    Iterator.iterate(e)(_.getCause).take(16).takeWhile(_ != null).exists {
+      case _: IOException | _: TimeoutException | _: RejectedExecutionException => true
+      case _ => false
+    }
+  }
+
+}
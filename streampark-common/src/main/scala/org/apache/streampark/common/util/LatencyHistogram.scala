@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.{AtomicLongArray, LongAdder}
+
+/**
+ * A lock-free histogram of the latencies, the latencies are counted in the buckets of the powers
+ * of 2 in microseconds, so the percentiles are accurate to a factor of 2.
+ */
+class LatencyHistogram extends Serializable {
+
+  // bucket i counts the latencies in [2^(i-1), 2^i) microseconds, the last one counts the rest
+  private[this] val buckets = new AtomicLongArray(LatencyHistogram.BUCKET_NUM)
+
+  private[this] val total = new LongAdder
+
+  private[this] val sum = new LongAdder
+
+  /** Record the latency in nanoseconds. */
+  def record(nanos: Long): Unit = {
+    val micros = math.max(0L, TimeUnit.NANOSECONDS.toMicros(nanos))
+    val bucket = math.min(64 - java.lang.Long.numberOfLeadingZeros(micros), LatencyHistogram.BUCKET_NUM - 1)
+    buckets.incrementAndGet(bucket)
+    total.increment()
+    sum.add(micros)
+  }
+
+  /** Record the latency of the function. */
+  def time[T](func: => T): T = {
+    val start = System.nanoTime()
+    try {
+      func
+    } finally {
+      record(System.nanoTime() - start)
+    }
+  }
+
+  def count: Long = total.sum()
+
+  /** The mean latency in microseconds. */
+  def mean: Long = {
+    val n = count
+    if (n == 0) 0 else sum.sum() / n
+  }
+
+  /**
+   * The upper bound of the latency in microseconds of the quantile.
+   *
+   * @param quantile
+   *   the quantile in [0, 1], e.g. 0.99
+   */
+  def percentile(quantile: Double): Long = {
+    val n = count
+    if (n == 0) 0
+    else {
+      val rank = math.max(1L, math.ceil(n * quantile).toLong)
+      var seen = 0L
+      var i = 0
+      while (i < LatencyHistogram.BUCKET_NUM - 1 && seen + buckets.get(i) < rank) {
+        seen += buckets.get(i)
+        i += 1
+      }
+      1L << i
+    }
+  }
+
+  /** The count, mean and percentiles in microseconds, named like `<name>.p99`. */
+  def toMetrics(name: String): List[(String, Long)] =
+    List(
+      s"$name.count" -> count,
+      s"$name.mean" -> mean,
+      s"$name.p50" -> percentile(0.5),
+      s"$name.p90" -> percentile(0.9),
+      s"$name.p99" -> percentile(0.99))
+
+  override def toString: String =
+    s"count: $count, mean: $mean us, p50: ${percentile(0.5)} us, p90: ${percentile(0.9)} us, p99: ${percentile(0.99)} us"
+
+}
+
+object LatencyHistogram {
+
+  // up to 2^40 microseconds, about 12 days
+  private val BUCKET_NUM = 42
+
+}
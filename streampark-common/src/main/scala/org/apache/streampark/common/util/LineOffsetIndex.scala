@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.util.Implicits._
+
+import java.io.{BufferedReader, File, InputStreamReader, RandomAccessFile}
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.attribute.BasicFileAttributes
+import java.util
+
+/**
+ * A sparse line offset index of a growing text file. The byte offset of every `interval` lines is
+ * recorded as a checkpoint, so that a page of lines is read from the nearest checkpoint rather than
+ * from the start of the file. The index is built lazily and only the appended bytes are scanned
+ * when the file grows. The index is rebuilt if the file was truncated, replaced or rewritten, a
+ * rewrite is detected by the modification time and by the last indexed bytes.
+ *
+ * The lines are split the same way as `Files.lines`, by `\n`, `\r` or `\r\n`.
+ *
+ * @param file
+ *   the file to index
+ * @param interval
+ *   the number of lines between two checkpoints
+ */
+class LineOffsetIndex(val file: File, val interval: Int = LineOffsetIndex.DEFAULT_INTERVAL) {
+
+  require(interval > 0, "The interval of checkpoints must be positive")
+
+  // the byte offset of the line (i * interval), only the first checkpointSize ones are valid
+  private[this] var checkpoints = new Array[Long](16)
+
+  private[this] var checkpointSize = 1
+
+  // the number of complete lines indexed
+  private[this] var indexedLines = 0L
+
+  // the byte offset right after the last complete line indexed
+  private[this] var indexedBytes = 0L
+
+  // the identity and the modification time of the file when it was indexed
+  private[this] var fileKey: AnyRef = _
+
+  private[this] var lastModified = 0L
+
+  // the last bytes indexed, a rewritten file is unlikely to have the same ones at the same offset
+  private[this] var tail = Array.emptyByteArray
+
+  /**
+   * Read the lines of the page, only the segment from the nearest checkpoint to the end of the page
+   * is read.
+   *
+   * @param offset
+   *   the index of the first line
+   * @param limit
+   *   the max number of lines
+   * @return
+   *   the lines of the page
+   */
+  def lines(offset: Long, limit: Int): util.List[String] = synchronized {
+    require(offset >= 0, s"The offset $offset must not be negative")
+    val result = new util.ArrayList[String]()
+    if (limit <= 0) {
+      return result
+    }
+    new RandomAccessFile(file, "r").autoClose(raFile => {
+      refresh(raFile)
+      val checkpoint = Math.min(offset / interval, checkpointSize - 1).toInt
+      raFile.seek(checkpoints(checkpoint))
+      val reader = new BufferedReader(
+        new InputStreamReader(Channels.newInputStream(raFile.getChannel), StandardCharsets.UTF_8))
+      var skip = offset - checkpoint.toLong * interval
+      var line = reader.readLine()
+      while (line != null && skip > 0) {
+        skip -= 1
+        line = reader.readLine()
+      }
+      while (line != null && result.size < limit) {
+        result.add(line)
+        if (result.size < limit) {
+          line = reader.readLine()
+        }
+      }
+      result
+    })
+  }
+
+  /**
+   * Read the last lines of the file backward from the end of the file, the index is not needed.
+   *
+   * @param limit
+   *   the max number of lines
+   * @return
+   *   the last lines in order
+   */
+  def lastLines(limit: Int): util.List[String] = {
+    val result = new util.ArrayList[String]()
+    if (limit <= 0) {
+      return result
+    }
+    new RandomAccessFile(file, "r").autoClose(raFile => {
+      val length = raFile.length()
+      var end = length
+      // a line terminator at the end of the file does not start an empty line
+      if (end > 0 && byteAt(raFile, end - 1) == '\n') end -= 1
+      if (end > 0 && byteAt(raFile, end - 1) == '\r') end -= 1
+
+      val buffer = new Array[Byte](LineOffsetIndex.BUFFER_SIZE)
+      var lineEnd = end
+      var position = end
+      // whether the byte after the current one is the \n of a \r\n pair
+      var afterLf = false
+      while (position > 0 && result.size < limit) {
+        val size = Math.min(buffer.length.toLong, position).toInt
+        position -= size
+        raFile.seek(position)
+        raFile.readFully(buffer, 0, size)
+        var i = size - 1
+        while (i >= 0 && result.size < limit) {
+          val b = buffer(i)
+          if (b == '\r' && afterLf) {
+            // the \r of a \r\n pair, the line has been taken
+            lineEnd = position + i
+          } else if (b == '\n' || b == '\r') {
+            result.add(readString(raFile, position + i + 1, lineEnd))
+            lineEnd = position + i
+          }
+          afterLf = b == '\n'
+          i -= 1
+        }
+      }
+      if (position == 0 && result.size < limit && length > 0) {
+        result.add(readString(raFile, 0, lineEnd))
+      }
+      util.Collections.reverse(result)
+      result
+    })
+  }
+
+  /** The number of complete lines indexed so far. */
+  def getIndexedLines: Long = synchronized(indexedLines)
+
+  /** The number of checkpoints of the index. */
+  def getCheckpointSize: Int = synchronized(checkpointSize)
+
+  /**
+   * Scan the bytes appended since the last scan, or rebuild the index if the file was truncated,
+   * replaced or rewritten.
+   */
+  private[this] def refresh(raFile: RandomAccessFile): Unit = {
+    val length = raFile.length()
+    val attributes = Files.readAttributes(file.toPath, classOf[BasicFileAttributes])
+    val modified = attributes.lastModifiedTime().toMillis
+    // a file modified without growing, or without the last indexed bytes, was rewritten
+    val rewritten = length < indexedBytes ||
+      (length == indexedBytes && modified != lastModified) ||
+      !tailMatches(raFile)
+    if (attributes.fileKey() != fileKey || rewritten) {
+      reset()
+    }
+    fileKey = attributes.fileKey()
+    lastModified = modified
+    if (length == indexedBytes) {
+      return
+    }
+    val channel = raFile.getChannel
+    val buffer = ByteBuffer.allocate(LineOffsetIndex.BUFFER_SIZE)
+    var position = indexedBytes
+    var lastByte: Int = -1
+    while (position < length) {
+      buffer.clear()
+      val read = channel.read(buffer, position)
+      if (read <= 0) {
+        position = length
+      } else {
+        var i = 0
+        while (i < read) {
+          val b = buffer.get(i)
+          if (b == '\n' && lastByte == '\r') {
+            // the \n of a \r\n pair, the line has been counted by the \r
+            indexedBytes = position + i + 1
+            if (indexedLines % interval == 0) checkpoints(checkpointSize - 1) = indexedBytes
+          } else if (b == '\n' || b == '\r') {
+            indexedLines += 1
+            indexedBytes = position + i + 1
+            if (indexedLines % interval == 0) addCheckpoint(indexedBytes)
+          }
+          lastByte = b
+          i += 1
+        }
+        position += read
+      }
+    }
+    // a trailing \r may be followed by a \n appended later, scan it again next time
+    if (lastByte == '\r' && indexedBytes == length) {
+      indexedLines -= 1
+      indexedBytes -= 1
+      if ((indexedLines + 1) % interval == 0) checkpointSize -= 1
+    }
+    tail = readBytes(raFile, Math.max(0L, indexedBytes - LineOffsetIndex.TAIL_SIZE), indexedBytes)
+  }
+
+  private[this] def reset(): Unit = {
+    checkpointSize = 1
+    indexedLines = 0L
+    indexedBytes = 0L
+    tail = Array.emptyByteArray
+  }
+
+  private[this] def addCheckpoint(offset: Long): Unit = {
+    if (checkpointSize == checkpoints.length) {
+      checkpoints = util.Arrays.copyOf(checkpoints, checkpointSize * 2)
+    }
+    checkpoints(checkpointSize) = offset
+    checkpointSize += 1
+  }
+
+  /** Whether the file still has the last indexed bytes at the same offset. */
+  private[this] def tailMatches(raFile: RandomAccessFile): Boolean = {
+    util.Arrays.equals(tail, readBytes(raFile, indexedBytes - tail.length, indexedBytes))
+  }
+
+  private[this] def byteAt(raFile: RandomAccessFile, position: Long): Int = {
+    raFile.seek(position)
+    raFile.read()
+  }
+
+  private[this] def readString(raFile: RandomAccessFile, start: Long, end: Long): String = {
+    new String(readBytes(raFile, start, end), StandardCharsets.UTF_8)
+  }
+
+  private[this] def readBytes(raFile: RandomAccessFile, start: Long, end: Long): Array[Byte] = {
+    val bytes = new Array[Byte]((end - start).toInt)
+    raFile.seek(start)
+    raFile.readFully(bytes)
+    bytes
+  }
+}
+
+object LineOffsetIndex {
+
+  val DEFAULT_INTERVAL = 1000
+
+  private val BUFFER_SIZE = 64 * 1024
+
+  private val TAIL_SIZE = 64
+
+}
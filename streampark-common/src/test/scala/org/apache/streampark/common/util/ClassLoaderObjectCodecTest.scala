@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.enums.FlinkDeployMode
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.File
+import java.net.URL
+import java.util
+
+class ClassLoaderObjectCodecTest extends AnyFunSuite {
+
+  // the classes of the tests and the main classes are loaded again by the child, except the codec
+  private lazy val childLoader = new ChildFirstClassLoader(
+    Array(classDir(classOf[CodecTestRequest]), classDir(classOf[FlinkDeployMode])),
+    getClass.getClassLoader,
+    List(ClassLoaderObjectCodec.getClass.getName.stripSuffix("$")),
+    _ => false)
+
+  private def classDir(clazz: Class[_]): URL =
+    clazz.getProtectionDomain.getCodeSource.getLocation
+
+  private def newRequest(id: Long): CodecTestRequest = {
+    val properties = new util.HashMap[String, Any]()
+    properties.put("parallelism", 2)
+    properties.put("checkpoint.interval", 60000L)
+    properties.put("mode", FlinkDeployMode.YARN_APPLICATION)
+    val jars = new util.ArrayList[URL]()
+    jars.add(new File(s"/tmp/jars/$id.jar").toURI.toURL)
+    CodecTestRequest(
+      id,
+      s"job-$id",
+      FlinkDeployMode.KUBERNETES_NATIVE_APPLICATION,
+      properties,
+      Array("--input", "kafka"),
+      Some("hdfs:///savepoints"),
+      CodecTestNested(jars, flag = true),
+      CodecTestDone)
+  }
+
+  private def element(obj: Object, i: Int): Object =
+    obj.getClass.getMethod("productElement", classOf[Int]).invoke(obj, Int.box(i))
+
+  test("case classes are rebuilt by the classes of the target loader") {
+    val request = newRequest(1)
+    val converted = ClassLoaderObjectCodec.convert[Object](childLoader, request)
+    assert(converted.getClass.getClassLoader eq childLoader)
+    assert(converted.getClass.getName == classOf[CodecTestRequest].getName)
+
+    // the enum is resolved by name to the enum of the child
+    val mode = element(converted, 2)
+    assert(mode.getClass.getClassLoader eq childLoader)
+    assert(mode.toString == FlinkDeployMode.KUBERNETES_NATIVE_APPLICATION.toString)
+    val properties = element(converted, 3).asInstanceOf[util.Map[String, Object]]
+    assert(properties.get("mode").getClass.getClassLoader eq childLoader)
+    assert(properties.get("parallelism") == 2)
+    // the nested case class and the state computed in the body
+    assert(element(converted, 6).getClass.getClassLoader eq childLoader)
+    assert(converted.getClass.getMethod("summary").invoke(converted) == request.summary)
+    // the scala object is the singleton of the child
+    assert(element(converted, 7) eq childLoader.loadClass(CodecTestDone.getClass.getName).getField("MODULE$").get(null))
+
+    // back to the classes of the parent, the same as the original
+    val back = ClassLoaderObjectCodec.convert[CodecTestRequest](getClass.getClassLoader, converted)
+    assert(back.args.sameElements(request.args))
+    assert(back.copy(args = request.args) == request)
+  }
+
+  test("shared immutable objects are passed as they are") {
+    val request = newRequest(1)
+    val converted = ClassLoaderObjectCodec.convert[Object](childLoader, request)
+    assert(element(converted, 1) eq request.name)
+    val jars = element(element(converted, 6), 0).asInstanceOf[util.List[URL]]
+    assert(jars ne request.nested.jars)
+    assert(jars.get(0) eq request.nested.jars.get(0))
+  }
+
+  test("the other objects fall back to java serialization") {
+    val list = List("a", "b")
+    assert(ClassLoaderObjectCodec.convert[List[String]](childLoader, list) == list)
+    assert(ClassLoaderObjectCodec.convert[Object](childLoader, null) == null)
+    val request = newRequest(2)
+    val serialized = ClassLoaderObjectCodec.serialize[Object](childLoader, request)
+    assert(serialized.getClass.getClassLoader eq childLoader)
+    val converted = ClassLoaderObjectCodec.convert[Object](childLoader, request)
+    assert(serialized.getClass eq converted.getClass)
+    assert(element(serialized, 5) == element(converted, 5))
+  }
+
+  test("case classes are rebuilt by their primary constructor") {
+    // the auxiliary constructor of the same arity must not be taken for the primary one
+    val auxiliary = CodecTestAuxiliary("name", 1)
+    val converted = ClassLoaderObjectCodec.convert[Object](childLoader, auxiliary)
+    assert(converted.getClass.getClassLoader eq childLoader)
+    assert(element(converted, 0) == "name")
+    assert(element(converted, 1) == 1)
+    assert(ClassLoaderObjectCodec.convert[CodecTestAuxiliary](getClass.getClassLoader, converted) == auxiliary)
+  }
+
+}
+
+case class CodecTestNested(jars: util.List[URL], flag: Boolean)
+
+case object CodecTestDone
+
+case class CodecTestAuxiliary(name: String, count: Int) {
+  def this(count: Int, name: String) = this(s"auxiliary-$name", count)
+}
+
+case class CodecTestRequest(
+    id: Long,
+    name: String,
+    mode: FlinkDeployMode,
+    properties: util.Map[String, Any],
+    args: Array[String],
+    savepoint: Option[String],
+    nested: CodecTestNested,
+    done: CodecTestDone.type) {
+
+  lazy val summary: String = s"$id-$name-$mode"
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.util.concurrent.{Callable, ConcurrentLinkedQueue, Executors}
+import java.util.concurrent.atomic.AtomicInteger
+
+class KeyedResourcePoolTest extends AnyFunSuite {
+
+  class Resource(val key: String, val id: Int) {
+    @volatile var closed = false
+    @volatile var healthy = true
+  }
+
+  class Fixture(
+      maxSize: Int = 8,
+      maxIdleMillis: Long = 60000L,
+      validateIdleMillis: Long = 60000L,
+      isBroken: Throwable => Boolean = _ => true) {
+    val created = new AtomicInteger()
+    val destroyed = new ConcurrentLinkedQueue[Resource]()
+    val pool = new KeyedResourcePool[String, Resource](
+      "test-pool",
+      key => new Resource(key, created.incrementAndGet()),
+      r => {
+        r.closed = true
+        destroyed.add(r)
+      },
+      _.healthy,
+      maxSize,
+      maxIdleMillis,
+      validateIdleMillis,
+      isBroken)
+  }
+
+  test("use should share one resource of a key among concurrent users") {
+    val f = new Fixture()
+    val times = 200
+    val executor = Executors.newFixedThreadPool(8)
+    try {
+      val tasks = (0 until times).map(_ =>
+        new Callable[Int] {
+          override def call(): Int = f.pool.use("a")(_.id)
+        })
+      executor.invokeAll(java.util.Arrays.asList(tasks: _*)).forEach(r => assert(r.get() == 1))
+    } finally {
+      executor.shutdownNow()
+    }
+    val metrics = f.pool.getMetrics
+    assert(f.created.get() == 1)
+    assert(metrics("misses") == 1)
+    assert(metrics("hits") == times - 1)
+    assert(metrics("inUse") == 0)
+    f.pool.close()
+  }
+
+  test("use should discard the resource if the function fails") {
+    val f = new Fixture()
+    val first = f.pool.use("a")(r => r)
+    assertThrows[IllegalStateException](f.pool.use("a")(_ => throw new IllegalStateException))
+    assert(first.closed)
+    val second = f.pool.use("a")(r => r)
+    assert(second ne first)
+    f.pool.close()
+  }
+
+  test("use should keep the resource if the failure does not break it") {
+    val f = new Fixture(isBroken = _.isInstanceOf[java.io.IOException])
+    val first = f.pool.use("a")(r => r)
+    assertThrows[IllegalArgumentException](f.pool.use("a")(_ => throw new IllegalArgumentException))
+    assert(!first.closed)
+    assert(f.pool.use("a")(r => r) eq first)
+    assertThrows[java.io.IOException](f.pool.use("a")(_ => throw new java.io.IOException))
+    assert(first.closed)
+    assert(f.pool.use("a")(r => r) ne first)
+    f.pool.close()
+  }
+
+  test("the resource should not be closed until released") {
+    val f = new Fixture()
+    f.pool.use("a") {
+      r =>
+        f.pool.invalidate("a")
+        assert(!r.closed)
+        // the others get a new one
+        assert(f.pool.use("a")(_.id) == 2)
+    }
+    assert(f.destroyed.size() == 1)
+    f.pool.close()
+  }
+
+  test("the least recently used idle resources should be evicted when the pool is full") {
+    val f = new Fixture(maxSize = 2)
+    f.pool.use("a")(_ => ())
+    f.pool.use("b")(_ => ())
+    f.pool.use("a")(_ => ())
+    f.pool.use("c")(_ => ())
+    assert(f.destroyed.size() == 1)
+    assert(f.destroyed.peek().key == "b")
+    assert(f.pool.getMetrics("size") == 2)
+    // the resources in use are never evicted
+    f.pool.use("a")(_ => f.pool.use("c")(_ => f.pool.use("d")(_ => assert(f.pool.getMetrics("size") == 3))))
+    f.pool.close()
+  }
+
+  test("evictIdle should close the resources idle for long") {
+    val f = new Fixture(maxIdleMillis = 50)
+    val resource = f.pool.use("a")(r => r)
+    Thread.sleep(100)
+    f.pool.evictIdle()
+    assert(resource.closed)
+    assert(f.pool.getMetrics("size") == 0)
+    f.pool.close()
+  }
+
+  test("the unhealthy idle resource should be recreated") {
+    val f = new Fixture(validateIdleMillis = 0)
+    val resource = f.pool.use("a")(r => r)
+    resource.healthy = false
+    assert(f.pool.use("a")(r => r) ne resource)
+    assert(resource.closed)
+    assert(f.pool.getMetrics("failures") == 1)
+    f.pool.close()
+  }
+
+  test("close should close the idle resources") {
+    val f = new Fixture()
+    val a = f.pool.use("a")(r => r)
+    val b = f.pool.use("b")(r => r)
+    f.pool.close()
+    assert(a.closed && b.closed)
+    assertThrows[IllegalArgumentException](f.pool.use("a")(_ => ()))
+  }
+
+  test("only the connection failures should break the resource") {
+    val f = new Fixture(isBroken = KeyedResourcePool.isConnectionFailure)
+    val resource = f.pool.use("a")(r => r)
+    assertThrows[IllegalStateException](f.pool.use("a")(_ => throw new IllegalStateException("job not found")))
+    assert(f.pool.use("a")(r => r) eq resource)
+    assertThrows[RuntimeException](
+      f.pool.use("a")(_ => throw new RuntimeException(new java.util.concurrent.TimeoutException())))
+    assert(resource.closed)
+    assert(f.pool.use("a")(r => r) ne resource)
+    f.pool.close()
+  }
+
+}
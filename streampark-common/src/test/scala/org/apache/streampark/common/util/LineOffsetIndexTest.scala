@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.util.Implicits._
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.{BufferedWriter, File, FileOutputStream, OutputStreamWriter}
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, StandardOpenOption}
+import java.util
+import java.util.stream.Collectors
+
+import scala.util.Random
+
+class LineOffsetIndexTest extends AnyFunSuite {
+
+  // chinese characters of 3 bytes in utf-8
+  private val MULTI_BYTE_TEXT = new String(Array(0x65e5, 0x5fd7), 0, 2)
+
+  private def withFile(content: String)(f: File => Unit): Unit = {
+    val file = File.createTempFile("line-offset-index", ".log")
+    try {
+      Files.write(file.toPath, content.getBytes(StandardCharsets.UTF_8))
+      f(file)
+    } finally {
+      file.delete()
+    }
+  }
+
+  private def expectedLines(file: File, offset: Long, limit: Int): util.List[String] =
+    Files
+      .lines(file.toPath)
+      .autoClose(_.skip(offset).limit(limit).collect(Collectors.toList[String]()))
+
+  private def randomContent(random: Random, lines: Int): String = {
+    val terminators = Array("\n", "\r", "\r\n")
+    val builder = new StringBuilder
+    for (i <- 0 until lines) {
+      builder.append(s"line-$i ").append(MULTI_BYTE_TEXT * random.nextInt(3))
+      if (random.nextInt(10) == 0) builder.append(terminators(random.nextInt(3)))
+      builder.append(terminators(random.nextInt(3)))
+    }
+    if (random.nextBoolean()) builder.append("partial")
+    builder.toString
+  }
+
+  test("lines should be the same as Files.lines at any offset") {
+    val random = new Random(42)
+    for (_ <- 0 until 20) {
+      withFile(randomContent(random, 500)) {
+        file =>
+          val index = new LineOffsetIndex(file, 7)
+          for (offset <- Seq(0, 1, 6, 7, 8, 100, 343, 499, 500, 520, 700)) {
+            for (limit <- Seq(1, 5, 50)) {
+              assert(index.lines(offset, limit) == expectedLines(file, offset, limit))
+            }
+          }
+      }
+    }
+  }
+
+  test("lastLines should be the same as the tail of Files.lines") {
+    val random = new Random(7)
+    for (_ <- 0 until 20) {
+      withFile(randomContent(random, 300)) {
+        file =>
+          val index = new LineOffsetIndex(file)
+          val total = expectedLines(file, 0, Int.MaxValue).size
+          for (limit <- Seq(1, 2, 10, 299, total, total + 10)) {
+            val skip = Math.max(0, total - limit)
+            assert(index.lastLines(limit) == expectedLines(file, skip, limit))
+          }
+      }
+    }
+  }
+
+  test("lastLines should handle the line terminators at the boundaries") {
+    for (content <- Seq("", "\n", "a", "a\n", "a\r\n", "\r\na", "a\n\r", "a\r\r\n", "\n\n")) {
+      withFile(content) {
+        file =>
+          val expected = expectedLines(file, 0, Int.MaxValue)
+          assert(new LineOffsetIndex(file).lastLines(10) == expected, s"content: $content")
+      }
+    }
+  }
+
+  test("the index should only scan the appended bytes and follow the truncated file") {
+    withFile("a\nb\r") {
+      file =>
+        val index = new LineOffsetIndex(file, 2)
+        assert(index.lines(0, 10) == util.Arrays.asList("a", "b"))
+        assert(index.getIndexedLines == 1)
+
+        // the \n after the trailing \r belongs to the same line terminator
+        Files.write(file.toPath, "\nc\nd\ne".getBytes, StandardOpenOption.APPEND)
+        assert(index.lines(0, 10) == expectedLines(file, 0, 10))
+        assert(index.lines(3, 10) == util.Arrays.asList("d", "e"))
+        assert(index.getIndexedLines == 4)
+        assert(index.getCheckpointSize == 3)
+
+        Files.write(file.toPath, "x\ny\n".getBytes)
+        assert(index.lines(1, 10) == util.Arrays.asList("y"))
+        assert(index.getIndexedLines == 2)
+    }
+  }
+
+  test("tailOf should read the page and the tail of the log") {
+    withFile((0 until 3000).map(i => s"line-$i").mkString("\n")) {
+      file =>
+        assert(FileUtils.tailOf(file.getAbsolutePath, 2998, 10) == "line-2998\r\nline-2999")
+        assert(FileUtils.tailOf(file.getAbsolutePath, -1, 2) == "line-2998\r\nline-2999")
+        assert(FileUtils.tailOf(file.getAbsolutePath + ".missing", 0, 2) == null)
+    }
+  }
+
+  test("the index should follow the file rewritten with the same or a larger size") {
+    withFile("a\nbb\nc\n") {
+      file =>
+        val index = new LineOffsetIndex(file, 2)
+        assert(index.lines(1, 10) == util.Arrays.asList("bb", "c"))
+
+        Files.write(file.toPath, "xy\nz\nw\n".getBytes)
+        assert(index.lines(1, 10) == util.Arrays.asList("z", "w"))
+
+        Files.write(file.toPath, "1\n22\n333\n4444\n".getBytes)
+        assert(index.lines(1, 10) == util.Arrays.asList("22", "333", "4444"))
+        assert(index.getIndexedLines == 4)
+    }
+  }
+
+  test("the pages of a large file should be read from the checkpoints") {
+    val file = File.createTempFile("line-offset-index-large", ".log")
+    try {
+      val lineNum = 500000
+      new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))
+        .autoClose(writer => {
+          for (i <- 0 until lineNum) {
+            writer.write(s"2024-01-01 00:00:00,000 INFO org.apache.streampark.Build - line $i\n")
+          }
+        })
+      val index = new LineOffsetIndex(file)
+      for (offset <- Seq(0, lineNum / 2, lineNum - 100)) {
+        assert(index.lines(offset, 100) == expectedLines(file, offset, 100))
+      }
+      assert(index.getIndexedLines == lineNum)
+      assert(index.getCheckpointSize == lineNum / LineOffsetIndex.DEFAULT_INTERVAL + 1)
+    } finally {
+      file.delete()
+    }
+  }
+
+}
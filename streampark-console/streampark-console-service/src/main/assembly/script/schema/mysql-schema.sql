@@ -262,6 +262,7 @@ create table `t_distributed_task` (
   `action` tinyint not null,
   `engine_type` tinyint not null,
   `properties` text collate utf8mb4_general_ci,
+  `server_id` varchar(128) collate utf8mb4_general_ci default null comment 'the server which claimed the task',
   primary key (`id`) using btree
 ) engine=innodb auto_increment=100000 default charset=utf8mb4 collate=utf8mb4_general_ci;
 
@@ -506,9 +506,11 @@ create table "public"."t_distributed_task"
     "id"                           int8 not null default nextval('streampark_t_distributed_task_id_seq'::regclass),
     "action"                       int2,
     "engine_type"                  int2,
-    "properties"                   text collate "pg_catalog"."default"
+    "properties"                   text collate "pg_catalog"."default",
+    "server_id"                    varchar(128) collate "pg_catalog"."default"
 )
 ;
+comment on column "public"."t_distributed_task"."server_id" is 'the server which claimed the task';
 alter table "public"."t_distributed_task" add constraint "t_distributed_task_pkey" primary key ("id");
 
 
@@ -98,23 +98,6 @@ public class AsyncExecutorPoolConfig extends AsyncConfigurerSupport {
             ThreadUtils.threadFactory("flink-cluster-watching-executor-"));
     }
 
-    /**
-     * Create a ThreadPoolExecutor for AppBuildPipeService.
-     *
-     * @return ExecutorService
-     */
-    @Bean("streamparkBuildPipelineExecutor")
-    public ExecutorService pipelineExecutor() {
-        return new ThreadPoolExecutor(
-            Runtime.getRuntime().availableProcessors() * 5,
-            Runtime.getRuntime().availableProcessors() * 10,
-            60L,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1024),
-            ThreadUtils.threadFactory("streampark-build-pipeline-executor"),
-            new ThreadPoolExecutor.AbortPolicy());
-    }
-
     /**
      * Create a ThreadPoolExecutor for FlinkClusterService.
      *
@@ -198,4 +181,21 @@ public class AsyncExecutorPoolConfig extends AsyncConfigurerSupport {
             new LinkedBlockingQueue<>(1024),
             ThreadUtils.threadFactory("streampark-distributed-task-"));
     }
+
+    /**
+     * Create a ThreadPoolExecutor for streaming the responses of ProxyService.
+     *
+     * @return Executor
+     */
+    @Bean("streamparkProxyStreamingExecutor")
+    public Executor proxyStreamingExecutor() {
+        return new ThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors() * 5,
+            Runtime.getRuntime().availableProcessors() * 10,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1024),
+            ThreadUtils.threadFactory("streampark-proxy-streaming-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
 }
@@ -17,17 +17,23 @@
 
 package org.apache.streampark.console.base.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.List;
 
+/**
+ * The hash ring is kept in sorted primitive arrays, the virtual node at index i has the hash
+ * hashes[i] and belongs to servers[owners[i]]. The ring is copied on write, so that the lookups are
+ * lock free and always see a complete ring.
+ */
 public class ConsistentHash<T> {
 
     // the number of virtual nodes for each server
     private final int numberOfReplicas = 2 << 16;
 
     // the hash ring of servers
-    private final SortedMap<Long, T> circle = new TreeMap<>();
+    private volatile Ring<T> ring = new Ring<>(new long[0], new int[0], new ArrayList<>());
 
     /**
      * Initialize the ConsistentHash with a collection of servers.
@@ -38,23 +44,68 @@ public class ConsistentHash<T> {
     }
 
     /**
-     * Add the virtual nodes of the server to the hash ring.
+     * Add the virtual nodes of the server to the hash ring, the virtual nodes of the server are
+     * merged into the ring without rehashing the other servers.
      * @param server the server to be added
      */
-    public void add(T server) {
-        for (int i = 0; i < numberOfReplicas; i++) {
-            circle.put(Murmur3Hash.hash64(server.toString() + i), server);
+    public synchronized void add(T server) {
+        Ring<T> current = ring;
+        if (current.servers.contains(server)) {
+            return;
+        }
+        long[] serverHashes = hashVirtualNodes(server);
+        Arrays.sort(serverHashes);
+
+        List<T> servers = new ArrayList<>(current.servers);
+        int serverIndex = servers.indexOf(null);
+        if (serverIndex < 0) {
+            serverIndex = servers.size();
+            servers.add(server);
+        } else {
+            servers.set(serverIndex, server);
+        }
+
+        long[] hashes = new long[current.hashes.length + serverHashes.length];
+        int[] owners = new int[hashes.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < current.hashes.length || j < serverHashes.length) {
+            // the existing virtual node goes first when the hashes collide
+            if (j == serverHashes.length || (i < current.hashes.length && current.hashes[i] <= serverHashes[j])) {
+                hashes[k] = current.hashes[i];
+                owners[k++] = current.owners[i++];
+            } else {
+                hashes[k] = serverHashes[j++];
+                owners[k++] = serverIndex;
+            }
         }
+        ring = new Ring<>(hashes, owners, servers);
     }
 
     /**
      * Remove the virtual nodes of the server from the hash ring.
      * @param server the server to be removed
      */
-    public void remove(T server) {
-        for (int i = 0; i < numberOfReplicas; i++) {
-            circle.remove(Murmur3Hash.hash64(server.toString() + i));
+    public synchronized void remove(T server) {
+        Ring<T> current = ring;
+        int serverIndex = current.servers.indexOf(server);
+        if (serverIndex < 0) {
+            return;
+        }
+        long[] hashes = new long[current.hashes.length - numberOfReplicas];
+        int[] owners = new int[hashes.length];
+        int k = 0;
+        for (int i = 0; i < current.hashes.length; i++) {
+            if (current.owners[i] != serverIndex) {
+                hashes[k] = current.hashes[i];
+                owners[k++] = current.owners[i];
+            }
         }
+        // keep the indexes of the other servers, the slot is reused by the next added server
+        List<T> servers = new ArrayList<>(current.servers);
+        servers.set(serverIndex, null);
+        ring = new Ring<>(hashes, owners, servers);
     }
 
     /**
@@ -63,15 +114,25 @@ public class ConsistentHash<T> {
      * @return the specified server
      */
     public T get(Object key) {
-        if (circle.isEmpty()) {
+        Ring<T> current = ring;
+        if (current.hashes.length == 0) {
             return null;
         }
         long hash = Murmur3Hash.hash64(key.toString());
-        if (!circle.containsKey(hash)) {
-            SortedMap<Long, T> tailMap = circle.tailMap(hash);
-            hash = tailMap.isEmpty() ? circle.firstKey() : tailMap.firstKey();
+        int index = Arrays.binarySearch(current.hashes, hash);
+        if (index < 0) {
+            // the first virtual node after the hash, wrap around to the first one at the end of the ring
+            index = -index - 1;
+            if (index == current.hashes.length) {
+                index = 0;
+            }
+        } else {
+            // the first one of the colliding virtual nodes
+            while (index > 0 && current.hashes[index - 1] == hash) {
+                index--;
+            }
         }
-        return circle.get(hash);
+        return current.servers.get(current.owners[index]);
     }
 
     /**
@@ -79,7 +140,49 @@ public class ConsistentHash<T> {
      * @return the size of the hash ring
      */
     public long getSize() {
-        return circle.size();
+        return ring.hashes.length;
     }
 
+    /**
+     * Hash the virtual nodes of the server, the virtual node i is hashed as the bytes of server + i
+     * which are built in a reused buffer rather than concatenating strings.
+     */
+    private long[] hashVirtualNodes(T server) {
+        byte[] prefix = server.toString().getBytes();
+        byte[] buffer = Arrays.copyOf(prefix, prefix.length + String.valueOf(numberOfReplicas).length());
+        long[] hashes = new long[numberOfReplicas];
+        for (int i = 0; i < numberOfReplicas; i++) {
+            int length = prefix.length;
+            int digits = stringSize(i);
+            for (int n = i, p = length + digits - 1; p >= length; n /= 10, p--) {
+                buffer[p] = (byte) ('0' + n % 10);
+            }
+            hashes[i] = Murmur3Hash.hash64(buffer, 0, length + digits);
+        }
+        return hashes;
+    }
+
+    private static int stringSize(int n) {
+        int size = 1;
+        while (n >= 10) {
+            n /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Ring<T> {
+
+        private final long[] hashes;
+
+        private final int[] owners;
+
+        private final List<T> servers;
+
+        private Ring(long[] hashes, int[] owners, List<T> servers) {
+            this.hashes = hashes;
+            this.owners = owners;
+            this.servers = servers;
+        }
+    }
 }
@@ -115,6 +115,13 @@ public class FlinkApplicationController {
         return RestResponse.success(dashboardMap);
     }
 
+    @PostMapping("watching")
+    @Permission(team = "#teamId")
+    public RestResponse watching(Long teamId) {
+        Map<String, Serializable> watchingMetrics = applicationInfoService.getWatchingMetrics(teamId);
+        return RestResponse.success(watchingMetrics);
+    }
+
     @PostMapping("list")
     @Permission(team = "#app.teamId")
     @RequiresPermissions("app:view")
@@ -22,6 +22,11 @@ import org.apache.streampark.console.core.annotation.Permission;
 import org.apache.streampark.console.core.bean.AppBuildDockerResolvedDetail;
 import org.apache.streampark.console.core.entity.ApplicationBuildPipeline;
 import org.apache.streampark.console.core.service.application.FlinkApplicationBuildPipelineService;
+import org.apache.streampark.flink.client.FlinkClient;
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever;
+import org.apache.streampark.flink.packer.maven.MavenTool;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
+import org.apache.streampark.flink.packer.pipeline.BuildScheduler;
 import org.apache.streampark.flink.packer.pipeline.DockerResolvedSnapshot;
 import org.apache.streampark.flink.packer.pipeline.PipelineTypeEnum;
 
@@ -32,6 +37,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
@@ -50,8 +56,10 @@ public class FlinkPipelineController {
     @Permission(app = "#appId")
     @PostMapping("build")
     @RequiresPermissions("app:create")
-    public RestResponse buildApplication(Long appId, boolean forceBuild) throws Exception {
-        boolean actionResult = appBuildPipeService.buildApplication(appId, forceBuild);
+    public RestResponse buildApplication(Long appId, boolean forceBuild,
+                                         @RequestParam(defaultValue = "INTERACTIVE") BuildPriorityEnum priority)
+        throws Exception {
+        boolean actionResult = appBuildPipeService.buildApplication(appId, forceBuild, priority);
         return RestResponse.success(actionResult);
     }
 
@@ -76,4 +84,51 @@ public class FlinkPipelineController {
         }
         return RestResponse.success(details);
     }
+
+    /**
+     * Get the position of the application building pipeline in the build queue.
+     *
+     * @param appId application id
+     * @return the position from 1, 0 if the pipeline is not queued
+     */
+    @PostMapping("queue_position")
+    @RequiresPermissions("app:view")
+    @Permission(app = "#appId")
+    public RestResponse getQueuePosition(Long appId) {
+        return RestResponse.success(appBuildPipeService.getQueuePosition(appId));
+    }
+
+    /**
+     * Cancel the queued or running application building pipeline.
+     *
+     * @param appId application id
+     * @return Whether the pipeline was canceled
+     */
+    @PostMapping("cancel")
+    @RequiresPermissions("app:create")
+    @Permission(app = "#appId")
+    public RestResponse cancelBuild(Long appId) {
+        return RestResponse.success(appBuildPipeService.cancelBuild(appId));
+    }
+
+    /**
+     * Get the metrics of the building pipelines, the submissions and the cluster clients.
+     *
+     * @return "fatJarCache" -> the hits and the misses of the fat-jar cache, "buildScheduler" -> the queued
+     *     and running builds, and the latencies of the builds waiting in the queue and running,
+     *     "flinkClient" -> the latencies of the phases of the flink client actions, e.g. submit.invoke,
+     *     "clusterClientPool" and "k8sClusterClientPool" -> the sizes, the clients in use, the hits and
+     *     the misses of the shared cluster clients of the job actions and of the kubernetes watchers
+     */
+    @PostMapping("metrics")
+    @RequiresPermissions("app:view")
+    public RestResponse getBuildMetrics() {
+        Map<String, Object> metrics = new HashMap<>(5);
+        metrics.put("fatJarCache", MavenTool.getFatJarCacheMetrics());
+        metrics.put("buildScheduler", BuildScheduler.shared().getMetrics());
+        metrics.put("flinkClient", FlinkClient.getMetrics());
+        metrics.put("clusterClientPool", FlinkClient.getClusterClientMetrics());
+        metrics.put("k8sClusterClientPool", KubernetesRetriever.getClusterClientMetrics());
+        return RestResponse.success(metrics);
+    }
 }
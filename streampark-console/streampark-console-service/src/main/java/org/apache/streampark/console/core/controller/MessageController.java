@@ -22,6 +22,7 @@ import org.apache.streampark.console.base.domain.RestResponse;
 import org.apache.streampark.console.core.entity.Message;
 import org.apache.streampark.console.core.enums.NoticeTypeEnum;
 import org.apache.streampark.console.core.service.MessageService;
+import org.apache.streampark.console.core.websocket.WebSocketEndpoint;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import lombok.extern.slf4j.Slf4j;
@@ -51,4 +52,9 @@ public class MessageController {
     public RestResponse delete(Long id) {
         return RestResponse.success(messageService.removeById(id));
     }
+
+    @PostMapping("websocket/metrics")
+    public RestResponse websocketMetrics() {
+        return RestResponse.success(WebSocketEndpoint.getMetrics());
+    }
 }
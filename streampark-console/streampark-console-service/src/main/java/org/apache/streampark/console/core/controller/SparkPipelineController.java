@@ -21,6 +21,7 @@ import org.apache.streampark.console.base.domain.RestResponse;
 import org.apache.streampark.console.core.annotation.Permission;
 import org.apache.streampark.console.core.entity.ApplicationBuildPipeline;
 import org.apache.streampark.console.core.service.application.SparkAplicationBuildPipelineService;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
 
 import org.apache.shiro.authz.annotation.RequiresPermissions;
 
@@ -29,6 +30,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
@@ -49,14 +51,16 @@ public class SparkPipelineController {
      *
      * @param appId application id
      * @param forceBuild forced start pipeline or not
+     * @param priority priority of the pipeline waiting in the build queue
      * @return Whether the pipeline was successfully started
      */
     @PostMapping("build")
     @RequiresPermissions("app:create")
     @Permission(app = "#appId")
-    public RestResponse buildApplication(Long appId, boolean forceBuild) {
+    public RestResponse buildApplication(Long appId, boolean forceBuild,
+                                         @RequestParam(defaultValue = "INTERACTIVE") BuildPriorityEnum priority) {
         try {
-            boolean actionResult = appBuildPipeService.buildApplication(appId, forceBuild);
+            boolean actionResult = appBuildPipeService.buildApplication(appId, forceBuild, priority);
             return RestResponse.success(actionResult);
         } catch (Exception e) {
             return RestResponse.success(false).message(e.getMessage());
@@ -78,4 +82,30 @@ public class SparkPipelineController {
         details.put("pipeline", pipeline.map(ApplicationBuildPipeline::toView).orElse(null));
         return RestResponse.success(details);
     }
+
+    /**
+     * Get the position of the application building pipeline in the build queue.
+     *
+     * @param appId application id
+     * @return the position from 1, 0 if the pipeline is not queued
+     */
+    @PostMapping("queue_position")
+    @RequiresPermissions("app:view")
+    @Permission(app = "#appId")
+    public RestResponse getQueuePosition(Long appId) {
+        return RestResponse.success(appBuildPipeService.getQueuePosition(appId));
+    }
+
+    /**
+     * Cancel the queued or running application building pipeline.
+     *
+     * @param appId application id
+     * @return Whether the pipeline was canceled
+     */
+    @PostMapping("cancel")
+    @RequiresPermissions("app:create")
+    @Permission(app = "#appId")
+    public RestResponse cancelBuild(Long appId) {
+        return RestResponse.success(appBuildPipeService.cancelBuild(appId));
+    }
 }
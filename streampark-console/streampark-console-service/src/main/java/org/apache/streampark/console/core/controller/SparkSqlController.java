@@ -125,7 +125,8 @@ public class SparkSqlController {
     }
 
     @PostMapping("sqlComplete")
-    public RestResponse getSqlComplete(@NotNull(message = "{required}") String sql) {
-        return RestResponse.success().put("word", sqlComplete.getComplete(sql));
+    @Permission(team = "#teamId")
+    public RestResponse getSqlComplete(@NotNull(message = "{required}") String sql, Long teamId) {
+        return RestResponse.success().put("word", sqlComplete.getComplete(teamId, sql));
     }
 }
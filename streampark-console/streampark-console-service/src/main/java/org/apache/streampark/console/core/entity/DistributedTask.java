@@ -44,4 +44,7 @@ public class DistributedTask implements Serializable {
 
     private String properties;
 
+    /** The server which claimed the task, null if the task is not claimed yet. */
+    private String serverId;
+
 }
@@ -17,6 +17,8 @@
 
 package org.apache.streampark.console.core.enums;
 
+import com.baomidou.mybatisplus.annotation.EnumValue;
+
 /**
  * The DistributedTaskEnum represents the possible actions that can be performed on a task.
  */
@@ -52,6 +54,7 @@ public enum DistributedTaskEnum {
      */
     FORCED_STOP(5);
 
+    @EnumValue
     private final int value;
 
     DistributedTaskEnum(int value) {
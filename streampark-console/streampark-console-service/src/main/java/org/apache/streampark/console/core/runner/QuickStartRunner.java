@@ -29,6 +29,7 @@ import org.apache.streampark.console.core.service.FlinkEnvService;
 import org.apache.streampark.console.core.service.FlinkSqlService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationBuildPipelineService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -98,7 +99,7 @@ public class QuickStartRunner implements ApplicationRunner {
             boolean success = applicationManageService.update(application);
             if (success) {
                 // 4) build application
-                appBuildPipeService.buildApplication(defaultId, false);
+                appBuildPipeService.buildApplication(defaultId, false, BuildPriorityEnum.BULK);
             }
         }
     }
@@ -55,6 +55,19 @@ public interface DistributedTaskService extends IService<DistributedTask> {
      */
     void removeServer(String serverId);
 
+    /**
+     * This interface wakes up the dispatcher to claim the newly saved tasks.
+     */
+    void wakeUpDispatcher();
+
+    /**
+     * Start a new claim epoch after the registry session of this server was lost, the tasks claimed
+     * in the previous epochs and not started yet are skipped, since the other servers have already
+     * released them.
+     * @param epoch the new epoch, e.g. the id of the new registry session
+     */
+    void renewEpoch(long epoch);
+
     /**
      * Determine whether the task is processed locally.
      *
@@ -225,6 +225,16 @@ public class FlinkCatalogBase {
         }
     }
 
+    public List<String> listFunctions(
+                                      String catalogName, Map<String, String> options, String databaseName) {
+        Catalog catalog = getCatalog(catalogName, options);
+        try {
+            return catalog.listFunctions(databaseName);
+        } catch (DatabaseNotExistException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public CatalogBaseTable getTable(
                                      String catalogName, Map<String, String> options, String databaseName,
                                      String tableName) {
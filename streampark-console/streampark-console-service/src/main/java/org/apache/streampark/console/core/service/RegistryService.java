@@ -28,4 +28,9 @@ public interface RegistryService {
      * Close the registry service.
      */
     void unRegister();
+
+    /**
+     * Notify all the online servers that new distributed tasks were saved.
+     */
+    void notifyDistributedTasks();
 }
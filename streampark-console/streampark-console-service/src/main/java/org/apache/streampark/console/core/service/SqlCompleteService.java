@@ -17,9 +17,60 @@
 
 package org.apache.streampark.console.core.service;
 
+import org.apache.streampark.console.core.enums.SqlIdentifierTypeEnum;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface SqlCompleteService {
 
-    List<String> getComplete(String sql);
+    /**
+     * Complete the last word of the sql, the identifiers are suggested from the catalogs of the team
+     * only.
+     *
+     * @param teamId the team of the caller
+     * @param sql the sql being typed
+     * @return the words completed
+     */
+    List<String> getComplete(Long teamId, String sql);
+
+    /**
+     * Add the words of the owner to the completion, a word is ranked by the number of its owners.
+     *
+     * @param teamId the team of the catalog
+     * @param type the type of the words
+     * @param owner the owner of the words, such as the database of the tables, or the table of the
+     *     columns
+     * @param words the words
+     */
+    void addWords(Long teamId, SqlIdentifierTypeEnum type, String owner, Collection<String> words);
+
+    /**
+     * Remove the words of the owner from the completion.
+     *
+     * @param teamId the team of the catalog
+     * @param type the type of the words
+     * @param owner the owner of the words
+     * @param words the words
+     */
+    void removeWords(Long teamId, SqlIdentifierTypeEnum type, String owner, Collection<String> words);
+
+    /**
+     * Replace all the words of the owner, such as the tables just listed from a database.
+     *
+     * @param teamId the team of the catalog
+     * @param type the type of the words
+     * @param owner the owner of the words
+     * @param words the current words of the owner, empty to remove all of them
+     */
+    void updateWords(Long teamId, SqlIdentifierTypeEnum type, String owner, Collection<String> words);
+
+    /**
+     * Remove all the words of the owner and of the owners under it, such as the functions and the
+     * tables of a dropped database, and the columns of its tables.
+     *
+     * @param teamId the team of the catalog
+     * @param owner the owner of the words
+     */
+    void removeOwner(Long teamId, String owner);
 }
@@ -161,6 +161,15 @@ public interface FlinkApplicationInfoService extends IService<FlinkApplication>
      */
     Map<String, Serializable> getDashboardDataMap(Long teamId);
 
+    /**
+     * Returns the watching metrics of the applications for the specified team, including the
+     * effective watching rate and the next watching time of each application.
+     *
+     * @param teamId the ID of the team
+     * @return a map containing the watching metrics
+     */
+    Map<String, Serializable> getWatchingMetrics(Long teamId);
+
     /**
      * Retrieves the Kubernetes start log for a specific ID with an optional offset and limit.
      *
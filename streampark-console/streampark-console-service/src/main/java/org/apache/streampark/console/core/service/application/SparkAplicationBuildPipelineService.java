@@ -18,6 +18,7 @@
 package org.apache.streampark.console.core.service.application;
 
 import org.apache.streampark.console.core.entity.ApplicationBuildPipeline;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
 import org.apache.streampark.flink.packer.pipeline.PipelineStatusEnum;
 
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -36,9 +37,11 @@ public interface SparkAplicationBuildPipelineService extends IService<Applicatio
      *
      * @param appId application id
      * @param forceBuild forced start pipeline or not
+     * @param priority priority of the pipeline waiting in the build queue
      * @return Whether the pipeline was successfully started
      */
-    boolean buildApplication(@Nonnull Long appId, boolean forceBuild) throws Exception;
+    boolean buildApplication(@Nonnull Long appId, boolean forceBuild,
+                             @Nonnull BuildPriorityEnum priority) throws Exception;
 
     /**
      * Get current build pipeline instance of specified application
@@ -70,4 +73,20 @@ public interface SparkAplicationBuildPipelineService extends IService<Applicatio
      * @param appId
      */
     void removeByAppId(Long appId);
+
+    /**
+     * Get the position of the building pipeline of the application in the build queue
+     *
+     * @param appId application id
+     * @return the position from 1, 0 if the pipeline is not queued
+     */
+    int getQueuePosition(@Nonnull Long appId);
+
+    /**
+     * Cancel the queued or running building pipeline of the application
+     *
+     * @param appId application id
+     * @return Whether the pipeline was canceled
+     */
+    boolean cancelBuild(@Nonnull Long appId);
 }
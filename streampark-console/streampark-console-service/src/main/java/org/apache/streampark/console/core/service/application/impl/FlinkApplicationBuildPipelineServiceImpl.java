@@ -58,10 +58,12 @@ import org.apache.streampark.console.core.service.application.FlinkApplicationIn
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
 import org.apache.streampark.console.core.util.ServiceHelper;
 import org.apache.streampark.console.core.watcher.FlinkAppHttpWatcher;
+import org.apache.streampark.console.core.websocket.WebSocketEndpoint;
 import org.apache.streampark.flink.packer.docker.DockerConf;
 import org.apache.streampark.flink.packer.maven.Artifact;
 import org.apache.streampark.flink.packer.maven.DependencyInfo;
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
 import org.apache.streampark.flink.packer.pipeline.BuildResult;
 import org.apache.streampark.flink.packer.pipeline.DockerBuildSnapshot;
 import org.apache.streampark.flink.packer.pipeline.DockerProgressWatcher;
@@ -90,7 +92,6 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -105,7 +106,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -154,9 +155,8 @@ public class FlinkApplicationBuildPipelineServiceImpl
     @Autowired
     private ResourceService resourceService;
 
-    @Qualifier("streamparkBuildPipelineExecutor")
-    @Autowired
-    private ExecutorService executorService;
+    /** The pipelines launched and not finished yet, by application id. */
+    private final Map<Long, BuildPipeline> launchedPipelines = new ConcurrentHashMap<>();
 
     private static final Cache<Long, DockerPullSnapshot> DOCKER_PULL_PG_SNAPSHOTS = Caffeine.newBuilder()
         .expireAfterWrite(30, TimeUnit.DAYS).build();
@@ -172,10 +172,12 @@ public class FlinkApplicationBuildPipelineServiceImpl
      *
      * @param appId      application id
      * @param forceBuild forced start pipeline or not
+     * @param priority   priority of the pipeline waiting in the build queue
      * @return Whether the pipeline was successfully started
      */
     @Override
-    public boolean buildApplication(@Nonnull Long appId, boolean forceBuild) {
+    public boolean buildApplication(@Nonnull Long appId, boolean forceBuild,
+                                    @Nonnull BuildPriorityEnum priority) {
         // check the build environment
         checkBuildEnv(appId, forceBuild);
 
@@ -222,6 +224,7 @@ public class FlinkApplicationBuildPipelineServiceImpl
                     ApplicationBuildPipeline buildPipeline = ApplicationBuildPipeline.fromPipeSnapshot(snapshot)
                         .setAppId(app.getId());
                     saveEntity(buildPipeline);
+                    WebSocketEndpoint.publishBuildProgress(app.getId(), "pipeline", buildPipeline.toView());
 
                     app.setRelease(ReleaseStateEnum.RELEASING.get());
                     applicationManageService.updateRelease(app);
@@ -307,6 +310,7 @@ public class FlinkApplicationBuildPipelineServiceImpl
                     ApplicationBuildPipeline buildPipeline = ApplicationBuildPipeline.fromPipeSnapshot(snapshot)
                         .setAppId(app.getId());
                     saveEntity(buildPipeline);
+                    WebSocketEndpoint.publishBuildProgress(app.getId(), "pipeline", buildPipeline.toView());
                 }
 
                 @Override
@@ -315,6 +319,7 @@ public class FlinkApplicationBuildPipelineServiceImpl
                         .setAppId(app.getId())
                         .setBuildResult(result);
                     saveEntity(buildPipeline);
+                    WebSocketEndpoint.publishBuildProgress(app.getId(), "pipeline", buildPipeline.toView());
                     if (result.pass()) {
                         // running job ...
                         if (app.isRunning()) {
@@ -383,8 +388,10 @@ public class FlinkApplicationBuildPipelineServiceImpl
         DOCKER_PULL_PG_SNAPSHOTS.invalidate(app.getId());
         DOCKER_BUILD_PG_SNAPSHOTS.invalidate(app.getId());
         DOCKER_PUSH_PG_SNAPSHOTS.invalidate(app.getId());
-        // async release pipeline
-        executorService.submit((Runnable) pipeline::launch);
+        // async release pipeline, queued in the build scheduler by the priority
+        launchedPipelines.put(app.getId(), pipeline);
+        pipeline.launchAsync(priority)
+            .whenComplete((result, e) -> launchedPipelines.remove(app.getId(), pipeline));
         return saved;
     }
 
@@ -397,16 +404,19 @@ public class FlinkApplicationBuildPipelineServiceImpl
                     @Override
                     public void onDockerPullProgressChange(DockerPullSnapshot snapshot) {
                         DOCKER_PULL_PG_SNAPSHOTS.put(app.getId(), snapshot);
+                        WebSocketEndpoint.publishBuildProgress(app.getId(), "dockerPull", snapshot);
                     }
 
                     @Override
                     public void onDockerBuildProgressChange(DockerBuildSnapshot snapshot) {
                         DOCKER_BUILD_PG_SNAPSHOTS.put(app.getId(), snapshot);
+                        WebSocketEndpoint.publishBuildProgress(app.getId(), "dockerBuild", snapshot);
                     }
 
                     @Override
                     public void onDockerPushProgressChange(DockerPushSnapshot snapshot) {
                         DOCKER_PUSH_PG_SNAPSHOTS.put(app.getId(), snapshot);
+                        WebSocketEndpoint.publishBuildProgress(app.getId(), "dockerPush", snapshot);
                     }
                 });
     }
@@ -660,6 +670,18 @@ public class FlinkApplicationBuildPipelineServiceImpl
         this.lambdaUpdate().eq(ApplicationBuildPipeline::getAppId, appId).remove();
     }
 
+    @Override
+    public int getQueuePosition(@Nonnull Long appId) {
+        BuildPipeline pipeline = launchedPipelines.get(appId);
+        return pipeline == null ? 0 : pipeline.getQueuePosition();
+    }
+
+    @Override
+    public boolean cancelBuild(@Nonnull Long appId) {
+        BuildPipeline pipeline = launchedPipelines.get(appId);
+        return pipeline != null && pipeline.cancel();
+    }
+
     /**
      * save or update build pipeline
      *
@@ -111,6 +111,9 @@ public class FlinkApplicationInfoServiceImpl extends ServiceImpl<FlinkApplicatio
     @Autowired
     private FlinkK8sWatcherWrapper flinkK8sWatcherWrapper;
 
+    @Autowired
+    private FlinkAppHttpWatcher flinkAppHttpWatcher;
+
     @Override
     public Map<String, Serializable> getDashboardDataMap(Long teamId) {
         JobsOverview.Task overview = new JobsOverview.Task();
@@ -167,6 +170,11 @@ public class FlinkApplicationInfoServiceImpl extends ServiceImpl<FlinkApplicatio
             overview, totalJmMemory, totalTmMemory, totalTm, availableSlot, totalSlot, runningJob);
     }
 
+    @Override
+    public Map<String, Serializable> getWatchingMetrics(Long teamId) {
+        return flinkAppHttpWatcher.getWatchingMetrics(teamId);
+    }
+
     private void renderJobsOverviewTaskByTask(JobsOverview.Task overview, JobsOverview.Task task) {
         overview.setTotal(overview.getTotal() + task.getTotal());
         overview.setCreated(overview.getCreated() + task.getCreated());
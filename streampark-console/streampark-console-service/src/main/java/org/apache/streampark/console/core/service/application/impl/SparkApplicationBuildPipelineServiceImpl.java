@@ -61,6 +61,7 @@ import org.apache.streampark.flink.packer.docker.DockerConf;
 import org.apache.streampark.flink.packer.maven.Artifact;
 import org.apache.streampark.flink.packer.maven.DependencyInfo;
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline;
+import org.apache.streampark.flink.packer.pipeline.BuildPriorityEnum;
 import org.apache.streampark.flink.packer.pipeline.BuildResult;
 import org.apache.streampark.flink.packer.pipeline.PipeWatcher;
 import org.apache.streampark.flink.packer.pipeline.PipelineSnapshot;
@@ -77,7 +78,6 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -92,7 +92,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.apache.streampark.console.core.enums.OperationEnum.RELEASE;
@@ -136,19 +136,20 @@ public class SparkApplicationBuildPipelineServiceImpl
     @Autowired
     private ResourceService resourceService;
 
-    @Qualifier("streamparkBuildPipelineExecutor")
-    @Autowired
-    private ExecutorService executorService;
+    /** The pipelines launched and not finished yet, by application id. */
+    private final Map<Long, BuildPipeline> launchedPipelines = new ConcurrentHashMap<>();
 
     /**
      * Build application. This is an async call method.
      *
      * @param appId application id
      * @param forceBuild forced start pipeline or not
+     * @param priority priority of the pipeline waiting in the build queue
      * @return Whether the pipeline was successfully started
      */
     @Override
-    public boolean buildApplication(@Nonnull Long appId, boolean forceBuild) {
+    public boolean buildApplication(@Nonnull Long appId, boolean forceBuild,
+                                    @Nonnull BuildPriorityEnum priority) {
         // check the build environment
         checkBuildEnv(appId, forceBuild);
 
@@ -337,8 +338,10 @@ public class SparkApplicationBuildPipelineServiceImpl
         ApplicationBuildPipeline buildPipeline =
             ApplicationBuildPipeline.initFromPipeline(pipeline).setAppId(app.getId());
         boolean saved = saveEntity(buildPipeline);
-        // async release pipeline
-        executorService.submit((Runnable) pipeline::launch);
+        // async release pipeline, queued in the build scheduler by the priority
+        launchedPipelines.put(app.getId(), pipeline);
+        pipeline.launchAsync(priority)
+            .whenComplete((result, e) -> launchedPipelines.remove(app.getId(), pipeline));
         return saved;
     }
 
@@ -502,6 +505,18 @@ public class SparkApplicationBuildPipelineServiceImpl
         this.lambdaUpdate().eq(ApplicationBuildPipeline::getAppId, appId).remove();
     }
 
+    @Override
+    public int getQueuePosition(@Nonnull Long appId) {
+        BuildPipeline pipeline = launchedPipelines.get(appId);
+        return pipeline == null ? 0 : pipeline.getQueuePosition();
+    }
+
+    @Override
+    public boolean cancelBuild(@Nonnull Long appId) {
+        BuildPipeline pipeline = launchedPipelines.get(appId);
+        return pipeline != null && pipeline.cancel();
+    }
+
     /**
      * save or update build pipeline
      *
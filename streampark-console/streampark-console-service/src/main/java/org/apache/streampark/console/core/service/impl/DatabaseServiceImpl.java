@@ -21,10 +21,12 @@ import org.apache.streampark.console.base.exception.AlertException;
 import org.apache.streampark.console.core.bean.DatabaseParam;
 import org.apache.streampark.console.core.entity.Database;
 import org.apache.streampark.console.core.entity.FlinkCatalog;
+import org.apache.streampark.console.core.enums.SqlIdentifierTypeEnum;
 import org.apache.streampark.console.core.mapper.DatabaseMapper;
 import org.apache.streampark.console.core.service.DatabaseService;
 import org.apache.streampark.console.core.service.FlinkCatalogBase;
 import org.apache.streampark.console.core.service.FlinkCatalogService;
+import org.apache.streampark.console.core.service.SqlCompleteService;
 
 import org.apache.flink.table.catalog.CatalogDatabase;
 import org.apache.flink.table.catalog.CatalogDatabaseImpl;
@@ -55,6 +57,8 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseMapper, Database>
     private FlinkCatalogService catalogService;
     @Autowired
     private FlinkCatalogBase flinkCatalogBase;
+    @Autowired
+    private SqlCompleteService sqlCompleteService;
 
     @Override
     public boolean databaseExists(DatabaseParam databaseParam) {
@@ -76,12 +80,20 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseMapper, Database>
         dbMap.put("cascade", String.valueOf(databaseParam.isCascade()));
         CatalogDatabase catalogDatabase =
             new CatalogDatabaseImpl(dbMap, databaseParam.getDescription());
-        return flinkCatalogBase.createDatabase(
+        boolean created = flinkCatalogBase.createDatabase(
             flinkCatalog.getCatalogName(),
             getOptions(flinkCatalog.getConfiguration()),
             databaseParam.getName(),
             catalogDatabase,
             databaseParam.isIgnoreIfExits());
+        if (created) {
+            sqlCompleteService.addWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.DATABASE,
+                flinkCatalog.getCatalogName(),
+                Collections.singletonList(databaseParam.getName()));
+        }
+        return created;
     }
 
     @Override
@@ -92,6 +104,11 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseMapper, Database>
         List<String> databases =
             flinkCatalogBase.listDatabases(
                 flinkCatalog.getCatalogName(), getOptions(flinkCatalog.getConfiguration()));
+        sqlCompleteService.updateWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.DATABASE,
+            flinkCatalog.getCatalogName(),
+            databases == null ? Collections.emptyList() : databases);
         if (databases == null || databases.isEmpty()) {
             return Collections.emptyList();
         }
@@ -118,6 +135,14 @@ public class DatabaseServiceImpl extends ServiceImpl<DatabaseMapper, Database>
             databaseParam.getName(),
             databaseParam.isCascade(),
             databaseParam.isIgnoreIfExits());
+        sqlCompleteService.removeWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.DATABASE,
+            flinkCatalog.getCatalogName(),
+            Collections.singletonList(databaseParam.getName()));
+        // the functions and the tables of the database, and the columns of the tables
+        sqlCompleteService.removeOwner(
+            flinkCatalog.getTeamId(), flinkCatalog.getCatalogName() + "." + databaseParam.getName());
         return true;
     }
 }
@@ -30,24 +30,33 @@ import org.apache.streampark.console.core.enums.DistributedTaskEnum;
 import org.apache.streampark.console.core.enums.EngineTypeEnum;
 import org.apache.streampark.console.core.mapper.DistributedTaskMapper;
 import org.apache.streampark.console.core.service.DistributedTaskService;
+import org.apache.streampark.console.core.service.RegistryService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationActionService;
 import org.apache.streampark.console.core.service.application.SparkApplicationActionService;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -66,10 +75,34 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Autowired
     private SparkApplicationActionService sparkApplicationActionService;
 
+    @Lazy
+    @Autowired
+    private RegistryService registryService;
+
+    private static final String CLAIM_SEPARATOR = "#";
+
+    /**
+     * The tasks are rescanned from scratch at least once per interval, in case a wakeup was missed.
+     */
+    private static final long RESCAN_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * The ids are allocated before the tasks are committed, so the high-water mark lags behind the
+     * scanned ids by this interval to pick up the tasks committed out of order.
+     */
+    private static final long SETTLE_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
     /**
      * Server Id
      */
-    private String serverId;
+    private String serverId = "standalone";
+
+    /**
+     * The claims are tagged with the server id and the epoch, a server only executes the tasks
+     * claimed in its current epoch, so the claims released after it lost its registry session are
+     * fenced off.
+     */
+    private volatile String claimToken = claimToken(serverId, System.currentTimeMillis());
 
     /**
      * Consistent hash algorithm for task distribution
@@ -81,6 +114,38 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
      */
     private final ConcurrentHashMap<Long, Boolean> runningTasks = new ConcurrentHashMap<>();
 
+    /**
+     * The completed tasks waiting to be deleted in batch
+     */
+    private final ConcurrentLinkedQueue<Long> completedTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether there may be new tasks to claim, set by wakeups and cleared by the dispatcher
+     */
+    private final AtomicBoolean pending = new AtomicBoolean(true);
+
+    /**
+     * Only the tasks above the high-water mark are scanned on wakeup, it is the max id scanned at
+     * least one settle interval ago
+     */
+    private volatile long highWaterMark = 0L;
+
+    /**
+     * The max id scanned since the last settle time, it becomes the high-water mark afterward
+     */
+    private volatile long settlingMark = 0L;
+
+    /**
+     * The max id scanned before the last settle time, it becomes the high-water mark on the next one
+     */
+    private volatile long settledMark = 0L;
+
+    private volatile long settleTime = 0L;
+
+    private volatile long lastRescanTime = 0L;
+
+    private volatile boolean recovered = false;
+
     /**
      * Initialize the consistent hash ring.
      * @param allServers All servers
@@ -88,35 +153,170 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
      */
     public void init(Set<String> allServers, String serverId) {
         this.serverId = serverId;
+        this.claimToken = claimToken(serverId, System.currentTimeMillis());
         for (String server : allServers) {
             consistentHash.add(server);
         }
+        this.recovered = false;
+        wakeUp(true);
     }
 
+    /**
+     * The dispatcher checks every 50ms whether it was woken up, the database is only queried after a
+     * wakeup, or once per rescan interval when idle.
+     */
     @Scheduled(fixedDelay = 50)
     public void pollDistributedTask() {
-        List<DistributedTask> distributedTaskList = this.list();
-        for (DistributedTask DistributedTask : distributedTaskList) {
-            long taskId = DistributedTask.getId();
-            if (DistributedTask.getEngineType() != EngineTypeEnum.FLINK || !isLocalProcessing(taskId)) {
-                continue;
+        long now = System.currentTimeMillis();
+        boolean rescan = now - lastRescanTime >= RESCAN_INTERVAL;
+        if (!pending.getAndSet(false) && !rescan && completedTasks.isEmpty()) {
+            return;
+        }
+        if (rescan) {
+            lastRescanTime = now;
+            highWaterMark = 0L;
+            settledMark = 0L;
+            settlingMark = 0L;
+            settleTime = now;
+        }
+        removeCompletedTasks();
+        if (!recovered) {
+            // the tasks claimed by this server in the previous epochs will never be completed, release them
+            releaseTasks(serverId, claimToken);
+            recovered = true;
+        }
+        claimDistributedTasks(now).forEach(distributedTask -> taskExecutor.execute(() -> dispatch(distributedTask)));
+    }
+
+    private void dispatch(DistributedTask distributedTask) {
+        boolean claimed = true;
+        try {
+            // the claim may have been released and taken over since this server lost its session
+            claimed = isClaimed(distributedTask.getId());
+            if (!claimed) {
+                log.warn("The claim of distributed task {} was released, skip it", distributedTask.getId());
+                return;
             }
-            if (runningTasks.putIfAbsent(taskId, true) == null) {
-                taskExecutor.execute(() -> {
-                    try {
-                        // Execute Distributed task
-                        executeDistributedTask(DistributedTask);
-                    } catch (Exception e) {
-                        log.error(e.getMessage(), e);
-                    } finally {
-                        runningTasks.remove(DistributedTask.getId());
-                        this.removeById(DistributedTask.getId());
-                    }
-                });
+            // Execute Distributed task
+            executeDistributedTask(distributedTask);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            runningTasks.remove(distributedTask.getId());
+            if (claimed) {
+                completedTasks.add(distributedTask.getId());
             }
         }
     }
 
+    private boolean isClaimed(Long taskId) {
+        return this.count(
+            new LambdaQueryWrapper<DistributedTask>()
+                .eq(DistributedTask::getId, taskId)
+                .eq(DistributedTask::getServerId, claimToken)) > 0;
+    }
+
+    /**
+     * Claim the unclaimed tasks above the high-water mark which are owned by this server.
+     *
+     * @param now the current time
+     * @return the tasks claimed by this server
+     */
+    private List<DistributedTask> claimDistributedTasks(long now) {
+        List<DistributedTask> distributedTaskList = this.list(
+            new LambdaQueryWrapper<DistributedTask>()
+                .select(DistributedTask::getId, DistributedTask::getEngineType)
+                .gt(DistributedTask::getId, highWaterMark)
+                .isNull(DistributedTask::getServerId)
+                .orderByAsc(DistributedTask::getId));
+        if (!distributedTaskList.isEmpty()) {
+            settlingMark = Math.max(
+                settlingMark, distributedTaskList.get(distributedTaskList.size() - 1).getId());
+        }
+        if (now - settleTime >= SETTLE_INTERVAL) {
+            highWaterMark = Math.max(highWaterMark, settledMark);
+            settledMark = settlingMark;
+            settleTime = now;
+        }
+        if (distributedTaskList.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> ownedTaskIds = distributedTaskList.stream()
+            .filter(task -> task.getEngineType() == EngineTypeEnum.FLINK)
+            .map(DistributedTask::getId)
+            .filter(taskId -> isLocalProcessing(taskId) && !runningTasks.containsKey(taskId))
+            .collect(Collectors.toList());
+        if (ownedTaskIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // the task is claimed by only one server even if the servers disagree on the owner
+        this.update(
+            new LambdaUpdateWrapper<DistributedTask>()
+                .set(DistributedTask::getServerId, claimToken)
+                .in(DistributedTask::getId, ownedTaskIds)
+                .isNull(DistributedTask::getServerId));
+        List<DistributedTask> claimedTasks = this.list(
+            new LambdaQueryWrapper<DistributedTask>()
+                .in(DistributedTask::getId, ownedTaskIds)
+                .eq(DistributedTask::getServerId, claimToken));
+        claimedTasks.forEach(task -> runningTasks.put(task.getId(), true));
+        return claimedTasks;
+    }
+
+    private void removeCompletedTasks() {
+        List<Long> taskIds = new ArrayList<>();
+        for (Long taskId = completedTasks.poll(); taskId != null; taskId = completedTasks.poll()) {
+            taskIds.add(taskId);
+        }
+        if (!taskIds.isEmpty()) {
+            this.removeByIds(taskIds);
+        }
+    }
+
+    /**
+     * Release the tasks claimed by the given server in any epoch except the given one, so that they
+     * can be claimed again.
+     *
+     * @param server the server id
+     * @param keptToken the claim token to keep, or null to release the claims of all the epochs
+     */
+    private void releaseTasks(String server, String keptToken) {
+        this.update(
+            new LambdaUpdateWrapper<DistributedTask>()
+                .set(DistributedTask::getServerId, null)
+                .likeRight(DistributedTask::getServerId, server + CLAIM_SEPARATOR)
+                .ne(keptToken != null, DistributedTask::getServerId, keptToken));
+    }
+
+    private static String claimToken(String server, long epoch) {
+        return server + CLAIM_SEPARATOR + Long.toHexString(epoch);
+    }
+
+    /**
+     * Wake up the dispatcher to claim the new tasks.
+     *
+     * @param rescan whether to rescan all the tasks rather than the tasks above the high-water mark
+     */
+    private void wakeUp(boolean rescan) {
+        if (rescan) {
+            lastRescanTime = 0L;
+        }
+        pending.set(true);
+    }
+
+    @Override
+    public void wakeUpDispatcher() {
+        wakeUp(false);
+    }
+
+    @Override
+    public void renewEpoch(long epoch) {
+        this.claimToken = claimToken(serverId, epoch);
+        this.recovered = false;
+        wakeUp(true);
+    }
+
     /**
      * This interface is responsible for polling the database to retrieve task records and execute the corresponding operations.
      * @param distributedTask distributedTask
@@ -180,6 +380,7 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Override
     public void addServer(String serverId) {
         consistentHash.add(serverId);
+        wakeUp(true);
     }
 
     /**
@@ -190,6 +391,9 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Override
     public void removeServer(String serverId) {
         consistentHash.remove(serverId);
+        // the removed server no longer executes the tasks claimed in its epoch, see renewEpoch
+        releaseTasks(serverId, null);
+        wakeUp(true);
     }
 
     /**
@@ -226,6 +430,10 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
                 return;
             }
             this.save(distributedTask);
+            wakeUpDispatcher();
+            if (WebUtils.isHaEnable()) {
+                registryService.notifyDistributedTasks();
+            }
         } catch (JsonProcessingException e) {
             log.error("Failed to save Distributed task: {}", e.getMessage());
         }
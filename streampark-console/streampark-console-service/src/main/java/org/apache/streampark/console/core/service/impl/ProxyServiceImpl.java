@@ -31,35 +31,51 @@ import org.apache.streampark.flink.kubernetes.FlinkK8sWatcher;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.DefaultResponseErrorHandler;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -74,22 +90,62 @@ public class ProxyServiceImpl implements ProxyService {
     @Autowired
     private FlinkK8sWatcherWrapper k8sWatcherWrapper;
 
-    private final RestTemplate proxyRestTemplate;
+    @Qualifier("streamparkProxyStreamingExecutor")
+    @Autowired
+    private Executor proxyStreamingExecutor;
+
+    // the max concurrent requests to one upstream, the requests beyond it wait for a free connection
+    private static final int MAX_CONNECTIONS_PER_UPSTREAM = 20;
+
+    private static final int MAX_CONNECTIONS = 200;
+
+    // the time to wait for a free connection of the upstream before responding 503
+    private static final int CONNECTION_REQUEST_TIMEOUT = 10_000;
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    private static final int SOCKET_TIMEOUT = 60_000;
+
+    // the buffer size used to copy the response body from upstream to client
+    private static final int BUFFER_SIZE = 8192;
+
+    // a proxied large file, such as a TaskManager log, may take a long time to download
+    private static final long STREAMING_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    private static final Object STREAMING_INTERCEPTOR_KEY = ProxyServiceImpl.class.getName() + ".streaming";
+
+    // the connection level headers which are not forwarded, see RFC 7230 section 6.1
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(
+        Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length"));
+
+    /** The keep-alive connections to the upstreams are pooled and shared by all the proxy clients. */
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final RequestConfig requestConfig;
+
+    private volatile CloseableHttpClient proxyHttpClient;
 
     private String httpAuthUsername = "";
 
-    public ProxyServiceImpl(RestTemplateBuilder restTemplateBuilder) {
-        this.proxyRestTemplate =
-            restTemplateBuilder
-                .errorHandler(
-                    new DefaultResponseErrorHandler() {
-
-                        @Override
-                        public void handleError(@Nonnull ClientHttpResponse response) {
-                            // Ignore errors in the Flink Web UI itself, such as 404 errors.
-                        }
-                    })
-                .build();
+    public ProxyServiceImpl() {
+        this.connectionManager = new PoolingHttpClientConnectionManager(5, TimeUnit.MINUTES);
+        this.connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        this.connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_UPSTREAM);
+        this.requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT)
+            .setConnectTimeout(CONNECT_TIMEOUT)
+            .setSocketTimeout(SOCKET_TIMEOUT)
+            .setRedirectsEnabled(false)
+            .build();
+        this.proxyHttpClient = buildHttpClient(null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        proxyHttpClient.close();
+        connectionManager.close();
     }
 
     @Override
@@ -196,52 +252,100 @@ public class ProxyServiceImpl implements ProxyService {
         }
     }
 
-    private HttpEntity<?> getRequestEntity(HttpServletRequest request, String url) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            headers.set(headerName, request.getHeader(headerName));
-        }
-
-        // Ensure the Host header is set correctly.
-        URI uri = new URI(url);
-        headers.set("Host", uri.getHost());
-        byte[] body = null;
-        if (request.getInputStream().available() > 0) {
-            InputStream inputStream = request.getInputStream();
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            IOUtils.copy(inputStream, byteArrayOutputStream);
-            body = byteArrayOutputStream.toByteArray();
-        }
-        return new HttpEntity<>(body, headers);
-    }
-
     private ResponseEntity<?> proxyRequest(HttpServletRequest request, String url) throws Exception {
-        return proxy(request, url, getRequestEntity(request, url));
+        return proxy(request, url);
     }
 
     private ResponseEntity<?> proxyYarnRequest(HttpServletRequest request, String url) throws Exception {
         if (YarnUtils.hasYarnHttpKerberosAuth()) {
             UserGroupInformation ugi = HadoopUtils.getUgi();
-            HttpEntity<?> requestEntity = getRequestEntity(request, url);
-            setRestTemplateCredentials(ugi.getShortUserName());
-            return ugi.doAs(
-                (PrivilegedExceptionAction<ResponseEntity<?>>) () -> proxy(request, url, requestEntity));
+            setHttpClientCredentials(ugi.getShortUserName());
+            return ugi.doAs((PrivilegedExceptionAction<ResponseEntity<?>>) () -> proxy(request, url));
         } else {
             return proxyRequest(request, url);
         }
     }
 
-    private ResponseEntity<?> proxy(
-                                    HttpServletRequest request, String url, HttpEntity<?> requestEntity) {
+    /**
+     * Forward the request to the upstream, the request and response bodies are streamed rather than
+     * buffered in memory. The upstream connection is held until the response body is copied to the
+     * client, and then released to the pool for reuse.
+     */
+    private ResponseEntity<?> proxy(HttpServletRequest request, String url) throws Exception {
+        CloseableHttpResponse response;
         try {
-            return proxyRestTemplate.exchange(
-                url, HttpMethod.valueOf(request.getMethod()), requestEntity, byte[].class);
-        } catch (RestClientException e) {
+            response = proxyHttpClient.execute(getProxyRequest(request, url));
+        } catch (ConnectionPoolTimeoutException e) {
+            log.warn("Proxy url: {} failed, too many concurrent requests to the upstream.", url);
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
             log.error("Proxy url: {} failed. ", url, e);
             return new ResponseEntity<>(HttpStatus.BAD_GATEWAY);
         }
+
+        // Errors in the Flink Web UI itself, such as 404 errors, are forwarded as they are.
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getName().toLowerCase())) {
+                headers.add(header.getName(), header.getValue());
+            }
+        }
+        int statusCode = response.getStatusLine().getStatusCode();
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            response.close();
+            return ResponseEntity.status(statusCode).headers(headers).build();
+        }
+        // the response is chunked unless the upstream knows the length of the body
+        if (entity.getContentLength() >= 0) {
+            headers.setContentLength(entity.getContentLength());
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (CloseableHttpResponse ignored = response; InputStream inputStream = entity.getContent()) {
+                IOUtils.copyLarge(inputStream, outputStream, new byte[BUFFER_SIZE]);
+            }
+        };
+        configureStreaming(request);
+        return ResponseEntity.status(statusCode).headers(headers).body(body);
+    }
+
+    /**
+     * The response body of this request is written by the bounded streaming executor with a long
+     * timeout, the other async requests keep the default executor and timeout.
+     */
+    private void configureStreaming(HttpServletRequest request) {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setTaskExecutor(new TaskExecutorAdapter(proxyStreamingExecutor));
+        asyncManager.registerCallableInterceptor(STREAMING_INTERCEPTOR_KEY, new CallableProcessingInterceptor() {
+
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                // called before the async processing is started, when the timeout is still applicable
+                ((AsyncWebRequest) webRequest).setTimeout(STREAMING_TIMEOUT);
+            }
+        });
+    }
+
+    private HttpUriRequest getProxyRequest(HttpServletRequest request, String url) throws Exception {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod())
+            .setUri(new URI(url))
+            .setConfig(requestConfig);
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            // the Range and If-Range headers are forwarded, so that the upstream serves the partial content
+            if (!HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase())) {
+                Enumeration<String> values = request.getHeaders(headerName);
+                while (values.hasMoreElements()) {
+                    builder.addHeader(headerName, values.nextElement());
+                }
+            }
+        }
+        // the Host header is set by the http client from the url
+        if (request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null) {
+            builder.setEntity(new InputStreamEntity(request.getInputStream(), request.getContentLengthLong()));
+        }
+        return builder.build();
     }
 
     private String getRequestURL(HttpServletRequest request, String replaceString) {
@@ -251,26 +355,33 @@ public class ProxyServiceImpl implements ProxyService {
         return url.replace(replaceString, "");
     }
 
+    private CloseableHttpClient buildHttpClient(String username) {
+        HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setConnectionManagerShared(true)
+            .setDefaultRequestConfig(requestConfig)
+            .disableContentCompression()
+            .disableRedirectHandling();
+        if (username != null) {
+            // Add the username and password for HTTP basic authentication
+            BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(
+                AuthScope.ANY, new UsernamePasswordCredentials(username, null));
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        return builder.build();
+    }
+
     /**
-    * Configures the RestTemplate's HttpClient connector. This method is primarily used to configure
-    * the HttpClient authentication information and SSL certificate validation policies.
+    * Configures the HttpClient authentication information, the connection pool is shared by the http
+    * clients of all the users.
     *
     * @param username The username for HTTP basic authentication.
     */
-    private void setRestTemplateCredentials(String username) {
+    private synchronized void setHttpClientCredentials(String username) {
         // Check if the username is not null and has changed since the last configuration
         if (username != null && !this.httpAuthUsername.equals(username)) {
-            // Create a new credentials provider
-            BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            // Add the username and password for HTTP basic authentication
-            credentialsProvider.setCredentials(
-                AuthScope.ANY, new UsernamePasswordCredentials(username, null));
-            // Customize the HttpClient with the credentials provider
-            CloseableHttpClient httpClient =
-                HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
-            // Set the HttpClient request factory for the RestTemplate
-            this.proxyRestTemplate.setRequestFactory(
-                new HttpComponentsClientHttpRequestFactory(httpClient));
+            this.proxyHttpClient = buildHttpClient(username);
             // Update the last known username
             this.httpAuthUsername = username;
         }
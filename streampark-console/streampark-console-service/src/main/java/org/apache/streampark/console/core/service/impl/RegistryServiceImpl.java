@@ -20,6 +20,8 @@ package org.apache.streampark.console.core.service.impl;
 import org.apache.streampark.common.util.SystemPropertyUtils;
 import org.apache.streampark.console.core.service.DistributedTaskService;
 import org.apache.streampark.console.core.service.RegistryService;
+import org.apache.streampark.console.core.watcher.FlinkAppHttpWatcher;
+import org.apache.streampark.console.core.watcher.SparkAppHttpWatcher;
 
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
@@ -30,6 +32,7 @@ import org.apache.zookeeper.data.Stat;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.net.InetAddress;
@@ -47,17 +50,22 @@ import static org.apache.zookeeper.ZooDefs.Ids.OPEN_ACL_UNSAFE;
 public class RegistryServiceImpl implements RegistryService {
 
     private static final String REGISTRY_PATH = "/services";
+    private static final String TASK_NOTIFY_PATH = "/tasks";
     private static final int HEARTBEAT_INTERVAL = 10000;
     private static final int HEARTBEAT_TIMEOUT = 60000;
 
     private String zkAddress;
     private ZooKeeper zk;
     private String nodePath;
+    private String serverId;
 
     private final Watcher watcher = event -> {
         if (event.getType() == Watcher.Event.EventType.NodeChildrenChanged
             && event.getPath().equals(REGISTRY_PATH)) {
             handleNodeChanges();
+        } else if (event.getType() == Watcher.Event.EventType.NodeDataChanged
+            && event.getPath().equals(TASK_NOTIFY_PATH)) {
+            handleTaskNotify();
         }
     };
 
@@ -67,6 +75,14 @@ public class RegistryServiceImpl implements RegistryService {
     @Autowired
     private DistributedTaskService distributedTaskService;
 
+    @Lazy
+    @Autowired
+    private FlinkAppHttpWatcher flinkAppHttpWatcher;
+
+    @Lazy
+    @Autowired
+    private SparkAppHttpWatcher sparkAppHttpWatcher;
+
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
 
     public void registry() {
@@ -76,14 +92,18 @@ public class RegistryServiceImpl implements RegistryService {
             if (zk.exists(REGISTRY_PATH, false) == null) {
                 zk.create(REGISTRY_PATH, new byte[0], OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
             }
+            if (zk.exists(TASK_NOTIFY_PATH, false) == null) {
+                zk.create(TASK_NOTIFY_PATH, new byte[0], OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            }
 
             String ip = InetAddress.getLocalHost().getHostAddress();
             String port = SystemPropertyUtils.get("server.port", "10000");
-            String server_id = ip + ":" + port;
-            nodePath = zk.create(REGISTRY_PATH + "/" + server_id, new byte[0],
+            serverId = ip + ":" + port;
+            nodePath = zk.create(REGISTRY_PATH + "/" + serverId, new byte[0],
                 OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
 
-            currentNodes.add(nodePath);
+            // the servers are identified by the node name, the same as the children of REGISTRY_PATH
+            currentNodes.add(serverId);
 
             doRegister();
         } catch (Exception e) {
@@ -93,10 +113,15 @@ public class RegistryServiceImpl implements RegistryService {
 
     public void doRegister() {
         try {
-            distributedTaskService.init(currentNodes, nodePath);
+            distributedTaskService.init(currentNodes, serverId);
+            distributedTaskService.renewEpoch(zk.getSessionId());
             startHeartbeat();
             startHeartbeatChecker();
-            handleNodeChanges();
+            if (!handleNodeChanges()) {
+                // the apps were loaded before this server joined the ring, take over the owned ones
+                rebalanceWatchers();
+            }
+            handleTaskNotify();
             log.info("ZooKeeper client started: {}", nodePath);
         } catch (Exception e) {
             log.error("Failed to start ZooKeeper client", e);
@@ -141,27 +166,47 @@ public class RegistryServiceImpl implements RegistryService {
         }, HEARTBEAT_TIMEOUT, HEARTBEAT_TIMEOUT, TimeUnit.MILLISECONDS);
     }
 
-    private synchronized void handleNodeChanges() {
+    /**
+     * Update the consistent hash ring with the online servers, and rebalance the watching apps if the
+     * servers changed.
+     *
+     * @return whether the servers changed
+     */
+    private synchronized boolean handleNodeChanges() {
         try {
             List<String> nodes = zk.getChildren(REGISTRY_PATH, true);
             Set<String> newNodes = new HashSet<>(nodes);
+            boolean changed = false;
 
             for (String node : newNodes) {
                 if (!currentNodes.contains(node)) {
                     log.info("Node added: {}", node);
                     distributedTaskService.addServer(node);
+                    changed = true;
                 }
             }
 
+            if (!newNodes.contains(serverId)) {
+                // this server was taken as dead and its tasks were released, register again in a new epoch
+                log.warn("Node {} was removed from the registry, registering again", serverId);
+                scheduler.execute(this::reconnectAndRegister);
+                newNodes.add(serverId);
+            }
+
             for (String node : currentNodes) {
                 if (!newNodes.contains(node)) {
                     log.info("Node removed: {}", node);
                     distributedTaskService.removeServer(node);
+                    changed = true;
                 }
             }
 
             currentNodes = newNodes;
             log.info("Online servers: {}", currentNodes);
+            if (changed) {
+                rebalanceWatchers();
+            }
+            return changed;
         } catch (KeeperException e) {
             log.info("Zookeeper session expired, attempting to reconnect...");
             reconnectAndRegister();
@@ -169,6 +214,53 @@ public class RegistryServiceImpl implements RegistryService {
             Thread.currentThread().interrupt();
             log.error("Failed to handle node changes", e);
         }
+        return false;
+    }
+
+    /**
+     * Hand over the watching apps whose owner changed, off the ZooKeeper event thread.
+     */
+    private void rebalanceWatchers() {
+        scheduler.execute(() -> {
+            try {
+                flinkAppHttpWatcher.rebalance();
+                sparkAppHttpWatcher.rebalance();
+            } catch (Exception e) {
+                log.error("Failed to rebalance the watching apps", e);
+            }
+        });
+    }
+
+    /**
+     * Wake up the task dispatcher and watch the next notification, the watch is one-time trigger.
+     */
+    private void handleTaskNotify() {
+        distributedTaskService.wakeUpDispatcher();
+        try {
+            zk.exists(TASK_NOTIFY_PATH, true);
+        } catch (KeeperException e) {
+            log.info("Zookeeper session expired, attempting to reconnect...");
+            reconnectAndRegister();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Failed to watch task notifications", e);
+        }
+    }
+
+    @Override
+    public void notifyDistributedTasks() {
+        if (zk == null) {
+            return;
+        }
+        try {
+            zk.setData(TASK_NOTIFY_PATH, new byte[0], -1);
+        } catch (KeeperException e) {
+            // the servers will still pick up the task on their next rescan
+            log.warn("Failed to notify distributed tasks", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Failed to notify distributed tasks", e);
+        }
     }
 
     private void reconnectAndRegister() {
@@ -178,6 +270,9 @@ public class RegistryServiceImpl implements RegistryService {
                 zk.close();
                 zk = new ZooKeeper(zkAddress, HEARTBEAT_TIMEOUT, watcher);
                 zk.create(nodePath, new byte[0], OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+                // the other servers may have released the tasks claimed in the previous session
+                distributedTaskService.renewEpoch(zk.getSessionId());
+                zk.exists(TASK_NOTIFY_PATH, true);
                 return;
             } catch (Exception e) {
                 retries--;
@@ -17,9 +17,13 @@
 
 package org.apache.streampark.console.core.service.impl;
 
-import org.apache.streampark.common.util.AssertUtils;
+import org.apache.streampark.console.base.exception.AlertException;
+import org.apache.streampark.console.core.enums.SqlIdentifierTypeEnum;
 import org.apache.streampark.console.core.service.SqlCompleteService;
+import org.apache.streampark.console.core.util.SqlCompletionIndex;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
@@ -31,351 +35,324 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Scanner;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ *
+ *
+ * <pre>
+ * Complete the last word of the sql by the keywords and the identifiers of the catalogs:
+ * 1) The keywords are loaded from the dictionaries, ranked by their frequency of occurrence.
+ * 2) The databases, tables, columns and functions are fed by the catalog services when they are listed or changed, ranked by the number of their owners.
+ * 3) The words are suggested by the clause being typed, e.g. the tables after FROM or JOIN, the columns after SELECT or WHERE.
+ * 4) The qualified words are suggested by the qualifier, e.g. the columns of the table aliased as "a" for "a.us".
+ * 5) The identifiers are kept by the team of the catalogs, only the identifiers of the caller's team are suggested.
+ * </pre>
+ */
 @Slf4j
 @Service
 public class SqlCompleteServiceImpl implements SqlCompleteService {
 
     private static final Set<Character> BLACK_SET = Sets.newHashSet(' ', ';');
 
-    private static SqlCompleteFstTree completeFstTree;
-
-    @PostConstruct
-    public void initialize() {
-        completeFstTree = new SqlCompleteFstTree();
-    }
+    // symbol reminder
+    private static final String CHARACTER_NOTICE = "()\t<>\t\"\"\t''\t{}";
 
-    @Override
-    public List<String> getComplete(String sql) {
-        if (!sql.isEmpty() && BLACK_SET.contains(sql.charAt(sql.length() - 1))) {
-            return new ArrayList<>();
-        }
-        String[] temp = sql.split("\\s");
-        return completeFstTree.getComplicate(temp[temp.length - 1]);
-    }
+    // file separator
+    private static final String SPLIT_CHAR = "\t";
 
-    /** maintain a TreeSet sorting object in the positive order of occurrence frequency */
-    private static class WordWithFrequency implements Comparable<WordWithFrequency> {
+    // the max number of the words returned
+    private static final int MAX_WORDS = 100;
 
-        String word;
-        Integer count;
+    private static final List<SqlIdentifierTypeEnum> TABLE_CONTEXT = Arrays.asList(
+        SqlIdentifierTypeEnum.TABLE, SqlIdentifierTypeEnum.DATABASE, SqlIdentifierTypeEnum.KEYWORD);
 
-        public WordWithFrequency(String word, int count) {
-            this.word = word;
-            this.count = count;
-        }
+    private static final List<SqlIdentifierTypeEnum> COLUMN_CONTEXT = Arrays.asList(
+        SqlIdentifierTypeEnum.COLUMN, SqlIdentifierTypeEnum.FUNCTION, SqlIdentifierTypeEnum.KEYWORD);
 
-        @Override
-        public int compareTo(WordWithFrequency other) {
-            int num = this.count - other.count;
+    private static final List<SqlIdentifierTypeEnum> DEFAULT_CONTEXT = Arrays.asList(
+        SqlIdentifierTypeEnum.KEYWORD, SqlIdentifierTypeEnum.FUNCTION);
 
-            // -1 just for ascending output
-            if (num == 0) {
-                // This step is very critical. If the same name is not judged and the count is different,
-                // then the set collection will default to the same element, and it will be overwritten.
-                return this.word.compareTo(other.word) * -1;
-            }
-            return num * -1;
-        }
+    // the qualifier is a table or an alias of it for the columns, or a database for the tables
+    private static final List<SqlIdentifierTypeEnum> QUALIFIED_CONTEXT = Arrays.asList(
+        SqlIdentifierTypeEnum.COLUMN, SqlIdentifierTypeEnum.TABLE);
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-            WordWithFrequency that = (WordWithFrequency) o;
-            return Objects.equals(word, that.word) && Objects.equals(count, that.count);
-        }
+    // the clause keyword -> the types of the words expected in the clause
+    private static final Map<String, List<SqlIdentifierTypeEnum>> CLAUSE_CONTEXT = new HashMap<>();
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(word, count);
-        }
+    static {
+        Arrays.asList("from", "join", "into", "table", "update", "describe", "desc")
+            .forEach(e -> CLAUSE_CONTEXT.put(e, TABLE_CONTEXT));
+        Arrays.asList("select", "where", "on", "by", "having", "and", "or", "set", "when", "then")
+            .forEach(e -> CLAUSE_CONTEXT.put(e, COLUMN_CONTEXT));
     }
 
-    private static class SqlCompleteFstTree {
+    private final SqlCompletionIndex keywords = new SqlCompletionIndex();
 
-        // symbol reminder
-        private static final String CHARACTER_NOTICE = "()\t<>\t\"\"\t''\t{}";
+    // team id -> the identifiers of the catalogs of the team
+    private final Map<Long, Scope> scopes = new ConcurrentHashMap<>();
 
-        // file separator
-        private static final String SPLIT_CHAR = "\t";
-        private static final TreeNode READ_FROM_HEAD = new TreeNode(' ');
-        private static final TreeNode READ_FROM_TAIL = new TreeNode(' ');
+    // qualifier -> the pattern of the tables aliased as the qualifier
+    private final Cache<String, Pattern> aliasPatterns = Caffeine.newBuilder().maximumSize(1000).build();
 
-        public SqlCompleteFstTree() {
-            try {
-                Resource resource = new ClassPathResource("sql-rev.dict");
-                Scanner scanner = new Scanner(resource.getInputStream());
-                StringBuilder stringBuffer = new StringBuilder();
-                while (scanner.hasNextLine()) {
-                    stringBuffer.append(scanner.nextLine()).append(SPLIT_CHAR);
-                }
-                scanner.close();
-                String dict = stringBuffer.toString();
-                Arrays.stream(dict.split(SPLIT_CHAR))
-                    .map(e -> e.trim().toLowerCase())
-                    .forEach(e -> this.initSearchTree(e, 1));
-            } catch (IOException e) {
-                log.error("FstTree require reserved word init fail, {}", e.getMessage());
+    @PostConstruct
+    public void initialize() {
+        Map<String, Integer> keywords = new HashMap<>();
+        try {
+            Resource resource = new ClassPathResource("sql-rev.dict");
+            Scanner scanner = new Scanner(resource.getInputStream());
+            StringBuilder stringBuffer = new StringBuilder();
+            while (scanner.hasNextLine()) {
+                stringBuffer.append(scanner.nextLine()).append(SPLIT_CHAR);
             }
-
-            Arrays.stream(CHARACTER_NOTICE.split(SPLIT_CHAR))
+            scanner.close();
+            Arrays.stream(stringBuffer.toString().split(SPLIT_CHAR))
                 .map(e -> e.trim().toLowerCase())
-                .forEach(e -> this.initSearchTree(e, 1));
-
-            try {
-                Resource resource = new ClassPathResource("sql-statistics.dict");
-                Scanner scanner = new Scanner(resource.getInputStream());
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine();
-                    String[] sqlStat = line.split(SPLIT_CHAR);
-                    this.initSearchTree(sqlStat[0], Integer.parseInt(sqlStat[1].trim()));
-                }
-                scanner.close();
-            } catch (Exception e) {
-                log.error("Error while FstTree ini that: {}", e.getMessage());
-            }
+                .forEach(e -> keywords.merge(e, 1, Integer::sum));
+        } catch (IOException e) {
+            log.error("Sql completion require reserved word init fail, {}", e.getMessage());
         }
 
-        /** used to return FST depth */
-        private static class Single {
-
-            public Integer loc = 0;
+        Arrays.stream(CHARACTER_NOTICE.split(SPLIT_CHAR))
+            .map(e -> e.trim().toLowerCase())
+            .forEach(e -> keywords.merge(e, 1, Integer::sum));
+
+        try {
+            Resource resource = new ClassPathResource("sql-statistics.dict");
+            Scanner scanner = new Scanner(resource.getInputStream());
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                String[] sqlStat = line.split(SPLIT_CHAR);
+                keywords.merge(sqlStat[0], Integer.parseInt(sqlStat[1].trim()), Integer::sum);
+            }
+            scanner.close();
+        } catch (Exception e) {
+            log.error("Error while sql completion init: {}", e.getMessage());
         }
+        this.keywords.update(keywords);
+    }
 
-        /**
-         * Used to initialize positive and reverse dictionary trees
-         *
-         * @param word word
-         * @param count frequency
-         */
-        public void initSearchTree(String word, int count) {
-            this.buildTree(word, count, READ_FROM_HEAD);
-            this.buildTree(new StringBuffer(word).reverse().toString(), count, READ_FROM_TAIL);
+    @Override
+    public List<String> getComplete(Long teamId, String sql) {
+        if (sql.isEmpty() || BLACK_SET.contains(sql.charAt(sql.length() - 1))) {
+            return new ArrayList<>();
+        }
+        String[] temp = sql.split("\\s");
+        String token = temp[temp.length - 1];
+        // the word being typed starts after the last separator of the token, e.g. "count(na" or "a,b"
+        int wordStart = token.length();
+        while (wordStart > 0 && !isSeparator(token.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        String word = wordStart == token.length() ? token : token.substring(wordStart);
+        // the qualifier of the word, e.g. "db." of "db.tab"
+        int dot = word.lastIndexOf('.');
+        String qualifier = dot < 0 ? "" : word.substring(0, dot + 1);
+        String prefix = word.substring(dot + 1);
+        if (prefix.isEmpty() && qualifier.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        /**
-         * @param word single word
-         * @param count word frequency
-         * @param buildWay root node
-         */
-        public void buildTree(String word, int count, TreeNode buildWay) {
-            int loc = 0;
-            Map<Character, TreeNode> nowStep = buildWay.getNext();
-            TreeNode preNode = null;
-            while (loc < word.length()) {
-                Character nowChar = word.charAt(loc);
-                if (!nowStep.containsKey(nowChar)) {
-                    TreeNode temp = new TreeNode(nowChar);
-                    nowStep.put(nowChar, temp);
-                }
-                preNode = nowStep.get(nowChar);
-                nowStep = nowStep.get(nowChar).getNext();
-                loc += 1;
+        Scope scope = teamId == null ? null : scopes.get(teamId);
+        String preceding = sql.substring(0, sql.length() - word.length());
+        if (!qualifier.isEmpty()) {
+            if (scope == null) {
+                return new ArrayList<>();
             }
-            AssertUtils.notNull(preNode);
-            preNode.setStop();
-            preNode.setCount(count);
+            return completeQualified(scope, qualifier.substring(0, qualifier.length() - 1), prefix, preceding)
+                .stream()
+                .map(e -> qualifier + e)
+                .collect(Collectors.toList());
         }
-
-        /**
-         * Traverse the FST tree and return potential word nodes
-         *
-         * @param word associative words
-         * @param searchWay current FST tree traversal node
-         * @param breakLoc Incoming variables, recording the depth of recursion, used to measure the
-         *     effectiveness of the association
-         * @return return the last potential node traversed
-         */
-        private List<TreeNode> getMaybeNodeList(
-                                                String word, TreeNode searchWay, SqlCompleteFstTree.Single breakLoc) {
-            int loc = 0;
-            Map<Character, TreeNode> nowStep = searchWay.getNext();
-            while (loc < word.length()) {
-                Character nowChar = word.charAt(loc);
-                if (!nowStep.containsKey(nowChar)) {
-                    // maybe wrong typing
-                    break;
-                }
-                nowStep = nowStep.get(nowChar).getNext();
-                loc += 1;
+        Set<String> result = new LinkedHashSet<>();
+        for (SqlIdentifierTypeEnum type : getContext(preceding)) {
+            SqlCompletionIndex index = type == SqlIdentifierTypeEnum.KEYWORD
+                ? keywords
+                : scope == null ? null : scope.indexes.get(type);
+            if (index != null) {
+                result.addAll(index.complete(prefix, MAX_WORDS - result.size()));
             }
-            breakLoc.loc = loc;
-            // At least there is more than 1 match, otherwise all output is meaningless
-            return loc > 0 ? new ArrayList<>(nowStep.values()) : new ArrayList<>();
         }
-
-        /**
-         * Fst Tree node traversal method
-         *
-         * @param returnSource All potential paths
-         * @param buffer cumulative words
-         * @param now current FST node
-         */
-        private void getDFSWord(List<WordWithFrequency> returnSource, String buffer, TreeNode now) {
-            if (now.getNext().isEmpty() || now.isStop()) {
-                returnSource.add(new WordWithFrequency(buffer + now.getStep(), now.getCount()));
-            } else {
-                now.getNext()
-                    .values()
-                    .forEach(each -> this.getDFSWord(returnSource, buffer + now.getStep(), each));
+        if (result.isEmpty()) {
+            // maybe wrong typing, such as "sela" for "sele", try the longest prefix matched
+            for (int i = prefix.length() - 1; i > 1 && result.isEmpty(); i--) {
+                result.addAll(keywords.complete(prefix.substring(0, i), MAX_WORDS));
             }
         }
+        return new ArrayList<>(result);
+    }
 
-        private SortedSet<WordWithFrequency> tryComplicate(
-                                                           String word, TreeNode tree,
-                                                           SqlCompleteFstTree.Single passLength) {
-            List<WordWithFrequency> temp = new ArrayList<>();
-            List<WordWithFrequency> tempNPreview = new ArrayList<>();
-            SortedSet<WordWithFrequency> returnSource;
-            SqlCompleteFstTree.Single breLoc = new Single();
-            this.getMaybeNodeList(word, tree, breLoc).forEach(each -> this.getDFSWord(temp, "", each));
-            returnSource = temp.stream()
-                .map(e -> new WordWithFrequency(word.substring(0, breLoc.loc) + e.word, e.count))
-                .collect(Collectors.toCollection(TreeSet::new));
-
-            // When FST appears that the prefix cannot be completely matched, such as: sela users may want
-            // to enter sele, there is no sela in FstTree.
-            // Try to correct errors. The error correction logic is to search for legal prefixes, that is,
-            // search for sel.
-            // Considering that the user enters the last word, although it is matched, it may be wrong.
-            // When there is an illegal match, remove a word and try to get more recalls.
-            // e.g: from, fre are prefixes that can be matched. If the last input is wrong, you can get
-            // the correct prompt. (Similar search to increase recall and get more target values)
-
-            if (breLoc.loc < word.length() && breLoc.loc > 1) {
-                this.getMaybeNodeList(word.substring(0, breLoc.loc - 1), tree, breLoc)
-                    .forEach(each -> this.getDFSWord(tempNPreview, "", each));
-
-                // Note: that due to the use of variable variables, here breloc has been-1
-                returnSource.addAll(
-                    tempNPreview.stream()
-                        .map(e -> new WordWithFrequency(word.substring(0, breLoc.loc) + e.word,
-                            e.count))
-                        .collect(Collectors.toList()));
-            }
+    @Override
+    public synchronized void addWords(Long teamId, SqlIdentifierTypeEnum type, String owner, Collection<String> words) {
+        Scope scope = getScope(teamId);
+        Set<String> current = scope.ownerWords.computeIfAbsent(key(type, owner), k -> newWordSet());
+        List<String> added = words.stream().filter(current::add).collect(Collectors.toList());
+        scope.indexes.get(type).add(added);
+    }
 
-            // returns the length of the last successful match, which is used to measure the correctness
-            // of the match last time
-            passLength.loc = breLoc.loc;
-            return returnSource;
+    @Override
+    public synchronized void removeWords(
+                                         Long teamId, SqlIdentifierTypeEnum type, String owner,
+                                         Collection<String> words) {
+        Scope scope = getScope(teamId);
+        Set<String> current = scope.ownerWords.getOrDefault(key(type, owner), Collections.emptySet());
+        List<String> removed = words.stream().filter(current::remove).collect(Collectors.toList());
+        scope.indexes.get(type).remove(removed);
+        if (current.isEmpty()) {
+            scope.ownerWords.remove(key(type, owner));
         }
+    }
 
-        /**
-         *
-         *
-         * <pre>
-         * Return possible words with prefix matching and simple error correction function. The returned words conform to the following rules:
-         *  - Without considering error correction
-         *  1. The input can match the prefix completely; such as: 'selec', return such as: select 'selexxx'; select belongs to the high-frequency word ranked first
-         *  2. Enter s to return all potential words beginning with s. High-frequency words are ranked first
-         * <p>
-         * - The definition of error (the premise that can be corrected is the preorder, and the reverse order must have a correct starting value)
-         *  1. It is assumed that the first word entered by the user is correct, such as 'seleot', 'soloct', 'so', which can correct errors.
-         *  2. For aelect, eelect, aect, oeleot, the follow-up is a correct starting point and can be corrected.
-         *  3. For oelece, it is impossible to correct errors.
-         * <p>
-         * - How to correct
-         *  1. Preorder, reverse order traversal, the result of the difference set plus + the maximum possible prefix match + the maximum possible prefix match -1 matching result
-         * </pre>
-         *
-         * @param word need to be associated or corrected Words
-         * @return return a potential word
-         */
-        public List<String> getComplicate(String word) {
-
-            word = word.toLowerCase();
-            SqlCompleteFstTree.Single searchFromHeadPassLength = new Single();
-            SqlCompleteFstTree.Single searchFromReversePassLength = new Single();
-
-            SortedSet<WordWithFrequency> head = tryComplicate(word, READ_FROM_HEAD, searchFromHeadPassLength);
-
-            // Reverse search is used for error correction. Normal scenes have no meaning, such as sel,
-            // the reverse order will return l data in reverse order (because there is no les character)
-            SortedSet<WordWithFrequency> tail = tryComplicate(
-                new StringBuffer(word).reverse().toString(),
-                READ_FROM_HEAD,
-                searchFromReversePassLength)
-                    .stream()
-                    .map(
-                        e -> new WordWithFrequency(
-                            new StringBuffer(e.word).reverse()
-                                .toString(),
-                            e.count))
-                    .collect(Collectors.toCollection(TreeSet::new));
-
-            SortedSet<WordWithFrequency> temp = new TreeSet<>(head);
-            temp.retainAll(tail);
-
-            SortedSet<WordWithFrequency> returnSource = new TreeSet<>(temp);
-
-            // Compare and return the matched length to prevent the previous input error and lead to error
-            // correction, such as "aelect",
-            // it should not be associated with "axxx", it should be corrected according to the subsequent
-            // "elect"
-            if (searchFromReversePassLength.loc > searchFromHeadPassLength.loc) {
-                returnSource.addAll(tail);
-            }
+    @Override
+    public synchronized void updateWords(
+                                         Long teamId, SqlIdentifierTypeEnum type, String owner,
+                                         Collection<String> words) {
+        Scope scope = getScope(teamId);
+        Set<String> latest = newWordSet();
+        latest.addAll(words);
+        Set<String> current = scope.ownerWords.getOrDefault(key(type, owner), Collections.emptySet());
+        SqlCompletionIndex index = scope.indexes.get(type);
+        index.remove(current.stream().filter(e -> !latest.contains(e)).collect(Collectors.toList()));
+        index.add(latest.stream().filter(e -> !current.contains(e)).collect(Collectors.toList()));
+        if (latest.isEmpty()) {
+            scope.ownerWords.remove(key(type, owner));
+        } else {
+            scope.ownerWords.put(key(type, owner), latest);
+        }
+    }
 
-            returnSource.addAll(head);
+    @Override
+    public synchronized void removeOwner(Long teamId, String owner) {
+        Scope scope = getScope(teamId);
+        String descendant = owner + ".";
+        scope.ownerWords.entrySet().removeIf(entry -> {
+            String key = entry.getKey();
+            int split = key.indexOf(':');
+            String wordOwner = key.substring(split + 1);
+            if (!wordOwner.equals(owner) && !wordOwner.startsWith(descendant)) {
+                return false;
+            }
+            scope.indexes.get(SqlIdentifierTypeEnum.valueOf(key.substring(0, split))).remove(entry.getValue());
+            return true;
+        });
+    }
 
-            return returnSource.stream().map(e -> e.word).collect(Collectors.toList());
+    /**
+     * Complete the word by the qualifier, such as a table, an alias of a table in the preceding sql, or
+     * a database. Only the words of the owners matched by the qualifier are suggested, in order.
+     */
+    private synchronized List<String> completeQualified(
+                                                        Scope scope, String qualifier, String prefix,
+                                                        String preceding) {
+        Set<String> paths = newWordSet();
+        paths.add(unquote(qualifier));
+        // the tables aliased as the qualifier, e.g. "users a" or "users as a" for "a"
+        Matcher matcher = aliasPatterns.get(
+            qualifier,
+            k -> Pattern.compile(
+                "([\\w$.`]+)\\s+(?:as\\s+)?" + Pattern.quote(k) + "(?![\\w$])",
+                Pattern.CASE_INSENSITIVE))
+            .matcher(preceding);
+        while (matcher.find()) {
+            paths.add(unquote(matcher.group(1)));
         }
+        Set<String> result = newWordSet();
+        for (SqlIdentifierTypeEnum type : QUALIFIED_CONTEXT) {
+            String typePrefix = type + ":";
+            scope.ownerWords.forEach((key, words) -> {
+                if (key.startsWith(typePrefix) && isOwnedBy(key.substring(typePrefix.length()), paths)) {
+                    words.stream()
+                        .filter(e -> e.regionMatches(true, 0, prefix, 0, prefix.length()))
+                        .forEach(result::add);
+                }
+            });
+        }
+        return result.stream().limit(MAX_WORDS).collect(Collectors.toList());
     }
 
-    private static class TreeNode {
-
-        private final Character step;
-        private boolean stop = false;
-        private int count = 0;
-        private final Map<Character, TreeNode> next;
-
-        /**
-         * The root node must be initialized to ' ', otherwise there can only be one character as the
-         * starting node.
-         *
-         * @param step the character of the current node
-         */
-        public TreeNode(Character step) {
-            this.step = step;
-            this.next = new HashMap<>();
-        }
+    private Scope getScope(Long teamId) {
+        AlertException.throwIfNull(teamId, "The team of the sql completion words can not be null.");
+        return scopes.computeIfAbsent(teamId, k -> new Scope());
+    }
 
-        public void setCount(int count) {
-            this.count += count;
+    /** Whether the last names of the owner are the path, e.g. "hive.db1.users" for "users" or "db1.users". */
+    private static boolean isOwnedBy(String owner, Set<String> paths) {
+        for (String path : paths) {
+            int start = owner.length() - path.length();
+            if (start >= 0
+                && owner.regionMatches(true, start, path, 0, path.length())
+                && (start == 0 || owner.charAt(start - 1) == '.')) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        public int getCount() {
-            return count;
-        }
+    private static String unquote(String identifier) {
+        return identifier.replace("`", "");
+    }
 
-        public void setStop() {
-            this.stop = true;
+    /** The types of the words expected after the preceding sql, by the last clause keyword. */
+    private List<SqlIdentifierTypeEnum> getContext(String preceding) {
+        int end = preceding.length();
+        while (end > 0) {
+            while (end > 0 && !isIdentifierPart(preceding.charAt(end - 1))) {
+                end--;
+            }
+            int start = end;
+            while (start > 0 && isIdentifierPart(preceding.charAt(start - 1))) {
+                start--;
+            }
+            List<SqlIdentifierTypeEnum> context =
+                CLAUSE_CONTEXT.get(preceding.substring(start, end).toLowerCase());
+            if (context != null) {
+                return context;
+            }
+            end = start;
         }
+        return DEFAULT_CONTEXT;
+    }
 
-        public boolean isStop() {
-            return stop;
-        }
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
 
-        public Character getStep() {
-            return step;
-        }
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == '(' || c == ')' || c == '=' || c == '`';
+    }
+
+    private static Set<String> newWordSet() {
+        return new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    private static String key(SqlIdentifierTypeEnum type, String owner) {
+        return type + ":" + owner;
+    }
+
+    /** The identifiers of the catalogs of a team. */
+    private static class Scope {
+
+        private final Map<SqlIdentifierTypeEnum, SqlCompletionIndex> indexes =
+            new EnumMap<>(SqlIdentifierTypeEnum.class);
+
+        // type:owner -> the words of the owner
+        private final Map<String, Set<String>> ownerWords = new HashMap<>();
 
-        public Map<Character, TreeNode> getNext() {
-            return next;
+        Scope() {
+            Arrays.stream(SqlIdentifierTypeEnum.values()).forEach(e -> indexes.put(e, new SqlCompletionIndex()));
         }
     }
 }
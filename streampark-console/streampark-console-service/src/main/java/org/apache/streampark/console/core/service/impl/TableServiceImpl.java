@@ -21,8 +21,10 @@ import org.apache.streampark.console.base.exception.AlertException;
 import org.apache.streampark.console.core.bean.TableColumn;
 import org.apache.streampark.console.core.bean.TableParams;
 import org.apache.streampark.console.core.entity.FlinkCatalog;
+import org.apache.streampark.console.core.enums.SqlIdentifierTypeEnum;
 import org.apache.streampark.console.core.service.FlinkCatalogBase;
 import org.apache.streampark.console.core.service.FlinkCatalogService;
+import org.apache.streampark.console.core.service.SqlCompleteService;
 import org.apache.streampark.console.core.service.TableService;
 import org.apache.streampark.console.core.util.DataTypeConverterUtils;
 
@@ -34,6 +36,8 @@ import org.apache.flink.table.catalog.ResolvedSchema;
 import org.apache.flink.table.catalog.TableChange;
 import org.apache.flink.table.catalog.UniqueConstraint;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -43,7 +47,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import static org.apache.streampark.console.core.util.CatalogServiceUtils.getOptions;
 
@@ -56,6 +62,12 @@ public class TableServiceImpl implements TableService {
     private FlinkCatalogService catalogService;
     @Autowired
     private FlinkCatalogBase flinkCatalogBase;
+    @Autowired
+    private SqlCompleteService sqlCompleteService;
+
+    // the databases of which the functions were indexed recently, the functions are rarely changed
+    private final Cache<String, Boolean> functionIndexedDatabases =
+        Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.MINUTES).build();
 
     @Override
     public boolean tableExists(TableParams tableParams) {
@@ -105,13 +117,26 @@ public class TableServiceImpl implements TableService {
                 tableParams.getDescription(),
                 tableParams.getPartitionKey(),
                 tableParams.getTableOptions());
-        return flinkCatalogBase.createTable(
+        boolean created = flinkCatalogBase.createTable(
             flinkCatalog.getCatalogName(),
             getOptions(flinkCatalog.getConfiguration()),
             tableParams.getDatabaseName(),
             tableParams.getName(),
             originTable,
             true);
+        if (created) {
+            sqlCompleteService.addWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.TABLE,
+                databaseOwner(flinkCatalog.getCatalogName(), tableParams.getDatabaseName()),
+                Collections.singletonList(tableParams.getName()));
+            sqlCompleteService.updateWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.COLUMN,
+                tableOwner(flinkCatalog.getCatalogName(), tableParams.getDatabaseName(), tableParams.getName()),
+                columns.stream().map(Column::getName).collect(Collectors.toList()));
+        }
+        return created;
     }
 
     @Override
@@ -132,13 +157,21 @@ public class TableServiceImpl implements TableService {
             tableChanges.add(addColumn);
         }
 
-        return flinkCatalogBase.alterTable(
+        boolean altered = flinkCatalogBase.alterTable(
             flinkCatalog.getCatalogName(),
             getOptions(flinkCatalog.getConfiguration()),
             tableParams.getDatabaseName(),
             tableParams.getName(),
             tableChanges,
             true);
+        if (altered) {
+            sqlCompleteService.addWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.COLUMN,
+                tableOwner(flinkCatalog.getCatalogName(), tableParams.getDatabaseName(), tableParams.getName()),
+                tableParams.getTableColumns().stream().map(TableColumn::getField).collect(Collectors.toList()));
+        }
+        return altered;
     }
 
     @Override
@@ -152,13 +185,21 @@ public class TableServiceImpl implements TableService {
         List<TableChange> tableChanges = new ArrayList<>();
         TableChange.DropColumn dropColumn = TableChange.dropColumn(columnName);
         tableChanges.add(dropColumn);
-        return flinkCatalogBase.alterTable(
+        boolean altered = flinkCatalogBase.alterTable(
             flinkCatalog.getCatalogName(),
             getOptions(flinkCatalog.getConfiguration()),
             databaseName,
             tableName,
             tableChanges,
             true);
+        if (altered) {
+            sqlCompleteService.removeWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.COLUMN,
+                tableOwner(flinkCatalog.getCatalogName(), databaseName, tableName),
+                Collections.singletonList(columnName));
+        }
+        return altered;
     }
 
     @Override
@@ -210,8 +251,12 @@ public class TableServiceImpl implements TableService {
         AlertException.throwIfNull(tableName, "Table name can not be null.");
         FlinkCatalog flinkCatalog = catalogService.getCatalog(catalogName);
         AlertException.throwIfNull(flinkCatalog, "Catalog is not exit.");
-        return flinkCatalogBase.dropTable(
+        boolean dropped = flinkCatalogBase.dropTable(
             catalogName, getOptions(flinkCatalog.getConfiguration()), databaseName, tableName, true);
+        if (dropped) {
+            removeTableWords(flinkCatalog, databaseName, tableName);
+        }
+        return dropped;
     }
 
     @Override
@@ -221,12 +266,22 @@ public class TableServiceImpl implements TableService {
         AlertException.throwIfNull(toTableName, "To table name can not be null.");
         FlinkCatalog flinkCatalog = catalogService.getCatalog(catalogName);
         AlertException.throwIfNull(flinkCatalog, "Catalog is not exit.");
-        return flinkCatalogBase.renameTable(
+        boolean renamed = flinkCatalogBase.renameTable(
             catalogName,
             getOptions(flinkCatalog.getConfiguration()),
             databaseName,
             fromTableName,
             toTableName);
+        if (renamed) {
+            // the columns of the new table are indexed when they are listed
+            removeTableWords(flinkCatalog, databaseName, fromTableName);
+            sqlCompleteService.addWords(
+                flinkCatalog.getTeamId(),
+                SqlIdentifierTypeEnum.TABLE,
+                databaseOwner(flinkCatalog.getCatalogName(), databaseName),
+                Collections.singletonList(toTableName));
+        }
+        return renamed;
     }
 
     @Override
@@ -239,6 +294,28 @@ public class TableServiceImpl implements TableService {
                 tableParams.getCatalogName(),
                 getOptions(flinkCatalog.getConfiguration()),
                 tableParams.getDatabaseName());
+        String owner = databaseOwner(flinkCatalog.getCatalogName(), tableParams.getDatabaseName());
+        sqlCompleteService.updateWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.TABLE,
+            owner,
+            tables == null ? Collections.emptyList() : tables);
+        try {
+            functionIndexedDatabases.get(owner, k -> {
+                sqlCompleteService.updateWords(
+                    flinkCatalog.getTeamId(),
+                    SqlIdentifierTypeEnum.FUNCTION,
+                    owner,
+                    flinkCatalogBase.listFunctions(
+                        flinkCatalog.getCatalogName(),
+                        getOptions(flinkCatalog.getConfiguration()),
+                        tableParams.getDatabaseName()));
+                return true;
+            });
+        } catch (Exception e) {
+            // the functions are only for the sql completion, the tables are listed anyway
+            log.warn("Failed to list the functions of {} for the sql completion.", owner, e);
+        }
 
         if (tables == null || tables.isEmpty()) {
             return null;
@@ -268,6 +345,11 @@ public class TableServiceImpl implements TableService {
             flinkCatalogBase.getTable(
                 catalogName, getOptions(flinkCatalog.getConfiguration()), databaseName, tableName);
         TableParams tableParams = covertToTableParams(originTable);
+        sqlCompleteService.updateWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.COLUMN,
+            tableOwner(flinkCatalog.getCatalogName(), databaseName, tableName),
+            tableParams.getTableColumns().stream().map(TableColumn::getField).collect(Collectors.toList()));
         tableParams.setName(tableName);
         tableParams.setCatalogName(catalogName);
         tableParams.setDatabaseName(catalogName);
@@ -275,6 +357,28 @@ public class TableServiceImpl implements TableService {
         return tableParams;
     }
 
+    private void removeTableWords(FlinkCatalog flinkCatalog, String databaseName, String tableName) {
+        String catalogName = flinkCatalog.getCatalogName();
+        sqlCompleteService.removeWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.TABLE,
+            databaseOwner(catalogName, databaseName),
+            Collections.singletonList(tableName));
+        sqlCompleteService.updateWords(
+            flinkCatalog.getTeamId(),
+            SqlIdentifierTypeEnum.COLUMN,
+            tableOwner(catalogName, databaseName, tableName),
+            Collections.emptyList());
+    }
+
+    private static String databaseOwner(String catalogName, String databaseName) {
+        return catalogName + "." + databaseName;
+    }
+
+    private static String tableOwner(String catalogName, String databaseName, String tableName) {
+        return catalogName + "." + databaseName + "." + tableName;
+    }
+
     private TableParams covertToTableParams(CatalogBaseTable catalogBaseTable) {
         List<TableColumn> tableColumns = new ArrayList<>();
         catalogBaseTable
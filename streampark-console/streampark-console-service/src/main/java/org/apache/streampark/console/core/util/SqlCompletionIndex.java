@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *
+ *
+ * <pre>
+ * A compact prefix index of the words with their weights, used by the sql completion:
+ * 1) The words are kept in a sorted array, case-insensitively, the words of a prefix are a contiguous range found by binary search.
+ * 2) A segment tree holds the index of the heaviest word of every range, so the top k words of a prefix are found in O(k * log(n)) without scanning the range.
+ * 3) The index is immutable once built, an update merges the sorted changes into a new snapshot, the lookups never lock.
+ * </pre>
+ */
+public class SqlCompletionIndex {
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new int[0]);
+
+    /**
+     * Add the words, the weight of each word is increased by 1.
+     *
+     * @param words the words
+     */
+    public void add(Collection<String> words) {
+        update(words, 1);
+    }
+
+    /**
+     * Remove the words, the weight of each word is decreased by 1 and the word is removed when its
+     * weight drops to 0.
+     *
+     * @param words the words
+     */
+    public void remove(Collection<String> words) {
+        update(words, -1);
+    }
+
+    /**
+     * Change the weights of the words, the words are merged case-insensitively.
+     *
+     * @param deltas word -> the delta of the weight
+     */
+    public synchronized void update(Map<String, Integer> deltas) {
+        TreeMap<String, Integer> changes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        deltas.forEach((word, delta) -> {
+            if (word != null && !word.isEmpty()) {
+                changes.merge(word, delta, Integer::sum);
+            }
+        });
+        if (!changes.isEmpty()) {
+            snapshot = snapshot.merge(changes);
+        }
+    }
+
+    /**
+     * Find the heaviest words starting with the prefix case-insensitively, the words of the same weight
+     * are in alphabetical order.
+     *
+     * @param prefix the prefix, an empty prefix matches all the words
+     * @param limit the max number of the words
+     * @return the words in descending order of weight
+     */
+    public List<String> complete(String prefix, int limit) {
+        return snapshot.complete(prefix, limit);
+    }
+
+    /** The weight of the word, 0 if absent. */
+    public int getWeight(String word) {
+        return snapshot.getWeight(word);
+    }
+
+    /** The number of the words. */
+    public int size() {
+        return snapshot.words.length;
+    }
+
+    private void update(Collection<String> words, int delta) {
+        if (words == null || words.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> deltas = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        words.forEach(word -> {
+            if (word != null) {
+                deltas.merge(word, delta, Integer::sum);
+            }
+        });
+        update(deltas);
+    }
+
+    /**
+     * Compare the word with the prefix case-insensitively, consistent with {@link
+     * String#CASE_INSENSITIVE_ORDER}.
+     *
+     * @return 0 if the word starts with the prefix, otherwise the order of the word to the words
+     *     starting with the prefix
+     */
+    static int comparePrefix(String word, String prefix) {
+        int n = Math.min(word.length(), prefix.length());
+        for (int i = 0; i < n; i++) {
+            char c1 = word.charAt(i);
+            char c2 = prefix.charAt(i);
+            if (c1 != c2) {
+                c1 = Character.toUpperCase(c1);
+                c2 = Character.toUpperCase(c2);
+                if (c1 != c2) {
+                    c1 = Character.toLowerCase(c1);
+                    c2 = Character.toLowerCase(c2);
+                    if (c1 != c2) {
+                        return c1 - c2;
+                    }
+                }
+            }
+        }
+        return word.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static class Snapshot {
+
+        private final String[] words;
+
+        private final int[] weights;
+
+        // tree[1] is the heaviest word of all, the leaves tree[n + i] are the words themselves
+        private final int[] tree;
+
+        Snapshot(String[] words, int[] weights) {
+            this.words = words;
+            this.weights = weights;
+            int n = words.length;
+            this.tree = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                tree[n + i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                tree[i] = heavier(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        /** Merge the sorted changes into a new snapshot, the words of no weight are dropped. */
+        Snapshot merge(TreeMap<String, Integer> changes) {
+            String[] newWords = new String[words.length + changes.size()];
+            int[] newWeights = new int[newWords.length];
+            int size = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> change : changes.entrySet()) {
+                while (i < words.length
+                    && String.CASE_INSENSITIVE_ORDER.compare(words[i], change.getKey()) < 0) {
+                    newWords[size] = words[i];
+                    newWeights[size++] = weights[i++];
+                }
+                String word = change.getKey();
+                long weight = change.getValue();
+                if (i < words.length && String.CASE_INSENSITIVE_ORDER.compare(words[i], word) == 0) {
+                    // keep the case of the word already indexed
+                    word = words[i];
+                    weight += weights[i++];
+                }
+                if (weight > 0) {
+                    newWords[size] = word;
+                    newWeights[size++] = (int) Math.min(weight, Integer.MAX_VALUE);
+                }
+            }
+            while (i < words.length) {
+                newWords[size] = words[i];
+                newWeights[size++] = weights[i++];
+            }
+            if (size < newWords.length) {
+                String[] compactWords = new String[size];
+                int[] compactWeights = new int[size];
+                System.arraycopy(newWords, 0, compactWords, 0, size);
+                System.arraycopy(newWeights, 0, compactWeights, 0, size);
+                return new Snapshot(compactWords, compactWeights);
+            }
+            return new Snapshot(newWords, newWeights);
+        }
+
+        int getWeight(String word) {
+            int i = lowerBound(word);
+            return i < words.length && words[i].equalsIgnoreCase(word) ? weights[i] : 0;
+        }
+
+        List<String> complete(String prefix, int limit) {
+            int from = lowerBound(prefix);
+            int to = upperBound(prefix, from);
+            if (from >= to || limit <= 0) {
+                return Collections.emptyList();
+            }
+            int k = Math.min(limit, to - from);
+            List<String> result = new ArrayList<>(k);
+            // a max heap of the ranges [begin, end) by the heaviest word of the range
+            int[] begins = new int[k + 1];
+            int[] ends = new int[k + 1];
+            int[] heaviest = new int[k + 1];
+            int heapSize = push(begins, ends, heaviest, 0, from, to);
+            while (result.size() < k) {
+                int begin = begins[0];
+                int end = ends[0];
+                int top = heaviest[0];
+                heapSize = pop(begins, ends, heaviest, heapSize);
+                result.add(words[top]);
+                // a heap of at most k ranges, as each step takes one range and splits it into two
+                if (begin < top) {
+                    heapSize = push(begins, ends, heaviest, heapSize, begin, top);
+                }
+                if (top + 1 < end) {
+                    heapSize = push(begins, ends, heaviest, heapSize, top + 1, end);
+                }
+            }
+            return result;
+        }
+
+        /** The first word not before the words starting with the prefix. */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = words.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparePrefix(words[mid], prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** The first word after the words starting with the prefix. */
+        private int upperBound(String prefix, int from) {
+            int low = from;
+            int high = words.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparePrefix(words[mid], prefix) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** The index of the heaviest word of [begin, end). */
+        private int heaviest(int begin, int end) {
+            int n = words.length;
+            int result = begin;
+            for (int l = begin + n, r = end + n; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    result = heavier(result, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    result = heavier(result, tree[--r]);
+                }
+            }
+            return result;
+        }
+
+        private int heavier(int a, int b) {
+            if (weights[a] != weights[b]) {
+                return weights[a] > weights[b] ? a : b;
+            }
+            return Math.min(a, b);
+        }
+
+        private int push(int[] begins, int[] ends, int[] heaviest, int size, int begin, int end) {
+            int top = heaviest(begin, end);
+            int i = size;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heavier(heaviest[parent], top) == top) {
+                    begins[i] = begins[parent];
+                    ends[i] = ends[parent];
+                    heaviest[i] = heaviest[parent];
+                    i = parent;
+                } else {
+                    break;
+                }
+            }
+            begins[i] = begin;
+            ends[i] = end;
+            heaviest[i] = top;
+            return size + 1;
+        }
+
+        private int pop(int[] begins, int[] ends, int[] heaviest, int size) {
+            size--;
+            int begin = begins[size];
+            int end = ends[size];
+            int last = heaviest[size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size
+                    && heavier(heaviest[child], heaviest[child + 1]) == heaviest[child + 1]) {
+                    child++;
+                }
+                if (heavier(heaviest[child], last) == last) {
+                    break;
+                }
+                begins[i] = begins[child];
+                ends[i] = ends[child];
+                heaviest[i] = heaviest[child];
+                i = child;
+            }
+            begins[i] = begin;
+            ends[i] = end;
+            heaviest[i] = last;
+            return size;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ *
+ *
+ * <pre>
+ * The watching interval of an application, it backs off while the application keeps stable:
+ * 1) A stable application doubles its interval from the min interval up to the ceiling, the ceiling is the max interval
+ *    halved by every state change or checkpoint failure recorded within the history window.
+ * 2) A state change or checkpoint failure resets the interval to the min interval.
+ * 3) A user action resets the interval and the application is watched on every tick within the fast window.
+ * </pre>
+ */
+public class AdaptiveWatchingInterval {
+
+    // an application must keep stable for a minute before backing off
+    private static final long STABLE_THRESHOLD = 60_000L;
+
+    // the state changes and checkpoint failures within the last hour are taken into account
+    private static final long HISTORY_WINDOW = 3_600_000L;
+
+    private static final int MAX_HISTORY_SIZE = 32;
+
+    private final long minInterval;
+
+    private final long maxInterval;
+
+    private final Deque<Long> unstableHistory = new ArrayDeque<>();
+
+    private long interval;
+
+    private long nextWatchTime;
+
+    private long stableSince;
+
+    private long fastUntil;
+
+    private Long lastFailedCheckpointId;
+
+    public AdaptiveWatchingInterval(long minInterval, long maxInterval, long timeMillis) {
+        this.minInterval = minInterval;
+        this.maxInterval = Math.max(minInterval, maxInterval);
+        this.interval = minInterval;
+        this.nextWatchTime = timeMillis;
+        this.stableSince = timeMillis;
+    }
+
+    /** Whether the application should be watched at the given time. */
+    public synchronized boolean isDue(long timeMillis) {
+        return timeMillis >= nextWatchTime || timeMillis < fastUntil;
+    }
+
+    /** The state of the application changed or a checkpoint failed, fall back to the min interval. */
+    public synchronized void markUnstable(long timeMillis) {
+        unstableHistory.addLast(timeMillis);
+        if (unstableHistory.size() > MAX_HISTORY_SIZE) {
+            unstableHistory.removeFirst();
+        }
+        interval = minInterval;
+        stableSince = timeMillis;
+        nextWatchTime = Math.min(nextWatchTime, timeMillis + minInterval);
+    }
+
+    /** A failed checkpoint was observed, only a newly failed checkpoint makes the application unstable. */
+    public synchronized void markCheckpointFailed(long checkpointId, long timeMillis) {
+        Long lastFailed = lastFailedCheckpointId;
+        lastFailedCheckpointId = checkpointId;
+        if (lastFailed != null && lastFailed != checkpointId) {
+            markUnstable(timeMillis);
+        }
+    }
+
+    /** The application was operated by user, watch it on every tick within the fast window. */
+    public synchronized void markUserAction(long timeMillis, long fastWindow) {
+        interval = minInterval;
+        stableSince = timeMillis;
+        fastUntil = Math.max(fastUntil, timeMillis + fastWindow);
+        nextWatchTime = timeMillis;
+    }
+
+    /**
+     * Schedule the next watching after the application was watched.
+     *
+     * @param timeMillis the time the application was watched
+     * @param stable whether the application is in a state which is allowed to back off
+     * @return the next watching time
+     */
+    public synchronized long scheduleNext(long timeMillis, boolean stable) {
+        if (!stable) {
+            stableSince = timeMillis;
+            interval = minInterval;
+        } else if (timeMillis - stableSince >= STABLE_THRESHOLD) {
+            interval = Math.min(getCeiling(timeMillis), interval * 2);
+        }
+        nextWatchTime = timeMillis + interval;
+        return nextWatchTime;
+    }
+
+    public synchronized long getInterval() {
+        return interval;
+    }
+
+    public synchronized long getNextWatchTime() {
+        return nextWatchTime;
+    }
+
+    private long getCeiling(long timeMillis) {
+        while (!unstableHistory.isEmpty() && timeMillis - unstableHistory.peekFirst() > HISTORY_WINDOW) {
+            unstableHistory.removeFirst();
+        }
+        return Math.max(minInterval, maxInterval >> unstableHistory.size());
+    }
+}
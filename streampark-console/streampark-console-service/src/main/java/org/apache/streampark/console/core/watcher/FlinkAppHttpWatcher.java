@@ -43,6 +43,7 @@ import org.apache.streampark.console.core.service.application.FlinkApplicationAc
 import org.apache.streampark.console.core.service.application.FlinkApplicationInfoService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
 import org.apache.streampark.console.core.util.AlertTemplateUtils;
+import org.apache.streampark.console.core.websocket.WebSocketEndpoint;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.config.RequestConfig;
@@ -55,6 +56,7 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -62,9 +64,13 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -108,6 +114,9 @@ public class FlinkAppHttpWatcher {
     // option interval within 10 seconds
     private static final Duration OPTION_INTERVAL = Duration.ofSeconds(10);
 
+    // checkpoint details of a steadily running job are refreshed at most every 30 seconds
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(30);
+
     private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5);
 
     /**
@@ -163,16 +172,30 @@ public class FlinkAppHttpWatcher {
      */
     private static final Map<Long, Long> CANCELLED_JOB_MAP = new ConcurrentHashMap<>(0);
 
-    private static final Map<Long, FlinkCluster> FLINK_CLUSTER_MAP = new ConcurrentHashMap<>(0);
-
     private static final Map<Long, OptionStateEnum> OPTIONING = new ConcurrentHashMap<>(0);
 
-    private Long lastWatchTime = 0L;
+    /** The last time the checkpoint details of the app were fetched, Map<applicationId,timestamp> */
+    private static final Map<Long, Long> CHECKPOINT_WATCH_TIME = new ConcurrentHashMap<>(0);
+
+    /** The adaptive watching interval of the app, Map<applicationId,interval> */
+    private static final Map<Long, AdaptiveWatchingInterval> WATCHING_INTERVALS = new ConcurrentHashMap<>(0);
+
+    // the number of watched apps per tick within the last minute, used to compute the polls per second
+    private static final Duration WATCHING_RATE_WINDOW = Duration.ofMinutes(1);
 
-    private Long lastOptionTime = 0L;
+    private final Deque<long[]> watchingHistory = new ArrayDeque<>();
+
+    // the time taken by the last hand-off of the watching apps, see rebalance()
+    private volatile long lastRebalanceDuration = 0L;
+
+    private final Map<Long, FlinkCluster> flinkClusterMap = new ConcurrentHashMap<>(0);
 
     private static final Byte DEFAULT_FLAG_BYTE = Byte.valueOf("0");
 
+    // the ceiling of the watching interval of a long-stable running app
+    @Value("${job.state-watcher.max-interval:60s}")
+    private Duration maxWatchingInterval = Duration.ofSeconds(60);
+
     @Qualifier("flinkRestAPIWatchingExecutor")
     @Autowired
     private Executor watchExecutor;
@@ -180,19 +203,53 @@ public class FlinkAppHttpWatcher {
     @PostConstruct
     public void init() {
         WATCHING_APPS.clear();
-        List<FlinkApplication> applications = applicationManageService.list(
+        getLocalTrackingApps().forEach(app -> {
+            Long appId = app.getId();
+            WATCHING_APPS.put(appId, app);
+            STARTING_CACHE.put(appId, DEFAULT_FLAG_BYTE);
+        });
+    }
+
+    /**
+     *
+     *
+     * <pre>
+     * Rebalance the watching apps after the console servers changed, only the apps whose owner changed are handed over:
+     * 1) The apps owned by other servers now are persisted and released, so that the new owner starts from the latest state.
+     * 2) The tracking apps owned by this server now and not watched yet are acquired and watched on the next tick.
+     * </pre>
+     */
+    public synchronized void rebalance() {
+        long start = System.currentTimeMillis();
+        int released = 0;
+        for (FlinkApplication application : WATCHING_APPS.values()) {
+            if (!distributedTaskService.isLocalProcessing(application.getId())) {
+                applicationManageService.persistMetrics(application);
+                unWatching(application.getId());
+                released++;
+            }
+        }
+        int acquired = 0;
+        for (FlinkApplication application : getLocalTrackingApps()) {
+            if (WATCHING_APPS.putIfAbsent(application.getId(), application) == null) {
+                STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+                acquired++;
+            }
+        }
+        lastRebalanceDuration = System.currentTimeMillis() - start;
+        log.info(
+            "[StreamPark][FlinkAppHttpWatcher] rebalance watching apps, acquired: {}, released: {}, cost: {} ms",
+            acquired, released, lastRebalanceDuration);
+    }
+
+    private List<FlinkApplication> getLocalTrackingApps() {
+        return applicationManageService.list(
             new LambdaQueryWrapper<FlinkApplication>()
                 .eq(FlinkApplication::getTracking, 1)
                 .notIn(FlinkApplication::getDeployMode, FlinkDeployMode.getKubernetesMode()))
             .stream()
             .filter(application -> distributedTaskService.isLocalProcessing(application.getId()))
             .collect(Collectors.toList());
-
-        applications.forEach(app -> {
-            Long appId = app.getId();
-            WATCHING_APPS.put(appId, app);
-            STARTING_CACHE.put(appId, DEFAULT_FLAG_BYTE);
-        });
     }
 
     @PreDestroy
@@ -208,26 +265,132 @@ public class FlinkAppHttpWatcher {
      * <p><strong>1) Program started or page operated task, such as start/stop, needs to return the
      * state immediately. (the frequency of 1 second once, continued 10 seconds (10 times))</strong>
      *
-     * <p><strong>2) Normal information obtain, once every 5 seconds</strong>
+     * <p><strong>2) Normal information obtain, once every 5 seconds, backing off to
+     * job.state-watcher.max-interval while the task keeps running stably, see {@link
+     * AdaptiveWatchingInterval}</strong>
      */
     @Scheduled(fixedDelayString = "${job.state-watcher.fixed-delayed:1000}")
     public void start() {
-        Long timeMillis = System.currentTimeMillis();
-        if (lastWatchTime == null
-            || !OPTIONING.isEmpty()
-            || timeMillis - lastOptionTime <= OPTION_INTERVAL.toMillis()
-            || timeMillis - lastWatchTime >= WATCHING_INTERVAL.toMillis()) {
-            lastWatchTime = timeMillis;
-            WATCHING_APPS.forEach(this::watch);
+        watch(WATCHING_APPS.values(), System.currentTimeMillis());
+    }
+
+    void watch(Collection<FlinkApplication> watchingApps, long timeMillis) {
+        int watchingCount = 0;
+        Map<String, List<FlinkApplication>> clusters = watchingApps.stream()
+            .collect(Collectors.groupingBy(this::getWatchingKey));
+        for (Map.Entry<String, List<FlinkApplication>> cluster : clusters.entrySet()) {
+            List<FlinkApplication> applications = cluster.getValue();
+            // the overview of the cluster updates all apps of it, so they are due together
+            if (applications.stream().anyMatch(application -> isWatchingDue(application, timeMillis))) {
+                applications.forEach(application -> scheduleNextWatching(application, timeMillis));
+                watchingCount += applications.size();
+                watch(cluster.getKey(), applications);
+            }
         }
+        recordWatchingRate(timeMillis, watchingCount);
+    }
+
+    /**
+     * The apps being operated, starting or cancelling are watched on every tick, the others follow
+     * their adaptive watching interval. A cluster is watched once any app of it is due.
+     */
+    private boolean isWatchingDue(FlinkApplication application, long timeMillis) {
+        return isInTransition(application.getId())
+            || getWatchingInterval(application.getId(), timeMillis).isDue(timeMillis);
     }
 
-    private void watch(Long id, FlinkApplication application) {
+    /**
+     * The next watching is scheduled once the cluster of the app is watched, so that a slow rest api
+     * will not pile up watching requests of the same app, and the apps of a cluster keep due together.
+     */
+    private void scheduleNextWatching(FlinkApplication application, long timeMillis) {
+        boolean inTransition = isInTransition(application.getId());
+        getWatchingInterval(application.getId(), timeMillis)
+            .scheduleNext(
+                timeMillis, !inTransition && FlinkAppStateEnum.RUNNING.equals(application.getStateEnum()));
+    }
+
+    private boolean isInTransition(Long appId) {
+        return OPTIONING.containsKey(appId)
+            || STARTING_CACHE.getIfPresent(appId) != null
+            || CANCELING_CACHE.getIfPresent(appId) != null
+            || SAVEPOINT_CACHE.getIfPresent(appId) != null;
+    }
+
+    private AdaptiveWatchingInterval getWatchingInterval(Long appId, long timeMillis) {
+        return WATCHING_INTERVALS.computeIfAbsent(
+            appId,
+            k -> new AdaptiveWatchingInterval(
+                WATCHING_INTERVAL.toMillis(), maxWatchingInterval.toMillis(), timeMillis));
+    }
+
+    private synchronized void recordWatchingRate(long timeMillis, int watchingCount) {
+        watchingHistory.addLast(new long[]{timeMillis, watchingCount});
+        while (timeMillis - watchingHistory.peekFirst()[0] > WATCHING_RATE_WINDOW.toMillis()) {
+            watchingHistory.removeFirst();
+        }
+    }
+
+    /** The effective number of app watchings per second within the last minute. */
+    public synchronized double getWatchingRate() {
+        long count = watchingHistory.stream().mapToLong(e -> e[1]).sum();
+        return (double) count / WATCHING_RATE_WINDOW.getSeconds();
+    }
+
+    /**
+     * Get the watching metrics of the team: the effective watching rate, the next watching time of
+     * every watched app and the time taken by the last rebalance.
+     *
+     * @param teamId team id
+     * @return watching metrics
+     */
+    public Map<String, Serializable> getWatchingMetrics(Long teamId) {
+        HashMap<Long, Long> nextWatchTimes = new HashMap<>();
+        WATCHING_APPS.values().stream()
+            .filter(application -> teamId.equals(application.getTeamId()))
+            .forEach(application -> {
+                AdaptiveWatchingInterval interval = WATCHING_INTERVALS.get(application.getId());
+                if (interval != null) {
+                    nextWatchTimes.put(application.getId(), interval.getNextWatchTime());
+                }
+            });
+        Map<String, Serializable> metrics = new HashMap<>();
+        metrics.put("watchingRate", getWatchingRate());
+        metrics.put("nextWatchTime", nextWatchTimes);
+        metrics.put("lastRebalanceDuration", lastRebalanceDuration);
+        return metrics;
+    }
+
+    /**
+     * All apps running on the same cluster share one jobs overview request per tick, the overview
+     * is then fanned out to every app of the cluster.
+     *
+     * @param watchingKey the cluster key, see {@link #getWatchingKey(FlinkApplication)}
+     * @param applications the apps running on the cluster
+     */
+    private void watch(String watchingKey, List<FlinkApplication> applications) {
         watchExecutor.execute(
             () -> {
+                JobsOverview jobsOverview = null;
                 try {
                     // query status from flink rest api
-                    getStateFromFlink(application);
+                    jobsOverview = httpJobsOverview(applications.get(0));
+                } catch (Exception e) {
+                    log.debug(
+                        "[StreamPark][FlinkAppHttpWatcher] getFromFlinkRestApi failed, cluster: {}",
+                        watchingKey);
+                }
+                for (FlinkApplication application : applications) {
+                    watch(application, jobsOverview);
+                }
+            });
+    }
+
+    private void watch(FlinkApplication application, JobsOverview jobsOverview) {
+        watchExecutor.execute(
+            () -> {
+                try {
+                    getStateFromFlink(application, jobsOverview);
                     cleanupLost(application);
                 } catch (Exception flinkException) {
                     // query status from yarn rest api
@@ -241,6 +404,28 @@ public class FlinkAppHttpWatcher {
             });
     }
 
+    /**
+     * Get the key of the cluster which the app is running on, apps with the same key can be watched
+     * by the same jobs overview request.
+     *
+     * @param application application
+     * @return the cluster key
+     */
+    private String getWatchingKey(FlinkApplication application) {
+        FlinkDeployMode deployMode = application.getDeployModeEnum();
+        if (FlinkDeployMode.isYarnMode(deployMode)) {
+            if (StringUtils.isNotEmpty(application.getJobManagerUrl())) {
+                return "jobmanager:" + application.getJobManagerUrl();
+            }
+            if (application.getClusterId() != null) {
+                return "yarn:" + application.getClusterId();
+            }
+        } else if (application.getJobId() != null && FlinkDeployMode.isRemoteMode(deployMode)) {
+            return "remote:" + application.getFlinkClusterId();
+        }
+        return "app:" + application.getId();
+    }
+
     private void cleanupLost(FlinkApplication application) {
         LOST_CACHE.invalidate(application.getId());
     }
@@ -297,10 +482,13 @@ public class FlinkAppHttpWatcher {
      * Get the current task running status information from flink restapi
      *
      * @param application application
+     * @param jobsOverview the jobs overview of the cluster which the app is running on
      */
-    private void getStateFromFlink(FlinkApplication application) throws Exception {
+    private void getStateFromFlink(FlinkApplication application, JobsOverview jobsOverview) throws Exception {
+        if (jobsOverview == null) {
+            throw new IOException("[StreamPark][FlinkAppHttpWatcher] getFromFlinkRestApi failed");
+        }
         StopFromEnum stopFrom = getStopFrom(application);
-        JobsOverview jobsOverview = httpJobsOverview(application);
         Optional<JobsOverview.Job> optional;
         FlinkDeployMode deployMode = application.getDeployModeEnum();
         if (FlinkDeployMode.YARN_APPLICATION.equals(deployMode)
@@ -335,7 +523,9 @@ public class FlinkAppHttpWatcher {
                 }
                 try {
                     // 2) CheckPoints
-                    handleCheckPoints(application);
+                    if (shouldWatchCheckPoints(application, currentState)) {
+                        handleCheckPoints(application);
+                    }
                 } catch (Exception e) {
                     log.error("get flink jobOverview error: {}", e.getMessage(), e);
                 }
@@ -392,11 +582,37 @@ public class FlinkAppHttpWatcher {
         }
     }
 
+    /**
+     * The jobs overview does not carry any checkpoint counters, so the checkpoint details are only
+     * fetched for running jobs, and throttled by {@link #CHECKPOINT_INTERVAL} unless a savepoint is in
+     * progress or the checkpoint failure trigger is enabled.
+     */
+    private boolean shouldWatchCheckPoints(FlinkApplication application, FlinkAppStateEnum currentState) {
+        if (!FlinkAppStateEnum.RUNNING.equals(currentState)) {
+            return false;
+        }
+        Long appId = application.getId();
+        if (SAVEPOINT_CACHE.getIfPresent(appId) != null || application.cpFailedTrigger()) {
+            return true;
+        }
+        Long lastWatchTime = CHECKPOINT_WATCH_TIME.get(appId);
+        return lastWatchTime == null
+            || System.currentTimeMillis() - lastWatchTime >= CHECKPOINT_INTERVAL.toMillis();
+    }
+
     /** get latest checkpoint */
     private void handleCheckPoints(FlinkApplication application) throws Exception {
+        CHECKPOINT_WATCH_TIME.put(application.getId(), System.currentTimeMillis());
         CheckPoints checkPoints = httpCheckpoints(application);
         if (checkPoints != null) {
             checkpointProcessor.process(application, checkPoints);
+            if (checkPoints.getLatest() != null && checkPoints.getLatest().getFailed() != null) {
+                AdaptiveWatchingInterval interval = WATCHING_INTERVALS.get(application.getId());
+                if (interval != null) {
+                    interval.markCheckpointFailed(
+                        checkPoints.getLatest().getFailed().getId(), System.currentTimeMillis());
+                }
+            }
         }
     }
 
@@ -461,7 +677,8 @@ public class FlinkAppHttpWatcher {
         } else if (stopWatch) {
             unWatching(appId);
         } else {
-            WATCHING_APPS.put(appId, application);
+            // do not bring back the app which was unwatched while it was being watched
+            WATCHING_APPS.replace(appId, application);
         }
 
         FlinkStateChangeEvent event = PREVIOUS_STATUS.getIfPresent(appId);
@@ -469,6 +686,11 @@ public class FlinkAppHttpWatcher {
         if (!nowEvent.equals(event)) {
             PREVIOUS_STATUS.put(appId, nowEvent);
             applicationManageService.persistMetrics(application);
+            WebSocketEndpoint.publishAppState(appId, nowEvent);
+            AdaptiveWatchingInterval interval = WATCHING_INTERVALS.get(appId);
+            if (interval != null) {
+                interval.markUnstable(System.currentTimeMillis());
+            }
         }
     }
 
@@ -635,7 +857,7 @@ public class FlinkAppHttpWatcher {
 
     private void cleanOptioning(OptionStateEnum optionState, Long key) {
         if (optionState != null) {
-            lastOptionTime = System.currentTimeMillis();
+            markUserAction(key);
             OPTIONING.remove(key);
         }
     }
@@ -656,6 +878,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] setOptioning");
         OPTIONING.put(appId, state);
+        markUserAction(appId);
         if (state.equals(OptionStateEnum.CANCELLING)) {
             STOP_FROM_MAP.put(appId, StopFromEnum.STREAMPARK);
         }
@@ -668,6 +891,15 @@ public class FlinkAppHttpWatcher {
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to tracking,appId:{}", application.getId());
         WATCHING_APPS.put(application.getId(), application);
         STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+        markUserAction(application.getId());
+    }
+
+    /** The app was operated by user, watch it on every tick within the option interval. */
+    private static void markUserAction(Long appId) {
+        AdaptiveWatchingInterval interval = WATCHING_INTERVALS.get(appId);
+        if (interval != null) {
+            interval.markUserAction(System.currentTimeMillis(), OPTION_INTERVAL.toMillis());
+        }
     }
 
     public static void addSavepoint(Long appId) {
@@ -676,6 +908,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to savepoint,appId:{}", appId);
         SAVEPOINT_CACHE.put(appId, DEFAULT_FLAG_BYTE);
+        markUserAction(appId);
 
         // update to PREVIOUS_STATUS
         FlinkStateChangeEvent event = PREVIOUS_STATUS.getIfPresent(appId);
@@ -691,6 +924,8 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] stop app,appId:{}", appId);
         WATCHING_APPS.remove(appId);
+        CHECKPOINT_WATCH_TIME.remove(appId);
+        WATCHING_INTERVALS.remove(appId);
     }
 
     public static void stopCanceledJob(Long appId) {
@@ -762,20 +997,10 @@ public class FlinkAppHttpWatcher {
         }
 
         if (application.getJobId() != null && FlinkDeployMode.isRemoteMode(deployMode)) {
+            // the overview of the whole cluster, shared by all apps running on it
             return httpRemoteCluster(
                 application.getFlinkClusterId(),
-                cluster -> {
-                    String remoteUrl = cluster.getAddress() + "/" + flinkUrl;
-                    JobsOverview jobsOverview = httpRestRequest(remoteUrl, JobsOverview.class);
-                    if (jobsOverview != null) {
-                        List<JobsOverview.Job> jobs =
-                            jobsOverview.getJobs().stream()
-                                .filter(x -> x.getId().equals(application.getJobId()))
-                                .collect(Collectors.toList());
-                        jobsOverview.setJobs(jobs);
-                    }
-                    return jobsOverview;
-                });
+                cluster -> httpRestRequest(cluster.getAddress() + "/" + flinkUrl, JobsOverview.class));
         }
         return null;
     }
@@ -837,10 +1062,10 @@ public class FlinkAppHttpWatcher {
     }
 
     private FlinkCluster getFlinkRemoteCluster(Long clusterId, boolean flush) {
-        FlinkCluster flinkCluster = FLINK_CLUSTER_MAP.get(clusterId);
+        FlinkCluster flinkCluster = flinkClusterMap.get(clusterId);
         if (flinkCluster == null || flush) {
             flinkCluster = flinkClusterService.getById(clusterId);
-            FLINK_CLUSTER_MAP.put(clusterId, flinkCluster);
+            flinkClusterMap.put(clusterId, flinkCluster);
         }
         return flinkCluster;
     }
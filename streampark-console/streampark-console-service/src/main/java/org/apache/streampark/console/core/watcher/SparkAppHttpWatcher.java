@@ -131,19 +131,47 @@ public class SparkAppHttpWatcher {
     @PostConstruct
     public void init() {
         WATCHING_APPS.clear();
-        List<SparkApplication> applications = applicationManageService.list(
+        getLocalTrackingApps().forEach(app -> {
+            Long appId = app.getId();
+            WATCHING_APPS.put(appId, app);
+            STARTING_CACHE.put(appId, DEFAULT_FLAG_BYTE);
+        });
+    }
+
+    /**
+     * Rebalance the watching apps after the console servers changed, only the apps whose owner
+     * changed are handed over, see {@link FlinkAppHttpWatcher#rebalance()}.
+     */
+    public synchronized void rebalance() {
+        long start = System.currentTimeMillis();
+        int released = 0;
+        for (SparkApplication application : WATCHING_APPS.values()) {
+            if (!distributedTaskService.isLocalProcessing(application.getId())) {
+                applicationManageService.persistMetrics(application);
+                unWatching(application.getId());
+                released++;
+            }
+        }
+        int acquired = 0;
+        for (SparkApplication application : getLocalTrackingApps()) {
+            if (WATCHING_APPS.putIfAbsent(application.getId(), application) == null) {
+                STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+                acquired++;
+            }
+        }
+        log.info(
+            "[StreamPark][SparkAppHttpWatcher] rebalance watching apps, acquired: {}, released: {}, cost: {} ms",
+            acquired, released, System.currentTimeMillis() - start);
+    }
+
+    private List<SparkApplication> getLocalTrackingApps() {
+        return applicationManageService.list(
             new LambdaQueryWrapper<SparkApplication>()
                 .eq(SparkApplication::getTracking, 1)
                 .ne(SparkApplication::getState, SparkAppStateEnum.LOST.getValue()))
             .stream()
             .filter(application -> distributedTaskService.isLocalProcessing(application.getId()))
             .collect(Collectors.toList());
-
-        applications.forEach(app -> {
-            Long appId = app.getId();
-            WATCHING_APPS.put(appId, app);
-            STARTING_CACHE.put(appId, DEFAULT_FLAG_BYTE);
-        });
     }
 
     @PreDestroy
@@ -273,7 +301,8 @@ public class SparkAppHttpWatcher {
         } else if (stopWatch) {
             unWatching(application.getId());
         } else {
-            WATCHING_APPS.put(application.getId(), application);
+            // do not bring back the app which was released to another node while it was being watched
+            WATCHING_APPS.replace(application.getId(), application);
         }
         applicationManageService.persistMetrics(application);
     }
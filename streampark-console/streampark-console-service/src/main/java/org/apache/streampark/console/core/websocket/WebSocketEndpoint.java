@@ -17,30 +17,55 @@
 
 package org.apache.streampark.console.core.websocket;
 
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.base.util.SpringContextUtils;
+import org.apache.streampark.console.core.entity.FlinkApplication;
 import org.apache.streampark.console.core.entity.Message;
+import org.apache.streampark.console.core.enums.UserTypeEnum;
+import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+import org.apache.streampark.console.system.entity.User;
+import org.apache.streampark.console.system.service.MemberService;
+import org.apache.streampark.console.system.service.UserService;
 
-import io.undertow.util.CopyOnWriteMap;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.websocket.OnClose;
 import javax.websocket.OnError;
+import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
 
-import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ *
+ *
+ * <pre>
+ * The session is subscribed to the topic of the user on open, and the client subscribes to the app and build topics
+ * by messages: subscribe:app:{appId}, subscribe:build:{appId}, unsubscribe:{topic}
+ * The app topic receives the state changes of the flink app, and the build topic receives the progress of its build
+ * pipeline, only the members of the team of the app can subscribe to them.
+ * </pre>
+ */
 @Getter
 @Slf4j
 @Component
 @ServerEndpoint(value = "/websocket/{id}")
 public class WebSocketEndpoint {
 
-    private static final Map<String, Session> SOCKET_SESSIONS = new CopyOnWriteMap<>();
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final String SUBSCRIBE = "subscribe:";
+
+    private static final String UNSUBSCRIBE = "unsubscribe:";
+
+    private static final WebSocketHub HUB =
+        new WebSocketHub(QUEUE_CAPACITY, WebSocketOutbound.SlowConsumerPolicy.DROP_OLDEST);
 
     private String id;
 
@@ -51,19 +76,54 @@ public class WebSocketEndpoint {
         log.debug("Websocket onOpen....");
         this.id = id;
         this.session = session;
-        SOCKET_SESSIONS.put(id, session);
+        HUB.register(session, WebSocketHub.userTopic(id));
+    }
+
+    @OnMessage
+    public void onMessage(String message) {
+        if (message.startsWith(SUBSCRIBE)) {
+            String topic = message.substring(SUBSCRIBE.length());
+            // the topics of other users are not allowed to subscribe
+            if (WebSocketHub.isPublicTopic(topic) && canAccess(WebSocketHub.appIdOf(topic))) {
+                HUB.subscribe(session.getId(), topic);
+            } else {
+                log.warn("Websocket id: {} is not allowed to subscribe to {}", this.id, topic);
+            }
+        } else if (message.startsWith(UNSUBSCRIBE)) {
+            HUB.unsubscribe(session.getId(), message.substring(UNSUBSCRIBE.length()));
+        }
+    }
+
+    /** Whether the user of the session is the owner of the app, or a member of the team of the app. */
+    private boolean canAccess(Long appId) {
+        if (appId == null) {
+            return false;
+        }
+        try {
+            User user = SpringContextUtils.getBean(UserService.class).getById(Long.parseLong(this.id));
+            if (user == null) {
+                return false;
+            }
+            if (user.getUserType() == UserTypeEnum.ADMIN) {
+                return true;
+            }
+            FlinkApplication app = SpringContextUtils.getBean(FlinkApplicationManageService.class).getById(appId);
+            if (app == null) {
+                return false;
+            }
+            return user.getUserId().equals(app.getUserId())
+                || SpringContextUtils.getBean(MemberService.class)
+                    .getByTeamIdUserName(app.getTeamId(), user.getUsername()) != null;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
 
     @OnClose
     public void onClose() {
-        if (SOCKET_SESSIONS.containsKey(this.id)) {
-            try (Session remove = SOCKET_SESSIONS.remove(this.id)) {
-                if (remove != null) {
-                    log.debug("Websocket onClose id: {}", this.id);
-                }
-            } catch (IOException e) {
-                log.error("WebSocket onClose error: {}", e.getMessage(), e);
-            }
+        if (this.session != null) {
+            HUB.unregister(this.session);
+            log.debug("Websocket onClose id: {}", this.id);
         }
     }
 
@@ -73,24 +133,54 @@ public class WebSocketEndpoint {
     }
 
     public static void writeMessage(String socketId, String message) {
+        HUB.publish(WebSocketHub.userTopic(socketId), message);
+    }
+
+    public static void pushNotice(Message message) {
         try {
-            Session session = SOCKET_SESSIONS.get(socketId);
-            if (session != null) {
-                session.getBasicRemote().sendText(message);
-            }
-        } catch (IOException e) {
+            HUB.publish(WebSocketHub.userTopic(message.getUserId()), JacksonUtils.write(message));
+        } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
     }
 
-    public static void pushNotice(Message message) {
+    /**
+     * Publish the message to the topic, only the latest message of the coalescing key is sent to a
+     * session which has not received the previous ones yet.
+     */
+    public static void publish(String topic, String coalescingKey, String message) {
+        HUB.publish(topic, coalescingKey, message);
+    }
+
+    /** Publish the state change of the flink app, a session only receives the latest one of the rapid changes. */
+    public static void publishAppState(Long appId, Object state) {
+        publishEvent(WebSocketHub.appTopic(appId), "state", state);
+    }
+
+    /**
+     * Publish the build progress of the flink app, the progress of the same type, such as the pipeline snapshot or the
+     * docker build log, is coalesced.
+     */
+    public static void publishBuildProgress(Long appId, String type, Object progress) {
+        publishEvent(WebSocketHub.buildTopic(appId), type, progress);
+    }
+
+    private static void publishEvent(String topic, String type, Object data) {
+        if (!HUB.hasSubscribers(topic)) {
+            return;
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("topic", topic);
+        event.put("type", type);
+        event.put("data", data);
         try {
-            Session session = SOCKET_SESSIONS.get(message.getUserId().toString());
-            if (session != null) {
-                session.getBasicRemote().sendObject(message);
-            }
+            HUB.publish(topic, type, JacksonUtils.write(event));
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
     }
+
+    public static Map<String, Long> getMetrics() {
+        return HUB.getMetrics();
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.Session;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan out the messages to the websocket sessions subscribed to the topic. Publishing never blocks on
+ * a session, the messages are queued to the outbound queue of every session and sent asynchronously,
+ * see {@link WebSocketOutbound}.
+ */
+@Slf4j
+public class WebSocketHub {
+
+    private static final String USER_TOPIC_PREFIX = "user:";
+
+    private static final String APP_TOPIC_PREFIX = "app:";
+
+    private static final String BUILD_TOPIC_PREFIX = "build:";
+
+    private final int queueCapacity;
+
+    private final WebSocketOutbound.SlowConsumerPolicy policy;
+
+    // session id -> outbound queue
+    private final Map<String, WebSocketOutbound> outbounds = new ConcurrentHashMap<>();
+
+    // topic -> session ids
+    private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+
+    // the number of the sessions closed while publishing, mostly the disconnected slow consumers
+    private final AtomicLong disconnectedCount = new AtomicLong();
+
+    public WebSocketHub(int queueCapacity, WebSocketOutbound.SlowConsumerPolicy policy) {
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+    }
+
+    public static String userTopic(Object userId) {
+        return USER_TOPIC_PREFIX + userId;
+    }
+
+    public static String appTopic(Long appId) {
+        return APP_TOPIC_PREFIX + appId;
+    }
+
+    public static String buildTopic(Long appId) {
+        return BUILD_TOPIC_PREFIX + appId;
+    }
+
+    /** Whether the topic can be subscribed by the client, the topics of the users are not. */
+    public static boolean isPublicTopic(String topic) {
+        return topic.startsWith(APP_TOPIC_PREFIX) || topic.startsWith(BUILD_TOPIC_PREFIX);
+    }
+
+    /**
+     * Get the app id of the app or build topic.
+     *
+     * @param topic the topic
+     * @return the app id, or null if the topic is not an app or build topic
+     */
+    public static Long appIdOf(String topic) {
+        String appId;
+        if (topic.startsWith(APP_TOPIC_PREFIX)) {
+            appId = topic.substring(APP_TOPIC_PREFIX.length());
+        } else if (topic.startsWith(BUILD_TOPIC_PREFIX)) {
+            appId = topic.substring(BUILD_TOPIC_PREFIX.length());
+        } else {
+            return null;
+        }
+        try {
+            return Long.parseLong(appId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public void register(Session session, String topic) {
+        outbounds.put(session.getId(), new WebSocketOutbound(session, queueCapacity, policy));
+        subscribe(session.getId(), topic);
+    }
+
+    public void unregister(Session session) {
+        WebSocketOutbound outbound = outbounds.remove(session.getId());
+        if (outbound != null) {
+            outbound.close();
+        }
+        subscriptions.values().forEach(sessionIds -> sessionIds.remove(session.getId()));
+        subscriptions.values().removeIf(Set::isEmpty);
+    }
+
+    public void subscribe(String sessionId, String topic) {
+        if (outbounds.containsKey(sessionId)) {
+            subscriptions.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    public void unsubscribe(String sessionId, String topic) {
+        subscriptions.computeIfPresent(topic, (k, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    /** Whether any session subscribed to the topic, so that the message is not built for nobody. */
+    public boolean hasSubscribers(String topic) {
+        return subscriptions.containsKey(topic);
+    }
+
+    /**
+     * Publish the message to all the sessions subscribed to the topic.
+     *
+     * @param topic the topic
+     * @param message the message
+     */
+    public void publish(String topic, String message) {
+        publish(topic, null, message);
+    }
+
+    /**
+     * Publish the message to all the sessions subscribed to the topic, the queued message of the same
+     * coalescing key is replaced, so that a session only receives the latest one of the rapid updates.
+     *
+     * @param topic the topic
+     * @param coalescingKey the coalescing key, such as the status of an app
+     * @param message the message
+     */
+    public void publish(String topic, String coalescingKey, String message) {
+        for (String sessionId : subscriptions.getOrDefault(topic, Collections.emptySet())) {
+            WebSocketOutbound outbound = outbounds.get(sessionId);
+            if (outbound != null && !outbound.offer(coalescingKey, message)) {
+                // the session was closed or disconnected as a slow consumer
+                unregister(outbound.getSession());
+                disconnectedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Get the metrics of the hub: the number of sessions, the total and max queue depth, the number
+     * of the sent, dropped and coalesced messages of the current sessions, and the number of the
+     * disconnected sessions.
+     */
+    public Map<String, Long> getMetrics() {
+        long queueDepth = 0;
+        long maxQueueDepth = 0;
+        long sent = 0;
+        long dropped = 0;
+        long coalesced = 0;
+        for (WebSocketOutbound outbound : outbounds.values()) {
+            int depth = outbound.getQueueDepth();
+            queueDepth += depth;
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+            sent += outbound.getSentCount().get();
+            dropped += outbound.getDroppedCount().get();
+            coalesced += outbound.getCoalescedCount().get();
+        }
+        Map<String, Long> metrics = new HashMap<>();
+        metrics.put("sessions", (long) outbounds.size());
+        metrics.put("queueDepth", queueDepth);
+        metrics.put("maxQueueDepth", maxQueueDepth);
+        metrics.put("sent", sent);
+        metrics.put("dropped", dropped);
+        metrics.put("coalesced", coalesced);
+        metrics.put("disconnected", disconnectedCount.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ *
+ * <pre>
+ * The outbound queue of a websocket session, the messages are sent asynchronously one at a time:
+ * 1) A message with a coalescing key replaces the queued message of the same key, only the latest one is sent.
+ * 2) The queue is bounded, a slow session either drops its oldest messages or is disconnected, see {@link SlowConsumerPolicy}.
+ * </pre>
+ */
+@Slf4j
+public class WebSocketOutbound {
+
+    /** What to do when the outbound queue of a session is full. */
+    public enum SlowConsumerPolicy {
+
+        /** Drop the oldest queued message to make room for the new one. */
+        DROP_OLDEST,
+
+        /** Close the session, the client is expected to reconnect. */
+        DISCONNECT
+    }
+
+    @Getter
+    private final Session session;
+
+    private final int capacity;
+
+    private final SlowConsumerPolicy policy;
+
+    // the queued messages in order, keyed by the coalescing key or a unique sequence
+    private final Map<Object, String> pending = new LinkedHashMap<>();
+
+    private boolean sending = false;
+
+    private boolean closed = false;
+
+    @Getter
+    private final AtomicLong sentCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public WebSocketOutbound(Session session, int capacity, SlowConsumerPolicy policy) {
+        this.session = session;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Queue the message to send.
+     *
+     * @param coalescingKey the key of the message which is replaced by a later one, null if the
+     *     message should always be sent
+     * @param message the message
+     * @return false if the session is closed or disconnected as a slow consumer
+     */
+    public boolean offer(String coalescingKey, String message) {
+        boolean slow = false;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (coalescingKey != null && pending.containsKey(coalescingKey)) {
+                pending.put(coalescingKey, message);
+                coalescedCount.incrementAndGet();
+                return true;
+            }
+            if (pending.size() >= capacity && policy == SlowConsumerPolicy.DROP_OLDEST) {
+                Iterator<Object> iterator = pending.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+                if (droppedCount.incrementAndGet() == 1) {
+                    log.warn("WebSocket session {} is too slow, the oldest messages are dropped.", session.getId());
+                }
+            }
+            if (pending.size() < capacity) {
+                pending.put(coalescingKey == null ? new Object() : coalescingKey, message);
+            } else {
+                close();
+                slow = true;
+            }
+        }
+        if (slow) {
+            // the session is disconnected outside the lock
+            disconnect();
+            return false;
+        }
+        sendNext();
+        return true;
+    }
+
+    /** The number of the queued messages. */
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    private void sendNext() {
+        String message;
+        synchronized (this) {
+            if (sending || closed || pending.isEmpty()) {
+                return;
+            }
+            Iterator<String> iterator = pending.values().iterator();
+            message = iterator.next();
+            iterator.remove();
+            sending = true;
+        }
+        try {
+            session.getAsyncRemote().sendText(message, result -> {
+                if (result.isOK()) {
+                    sentCount.incrementAndGet();
+                } else {
+                    log.debug("WebSocket session {} send error: {}", session.getId(), result.getException().getMessage());
+                }
+                synchronized (this) {
+                    sending = false;
+                }
+                sendNext();
+            });
+        } catch (Exception e) {
+            log.debug("WebSocket session {} send error: {}", session.getId(), e.getMessage());
+            synchronized (this) {
+                sending = false;
+            }
+            close();
+        }
+    }
+
+    private void disconnect() {
+        log.warn("WebSocket session {} is too slow, disconnect it.", session.getId());
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+        } catch (IOException e) {
+            log.debug("WebSocket session {} close error: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -240,6 +240,7 @@ create table if not exists `t_distributed_task`
     `action`                       tinyint not null,
     `engine_type`                  tinyint not null,
     `properties`                   text,
+    `server_id`                    varchar(128) default null comment 'the server which claimed the task',
     primary key (`id`)
 );
 
@@ -18,6 +18,7 @@
 package org.apache.streampark.console.base.util;
 
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -25,6 +26,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -87,4 +90,78 @@ public class ConsistentHashTest {
         });
         log.info("time: {}ms", System.currentTimeMillis() - startTime);
     }
+
+    @Test
+    public void balance() {
+        Map<String, Long> counts = countByServer(hash);
+        Assertions.assertEquals(servers.size(), counts.size());
+        // every server owns its fair share of the jobs within 5%
+        long fairShare = jobNum / servers.size();
+        counts.values().forEach(count -> Assertions.assertTrue(
+            Math.abs(count - fairShare) < fairShare * 0.05, "unbalanced count: " + count));
+    }
+
+    @Test
+    public void minimalMovement() {
+        Map<Integer, String> before = jobIds.stream().collect(Collectors.toMap(Function.identity(), hash::get));
+
+        hash.add("Server-D");
+        for (Integer jobId : jobIds) {
+            String server = hash.get(jobId);
+            // only the jobs taken over by the added server are moved
+            Assertions.assertTrue(server.equals(before.get(jobId)) || server.equals("Server-D"));
+        }
+
+        hash.remove("Server-D");
+        hash.remove("Server-C");
+        for (Integer jobId : jobIds) {
+            String server = hash.get(jobId);
+            // only the jobs of the removed server are moved
+            Assertions.assertTrue(server.equals(before.get(jobId)) || before.get(jobId).equals("Server-C"));
+        }
+        Assertions.assertEquals(2L * (2 << 16), hash.getSize());
+    }
+
+    @Test
+    public void sameDistributionAsTreeMap() {
+        long ringStart = System.currentTimeMillis();
+        hash.add("Server-D");
+        hash.remove("Server-B");
+        long ringTime = System.currentTimeMillis() - ringStart;
+
+        long treeMapStart = System.currentTimeMillis();
+        SortedMap<Long, String> circle = new TreeMap<>();
+        for (String server : Arrays.asList("Server-A", "Server-C", "Server-D")) {
+            for (int i = 0; i < 2 << 16; i++) {
+                circle.put(Murmur3Hash.hash64(server + i), server);
+            }
+        }
+        log.info("add and remove a server: {}ms, build TreeMap of 3 servers: {}ms",
+            ringTime, System.currentTimeMillis() - treeMapStart);
+        Assertions.assertEquals(circle.size(), hash.getSize());
+        for (Integer jobId : jobIds) {
+            long jobHash = Murmur3Hash.hash64(jobId.toString());
+            SortedMap<Long, String> tailMap = circle.tailMap(jobHash);
+            String expected = tailMap.isEmpty() ? circle.get(circle.firstKey()) : tailMap.get(tailMap.firstKey());
+            Assertions.assertEquals(expected, hash.get(jobId));
+        }
+    }
+
+    @Test
+    public void emptyRing() {
+        ConsistentHash<String> emptyHash = new ConsistentHash<>(new ArrayList<>());
+        Assertions.assertNull(emptyHash.get(1));
+        emptyHash.add("Server-A");
+        emptyHash.add("Server-A");
+        Assertions.assertEquals(2 << 16, emptyHash.getSize());
+        Assertions.assertEquals("Server-A", emptyHash.get(1));
+        emptyHash.remove("Server-A");
+        Assertions.assertNull(emptyHash.get(1));
+    }
+
+    private Map<String, Long> countByServer(ConsistentHash<String> consistentHash) {
+        return jobIds.stream()
+            .map(consistentHash::get)
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.console.SpringUnitTestBase;
+import org.apache.streampark.console.core.entity.DistributedTask;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
+import org.apache.streampark.console.core.mapper.DistributedTaskMapper;
+import org.apache.streampark.console.core.service.application.FlinkApplicationActionService;
+import org.apache.streampark.console.core.service.impl.DistributedTaskServiceImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+
+/**
+ * Verify that the tasks are executed exactly once while several dispatchers compete for them on the
+ * same table, the dispatcher of the console context takes part in the competition as well.
+ */
+class DistributedTaskDispatchTest extends SpringUnitTestBase {
+
+    private static final int TASK_NUM = 200;
+
+    @Autowired
+    private DistributedTaskService distributedTaskService;
+
+    @Autowired
+    private DistributedTaskMapper distributedTaskMapper;
+
+    private final Map<Long, AtomicInteger> executions = new ConcurrentHashMap<>();
+
+    private final List<DistributedTaskServiceImpl> dispatchers = new ArrayList<>();
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    private DistributedTaskServiceImpl contextDispatcher;
+
+    private Object contextActionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FlinkApplicationActionService actionService = Mockito.mock(FlinkApplicationActionService.class);
+        Mockito.doAnswer(invocation -> {
+            FlinkApplication application = invocation.getArgument(0);
+            executions.computeIfAbsent(application.getId(), k -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }).when(actionService).start(any(), anyBoolean());
+
+        contextDispatcher = AopTestUtils.getUltimateTargetObject(distributedTaskService);
+        contextActionService = ReflectionTestUtils.getField(contextDispatcher, "flinkApplicationActionService");
+        ReflectionTestUtils.setField(contextDispatcher, "flinkApplicationActionService", actionService);
+
+        Set<String> servers = new HashSet<>(Arrays.asList("node-1", "node-2"));
+        for (String server : servers) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            DistributedTaskServiceImpl dispatcher = new DistributedTaskServiceImpl();
+            ReflectionTestUtils.setField(dispatcher, "baseMapper", distributedTaskMapper);
+            ReflectionTestUtils.setField(dispatcher, "taskExecutor", executor);
+            ReflectionTestUtils.setField(dispatcher, "flinkApplicationActionService", actionService);
+            dispatcher.init(servers, server);
+            dispatchers.add(dispatcher);
+            executors.add(executor);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ExecutorService::shutdownNow);
+        ReflectionTestUtils.setField(contextDispatcher, "flinkApplicationActionService", contextActionService);
+    }
+
+    @Test
+    void testTaskExecutedExactlyOnce() throws Exception {
+        for (long appId = 1; appId <= TASK_NUM; appId++) {
+            FlinkApplication application = new FlinkApplication();
+            application.setId(appId);
+            distributedTaskService.saveDistributedTask(application, false, DistributedTaskEnum.START);
+            dispatchers.forEach(DistributedTaskServiceImpl::wakeUpDispatcher);
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (System.currentTimeMillis() < deadline
+            && (executions.size() < TASK_NUM || distributedTaskService.count() > 0)) {
+            dispatchers.forEach(DistributedTaskServiceImpl::pollDistributedTask);
+            Thread.sleep(10);
+        }
+
+        Assertions.assertEquals(TASK_NUM, executions.size());
+        Assertions.assertTrue(executions.values().stream().allMatch(count -> count.get() == 1));
+        Assertions.assertEquals(0, distributedTaskService.count());
+    }
+
+    @Test
+    void testReleasedTaskIsFenced() throws Exception {
+        // the tasks were claimed by a server which is taken as dead but has not started them yet
+        DistributedTaskServiceImpl removed = dispatchers.get(0);
+        String claimToken = (String) ReflectionTestUtils.getField(removed, "claimToken");
+        List<DistributedTask> claimedTasks = new ArrayList<>();
+        for (long appId = 1; appId <= TASK_NUM; appId++) {
+            FlinkApplication application = new FlinkApplication();
+            application.setId(appId);
+            DistributedTask task = removed.getDistributedTaskByFlinkApp(application, false, DistributedTaskEnum.START);
+            task.setServerId(claimToken);
+            distributedTaskMapper.insert(task);
+            claimedTasks.add(task);
+        }
+
+        DistributedTaskServiceImpl survivor = dispatchers.get(1);
+        survivor.removeServer((String) ReflectionTestUtils.getField(removed, "serverId"));
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (System.currentTimeMillis() < deadline
+            && (executions.size() < TASK_NUM || distributedTaskService.count() > 0)) {
+            survivor.pollDistributedTask();
+            Thread.sleep(10);
+        }
+
+        // the removed server starts its tasks after they were taken over
+        claimedTasks.forEach(task -> ReflectionTestUtils.invokeMethod(removed, "dispatch", task));
+        removed.pollDistributedTask();
+
+        Assertions.assertEquals(TASK_NUM, executions.size());
+        Assertions.assertTrue(executions.values().stream().allMatch(count -> count.get() == 1));
+        Assertions.assertEquals(0, distributedTaskService.count());
+    }
+}
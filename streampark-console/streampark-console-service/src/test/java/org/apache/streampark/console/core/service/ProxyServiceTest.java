@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.common.enums.FlinkDeployMode;
+import org.apache.streampark.console.core.entity.FlinkCluster;
+import org.apache.streampark.console.core.service.impl.ProxyServiceImpl;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/** Verify that the proxied responses are streamed to the client rather than buffered. */
+class ProxyServiceTest {
+
+    private static final long BODY_SIZE = 16L << 20;
+
+    // the upstream holds the rest of the body until the client received the first half
+    private final CountDownLatch clientReceived = new CountDownLatch(1);
+
+    private volatile boolean streamed;
+
+    private HttpServer server;
+
+    private ProxyServiceImpl proxyService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/taskmanagers/log", exchange -> {
+            byte[] chunk = new byte[64 * 1024];
+            Arrays.fill(chunk, (byte) 'x');
+            exchange.sendResponseHeaders(200, BODY_SIZE);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (long written = 0; written < BODY_SIZE; written += chunk.length) {
+                    if (written == BODY_SIZE / 2) {
+                        out.flush();
+                        streamed = clientReceived.await(10, TimeUnit.SECONDS);
+                    }
+                    out.write(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.createContext("/jobmanager/log", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            byte[] body = "0123456789".getBytes(StandardCharsets.UTF_8);
+            if ("bytes=2-5".equals(range)) {
+                exchange.getResponseHeaders().add("Content-Range", "bytes 2-5/10");
+                exchange.sendResponseHeaders(206, 4);
+                exchange.getResponseBody().write(body, 2, 4);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        FlinkCluster cluster = new FlinkCluster();
+        cluster.setId(1L);
+        cluster.setAddress("http://localhost:" + server.getAddress().getPort());
+        cluster.setDeployMode(FlinkDeployMode.REMOTE.getMode());
+        FlinkClusterService flinkClusterService = Mockito.mock(FlinkClusterService.class);
+        Mockito.when(flinkClusterService.getById(1L)).thenReturn(cluster);
+
+        proxyService = new ProxyServiceImpl();
+        ReflectionTestUtils.setField(proxyService, "flinkClusterService", flinkClusterService);
+        ReflectionTestUtils.setField(proxyService, "proxyStreamingExecutor", (Executor) Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        proxyService.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testStreamLargeBody() throws Exception {
+        ResponseEntity<?> response = proxyService.proxyFlinkCluster(request("/taskmanagers/log"), 1L);
+        Assertions.assertEquals(200, response.getStatusCodeValue());
+        Assertions.assertEquals(BODY_SIZE, response.getHeaders().getContentLength());
+        Assertions.assertTrue(response.getBody() instanceof StreamingResponseBody);
+
+        long[] received = new long[1];
+        OutputStream client = new OutputStream() {
+
+            @Override
+            public void write(int b) {
+                count(1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                count(len);
+            }
+
+            private void count(long len) {
+                received[0] += len;
+                if (received[0] >= BODY_SIZE / 2) {
+                    clientReceived.countDown();
+                }
+            }
+        };
+        ((StreamingResponseBody) response.getBody()).writeTo(client);
+
+        Assertions.assertEquals(BODY_SIZE, received[0]);
+        // a buffering proxy only forwards the body after the upstream completed it
+        Assertions.assertTrue(streamed, "the body was not forwarded before the upstream completed it");
+    }
+
+    @Test
+    void testRangeRequest() throws Exception {
+        MockHttpServletRequest request = request("/jobmanager/log");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        ResponseEntity<?> response = proxyService.proxyFlinkCluster(request, 1L);
+
+        Assertions.assertEquals(206, response.getStatusCodeValue());
+        Assertions.assertEquals("bytes 2-5/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        Assertions.assertEquals(4, response.getHeaders().getContentLength());
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        ((StreamingResponseBody) response.getBody()).writeTo(client);
+        Assertions.assertEquals("2345", client.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/flink_cluster/1" + path);
+        request.addHeader(HttpHeaders.HOST, "console.streampark.org");
+        return request;
+    }
+}
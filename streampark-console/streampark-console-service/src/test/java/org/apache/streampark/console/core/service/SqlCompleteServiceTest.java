@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.console.core.enums.SqlIdentifierTypeEnum;
+import org.apache.streampark.console.core.service.impl.SqlCompleteServiceImpl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Test class for {@link SqlCompleteServiceImpl}. */
+class SqlCompleteServiceTest {
+
+    private static final Long TEAM = 1L;
+
+    private SqlCompleteServiceImpl sqlCompleteService;
+
+    @BeforeEach
+    void setUp() {
+        sqlCompleteService = new SqlCompleteServiceImpl();
+        sqlCompleteService.initialize();
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Arrays.asList("user_orders", "users"));
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db2", Collections.singletonList("users"));
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.COLUMN, "hive.db1.users", Arrays.asList("user_id", "user_name"));
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.COLUMN, "hive.db1.user_orders", Arrays.asList("user_id", "amount"));
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.FUNCTION, "hive.db1", Collections.singletonList("upper_udf"));
+    }
+
+    @Test
+    void testKeywords() {
+        assertThat(sqlCompleteService.getComplete(TEAM, "sele")).startsWith("select");
+        assertThat(sqlCompleteService.getComplete(TEAM, "SELE")).startsWith("select");
+        // the wrong typing is corrected by the longest prefix matched
+        assertThat(sqlCompleteService.getComplete(TEAM, "selz")).contains("select");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select ")).isEmpty();
+        assertThat(sqlCompleteService.getComplete(TEAM, "")).isEmpty();
+    }
+
+    @Test
+    void testContext() {
+        // the tables after FROM or JOIN, ranked by the number of the databases having them
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from us"))
+            .startsWith("users", "user_orders");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users a join user_"))
+            .startsWith("user_orders");
+        // the columns and the functions after SELECT or WHERE, then the keywords
+        assertThat(sqlCompleteService.getComplete(TEAM, "select u"))
+            .startsWith("user_id", "user_name", "upper_udf")
+            .contains("update");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select count(am"))
+            .startsWith("amount");
+        assertThat(sqlCompleteService.getComplete(TEAM, "us")).doesNotContain("users", "user_id");
+    }
+
+    @Test
+    void testQualified() {
+        // the columns of the table aliased as the qualifier only
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users a where a.us"))
+            .containsExactly("a.user_id", "a.user_name");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users a join user_orders as o on o."))
+            .containsExactly("o.amount", "o.user_id");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select users.us"))
+            .containsExactly("users.user_id", "users.user_name");
+        // the tables of the database
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from db2.us")).containsExactly("db2.users");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from hive.db1.user_"))
+            .containsExactly("hive.db1.user_orders");
+        // nothing is suggested for an unknown qualifier
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users where a.us")).isEmpty();
+    }
+
+    @Test
+    void testRemoveOwner() {
+        sqlCompleteService.removeOwner(TEAM, "hive.db1");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from user_")).doesNotContain("user_orders");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from us")).contains("users");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select u")).doesNotContain("user_id", "upper_udf");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users a where a.us")).isEmpty();
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from db2.us")).containsExactly("db2.users");
+    }
+
+    @Test
+    void testUpdateWords() {
+        sqlCompleteService.updateWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Collections.singletonList("users"));
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from user_")).doesNotContain("user_orders");
+
+        sqlCompleteService.removeWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db2", Collections.singletonList("users"));
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users")).contains("users");
+        sqlCompleteService.removeWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Collections.singletonList("users"));
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users")).doesNotContain("users");
+
+        sqlCompleteService.addWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Collections.singletonList("users"));
+        sqlCompleteService.addWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Collections.singletonList("users"));
+        sqlCompleteService.removeWords(
+            TEAM, SqlIdentifierTypeEnum.TABLE, "hive.db1", Collections.singletonList("users"));
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from users")).doesNotContain("users");
+    }
+
+    @Test
+    void testTeamScope() {
+        sqlCompleteService.updateWords(
+            2L, SqlIdentifierTypeEnum.TABLE, "jdbc.db3", Collections.singletonList("user_logs"));
+        sqlCompleteService.updateWords(
+            2L, SqlIdentifierTypeEnum.COLUMN, "jdbc.db3.user_logs", Collections.singletonList("user_ip"));
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from user_")).doesNotContain("user_logs");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from user_logs a where a.")).isEmpty();
+        assertThat(sqlCompleteService.getComplete(2L, "select * from user_")).startsWith("user_logs");
+        assertThat(sqlCompleteService.getComplete(2L, "select * from user_logs a where a."))
+            .containsExactly("a.user_ip");
+        // the keywords only for a team without catalogs
+        assertThat(sqlCompleteService.getComplete(3L, "select * from us")).doesNotContain("users");
+        assertThat(sqlCompleteService.getComplete(3L, "sele")).startsWith("select");
+
+        sqlCompleteService.removeOwner(2L, "hive.db1");
+        assertThat(sqlCompleteService.getComplete(TEAM, "select * from user_")).contains("user_orders");
+    }
+}
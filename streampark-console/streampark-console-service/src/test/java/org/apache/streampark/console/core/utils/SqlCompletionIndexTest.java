@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.utils;
+
+import org.apache.streampark.console.core.util.SqlCompletionIndex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Test class for {@link SqlCompletionIndex}. */
+@Slf4j
+class SqlCompletionIndexTest {
+
+    @Test
+    void testComplete() {
+        SqlCompletionIndex index = new SqlCompletionIndex();
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("select", 100);
+        weights.put("sequence", 5);
+        weights.put("set", 5);
+        weights.put("from", 50);
+        index.update(weights);
+
+        assertThat(index.complete("se", 10)).containsExactly("select", "sequence", "set");
+        assertThat(index.complete("SE", 2)).containsExactly("select", "sequence");
+        assertThat(index.complete("f", 10)).containsExactly("from");
+        assertThat(index.complete("x", 10)).isEmpty();
+        assertThat(index.complete("", 2)).containsExactly("select", "from");
+    }
+
+    @Test
+    void testIncrementalUpdate() {
+        SqlCompletionIndex index = new SqlCompletionIndex();
+        index.add(Arrays.asList("Orders", "order_items"));
+        index.add(Arrays.asList("ORDERS", "customers"));
+        // the words are merged case-insensitively and keep the case first added
+        assertThat(index.getWeight("orders")).isEqualTo(2);
+        assertThat(index.complete("ord", 10)).containsExactly("Orders", "order_items");
+
+        index.remove(Arrays.asList("orders", "order_items", "missing"));
+        assertThat(index.complete("ord", 10)).containsExactly("Orders");
+        index.remove(Arrays.asList("orders"));
+        assertThat(index.complete("ord", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testSameAsSortedScan() {
+        Random random = new Random(42);
+        SqlCompletionIndex index = new SqlCompletionIndex();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int round = 0; round < 20; round++) {
+            Map<String, Integer> deltas = new HashMap<>();
+            for (int i = 0; i < 200; i++) {
+                String word = randomWord(random, 1 + random.nextInt(4));
+                int delta = random.nextInt(10) - 2;
+                deltas.merge(word, delta, Integer::sum);
+            }
+            index.update(deltas);
+            deltas.forEach((word, delta) -> expected.merge(word, delta, Integer::sum));
+            expected.values().removeIf(weight -> weight <= 0);
+
+            for (String prefix : Arrays.asList("", "a", "b", "ab", "c", "abc", "dd")) {
+                List<String> scanned = expected.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix))
+                    .sorted(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue)
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                    .limit(15)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+                assertThat(index.complete(prefix, 15)).isEqualTo(scanned);
+            }
+        }
+    }
+
+    /** The latency of the completion over a catalog of 200k identifiers. */
+    @Test
+    void testLargeCatalogLatency() {
+        Random random = new Random(7);
+        SqlCompletionIndex index = new SqlCompletionIndex();
+        long start = System.nanoTime();
+        // fed incrementally, like the tables listed database by database
+        for (int db = 0; db < 200; db++) {
+            List<String> words = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                words.add(randomWord(random, 3) + "_" + randomWord(random, 2 + random.nextInt(10)));
+            }
+            index.add(words);
+        }
+        long buildNanos = System.nanoTime() - start;
+        assertThat(index.size()).isGreaterThan(150_000);
+
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            prefixes.add(randomWord(random, 1 + random.nextInt(4)));
+        }
+        // warm up
+        prefixes.forEach(prefix -> index.complete(prefix, 20));
+        start = System.nanoTime();
+        long matched = 0;
+        for (String prefix : prefixes) {
+            matched += index.complete(prefix, 20).size();
+        }
+        long lookupNanos = (System.nanoTime() - start) / prefixes.size();
+        log.info(
+            "{} identifiers, incremental build: {} ms, lookup: {} us per prefix, {} matched",
+            index.size(),
+            buildNanos / 1_000_000,
+            lookupNanos / 1000.0,
+            matched);
+        assertThat(lookupNanos).isLessThan(1_000_000);
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+}
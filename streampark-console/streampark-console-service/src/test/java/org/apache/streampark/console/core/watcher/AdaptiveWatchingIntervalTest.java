@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveWatchingIntervalTest {
+
+    private static final long MIN_INTERVAL = 5_000L;
+
+    private static final long MAX_INTERVAL = 80_000L;
+
+    @Test
+    void testBackoffWhileStable() {
+        long timeMillis = 0L;
+        AdaptiveWatchingInterval interval = new AdaptiveWatchingInterval(MIN_INTERVAL, MAX_INTERVAL, timeMillis);
+        Assertions.assertTrue(interval.isDue(timeMillis));
+
+        // keeps the min interval within the first minute
+        while (timeMillis < 60_000L) {
+            timeMillis = interval.scheduleNext(timeMillis, true);
+            Assertions.assertEquals(MIN_INTERVAL, interval.getInterval());
+        }
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(interval.isDue(timeMillis - 1));
+            timeMillis = interval.scheduleNext(timeMillis, true);
+        }
+        Assertions.assertEquals(MAX_INTERVAL, interval.getInterval());
+    }
+
+    @Test
+    void testSnapBack() {
+        long timeMillis = 0L;
+        AdaptiveWatchingInterval interval = backoff(timeMillis);
+        timeMillis = interval.getNextWatchTime();
+
+        // state change
+        interval.markUnstable(timeMillis);
+        Assertions.assertEquals(MIN_INTERVAL, interval.getInterval());
+        Assertions.assertEquals(timeMillis + MIN_INTERVAL, interval.scheduleNext(timeMillis, true));
+
+        // user action, watched on every tick within the fast window
+        interval = backoff(timeMillis);
+        timeMillis = interval.getNextWatchTime();
+        interval.markUserAction(timeMillis, 10_000L);
+        Assertions.assertEquals(timeMillis + MIN_INTERVAL, interval.scheduleNext(timeMillis, true));
+        Assertions.assertTrue(interval.isDue(timeMillis + 1_000L));
+        timeMillis = interval.scheduleNext(timeMillis + 1_000L, true);
+        Assertions.assertTrue(interval.isDue(timeMillis - MIN_INTERVAL + 1_000L));
+        // the fast window is over
+        timeMillis = interval.scheduleNext(timeMillis + 10_000L, true);
+        Assertions.assertFalse(interval.isDue(timeMillis - 1));
+    }
+
+    @Test
+    void testUnstableHistoryLowersCeiling() {
+        long timeMillis = 0L;
+        AdaptiveWatchingInterval interval = new AdaptiveWatchingInterval(MIN_INTERVAL, MAX_INTERVAL, timeMillis);
+        // the first observed failed checkpoint is not known to be new
+        interval.markCheckpointFailed(1L, timeMillis);
+        interval.markCheckpointFailed(1L, timeMillis);
+        interval.markCheckpointFailed(2L, timeMillis);
+        interval.markCheckpointFailed(3L, timeMillis);
+        for (int i = 0; i < 30; i++) {
+            timeMillis = interval.scheduleNext(timeMillis, true);
+        }
+        Assertions.assertEquals(MAX_INTERVAL >> 2, interval.getInterval());
+
+        // the failures are out of the history window after an hour
+        while (timeMillis < 3_700_000L) {
+            timeMillis = interval.scheduleNext(timeMillis, true);
+        }
+        Assertions.assertEquals(MAX_INTERVAL, interval.getInterval());
+    }
+
+    private AdaptiveWatchingInterval backoff(long timeMillis) {
+        AdaptiveWatchingInterval interval = new AdaptiveWatchingInterval(MIN_INTERVAL, MAX_INTERVAL, timeMillis);
+        for (int i = 0; i < 30; i++) {
+            timeMillis = interval.scheduleNext(timeMillis, true);
+        }
+        Assertions.assertEquals(MAX_INTERVAL, interval.getInterval());
+        return interval;
+    }
+}
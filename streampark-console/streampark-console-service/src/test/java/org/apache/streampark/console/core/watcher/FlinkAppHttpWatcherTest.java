@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.enums.FlinkDeployMode;
+import org.apache.streampark.console.core.component.FlinkCheckpointProcessor;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkCluster;
+import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
+import org.apache.streampark.console.core.service.DistributedTaskService;
+import org.apache.streampark.console.core.service.FlinkClusterService;
+import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Verify that the apps running on the same cluster share one jobs overview request per tick. The
+ * apps are watched directly rather than registered to the shared watching list, so that the watcher
+ * of a running console context will not poll them.
+ */
+class FlinkAppHttpWatcherTest {
+
+    private static final int CLUSTER_NUM = 3;
+
+    private static final int JOB_NUM_PER_CLUSTER = 20;
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private final List<FlinkApplication> applications = new ArrayList<>();
+
+    private final Set<Long> ownedApps = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+
+    private FlinkApplicationManageService applicationManageService;
+
+    private FlinkAppHttpWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        for (long clusterId = 1; clusterId <= CLUSTER_NUM; clusterId++) {
+            List<String> jobIds = new ArrayList<>();
+            for (int i = 0; i < JOB_NUM_PER_CLUSTER; i++) {
+                FlinkApplication application = new FlinkApplication();
+                application.setId(clusterId * 1000 + i);
+                application.setJobId(String.format("%032d", application.getId()));
+                application.setFlinkClusterId(clusterId);
+                application.setDeployMode(FlinkDeployMode.REMOTE.getMode());
+                application.setState(FlinkAppStateEnum.STARTING.getValue());
+                applications.add(application);
+                jobIds.add(application.getJobId());
+            }
+            String prefix = "/cluster-" + clusterId;
+            server.createContext(prefix + "/jobs/overview", exchange -> {
+                count("overview");
+                respond(exchange, jobsOverview(jobIds));
+            });
+            server.createContext(prefix + "/jobs/", exchange -> {
+                count("checkpoints");
+                respond(exchange, "{\"history\":[]}");
+            });
+        }
+        server.start();
+
+        String address = "http://localhost:" + server.getAddress().getPort();
+        FlinkClusterService flinkClusterService = Mockito.mock(FlinkClusterService.class);
+        Mockito.when(flinkClusterService.getById(anyLong())).thenAnswer(invocation -> {
+            Long clusterId = invocation.getArgument(0);
+            FlinkCluster cluster = new FlinkCluster();
+            cluster.setId(clusterId);
+            cluster.setAddress(address + "/cluster-" + clusterId);
+            return cluster;
+        });
+
+        DistributedTaskService distributedTaskService = Mockito.mock(DistributedTaskService.class);
+        Mockito.when(distributedTaskService.isLocalProcessing(anyLong()))
+            .thenAnswer(invocation -> {
+                // the apps watched by a running console context are kept by this server
+                Long appId = invocation.getArgument(0);
+                return ownedApps.contains(appId)
+                    || applications.stream().noneMatch(app -> app.getId().equals(appId));
+            });
+        applicationManageService = Mockito.mock(FlinkApplicationManageService.class);
+
+        watcher = new FlinkAppHttpWatcher();
+        ReflectionTestUtils.setField(watcher, "flinkClusterService", flinkClusterService);
+        ReflectionTestUtils.setField(watcher, "distributedTaskService", distributedTaskService);
+        ReflectionTestUtils.setField(watcher, "applicationManageService", applicationManageService);
+        ReflectionTestUtils.setField(
+            watcher, "checkpointProcessor", Mockito.mock(FlinkCheckpointProcessor.class));
+        ReflectionTestUtils.setField(watcher, "watchExecutor", (Executor) Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        applications.forEach(app -> FlinkAppHttpWatcher.unWatching(app.getId()));
+        server.stop(0);
+    }
+
+    @Test
+    void testOneOverviewRequestPerClusterPerTick() {
+        long timeMillis = System.currentTimeMillis();
+        tick(timeMillis);
+        Assertions.assertEquals(CLUSTER_NUM, requests("overview"));
+        // the first tick fetches the checkpoints of every running job
+        Assertions.assertEquals(CLUSTER_NUM * JOB_NUM_PER_CLUSTER, requests("checkpoints"));
+        Assertions.assertTrue(
+            applications.stream().allMatch(app -> app.getStateEnum() == FlinkAppStateEnum.RUNNING));
+
+        for (int i = 1; i <= 5; i++) {
+            tick(timeMillis + i * FlinkAppHttpWatcher.WATCHING_INTERVAL.toMillis());
+            Assertions.assertEquals(CLUSTER_NUM, requests("overview"));
+            // the checkpoints of steadily running jobs are throttled
+            Assertions.assertEquals(0, requests("checkpoints"));
+        }
+    }
+
+    @Test
+    void testAppsOfClusterAreDueTogether() {
+        long timeMillis = System.currentTimeMillis();
+        // half of the apps of every cluster are watched a second earlier than the others
+        watcher.watch(
+            applications.stream().filter(app -> app.getId() % 2 == 0).collect(Collectors.toList()),
+            timeMillis);
+        tick(timeMillis + 1000);
+        Assertions.assertEquals(CLUSTER_NUM, requests("overview"));
+
+        int overviewRequests = 0;
+        long watchingInterval = FlinkAppHttpWatcher.WATCHING_INTERVAL.toMillis();
+        for (long elapsed = 2000; elapsed <= 1000 + watchingInterval; elapsed += 1000) {
+            tick(timeMillis + elapsed);
+            overviewRequests += requests("overview");
+        }
+        // one overview of every cluster updates all the apps of it
+        Assertions.assertEquals(CLUSTER_NUM, overviewRequests);
+    }
+
+    @Test
+    void testRebalanceOnlyHandsOverChangedOwners() {
+        Mockito.when(applicationManageService.list(Mockito.<Wrapper<FlinkApplication>>any()))
+            .thenAnswer(invocation -> copyOf(applications));
+
+        applications.stream().filter(app -> app.getId() % 2 == 0).forEach(app -> ownedApps.add(app.getId()));
+        watcher.rebalance();
+        Assertions.assertEquals(ownedApps, watchingAppIds());
+        Map<Long, FlinkApplication> watchingApps = FlinkAppHttpWatcher.getWatchingApps().stream()
+            .collect(Collectors.toMap(FlinkApplication::getId, app -> app));
+
+        // another server joined and took over a part of the apps
+        ownedApps.clear();
+        applications.stream().filter(app -> app.getId() % 3 == 0).forEach(app -> ownedApps.add(app.getId()));
+        watcher.rebalance();
+        Assertions.assertEquals(ownedApps, watchingAppIds());
+
+        for (FlinkApplication app : FlinkAppHttpWatcher.getWatchingApps()) {
+            if (app.getId() % 2 == 0) {
+                // the app kept by this server is not reloaded
+                Assertions.assertSame(watchingApps.get(app.getId()), app);
+            }
+        }
+        // the released apps are persisted for the new owner
+        long releasedNum = watchingApps.keySet().stream().filter(id -> id % 3 != 0).count();
+        Mockito.verify(applicationManageService, Mockito.times((int) releasedNum)).persistMetrics(any());
+    }
+
+    private Set<Long> watchingAppIds() {
+        return applications.stream()
+            .map(FlinkApplication::getId)
+            .filter(watcher::isWatchingApp)
+            .collect(Collectors.toSet());
+    }
+
+    private static List<FlinkApplication> copyOf(List<FlinkApplication> applications) {
+        return applications.stream().map(app -> {
+            FlinkApplication copy = new FlinkApplication();
+            copy.setId(app.getId());
+            copy.setState(app.getState());
+            return copy;
+        }).collect(Collectors.toList());
+    }
+
+    private void tick(long timeMillis) {
+        requestCounts.clear();
+        watcher.watch(applications, timeMillis);
+    }
+
+    private int requests(String type) {
+        AtomicInteger count = requestCounts.get(type);
+        return count == null ? 0 : count.get();
+    }
+
+    private void count(String type) {
+        requestCounts.computeIfAbsent(type, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static String jobsOverview(List<String> jobIds) {
+        long now = System.currentTimeMillis();
+        return jobIds.stream()
+            .map(jobId -> String.format(
+                "{\"jid\":\"%s\",\"name\":\"%s\",\"state\":\"RUNNING\",\"start-time\":%d,\"end-time\":-1,"
+                    + "\"duration\":1000,\"last-modification\":%d,\"tasks\":{\"total\":1,\"running\":1}}",
+                jobId, jobId, now, now))
+            .collect(Collectors.joining(",", "{\"jobs\":[", "]}"));
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
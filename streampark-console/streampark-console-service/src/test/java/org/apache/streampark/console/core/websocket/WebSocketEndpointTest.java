@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.console.core.websocket;
+
+import org.apache.streampark.common.enums.FlinkDeployMode;
+import org.apache.streampark.console.SpringUnitTestBase;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.websocket.Session;
+
+import java.lang.reflect.Proxy;
+
+/** Verify that only the members of the team of the app can subscribe to the topics of the app. */
+class WebSocketEndpointTest extends SpringUnitTestBase {
+
+    @Autowired
+    private FlinkApplicationManageService applicationManageService;
+
+    @Test
+    void testSubscribeAppTopics() {
+        // the user 100001 is a member of the team 100001, the user 100002 is not, the user 100000 is the admin
+        FlinkApplication app = mockYarnModeJobApp(100001L, "websocket-app", null, FlinkDeployMode.REMOTE);
+        app.setId(100100L);
+        app.setUserId(100001L);
+        applicationManageService.save(app);
+        try {
+            Assertions.assertTrue(subscribe("100001", WebSocketHub.appTopic(app.getId())));
+            Assertions.assertTrue(subscribe("100001", WebSocketHub.buildTopic(app.getId())));
+            Assertions.assertTrue(subscribe("100000", WebSocketHub.appTopic(app.getId())));
+            Assertions.assertFalse(subscribe("100002", WebSocketHub.appTopic(app.getId())));
+            Assertions.assertFalse(subscribe("100001", WebSocketHub.appTopic(Long.MAX_VALUE)));
+            Assertions.assertFalse(subscribe("100001", "app:invalid"));
+            Assertions.assertFalse(subscribe("100001", WebSocketHub.userTopic(100002L)));
+        } finally {
+            applicationManageService.removeById(app.getId());
+        }
+    }
+
+    private boolean subscribe(String userId, String topic) {
+        Session session = (Session) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[]{Session.class},
+            (proxy, method, args) -> "getId".equals(method.getName()) ? "session-" + userId : null);
+        WebSocketHub hub = (WebSocketHub) ReflectionTestUtils.getField(WebSocketEndpoint.class, "HUB");
+        WebSocketEndpoint endpoint = new WebSocketEndpoint();
+        endpoint.onOpen(session, userId);
+        try {
+            endpoint.onMessage("subscribe:" + topic);
+            return hub.hasSubscribers(topic);
+        } finally {
+            endpoint.onClose();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The websocket sessions are simulated by mocks of which the async sends complete on a scheduler
+ * after a delay, a slow session takes much longer than the interval of the messages.
+ */
+class WebSocketHubTest {
+
+    private static final int SESSION_NUM = 300;
+
+    private static final int MESSAGE_NUM = 200;
+
+    private static final Set<String> CLOSED_SESSIONS = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService network = Executors.newScheduledThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        network.shutdownNow();
+    }
+
+    @Test
+    void testSlowSessionDoesNotStallOthers() throws Exception {
+        WebSocketHub hub = new WebSocketHub(64, WebSocketOutbound.SlowConsumerPolicy.DROP_OLDEST);
+        List<ConcurrentLinkedQueue<Long>> latencies = new ArrayList<>();
+        for (int i = 0; i < SESSION_NUM; i++) {
+            ConcurrentLinkedQueue<Long> sessionLatencies = new ConcurrentLinkedQueue<>();
+            // the first session is 100 times slower than the publishing
+            long sendMillis = i == 0 ? 200 : 0;
+            hub.register(mockSession("session-" + i, sendMillis, sessionLatencies), "app:1");
+            latencies.add(sessionLatencies);
+        }
+
+        long maxPublishNanos = 0;
+        for (int i = 0; i < MESSAGE_NUM; i++) {
+            long start = System.nanoTime();
+            hub.publish("app:1", String.valueOf(start));
+            maxPublishNanos = Math.max(maxPublishNanos, System.nanoTime() - start);
+            Thread.sleep(2);
+        }
+        // the slow session is still busy with the first few messages when the publishing ends
+        int slowReceived = latencies.get(0).size();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline
+            && latencies.subList(1, SESSION_NUM).stream().anyMatch(l -> l.size() < MESSAGE_NUM)) {
+            Thread.sleep(10);
+        }
+
+        List<Long> fastLatencies = new ArrayList<>();
+        for (int i = 1; i < SESSION_NUM; i++) {
+            Assertions.assertEquals(MESSAGE_NUM, latencies.get(i).size());
+            fastLatencies.addAll(latencies.get(i));
+        }
+        Collections.sort(fastLatencies);
+        long p99 = fastLatencies.get((int) (fastLatencies.size() * 0.99));
+        // the slow session sends far fewer messages and drops the oldest ones
+        Assertions.assertTrue(slowReceived < MESSAGE_NUM / 10, "slow session received: " + slowReceived);
+        Assertions.assertTrue(hub.getMetrics().get("dropped") > 0);
+        Assertions.assertTrue(
+            p99 < TimeUnit.MILLISECONDS.toNanos(100), "p99 latency: " + p99 / 1000 + " us");
+        Assertions.assertTrue(
+            maxPublishNanos < TimeUnit.MILLISECONDS.toNanos(100),
+            "max publish time: " + maxPublishNanos / 1000 + " us");
+    }
+
+    @Test
+    void testCoalesceRapidUpdates() {
+        WebSocketHub hub = new WebSocketHub(64, WebSocketOutbound.SlowConsumerPolicy.DROP_OLDEST);
+        List<String> sent = new ArrayList<>();
+        List<SendHandler> handlers = new ArrayList<>();
+        Session session = mockSession("session", (text, handler) -> {
+            sent.add(text);
+            handlers.add(handler);
+        });
+        hub.register(session, "app:1");
+
+        for (int i = 0; i < 10; i++) {
+            hub.publish("app:1", "state", "state-" + i);
+        }
+        hub.publish("app:1", "log");
+        // the first update is in flight, the others are coalesced into the latest one
+        Assertions.assertEquals(Collections.singletonList("state-0"), sent);
+        Assertions.assertEquals(8L, hub.getMetrics().get("coalesced"));
+
+        handlers.get(0).onResult(new SendResult());
+        handlers.get(1).onResult(new SendResult());
+        Assertions.assertEquals(3, sent.size());
+        Assertions.assertEquals("state-9", sent.get(1));
+        Assertions.assertEquals("log", sent.get(2));
+    }
+
+    @Test
+    void testDisconnectSlowSession() {
+        WebSocketHub hub = new WebSocketHub(4, WebSocketOutbound.SlowConsumerPolicy.DISCONNECT);
+        Session session = mockSession("slow-session", (text, handler) -> {
+            // never completes
+        });
+        hub.register(session, "app:1");
+
+        for (int i = 0; i < 10; i++) {
+            hub.publish("app:1", "message-" + i);
+        }
+        Assertions.assertTrue(CLOSED_SESSIONS.contains("slow-session"));
+        Assertions.assertEquals(0L, hub.getMetrics().get("sessions"));
+        Assertions.assertEquals(1L, hub.getMetrics().get("disconnected"));
+    }
+
+    @Test
+    void testTopics() {
+        WebSocketHub hub = new WebSocketHub(64, WebSocketOutbound.SlowConsumerPolicy.DROP_OLDEST);
+        List<String> sent = new ArrayList<>();
+        Session session = mockSession("session", (text, handler) -> {
+            sent.add(text);
+            handler.onResult(new SendResult());
+        });
+        hub.register(session, WebSocketHub.userTopic(1L));
+        hub.subscribe("session", WebSocketHub.buildTopic(2L));
+
+        hub.publish(WebSocketHub.userTopic(1L), "notice");
+        hub.publish(WebSocketHub.buildTopic(2L), "build");
+        hub.publish(WebSocketHub.appTopic(2L), "app");
+        hub.unsubscribe("session", WebSocketHub.buildTopic(2L));
+        hub.publish(WebSocketHub.buildTopic(2L), "build");
+        Assertions.assertEquals(2, sent.size());
+
+        Assertions.assertTrue(WebSocketHub.isPublicTopic(WebSocketHub.appTopic(1L)));
+        Assertions.assertFalse(WebSocketHub.isPublicTopic(WebSocketHub.userTopic(1L)));
+    }
+
+    private interface AsyncSender {
+
+        void send(String text, SendHandler handler);
+    }
+
+    private Session mockSession(String id, long sendMillis, ConcurrentLinkedQueue<Long> latencies) {
+        return mockSession(id, (text, handler) -> network.schedule(() -> {
+            latencies.add(System.nanoTime() - Long.parseLong(text));
+            handler.onResult(new SendResult());
+        }, sendMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /** A light stub of the session rather than a mockito mock, which is too slow for the load. */
+    private static Session mockSession(String id, AsyncSender sender) {
+        RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+            WebSocketHubTest.class.getClassLoader(),
+            new Class[]{RemoteEndpoint.Async.class},
+            (proxy, method, args) -> {
+                if ("sendText".equals(method.getName()) && args.length == 2
+                    && args[1] instanceof SendHandler) {
+                    sender.send((String) args[0], (SendHandler) args[1]);
+                }
+                return null;
+            });
+        return (Session) Proxy.newProxyInstance(
+            WebSocketHubTest.class.getClassLoader(),
+            new Class[]{Session.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getId":
+                        return id;
+                    case "getAsyncRemote":
+                        return async;
+                    case "close":
+                        CLOSED_SESSIONS.add(id);
+                        return null;
+                    case "hashCode":
+                        return id.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -18,11 +18,14 @@
 package org.apache.streampark.flink.client
 
 import org.apache.streampark.common.conf.FlinkVersion
-import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.{LatencyHistogram, Logger}
+import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.client.bean._
 import org.apache.streampark.flink.proxy.FlinkShimsProxy
 
+import java.lang.reflect.Method
 import java.security.Permission
+import java.util.concurrent.ConcurrentHashMap
 
 import scala.reflect.ClassTag
 
@@ -46,6 +49,57 @@ object FlinkClient extends Logger {
   private[this] val SAVEPOINT_REQUEST =
     "org.apache.streampark.flink.client.bean.TriggerSavepointRequest" -> "triggerSavepoint"
 
+  // entrypoint class -> request class -> the entrypoint method, kept by the entrypoint class of the
+  // shims class loader only, as long as the class loader is alive
+  private[this] val ENTRYPOINT_METHOD_CACHE = new ClassValue[ConcurrentHashMap[String, Method]] {
+    override def computeValue(clazz: Class[_]): ConcurrentHashMap[String, Method] =
+      new ConcurrentHashMap[String, Method]()
+  }
+
+  // action.phase -> the latency of the phase, e.g. submit.invoke
+  private[this] val LATENCY_HISTOGRAMS = new ConcurrentHashMap[String, LatencyHistogram]()
+
+  /**
+   * The latencies of the client actions by phase:
+   *   - classloader: get the shims class loader of the flink version
+   *   - entrypoint: look up the entrypoint method
+   *   - convert: copy the request and the response across the class loaders
+   *   - invoke: the action itself in the shims class loader
+   */
+  def getLatencyHistograms: Map[String, LatencyHistogram] = {
+    val histograms = Map.newBuilder[String, LatencyHistogram]
+    LATENCY_HISTOGRAMS.forEach((phase, histogram) => histograms += phase -> histogram)
+    histograms.result()
+  }
+
+  /**
+   * The metrics of the client actions, the count, mean and percentiles in microseconds of the
+   * latencies of the phases, like `submit.invoke.p99`.
+   */
+  def getMetrics: JavaMap[String, JavaLong] =
+    getLatencyHistograms.toList
+      .flatMap { case (phase, histogram) => histogram.toMetrics(phase) }
+      .map { case (k, v) => k -> Long.box(v) }
+      .toMap
+      .asJava
+
+  /**
+   * The metrics of the cluster clients shared by the actions on the running jobs, by the flink
+   * versions loaded, like `1.18.1.hits`.
+   */
+  def getClusterClientMetrics: JavaMap[String, JavaLong] = {
+    val metrics = new JavaHashMap[String, JavaLong]()
+    FlinkShimsProxy.getShimsClassLoaders.foreach {
+      case (version, classLoader) =>
+        val method = classLoader.loadClass(FLINK_CLIENT_ENTRYPOINT_CLASS).getDeclaredMethod("getClusterClientMetrics")
+        method
+          .invoke(null)
+          .asInstanceOf[JavaMap[String, JavaLong]]
+          .forEach((name, value) => metrics.put(s"$version.$name", value))
+    }
+    metrics
+  }
+
   def submit(submitRequest: SubmitRequest): SubmitResponse = {
     val securityManager = System.getSecurityManager
     try {
@@ -79,19 +133,48 @@ object FlinkClient extends Logger {
       flinkVersion: FlinkVersion,
       requestBody: (String, String)): T = {
     flinkVersion.checkVersion()
+    val action = requestBody._2
+    val start = System.nanoTime()
+    var phaseStart = start
+    def endPhase(phase: String): Long = {
+      val now = System.nanoTime()
+      val elapsed = now - phaseStart
+      LATENCY_HISTOGRAMS.computeIfAbsent(s"$action.$phase", _ => new LatencyHistogram).record(elapsed)
+      phaseStart = now
+      elapsed
+    }
     FlinkShimsProxy.proxy(
       flinkVersion,
       (classLoader: ClassLoader) => {
+        val classLoaderNanos = endPhase("classloader")
         val submitClass = classLoader.loadClass(FLINK_CLIENT_ENTRYPOINT_CLASS)
-        val requestClass = classLoader.loadClass(requestBody._1)
-        val method = submitClass.getDeclaredMethod(requestBody._2, requestClass)
-        method.setAccessible(true)
-        val obj = method.invoke(null, FlinkShimsProxy.getObject(classLoader, request))
-        if (obj == null) {
-          null.asInstanceOf[T]
-        } else {
-          FlinkShimsProxy.getObject[T](this.getClass.getClassLoader, obj)
-        }
+        val method = ENTRYPOINT_METHOD_CACHE
+          .get(submitClass)
+          .computeIfAbsent(
+            requestBody._1,
+            _ => {
+              val requestClass = classLoader.loadClass(requestBody._1)
+              val method = submitClass.getDeclaredMethod(action, requestClass)
+              method.setAccessible(true)
+              method
+            })
+        val entrypointNanos = endPhase("entrypoint")
+        val shimsRequest = FlinkShimsProxy.getObject[Object](classLoader, request)
+        var convertNanos = endPhase("convert")
+        val obj = method.invoke(null, shimsRequest)
+        val invokeNanos = endPhase("invoke")
+        val response =
+          if (obj == null) {
+            null.asInstanceOf[T]
+          } else {
+            FlinkShimsProxy.getObject[T](this.getClass.getClassLoader, obj)
+          }
+        convertNanos += endPhase("convert")
+        logDebug(
+          s"[flink-client] $action took ${(System.nanoTime() - start) / 1000000} ms, " +
+            s"classloader: ${classLoaderNanos / 1000000} ms, entrypoint: ${entrypointNanos / 1000000} ms, " +
+            s"convert: ${convertNanos / 1000000} ms, invoke: ${invokeNanos / 1000000} ms")
+        response
       })
   }
 
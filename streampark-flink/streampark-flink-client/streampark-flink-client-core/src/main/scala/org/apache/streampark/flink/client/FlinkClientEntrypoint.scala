@@ -18,9 +18,11 @@
 package org.apache.streampark.flink.client
 
 import org.apache.streampark.common.enums.FlinkDeployMode
+import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.client.`trait`.FlinkClientTrait
 import org.apache.streampark.flink.client.bean._
 import org.apache.streampark.flink.client.impl._
+import org.apache.streampark.flink.client.tool.ClusterClientPool
 
 import FlinkDeployMode._
 
@@ -84,4 +86,7 @@ object FlinkClientEntrypoint {
     }
   }
 
+  /** The metrics of the cluster clients shared by the actions on the running jobs. */
+  def getClusterClientMetrics: JavaMap[String, JavaLong] = ClusterClientPool.getMetrics
+
 }
@@ -19,7 +19,7 @@ package org.apache.streampark.flink.client.impl
 
 import org.apache.streampark.flink.client.`trait`.FlinkClientTrait
 import org.apache.streampark.flink.client.bean.{CancelRequest, CancelResponse, SavepointRequestTrait, SavepointResponse, SubmitRequest, SubmitResponse, TriggerSavepointRequest}
-import org.apache.streampark.flink.client.tool.FlinkSessionSubmitHelper
+import org.apache.streampark.flink.client.tool.{ClusterClientPool, FlinkSessionSubmitHelper}
 
 import org.apache.flink.api.common.JobID
 import org.apache.flink.client.deployment.{DefaultClusterClientServiceLoader, StandaloneClusterDescriptor, StandaloneClusterId}
@@ -59,8 +59,6 @@ object RemoteClient extends FlinkClientTrait {
       request: R,
       flinkConfig: Configuration,
       actFunc: (JobID, ClusterClient[_]) => O): O = {
-    var client: ClusterClient[StandaloneClusterId] = null
-    var standAloneDescriptor: (StandaloneClusterId, StandaloneClusterDescriptor) = null
     try {
       flinkConfig
         .safeSet(DeploymentOptions.TARGET, request.deployMode.getName)
@@ -73,19 +71,13 @@ object RemoteClient extends FlinkClientTrait {
                  |Effective submit configuration: $flinkConfig
                  |------------------------------------------------------------------
                  |""".stripMargin)
-      standAloneDescriptor = getStandAloneClusterDescriptor(flinkConfig)
-      client = standAloneDescriptor._2
-        .retrieve(standAloneDescriptor._1)
-        .getClusterClient
-      actFunc(JobID.fromHexString(request.jobId), client)
+      val clusterId = s"${flinkConfig.get(RestOptions.ADDRESS)}:${flinkConfig.get(RestOptions.PORT)}"
+      ClusterClientPool.use(flinkConfig, clusterId)(actFunc(JobID.fromHexString(request.jobId), _))
     } catch {
       case e: Exception =>
         logError(s"Do ${request.getClass.getSimpleName} for flink standalone job fail")
         e.printStackTrace()
         throw e
-    } finally {
-      if (client != null) client.close()
-      if (standAloneDescriptor != null) standAloneDescriptor._2.close()
     }
   }
 
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.client.tool
+
+import org.apache.streampark.common.util.{HadoopUtils, KeyedResourcePool, Logger, Utils}
+import org.apache.streampark.common.util.Implicits._
+
+import org.apache.flink.client.deployment.{ClusterClientFactory, ClusterDescriptor, DefaultClusterClientServiceLoader}
+import org.apache.flink.client.program.ClusterClient
+import org.apache.flink.configuration.{Configuration, DeploymentOptions}
+import org.apache.flink.kubernetes.KubernetesClusterClientFactory
+import org.apache.flink.yarn.YarnClusterClientFactory
+
+import java.security.PrivilegedAction
+import java.util.concurrent.TimeUnit
+
+import scala.util.Try
+
+/**
+ * The cluster clients shared by the actions on the running jobs, e.g. cancel and savepoint, so the
+ * bulk actions on a cluster reuse one client rather than creating a client, a rest client and
+ * their thread pools for every job.
+ */
+object ClusterClientPool extends Logger {
+
+  private[this] val MAX_SIZE = 64
+
+  private[this] val MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5)
+
+  private[this] val VALIDATE_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(30)
+
+  private[this] val VALIDATE_TIMEOUT_SECONDS = 10L
+
+  /**
+   * The key of a cluster client, the clients of the same cluster with different configurations are
+   * not shared.
+   */
+  case class ClusterClientKey(target: String, clusterId: String, config: JavaMap[String, String])
+
+  /** The cluster client and its descriptor, which are closed together. */
+  class PooledClusterClient(val client: ClusterClient[_], descriptor: ClusterDescriptor[_]) {
+    def close(): Unit = Utils.close(client, descriptor)
+  }
+
+  private[this] lazy val pool = new KeyedResourcePool[ClusterClientKey, PooledClusterClient](
+    "flink-cluster-client",
+    createClient,
+    _.close(),
+    pooled => Try(pooled.client.listJobs().get(VALIDATE_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isSuccess,
+    MAX_SIZE,
+    MAX_IDLE_MILLIS,
+    VALIDATE_IDLE_MILLIS,
+    KeyedResourcePool.isConnectionFailure
+  )
+
+  /**
+   * Run the action with the shared client of the cluster, the client is discarded if the action
+   * fails to reach the cluster, but kept if the cluster rejects the action, e.g. a job not found.
+   *
+   * @param flinkConfig
+   *   the configuration of the cluster, including the deployment target and the cluster id
+   * @param clusterId
+   *   the cluster id
+   */
+  def use[T](flinkConfig: Configuration, clusterId: String)(func: ClusterClient[_] => T): T = {
+    val key = ClusterClientKey(
+      flinkConfig.get(DeploymentOptions.TARGET),
+      clusterId,
+      new java.util.HashMap[String, String](flinkConfig.toMap))
+    pool.use(key)(pooled => func(pooled.client))
+  }
+
+  /**
+   * The metrics of the pool: size, inUse, hits, misses, evictions and failures, in the java types
+   * to be read across the class loaders.
+   */
+  def getMetrics: JavaMap[String, JavaLong] = pool.getMetrics.map { case (k, v) => k -> Long.box(v) }.asJava
+
+  private[this] def createClient(key: ClusterClientKey): PooledClusterClient = {
+    val flinkConfig = Configuration.fromMap(key.config)
+    logInfo(s"create cluster client, target: ${key.target}, clusterId: ${key.clusterId}")
+    key.target match {
+      case target if target.startsWith("yarn-") =>
+        // access yarn as the hadoop user
+        HadoopUtils
+          .getUgi()
+          .doAs(new PrivilegedAction[PooledClusterClient] {
+            override def run(): PooledClusterClient =
+              retrieve(new YarnClusterClientFactory, flinkConfig)
+          })
+      case target if target.startsWith("kubernetes-") =>
+        retrieve(new KubernetesClusterClientFactory, flinkConfig)
+      case _ =>
+        retrieve(new DefaultClusterClientServiceLoader().getClusterClientFactory(flinkConfig), flinkConfig)
+    }
+  }
+
+  private[this] def retrieve[C](
+      clientFactory: ClusterClientFactory[C],
+      flinkConfig: Configuration): PooledClusterClient = {
+    val descriptor = clientFactory.createClusterDescriptor(flinkConfig)
+    try {
+      val client = descriptor.retrieve(clientFactory.getClusterId(flinkConfig)).getClusterClient
+      new PooledClusterClient(client, descriptor)
+    } catch {
+      case e: Throwable =>
+        Utils.close(descriptor)
+        throw e
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.client.tool
+
+import org.apache.streampark.common.util.Logger
+
+import org.apache.flink.configuration.{Configuration, GlobalConfiguration}
+
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.util.Try
+
+/**
+ * The default configurations of the flink homes, parsed once and parsed again only when the
+ * configuration file is modified.
+ */
+object FlinkConfigurationCache extends Logger {
+
+  // flink 1.19+ prefers config.yaml to the legacy flink-conf.yaml
+  private[this] val CONFIG_FILES = List("config.yaml", "flink-conf.yaml")
+
+  // conf dir -> (stamp of the configuration files, configuration)
+  private[this] val CONFIGURATIONS = new ConcurrentHashMap[String, (String, Configuration)]()
+
+  /**
+   * Get the default configuration of the flink home.
+   *
+   * @param flinkHome
+   *   flink home
+   * @return
+   *   a copy of the configuration which is free to change
+   */
+  def get(flinkHome: String): Configuration = {
+    val confDir = s"$flinkHome/conf"
+    val stamp = CONFIG_FILES
+      .map(new File(confDir, _))
+      .filter(_.isFile)
+      .map(file => s"${file.getName}:${file.lastModified()}:${file.length()}")
+      .mkString(",")
+    val cached = CONFIGURATIONS.compute(
+      confDir,
+      (_, current) => {
+        if (current != null && current._1 == stamp) current
+        else {
+          if (current != null) {
+            logInfo(s"Flink configuration of $confDir is modified, reload it.")
+          }
+          stamp -> Try(GlobalConfiguration.loadConfiguration(confDir)).getOrElse(new Configuration())
+        }
+      }
+    )
+    new Configuration(cached._2)
+  }
+
+}
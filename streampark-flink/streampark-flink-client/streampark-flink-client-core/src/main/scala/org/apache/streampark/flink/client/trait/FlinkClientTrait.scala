@@ -25,6 +25,7 @@ import org.apache.streampark.common.fs.FsOperator
 import org.apache.streampark.common.util._
 import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.client.bean._
+import org.apache.streampark.flink.client.tool.FlinkConfigurationCache
 import org.apache.streampark.flink.core.FlinkClusterClient
 import org.apache.streampark.flink.core.conf.FlinkRunOption
 
@@ -44,6 +45,7 @@ import org.apache.flink.util.Preconditions.checkNotNull
 
 import java.io.File
 import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
 
 import scala.collection.mutable
 import scala.collection.mutable.ArrayBuffer
@@ -79,13 +81,19 @@ trait FlinkClientTrait extends Logger {
          |-------------------------------------------------------------------------------------------
          |""".stripMargin)
 
+    val start = System.nanoTime()
     // prepare flink config
-    val flinkConfig = prepareConfig(submitRequest)
+    val flinkConfig = FlinkClientTrait.time("prepareConfig")(prepareConfig(submitRequest))
 
-    setConfig(submitRequest, flinkConfig)
+    FlinkClientTrait.time("setConfig")(setConfig(submitRequest, flinkConfig))
 
-    Try(doSubmit(submitRequest, flinkConfig)) match {
-      case Success(resp) => resp
+    val prepareNanos = System.nanoTime() - start
+    Try(FlinkClientTrait.time("doSubmit")(doSubmit(submitRequest, flinkConfig))) match {
+      case Success(resp) =>
+        logDebug(
+          s"flink job ${submitRequest.appName} submitted in ${(System.nanoTime() - start) / 1000000} ms, " +
+            s"prepare: ${prepareNanos / 1000000} ms, latencies: ${FlinkClientTrait.getLatencyHistograms}")
+        resp
       case Failure(e) =>
         logError(
           s"flink job ${submitRequest.appName} start failed, " +
@@ -302,15 +310,17 @@ trait FlinkClientTrait extends Logger {
       builder
     }
 
-    val packageProgram = packagedProgramBuilder.build()
-    val jobGraph = PackagedProgramUtils.createJobGraph(
-      packageProgram,
-      flinkConfig,
-      getParallelism(submitRequest),
-      null,
-      false)
+    FlinkClientTrait.time("jobGraph") {
+      val packageProgram = packagedProgramBuilder.build()
+      val jobGraph = PackagedProgramUtils.createJobGraph(
+        packageProgram,
+        flinkConfig,
+        getParallelism(submitRequest),
+        null,
+        false)
 
-    packageProgram -> jobGraph
+      packageProgram -> jobGraph
+    }
   }
 
   private[client] def getJobID(jobId: String) = Try(JobID.fromHexString(jobId)) match {
@@ -334,8 +344,7 @@ trait FlinkClientTrait extends Logger {
   }
 
   private[client] def getFlinkDefaultConfiguration(flinkHome: String): Configuration = {
-    Try(GlobalConfiguration.loadConfiguration(s"$flinkHome/conf"))
-      .getOrElse(new Configuration())
+    FlinkConfigurationCache.get(flinkHome)
   }
 
   private[client] def getOptionFromDefaultFlinkConfig[T](
@@ -364,7 +373,8 @@ trait FlinkClientTrait extends Logger {
   private[this] def getCommandLineAndFlinkConfig(
       submitRequest: SubmitRequest): (CommandLine, Configuration) = {
 
-    val commandLineOptions = getCommandLineOptions(submitRequest.flinkVersion.flinkHome)
+    val customCommandLines = getCustomCommandLines(submitRequest.flinkVersion.flinkHome)
+    val commandLineOptions = getCommandLineOptions(customCommandLines)
 
     // read and verify user config...
     val cliArgs = {
@@ -423,9 +433,7 @@ trait FlinkClientTrait extends Logger {
 
     val commandLine = FlinkRunOption.parse(commandLineOptions, cliArgs, true)
 
-    val activeCommandLine = validateAndGetActiveCommandLine(
-      getCustomCommandLines(submitRequest.flinkVersion.flinkHome),
-      commandLine)
+    val activeCommandLine = validateAndGetActiveCommandLine(customCommandLines, commandLine)
 
     val configuration =
       applyConfiguration(submitRequest.flinkVersion.flinkHome, activeCommandLine, commandLine)
@@ -434,8 +442,11 @@ trait FlinkClientTrait extends Logger {
 
   }
 
-  private[client] def getCommandLineOptions(flinkHome: String) = {
-    val customCommandLines = getCustomCommandLines(flinkHome)
+  private[client] def getCommandLineOptions(flinkHome: String): Options = {
+    getCommandLineOptions(getCustomCommandLines(flinkHome))
+  }
+
+  private[this] def getCommandLineOptions(customCommandLines: JavaList[CustomCommandLine]): Options = {
     val customCommandLineOptions = new Options
     for (customCommandLine <- customCommandLines) {
       customCommandLine.addGeneralOptions(customCommandLineOptions)
@@ -447,8 +458,9 @@ trait FlinkClientTrait extends Logger {
   private[client] def extractConfiguration(
       flinkHome: String,
       properties: JavaMap[String, Any]): Configuration = {
+    val customCommandLines = getCustomCommandLines(flinkHome)
     val commandLine = {
-      val commandLineOptions = getCommandLineOptions(flinkHome)
+      val commandLineOptions = getCommandLineOptions(customCommandLines)
       // read and verify user config...
       val cliArgs = {
         val array = new ArrayBuffer[String]()
@@ -460,8 +472,7 @@ trait FlinkClientTrait extends Logger {
       }
       FlinkRunOption.parse(commandLineOptions, cliArgs, true)
     }
-    val activeCommandLine =
-      validateAndGetActiveCommandLine(getCustomCommandLines(flinkHome), commandLine)
+    val activeCommandLine = validateAndGetActiveCommandLine(customCommandLines, commandLine)
     val flinkConfig =
       applyConfiguration(flinkHome, activeCommandLine, commandLine)
     flinkConfig
@@ -615,3 +626,26 @@ trait FlinkClientTrait extends Logger {
     })
   }
 }
+
+object FlinkClientTrait {
+
+  // phase -> the latency of the phase of the submissions
+  private[this] val LATENCY_HISTOGRAMS = new ConcurrentHashMap[String, LatencyHistogram]()
+
+  private[client] def time[T](phase: String)(func: => T): T =
+    LATENCY_HISTOGRAMS.computeIfAbsent(phase, _ => new LatencyHistogram).time(func)
+
+  /**
+   * The latencies of the submissions by phase:
+   *   - prepareConfig: parse the options and load the flink configuration
+   *   - setConfig: set the configuration of the deploy mode
+   *   - doSubmit: deploy the cluster or submit the job
+   *   - jobGraph: build the job graph, part of doSubmit for the modes submitting a job graph
+   */
+  def getLatencyHistograms: Map[String, LatencyHistogram] = {
+    val histograms = Map.newBuilder[String, LatencyHistogram]
+    LATENCY_HISTOGRAMS.forEach((phase, histogram) => histograms += phase -> histogram)
+    histograms.result()
+  }
+
+}
@@ -19,6 +19,7 @@ package org.apache.streampark.flink.client.`trait`
 
 import org.apache.streampark.common.enums.{FlinkDeployMode, FlinkK8sRestExposedType}
 import org.apache.streampark.flink.client.bean._
+import org.apache.streampark.flink.client.tool.ClusterClientPool
 import org.apache.streampark.flink.kubernetes.PodTemplateTool
 import org.apache.streampark.flink.packer.pipeline.DockerImageBuildResponse
 
@@ -108,22 +109,12 @@ trait KubernetesNativeClientTrait extends FlinkClientTrait {
       .safeSet(KubernetesConfigOptions.CLUSTER_ID, request.clusterId)
       .safeSet(KubernetesConfigOptions.NAMESPACE, request.kubernetesNamespace)
 
-    var clusterDescriptor: KubernetesClusterDescriptor = null
-    var client: ClusterClient[String] = null
-
     try {
-      clusterDescriptor = getK8sClusterDescriptor(flinkConfig)
-      client = clusterDescriptor
-        .retrieve(flinkConfig.getString(KubernetesConfigOptions.CLUSTER_ID))
-        .getClusterClient
-      actFunc(JobID.fromHexString(request.jobId), client)
+      ClusterClientPool.use(flinkConfig, request.clusterId)(actFunc(JobID.fromHexString(request.jobId), _))
     } catch {
       case e: Exception =>
         logger.error(s"$hints mode=${flinkConfig.get(DeploymentOptions.TARGET)}, request=$request")
         throw e
-    } finally {
-      if (client != null) client.close()
-      if (clusterDescriptor != null) clusterDescriptor.close()
     }
   }
 
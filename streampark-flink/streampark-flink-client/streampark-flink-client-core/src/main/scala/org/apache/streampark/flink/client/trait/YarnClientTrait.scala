@@ -20,6 +20,7 @@ package org.apache.streampark.flink.client.`trait`
 import org.apache.streampark.common.util.{ExceptionUtils, HadoopUtils}
 import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.client.bean._
+import org.apache.streampark.flink.client.tool.ClusterClientPool
 
 import org.apache.flink.api.common.JobID
 import org.apache.flink.client.deployment.ClusterSpecification
@@ -54,12 +55,10 @@ trait YarnClientTrait extends FlinkClientTrait {
       actionFunc: (JobID, ClusterClient[_]) => O): O = {
     val jobID = getJobID(request.jobId)
     flinkConf.safeSet(YarnConfigOptions.APPLICATION_ID, request.clusterId)
-    // Get the ClusterClient from the YarnClusterDescriptor
-    val (applicationId: ApplicationId, clusterDescriptor: YarnClusterDescriptor) = getYarnClusterDescriptor(flinkConf)
-    val clusterClient = clusterDescriptor.retrieve(applicationId).getClusterClient
 
     Try {
-      actionFunc(jobID, clusterClient)
+      // the ClusterClient of the application shared by the actions
+      ClusterClientPool.use(flinkConf, request.clusterId)(actionFunc(jobID, _))
     }.recover {
       case e =>
         throw new FlinkException(
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.client.test
+
+import org.apache.streampark.flink.client.`trait`.FlinkClientTrait
+import org.apache.streampark.flink.client.tool.FlinkConfigurationCache
+
+import org.apache.commons.io.FileUtils
+import org.apache.flink.configuration.CoreOptions
+import org.junit.jupiter.api.{AfterEach, Assertions, BeforeEach, Test}
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+class FlinkConfigurationCacheTestCase {
+
+  private var flinkHome: File = _
+
+  @BeforeEach def setUp(): Unit = {
+    flinkHome = Files.createTempDirectory("flink-home").toFile
+    writeConf(4, flinkHome.lastModified())
+  }
+
+  @AfterEach def tearDown(): Unit = {
+    FileUtils.deleteQuietly(flinkHome)
+  }
+
+  private def writeConf(parallelism: Int, lastModified: Long): Unit = {
+    val conf = new File(flinkHome, "conf/flink-conf.yaml")
+    val content = new StringBuilder(s"parallelism.default: $parallelism\n")
+    // a configuration file of a real size
+    for (i <- 0 until 200) {
+      content.append(s"custom.option.$i: value-$i\n")
+    }
+    FileUtils.writeStringToFile(conf, content.toString, StandardCharsets.UTF_8)
+    conf.setLastModified(lastModified)
+  }
+
+  @Test def reuseConfiguration(): Unit = {
+    val home = flinkHome.getAbsolutePath
+    val first = FlinkConfigurationCache.get(home)
+    Assertions.assertEquals(4, first.get(CoreOptions.DEFAULT_PARALLELISM))
+    // the configurations returned are copies
+    first.set(CoreOptions.DEFAULT_PARALLELISM, Int.box(1))
+    Assertions.assertEquals(4, FlinkConfigurationCache.get(home).get(CoreOptions.DEFAULT_PARALLELISM))
+    Assertions.assertNotSame(first, FlinkConfigurationCache.get(home))
+  }
+
+  @Test def reloadModifiedConfiguration(): Unit = {
+    val home = flinkHome.getAbsolutePath
+    Assertions.assertEquals(4, FlinkConfigurationCache.get(home).get(CoreOptions.DEFAULT_PARALLELISM))
+    writeConf(8, flinkHome.lastModified() + 2000)
+    Assertions.assertEquals(8, FlinkConfigurationCache.get(home).get(CoreOptions.DEFAULT_PARALLELISM))
+  }
+
+  @Test def recordLatencies(): Unit = {
+    for (i <- 1 to 100) {
+      FlinkClientTrait.time("test") {
+        Thread.sleep(if (i == 100) 20 else 0)
+      }
+    }
+    val histogram = FlinkClientTrait.getLatencyHistograms("test")
+    Assertions.assertEquals(100, histogram.count)
+    Assertions.assertTrue(histogram.percentile(0.5) < 10000)
+    Assertions.assertTrue(histogram.percentile(1) >= 20000)
+  }
+
+}
@@ -26,7 +26,7 @@ import scala.collection.mutable.ListBuffer
 
 case class FailoverChecker(delayTime: Long) extends AutoCloseable with Logger {
 
-  val sinkBuffers: ListBuffer[SinkBuffer] = ListBuffer[SinkBuffer]()
+  val sinkBuffers: ListBuffer[FlushableBuffer] = ListBuffer[FlushableBuffer]()
   val factory: ThreadFactory = ThreadUtils.threadFactory("FailoverChecker")
   val scheduledExecutorService: ScheduledExecutorService =
     Executors.newSingleThreadScheduledExecutor(factory)
@@ -37,7 +37,7 @@ case class FailoverChecker(delayTime: Long) extends AutoCloseable with Logger {
     TimeUnit.MILLISECONDS)
   logInfo(s"Build Sink scheduled checker, timeout (microSeconds) = $delayTime")
 
-  def addSinkBuffer(buffer: SinkBuffer): Unit = {
+  def addSinkBuffer(buffer: FlushableBuffer): Unit = {
     this.synchronized(sinkBuffers.add(buffer))
     logDebug(s"Add SinkBuffer, size: ${buffer.bufferSize}")
   }
@@ -26,7 +26,8 @@ import java.util.concurrent.CopyOnWriteArrayList
 import org.apache.streampark.common.util.Implicits._
 
 case class SinkBuffer(writer: SinkWriter, flushInterval: Long, bufferSize: Int)
-  extends AutoCloseable
+  extends FlushableBuffer
+  with AutoCloseable
   with Logger {
 
   private var timestamp = 0L
@@ -35,7 +36,9 @@ case class SinkBuffer(writer: SinkWriter, flushInterval: Long, bufferSize: Int)
 
   def put(value: String): Unit = {
     tryAddToQueue()
-    localValues.add(value)
+    this.synchronized {
+      localValues.add(value)
+    }
     timestamp = System.currentTimeMillis
   }
 
@@ -70,6 +73,10 @@ case class SinkBuffer(writer: SinkWriter, flushInterval: Long, bufferSize: Int)
   private[this] def buildDeepCopy(original: util.List[String]): util.List[String] =
     Collections.unmodifiableList(new util.ArrayList[String](original))
 
-  override def close(): Unit = if (localValues.nonEmpty) addToQueue()
+  override def drain(): Unit = this.synchronized {
+    if (localValues.nonEmpty) addToQueue()
+  }
+
+  override def close(): Unit = drain()
 
 }
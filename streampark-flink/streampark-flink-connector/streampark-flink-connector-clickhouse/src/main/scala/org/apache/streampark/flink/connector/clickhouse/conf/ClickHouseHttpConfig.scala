@@ -46,6 +46,29 @@ class ClickHouseHttpConfig(parameters: Properties)
 
   val hosts: List[String] = sinkOption.hosts.get()
 
+  val format: String = sinkOption.format.get()
+
+  val compression: String = sinkOption.compression.get().toLowerCase
+
+  val maxInFlightRequests: Int = sinkOption.maxInFlightRequests.get()
+
+  val callbackThreads: Int = sinkOption.callbackThreads.get()
+
+  val retryBackoff: Long = sinkOption.retryBackoff.get()
+
+  val maxRetryBackoff: Long = sinkOption.maxRetryBackoff.get()
+
+  require(
+    ClickHouseHttpConfig.FORMATS.contains(format),
+    s"[StreamPark] unsupported clickhouse sink format: $format, must be one of ${ClickHouseHttpConfig.FORMATS.mkString(",")}")
+
+  require(
+    ClickHouseHttpConfig.COMPRESSIONS.contains(compression),
+    s"[StreamPark] unsupported clickhouse sink compression: $compression, must be one of ${ClickHouseHttpConfig.COMPRESSIONS
+        .mkString(",")}")
+
+  def isRowBinary: Boolean = format == ClickHouseHttpConfig.FORMAT_ROW_BINARY
+
   var currentHostId: Int = 0
 
   val credentials: String = (user, password) match {
@@ -73,3 +96,15 @@ class ClickHouseHttpConfig(parameters: Properties)
        |""".stripMargin
   }
 }
+
+object ClickHouseHttpConfig {
+
+  val FORMAT_VALUES = "Values"
+
+  val FORMAT_ROW_BINARY = "RowBinary"
+
+  val FORMATS: Set[String] = Set(FORMAT_VALUES, FORMAT_ROW_BINARY)
+
+  val COMPRESSIONS: Set[String] = Set("none", "gzip", "lz4", "zstd")
+
+}
@@ -99,6 +99,62 @@ class ClickHouseSinkConfigOption(prefixStr: String, properties: Properties) exte
     defaultValue = AsyncHttpClientConfigDefaults.defaultMaxConnections(),
     classType = classOf[Int])
 
+  val maxInFlightRequests: ConfigOption[Int] = ConfigOption(
+    key = "maxInFlightRequests",
+    required = false,
+    defaultValue = 100,
+    classType = classOf[Int],
+    description = "max number of the requests sent and not responded yet, the writers wait for the others beyond")
+
+  val callbackThreads: ConfigOption[Int] = ConfigOption(
+    key = "callbackThreads",
+    required = false,
+    defaultValue = math.max(Runtime.getRuntime.availableProcessors / 4, 2),
+    classType = classOf[Int],
+    description = "number of the threads handling the responses")
+
+  val retryBackoff: ConfigOption[Long] = ConfigOption(
+    key = "retryBackoff",
+    required = false,
+    defaultValue = 100L,
+    classType = classOf[Long],
+    description = "base backoff(ms) of retrying a failed request or a failing host, doubled on each attempt")
+
+  val maxRetryBackoff: ConfigOption[Long] = ConfigOption(
+    key = "maxRetryBackoff",
+    required = false,
+    defaultValue = 10000L,
+    classType = classOf[Long],
+    description = "max backoff(ms) of retrying a failed request or a failing host")
+
+  val format: ConfigOption[String] = ConfigOption(
+    key = "format",
+    required = false,
+    defaultValue = "Values",
+    classType = classOf[String],
+    description = "the format of the rows inserted: Values, the sql statements, or RowBinary")
+
+  val table: ConfigOption[String] = ConfigOption(
+    key = "table",
+    required = false,
+    defaultValue = null,
+    classType = classOf[String],
+    description = "the table inserted of the RowBinary format")
+
+  val columns: ConfigOption[String] = ConfigOption(
+    key = "columns",
+    required = false,
+    defaultValue = null,
+    classType = classOf[String],
+    description = "the columns inserted of the RowBinary format, e.g. id UInt64, name String, ts DateTime")
+
+  val compression: ConfigOption[String] = ConfigOption(
+    key = "compression",
+    required = false,
+    defaultValue = "none",
+    classType = classOf[String],
+    description = "the compression of the RowBinary request body: none, gzip, lz4, zstd")
+
   val failoverTable: ConfigOption[String] =
     ConfigOption(key = "failover.table", required = false, classType = classOf[String])
 
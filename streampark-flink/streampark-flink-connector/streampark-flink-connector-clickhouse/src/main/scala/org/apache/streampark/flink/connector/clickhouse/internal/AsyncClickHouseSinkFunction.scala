@@ -27,6 +27,8 @@ import org.apache.streampark.flink.connector.failover.{FailoverChecker, SinkBuff
 import org.apache.streampark.flink.connector.function.TransformFunction
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction
 
 import java.util.Properties
@@ -35,6 +37,7 @@ import scala.util.{Failure, Try}
 
 class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, properties: Properties)
   extends RichSinkFunction[T]
+  with CheckpointedFunction
   with Logger {
 
   private[this] object Lock {
@@ -59,6 +62,7 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
 
   @transient var clickHouseConf: ClickHouseHttpConfig = _
   @transient var sinkBuffer: SinkBuffer = _
+  @transient var rowBinaryBuffer: RowBinarySinkBuffer = _
   @transient var clickHouseWriter: ClickHouseSinkWriter = _
   @transient var failoverChecker: FailoverChecker = _
   @volatile var isClosed: Boolean = false
@@ -71,38 +75,73 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
           clickHouseConf = new ClickHouseHttpConfig(properties)
           clickHouseWriter = internal.ClickHouseSinkWriter(clickHouseConf)
           failoverChecker = FailoverChecker(clickHouseConf.delayTime)
-          sinkBuffer =
-            SinkBuffer(clickHouseWriter, clickHouseConf.delayTime, clickHouseConf.bufferSize)
-          failoverChecker.addSinkBuffer(sinkBuffer)
-          logInfo("AsyncClickHouseSink initialize... ")
+          if (clickHouseConf.isRowBinary) {
+            // the records are encoded by the columns, not by the functions to the sql statements
+            require(
+              javaSqlFunc == null && scalaSqlFunc == null,
+              "[StreamPark] the sql function is not supported by the RowBinary format")
+            val encoder = RowBinaryEncoder(
+              clickHouseConf.sinkOption.table.get(),
+              clickHouseConf.sinkOption.columns.get())
+            rowBinaryBuffer = new RowBinarySinkBuffer(
+              clickHouseWriter,
+              encoder,
+              clickHouseConf.delayTime,
+              clickHouseConf.bufferSize)
+            failoverChecker.addSinkBuffer(rowBinaryBuffer)
+          } else {
+            sinkBuffer =
+              SinkBuffer(clickHouseWriter, clickHouseConf.delayTime, clickHouseConf.bufferSize)
+            failoverChecker.addSinkBuffer(sinkBuffer)
+          }
+          logInfo(s"AsyncClickHouseSink initialize... format: ${clickHouseConf.format}")
         }
       }
     }
   }
 
   override def invoke(value: T): Unit = {
-    val sql = (javaSqlFunc, scalaSqlFunc) match {
-      case (null, null) => convert[T](value)
-      case _ =>
-        apiType match {
-          case ApiType.java => javaSqlFunc.transform(value)
-          case ApiType.scala => scalaSqlFunc(value)
+    // the records of the RowBinary format are encoded as they are put
+    val (record, put) = rowBinaryBuffer match {
+      case null =>
+        val sql = (javaSqlFunc, scalaSqlFunc) match {
+          case (null, null) => convert[T](value)
+          case _ =>
+            apiType match {
+              case ApiType.java => javaSqlFunc.transform(value)
+              case ApiType.scala => scalaSqlFunc(value)
+            }
         }
+        sql -> (() => sinkBuffer.put(sql))
+      case buffer => value -> (() => buffer.put(value))
     }
 
-    Try(sinkBuffer.put(sql)) match {
+    Try(put()) match {
       case Failure(e) =>
-        logError(s"""Error while sending data to Clickhouse, record = $sql,error:$e""")
+        logError(s"""Error while sending data to Clickhouse, record = $record,error:$e""")
         throw e
       case _ =>
     }
   }
 
+  /**
+   * Hand the buffered records to the writer and wait until all are inserted or failed over, so the
+   * records before the checkpoint are written at least once.
+   */
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    if (sinkBuffer != null) sinkBuffer.drain()
+    if (rowBinaryBuffer != null) rowBinaryBuffer.drain()
+    if (clickHouseWriter != null) clickHouseWriter.flush()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
   override def close(): Unit = {
     if (!isClosed) {
       Lock.lock.synchronized {
         if (!isClosed) {
           if (sinkBuffer != null) sinkBuffer.close()
+          if (rowBinaryBuffer != null) rowBinaryBuffer.close()
           if (clickHouseWriter != null) clickHouseWriter.close()
           if (failoverChecker != null) failoverChecker.close()
           isClosed = true
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import java.math.BigInteger
+import java.nio.{ByteBuffer, ByteOrder}
+import java.nio.charset.StandardCharsets
+import java.time.{Instant, LocalDate, LocalDateTime, ZoneId}
+import java.time.format.DateTimeFormatter
+import java.util.{Date, UUID}
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable.ListBuffer
+
+/**
+ * The type of the ClickHouse column, encoding the values to RowBinary format and decoding them back.
+ * The decoded values are rendered to the literals of the insert statements, e.g. of the rows failed
+ * over.
+ */
+sealed trait ClickHouseColumnType extends Serializable {
+
+  /** Encode the value of the column. */
+  def write(out: RowBinaryBuffer, value: Any): Unit
+
+  /** Decode the value of the column, the buffer is little-endian. */
+  def read(in: ByteBuffer): Any
+
+  /** The literal of the value decoded in the VALUES of an insert statement. */
+  def literal(value: Any): String = String.valueOf(value)
+
+}
+
+object ClickHouseColumnType {
+
+  private val DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+
+  /** The integers of the bytes, the unsigned ones are decoded to the non-negative numbers. */
+  case class IntType(bytes: Int, unsigned: Boolean) extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val v = toLong(value)
+      bytes match {
+        case 1 => out.writeByte(v.toInt)
+        case 2 => out.writeShort(v.toInt)
+        case 4 => out.writeInt(v.toInt)
+        case 8 => out.writeLong(v)
+      }
+    }
+
+    override def read(in: ByteBuffer): Any = {
+      val v = bytes match {
+        case 1 => in.get().toLong
+        case 2 => in.getShort().toLong
+        case 4 => in.getInt().toLong
+        case _ => in.getLong()
+      }
+      (bytes, unsigned) match {
+        case (_, false) => v
+        case (8, true) => new BigInteger(java.lang.Long.toUnsignedString(v))
+        case (_, true) => v & ((1L << (bytes * 8)) - 1)
+      }
+    }
+  }
+
+  case object Float32Type extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = out.writeFloat(toDouble(value).toFloat)
+
+    override def read(in: ByteBuffer): Any = in.getFloat()
+  }
+
+  case object Float64Type extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = out.writeDouble(toDouble(value))
+
+    override def read(in: ByteBuffer): Any = in.getDouble()
+  }
+
+  case object BoolType extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = value match {
+      case b: java.lang.Boolean => out.writeByte(if (b) 1 else 0)
+      case s: String => out.writeByte(if (s.toBoolean) 1 else 0)
+      case v => out.writeByte(if (toLong(v) != 0) 1 else 0)
+    }
+
+    override def read(in: ByteBuffer): Any = in.get() != 0
+  }
+
+  case object StringType extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = value match {
+      case bytes: Array[Byte] =>
+        out.writeVarInt(bytes.length)
+        out.writeBytes(bytes, 0, bytes.length)
+      case v => out.writeString(String.valueOf(v))
+    }
+
+    override def read(in: ByteBuffer): Any = {
+      val bytes = new Array[Byte](readVarInt(in).toInt)
+      in.get(bytes)
+      new String(bytes, StandardCharsets.UTF_8)
+    }
+
+    override def literal(value: Any): String = quote(String.valueOf(value))
+  }
+
+  /** The strings of the bytes, padded with zeros. */
+  case class FixedStringType(bytes: Int) extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val v = value match {
+        case b: Array[Byte] => b
+        case s => String.valueOf(s).getBytes(StandardCharsets.UTF_8)
+      }
+      require(v.length <= bytes, s"[StreamPark] the value is longer than FixedString($bytes): $value")
+      out.writeBytes(v, 0, v.length)
+      (v.length until bytes).foreach(_ => out.writeByte(0))
+    }
+
+    override def read(in: ByteBuffer): Any = {
+      val v = new Array[Byte](bytes)
+      in.get(v)
+      var len = bytes
+      while (len > 0 && v(len - 1) == 0) len -= 1
+      new String(v, 0, len, StandardCharsets.UTF_8)
+    }
+
+    override def literal(value: Any): String = quote(String.valueOf(value))
+  }
+
+  /** The days since the epoch. */
+  case object DateType extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val days = value match {
+        case d: LocalDate => d.toEpochDay
+        case d: java.sql.Date => d.toLocalDate.toEpochDay
+        case d: Date => Instant.ofEpochMilli(d.getTime).atZone(ZoneId.systemDefault).toLocalDate.toEpochDay
+        case s: String => LocalDate.parse(s).toEpochDay
+        case v => toLong(v)
+      }
+      out.writeShort(days.toInt)
+    }
+
+    override def read(in: ByteBuffer): Any = LocalDate.ofEpochDay(in.getShort() & 0xffffL)
+
+    override def literal(value: Any): String = quote(value.toString)
+  }
+
+  /** The seconds since the epoch, the local date times are of the time zone of the column. */
+  case class DateTimeType(zone: ZoneId) extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val seconds = value match {
+        case d: Date => Math.floorDiv(d.getTime, 1000L)
+        case i: Instant => i.getEpochSecond
+        case t: LocalDateTime => t.atZone(zone).toEpochSecond
+        case s: String => LocalDateTime.parse(s, DATE_TIME_FORMATTER).atZone(zone).toEpochSecond
+        case v => toLong(v)
+      }
+      out.writeInt(seconds.toInt)
+    }
+
+    override def read(in: ByteBuffer): Any = in.getInt() & 0xffffffffL
+  }
+
+  /** The ticks of 10^-precision seconds since the epoch. */
+  case class DateTime64Type(precision: Int, zone: ZoneId) extends ClickHouseColumnType {
+    private[this] val ticksPerSecond = BigInteger.TEN.pow(precision).longValue
+
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val ticks = value match {
+        case d: java.sql.Timestamp => ofInstant(d.toInstant)
+        case d: Date => ofInstant(Instant.ofEpochMilli(d.getTime))
+        case i: Instant => ofInstant(i)
+        case t: LocalDateTime => ofInstant(t.atZone(zone).toInstant)
+        case v => toLong(v)
+      }
+      out.writeLong(ticks)
+    }
+
+    override def read(in: ByteBuffer): Any = in.getLong()
+
+    /** The date time of the ticks in the time zone of the column, with the fraction of seconds. */
+    override def literal(value: Any): String = {
+      val ticks = value.asInstanceOf[Long]
+      val instant = Instant.ofEpochSecond(
+        Math.floorDiv(ticks, ticksPerSecond),
+        Math.floorMod(ticks, ticksPerSecond) * (1000000000L / ticksPerSecond))
+      val time = LocalDateTime.ofInstant(instant, zone)
+      val fraction =
+        if (precision == 0) "" else s".%0${precision}d".format(Math.floorMod(ticks, ticksPerSecond))
+      quote(time.format(DATE_TIME_FORMATTER) + fraction)
+    }
+
+    private[this] def ofInstant(instant: Instant): Long =
+      instant.getEpochSecond * ticksPerSecond + instant.getNano / (1000000000L / ticksPerSecond)
+  }
+
+  /** The two halves of the uuid, each little-endian. */
+  case object UUIDType extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val uuid = value match {
+        case u: UUID => u
+        case v => UUID.fromString(String.valueOf(v))
+      }
+      out.writeLong(uuid.getMostSignificantBits)
+      out.writeLong(uuid.getLeastSignificantBits)
+    }
+
+    override def read(in: ByteBuffer): Any = new UUID(in.getLong(), in.getLong())
+
+    override def literal(value: Any): String = quote(value.toString)
+  }
+
+  /** The null flag, then the value unless it is null. */
+  case class NullableType(inner: ClickHouseColumnType) extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      if (value == null) out.writeByte(1)
+      else {
+        out.writeByte(0)
+        inner.write(out, value)
+      }
+    }
+
+    override def read(in: ByteBuffer): Any = if (in.get() != 0) null else inner.read(in)
+
+    override def literal(value: Any): String = if (value == null) "NULL" else inner.literal(value)
+  }
+
+  /** The number of the elements, then the elements. */
+  case class ArrayType(inner: ClickHouseColumnType) extends ClickHouseColumnType {
+    override def write(out: RowBinaryBuffer, value: Any): Unit = {
+      val elements: Iterable[Any] = value match {
+        case c: java.util.Collection[_] => c.asScala
+        case a: Array[_] => a.toIterable
+        case i: Iterable[_] => i
+        case v => throw new IllegalArgumentException(s"[StreamPark] the value is not an array: $v")
+      }
+      out.writeVarInt(elements.size)
+      elements.foreach(inner.write(out, _))
+    }
+
+    override def read(in: ByteBuffer): Any = {
+      val size = readVarInt(in).toInt
+      (0 until size).map(_ => inner.read(in)).toList
+    }
+
+    override def literal(value: Any): String =
+      value.asInstanceOf[List[Any]].map(inner.literal).mkString("[", ",", "]")
+  }
+
+  /**
+   * Parse the type of the column, e.g. UInt64, Nullable(String), Array(LowCardinality(String)),
+   * DateTime64(3, 'UTC').
+   */
+  def parse(typeName: String): ClickHouseColumnType = {
+    val name = typeName.trim
+    val (base, args) = name.indexOf('(') match {
+      case -1 => name -> ""
+      case i => name.substring(0, i).trim -> name.substring(i + 1, name.lastIndexOf(')')).trim
+    }
+    base match {
+      case "Int8" => IntType(1, unsigned = false)
+      case "Int16" => IntType(2, unsigned = false)
+      case "Int32" => IntType(4, unsigned = false)
+      case "Int64" => IntType(8, unsigned = false)
+      case "UInt8" => IntType(1, unsigned = true)
+      case "UInt16" => IntType(2, unsigned = true)
+      case "UInt32" => IntType(4, unsigned = true)
+      case "UInt64" => IntType(8, unsigned = true)
+      case "Float32" => Float32Type
+      case "Float64" => Float64Type
+      case "Bool" | "Boolean" => BoolType
+      case "String" => StringType
+      case "FixedString" => FixedStringType(args.toInt)
+      case "Date" => DateType
+      case "DateTime" => DateTimeType(zoneOf(args))
+      case "DateTime64" =>
+        splitTopLevel(args) match {
+          case List(precision) => DateTime64Type(precision.toInt, ZoneId.systemDefault)
+          case List(precision, zone) => DateTime64Type(precision.toInt, zoneOf(zone))
+        }
+      case "UUID" => UUIDType
+      case "Nullable" => NullableType(parse(args))
+      // encoded as the values of the dictionary
+      case "LowCardinality" => parse(args)
+      case "Array" => ArrayType(parse(args))
+      case _ =>
+        throw new IllegalArgumentException(
+          s"[StreamPark] unsupported ClickHouse type of the RowBinary format: $typeName")
+    }
+  }
+
+  /** Split the text by the commas out of the parentheses, e.g. the columns, the type arguments. */
+  def splitTopLevel(text: String): List[String] = {
+    val parts = ListBuffer[String]()
+    var depth = 0
+    var start = 0
+    text.indices.foreach {
+      i =>
+        text.charAt(i) match {
+          case '(' => depth += 1
+          case ')' => depth -= 1
+          case ',' if depth == 0 =>
+            parts += text.substring(start, i).trim
+            start = i + 1
+          case _ =>
+        }
+    }
+    parts += text.substring(start).trim
+    parts.filter(_.nonEmpty).toList
+  }
+
+  def readVarInt(in: ByteBuffer): Long = {
+    var result = 0L
+    var shift = 0
+    var b = 0
+    do {
+      b = in.get()
+      result |= (b & 0x7fL) << shift
+      shift += 7
+    } while ((b & 0x80) != 0)
+    result
+  }
+
+  /** The little-endian view of the RowBinary bytes. */
+  def littleEndian(bytes: ByteBuffer): ByteBuffer = bytes.order(ByteOrder.LITTLE_ENDIAN)
+
+  private[this] def zoneOf(arg: String): ZoneId = arg.trim.stripPrefix("'").stripSuffix("'") match {
+    case "" => ZoneId.systemDefault
+    case zone => ZoneId.of(zone)
+  }
+
+  private[this] def quote(value: String): String =
+    "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'"
+
+  private[this] def toLong(value: Any): Long = value match {
+    case n: Number => n.longValue
+    case b: java.lang.Boolean => if (b) 1L else 0L
+    case c: java.lang.Character => c.charValue.toLong
+    case v => String.valueOf(v).trim.toLong
+  }
+
+  private[this] def toDouble(value: Any): Double = value match {
+    case n: Number => n.doubleValue
+    case v => String.valueOf(v).trim.toDouble
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * The health of the ClickHouse hosts, routing the requests around the failing ones:
+ *   - The score of a host is the moving average of the results of its requests, 1 succeeded and 0
+ *     failed.
+ *   - A host failed is suspended for the backoff of its consecutive failures, then tried again by one
+ *     request.
+ *   - A host is selected by the higher score of two random hosts not suspended, or the host resumed
+ *     first if all are suspended.
+ *
+ * @param hosts
+ *   the urls of the hosts
+ * @param backoff
+ *   the backoff of suspending a failing host
+ * @param clock
+ *   the current time(ms)
+ */
+class ClickHouseHosts(
+    hosts: List[String],
+    backoff: RetryBackoff,
+    clock: () => Long = () => System.currentTimeMillis) {
+
+  require(hosts.nonEmpty, "[StreamPark] clickhouse sink hosts must not be empty")
+
+  private[this] class Health(val url: String) {
+    @volatile var score: Double = 1.0d
+    @volatile var suspendedUntil: Long = 0L
+    var failures: Int = 0
+  }
+
+  private[this] val health: Array[Health] = hosts.map(new Health(_)).toArray
+
+  private[this] val byUrl: Map[String, Health] = health.map(h => h.url -> h).toMap
+
+  def select(): String = {
+    val now = clock()
+    val available = health.filter(_.suspendedUntil <= now)
+    available.length match {
+      case 0 => health.minBy(_.suspendedUntil).url
+      case 1 => available.head.url
+      case n =>
+        val random = ThreadLocalRandom.current
+        val first = available(random.nextInt(n))
+        val second = available(random.nextInt(n))
+        if (first.score >= second.score) first.url else second.url
+    }
+  }
+
+  def succeeded(url: String): Unit = byUrl.get(url).foreach {
+    h =>
+      h.synchronized {
+        h.score = h.score * ClickHouseHosts.DECAY + (1 - ClickHouseHosts.DECAY)
+        h.failures = 0
+        h.suspendedUntil = 0L
+      }
+  }
+
+  def failed(url: String): Unit = byUrl.get(url).foreach {
+    h =>
+      h.synchronized {
+        h.score = h.score * ClickHouseHosts.DECAY
+        h.failures += 1
+        h.suspendedUntil = clock() + backoff.delay(h.failures)
+      }
+  }
+
+  /** The scores of the hosts. */
+  def getScores: Map[String, Double] = health.map(h => h.url -> h.score).toMap
+
+}
+
+object ClickHouseHosts {
+
+  // the weight of the past results in the score
+  private val DECAY = 0.7d
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.apache.streampark.flink.connector.failover.SinkRequest
+
+import org.apache.streampark.common.util.Implicits._
+
+/** The request queued to the ClickHouse writer tasks. */
+sealed trait ClickHouseRequest {
+
+  def attemptCounter: Int
+
+  def incrementCounter(): Unit
+
+  /** The number of the rows. */
+  def size: Int
+
+  def table: String
+
+  /** The insert statements of the rows to fail over. */
+  def toSinkRequest: SinkRequest
+
+}
+
+/** The insert statements of the Values format. */
+case class SqlRequest(request: SinkRequest) extends ClickHouseRequest {
+
+  override def attemptCounter: Int = request.attemptCounter
+
+  override def incrementCounter(): Unit = request.incrementCounter()
+
+  override def size: Int = request.size
+
+  override def table: String = request.table
+
+  override def toSinkRequest: SinkRequest = request
+
+}
+
+/**
+ * The rows encoded in RowBinary format, the buffer is released to the pool once the rows are
+ * inserted or failed over.
+ *
+ * @param encoder
+ *   the encoder of the rows
+ * @param rows
+ *   the buffer of the rows encoded
+ * @param size
+ *   the number of the rows
+ */
+case class RowBinaryRequest(
+    encoder: RowBinaryEncoder,
+    rows: RowBinaryBuffer,
+    size: Int,
+    var attemptCounter: Int = 0)
+  extends ClickHouseRequest {
+
+  override def incrementCounter(): Unit = attemptCounter += 1
+
+  override def table: String = encoder.table
+
+  override def toSinkRequest: SinkRequest =
+    SinkRequest(encoder.toInsertStatements(rows.toByteBuffer), attemptCounter)
+
+}
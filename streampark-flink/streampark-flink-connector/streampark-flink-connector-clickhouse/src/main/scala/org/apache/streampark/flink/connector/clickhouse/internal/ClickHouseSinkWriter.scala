@@ -36,17 +36,37 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
     ThreadUtils.threadFactory("ClickHouse-writer-callback-executor")
   private val threadFactory: ThreadFactory = ThreadUtils.threadFactory("ClickHouse-writer")
 
+  // the callbacks are at most the requests in flight, the queue never overflows
   var callbackService: ExecutorService = new ThreadPoolExecutor(
-    math.max(Runtime.getRuntime.availableProcessors / 4, 2),
-    Integer.MAX_VALUE,
+    clickHouseConfig.callbackThreads,
+    clickHouseConfig.callbackThreads,
     60L,
     TimeUnit.SECONDS,
-    new LinkedBlockingQueue[Runnable],
+    new LinkedBlockingQueue[Runnable](clickHouseConfig.maxInFlightRequests),
     callbackServiceFactory)
 
+  // the failed requests are queued again after the backoff
+  val retryService: ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("ClickHouse-writer-retry"))
+
   var tasks: ListBuffer[ClickHouseWriterTask] = ListBuffer[ClickHouseWriterTask]()
-  var recordQueue: BlockingQueue[SinkRequest] =
-    new LinkedBlockingQueue[SinkRequest](clickHouseConfig.queueCapacity)
+  var recordQueue: BlockingQueue[ClickHouseRequest] =
+    new LinkedBlockingQueue[ClickHouseRequest](clickHouseConfig.queueCapacity)
+
+  // the buffers of the rows being encoded and sent, by all the writer tasks
+  val bufferPool: RowBinaryBufferPool =
+    new RowBinaryBufferPool(clickHouseConfig.numWriters * 2 + 1, 1024 * 1024)
+
+  val backoff: RetryBackoff =
+    RetryBackoff(clickHouseConfig.retryBackoff, clickHouseConfig.maxRetryBackoff)
+
+  val hosts: ClickHouseHosts = new ClickHouseHosts(clickHouseConfig.hosts, backoff)
+
+  val inFlight: InFlightRequests = new InFlightRequests
+
+  // the permits of sending the requests, released once responded
+  val requestPermits: Semaphore = new Semaphore(clickHouseConfig.maxInFlightRequests)
+
   var asyncHttpClient: AsyncHttpClient = Dsl.asyncHttpClient(
     new DefaultAsyncHttpClientConfig.Builder()
       .setRequestTimeout(clickHouseConfig.sinkOption.requestTimeout.get())
@@ -58,18 +78,16 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
     Executors.newFixedThreadPool(clickHouseConfig.numWriters, threadFactory)
 
   for (i <- 0 until clickHouseConfig.numWriters) {
-    val task = internal.ClickHouseWriterTask(
-      i,
-      clickHouseConfig,
-      asyncHttpClient,
-      recordQueue,
-      callbackService)
+    val task = internal.ClickHouseWriterTask(i, this)
     tasks.add(task)
     service.submit(task)
   }
 
-  def write(request: SinkRequest): Unit = {
+  def write(request: SinkRequest): Unit = write(SqlRequest(request))
+
+  def write(request: ClickHouseRequest): Unit = {
     try {
+      inFlight.add()
       recordQueue.put(request)
     } catch {
       case e: InterruptedException =>
@@ -79,11 +97,51 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
     }
   }
 
+  /** Queue the failed request again after the backoff of its attempts. */
+  def retry(request: ClickHouseRequest): Long = {
+    val delay = backoff.delay(request.attemptCounter)
+    retryService.schedule(
+      new Runnable {
+        override def run(): Unit = recordQueue.put(request)
+      },
+      delay,
+      TimeUnit.MILLISECONDS)
+    delay
+  }
+
+  // the failure of failing over the requests, failing the next flush
+  @volatile private[this] var failure: Throwable = _
+
+  def fail(e: Throwable): Unit = failure = e
+
+  /**
+   * Wait until all the requests written are inserted or failed over, e.g. on the checkpoints, so the
+   * records are not lost on the failures.
+   */
+  @throws[InterruptedException]
+  def flush(): Unit = {
+    logDebug(s"Flushing ClickHouse-writer, requests in flight: ${inFlight.get}")
+    inFlight.await()
+    if (failure != null) {
+      val e = failure
+      failure = null
+      throw new RuntimeException("[StreamPark] failed to write the requests to ClickHouse", e)
+    }
+  }
+
   override def close(): Unit = {
     logInfo("Closing ClickHouse-writer...")
+    try flush()
+    catch {
+      case _: InterruptedException =>
+        logWarn(s"Interrupted while flushing, requests in flight: ${inFlight.get}")
+        Thread.currentThread.interrupt()
+      case e: RuntimeException => logError("Error while flushing ClickHouse-writer", e)
+    }
     tasks.foreach(_.close())
     ThreadUtils.shutdownExecutorService(service)
     ThreadUtils.shutdownExecutorService(callbackService)
+    ThreadUtils.shutdownExecutorService(retryService)
     asyncHttpClient.close()
     logInfo(s"${classOf[ClickHouseSinkWriter].getSimpleName} is closed")
   }
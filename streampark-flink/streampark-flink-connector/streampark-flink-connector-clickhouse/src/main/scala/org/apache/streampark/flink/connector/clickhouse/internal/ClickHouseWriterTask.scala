@@ -14,7 +14,6 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.streampark.flink.connector.clickhouse.internal
 
 import org.apache.streampark.common.util.Logger
@@ -22,23 +21,24 @@ import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfi
 import org.apache.streampark.flink.connector.failover.{FailoverWriter, SinkRequest}
 
 import io.netty.handler.codec.http.HttpHeaderNames
-import org.asynchttpclient.{AsyncHttpClient, ListenableFuture, Request, Response}
+import org.asynchttpclient.{BoundRequestBuilder, ListenableFuture, Response}
 
-import java.util.concurrent.{BlockingQueue, ExecutorService, TimeUnit}
+import java.util.concurrent.{BlockingQueue, TimeUnit}
 
 import org.apache.streampark.common.util.Implicits._
 import scala.util.Try
 
-case class ClickHouseWriterTask(
-    id: Int,
-    clickHouseConf: ClickHouseHttpConfig,
-    asyncHttpClient: AsyncHttpClient,
-    queue: BlockingQueue[SinkRequest],
-    callbackService: ExecutorService)
+case class ClickHouseWriterTask(id: Int, writer: ClickHouseSinkWriter)
   extends Runnable
   with AutoCloseable
   with Logger {
 
+  private[this] val clickHouseConf: ClickHouseHttpConfig = writer.clickHouseConfig
+
+  private[this] val queue: BlockingQueue[ClickHouseRequest] = writer.recordQueue
+
+  private[this] val bufferPool: RowBinaryBufferPool = writer.bufferPool
+
   @volatile var isWorking = false
 
   val failoverWriter: FailoverWriter =
@@ -62,77 +62,151 @@ case class ClickHouseWriterTask(
       logInfo(s"Task id = $id is finished")
     }
 
-  def send(sinkRequest: SinkRequest): Unit = {
-    // ClickHouse's http API does not accept EMPTY request body
-    if (sinkRequest.sqlStatement == null || sinkRequest.sqlStatement.isEmpty) {
-      logWarn(s"Skip empty sql statement")
-      return
-    }
+  def send(request: ClickHouseRequest): Unit = request match {
+    case SqlRequest(sinkRequest) =>
+      val statements = Option(sinkRequest.sqlStatement).getOrElse(Nil).filter(_.nonEmpty)
+      // ClickHouse's http API does not accept EMPTY request body
+      if (statements.isEmpty) {
+        logWarn(s"Skip empty sql statement")
+        writer.inFlight.complete()
+        return
+      }
 
-    val requests = buildRequest(sinkRequest)
-    requests.foreach(
-      request => {
-        logDebug(s"Ready to fire request: $request")
-        val whenResponse = asyncHttpClient.executeRequest(request)
-        val callback = respCallback(whenResponse, sinkRequest)
-        whenResponse.addListener(callback, callbackService)
-      })
+      logDebug(s"There is [${statements.size}] statement(s) in SinkRequest ")
+      // ClickHouse's http API does not accept multiple statements, so requests should be built by splitting statements,
+      // each statement is retried on its own, the others inserted are not sent again
+      writer.inFlight.add(statements.size - 1)
+      statements.foreach(
+        statement => {
+          val statementRequest = statements match {
+            case List(_) => request
+            case _ => SqlRequest(SinkRequest(List(statement), sinkRequest.attemptCounter))
+          }
+          fire(statementRequest)(
+            _.setHeader(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8")
+              .setBody(statement))
+        })
+    case rowBinary: RowBinaryRequest => sendRowBinary(rowBinary)
   }
 
-  private def buildRequest(sinkRequest: SinkRequest): List[Request] = {
-    logDebug(s"There is [${sinkRequest.sqlStatement.size}] statement(s) in SinkRequest ")
-    // ClickHouse's http API does not accept multiple statements, so requests should be built by splitting statements
-    sinkRequest.sqlStatement.filter(_.nonEmpty).map(
-      statement => {
-        val host = clickHouseConf.getRandomHostUrl
-        val builder = asyncHttpClient
-          .preparePost(host)
-          .setRequestTimeout(clickHouseConf.timeout)
-          .setHeader(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8")
-          .setBody(statement)
-        if (clickHouseConf.credentials != null) {
-          builder.setHeader(HttpHeaderNames.AUTHORIZATION, "Basic " + clickHouseConf.credentials)
-        }
-        builder.build
-      })
+  /**
+   * Send the rows in RowBinary format, the query in the url and the rows in the body, compressed by
+   * the codec configured.
+   */
+  private def sendRowBinary(request: RowBinaryRequest): Unit = {
+    val compressed = clickHouseConf.compression match {
+      case "none" => None
+      case codec =>
+        val body = bufferPool.acquire()
+        RowBinaryBuffer.compress(codec, request.rows, body)
+        Some(body)
+    }
+    logDebug(s"Ready to fire RowBinary request, table = ${request.table}, rows = ${request.size}")
+    fire(
+      request,
+      succeeded => {
+        compressed.foreach(bufferPool.release)
+        if (succeeded) bufferPool.release(request.rows)
+      }) {
+      builder =>
+        builder
+          .addQueryParam("query", request.encoder.insertQuery)
+          .setHeader(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream")
+          .setBody(compressed.getOrElse(request.rows).toByteBuffer)
+        compressed.foreach(_ => builder.setHeader(HttpHeaderNames.CONTENT_ENCODING, clickHouseConf.compression))
+        builder
+    }
   }
 
-  def respCallback(whenResponse: ListenableFuture[Response], sinkRequest: SinkRequest): Runnable =
+  /**
+   * Send the request to the healthiest host, waiting for a permit if too many requests are in
+   * flight.
+   */
+  private def fire(request: ClickHouseRequest, onComplete: Boolean => Unit = _ => ())(
+      body: BoundRequestBuilder => BoundRequestBuilder): Unit = {
+    writer.requestPermits.acquire()
+    // released by the callback once responded
+    try {
+      val host = writer.hosts.select()
+      val builder = writer.asyncHttpClient
+        .preparePost(host)
+        .setRequestTimeout(clickHouseConf.timeout)
+      if (clickHouseConf.credentials != null) {
+        builder.setHeader(HttpHeaderNames.AUTHORIZATION, "Basic " + clickHouseConf.credentials)
+      }
+      val httpRequest = body(builder).build
+      logDebug(s"Ready to fire request: $httpRequest")
+      val whenResponse = writer.asyncHttpClient.executeRequest(httpRequest)
+      val callback = respCallback(whenResponse, host, request, onComplete)
+      whenResponse.addListener(callback, writer.callbackService)
+    } catch {
+      case e: Throwable =>
+        writer.requestPermits.release()
+        throw e
+    }
+  }
+
+  def respCallback(
+      whenResponse: ListenableFuture[Response],
+      host: String,
+      request: ClickHouseRequest,
+      onComplete: Boolean => Unit = _ => ()): Runnable =
     new Runnable {
       override def run(): Unit = {
+        writer.requestPermits.release()
         Try(whenResponse.get()).getOrElse(null) match {
           case null =>
             logError(
-              s"""Error ClickHouseSink executing callback, params = $clickHouseConf,can not get Response. """)
-            handleFailedResponse(null, sinkRequest)
+              s"""Error ClickHouseSink executing callback, params = $clickHouseConf, host = $host, can not get Response. """)
+            writer.hosts.failed(host)
+            onComplete(false)
+            handleFailedResponse(null, request)
           case resp if resp.getStatusCode != 200 =>
             logError(
-              s"Error ClickHouseSink executing callback, params = $clickHouseConf, StatusCode = ${resp.getStatusCode} ")
-            handleFailedResponse(resp, sinkRequest)
+              s"Error ClickHouseSink executing callback, params = $clickHouseConf, host = $host, StatusCode = ${resp.getStatusCode} ")
+            // the errors of the server rather than of the request
+            if (resp.getStatusCode >= 500) writer.hosts.failed(host)
+            onComplete(false)
+            handleFailedResponse(resp, request)
           case _ =>
+            writer.hosts.succeeded(host)
+            onComplete(true)
+            writer.inFlight.complete()
         }
       }
     }
 
   /**
-   * if send data to ClickHouse Failed, retry maxRetries, if still failed,flush data to
-   * failoverStorage
+   * if send data to ClickHouse Failed, retry maxRetries after the backoff, if still failed,flush
+   * data to failoverStorage
    *
    * @param response
    * @param sinkRequest
    */
-  def handleFailedResponse(response: Response, sinkRequest: SinkRequest): Unit = {
+  def handleFailedResponse(response: Response, sinkRequest: ClickHouseRequest): Unit = {
     if (sinkRequest.attemptCounter > clickHouseConf.maxRetries) {
       logWarn(
         s"""Failed to send data to ClickHouse, cause: limit of attempts is exceeded. ClickHouse response = $response. Ready to flush data to ${clickHouseConf.storageType}""")
-      failoverWriter.write(sinkRequest)
-      logInfo(
-        s"Failover Successful, StorageType = ${clickHouseConf.storageType}, size = ${sinkRequest.size}")
+      try {
+        failoverWriter.write(sinkRequest.toSinkRequest)
+        logInfo(
+          s"Failover Successful, StorageType = ${clickHouseConf.storageType}, size = ${sinkRequest.size}")
+      } catch {
+        case e: Exception =>
+          logError(s"Failover failed, StorageType = ${clickHouseConf.storageType}, size = ${sinkRequest.size}", e)
+          writer.fail(e)
+      } finally {
+        sinkRequest match {
+          case rowBinary: RowBinaryRequest => bufferPool.release(rowBinary.rows)
+          case _ =>
+        }
+        writer.inFlight.complete()
+      }
     } else {
       sinkRequest.incrementCounter()
+      val delay = writer.retry(sinkRequest)
       logWarn(
-        s"Next attempt to send data to ClickHouse, table = ${sinkRequest.table}, buffer size = ${sinkRequest.size}, current attempt num = ${sinkRequest.attemptCounter}, max attempt num = ${clickHouseConf.maxRetries}, response = $response")
-      queue.put(sinkRequest)
+        s"Next attempt to send data to ClickHouse in $delay ms, table = ${sinkRequest.table}, buffer size = ${sinkRequest.size}, current attempt num = ${sinkRequest.attemptCounter}, max attempt num = ${clickHouseConf.maxRetries}, response = $response")
     }
   }
 
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * The number of the requests written and not completed yet, i.e. neither inserted nor failed over,
+ * the retries included.
+ */
+class InFlightRequests {
+
+  private[this] var count = 0L
+
+  def add(n: Int = 1): Unit = synchronized {
+    count += n
+  }
+
+  def complete(n: Int = 1): Unit = synchronized {
+    count -= n
+    if (count <= 0) notifyAll()
+  }
+
+  def get: Long = synchronized(count)
+
+  /** Wait until all the requests are completed, false if the timeout(ms) elapsed, 0 for no timeout. */
+  @throws[InterruptedException]
+  def await(timeout: Long = 0L): Boolean = synchronized {
+    val deadline = System.nanoTime + TimeUnit.MILLISECONDS.toNanos(timeout)
+    while (count > 0) {
+      if (timeout <= 0) wait()
+      else {
+        val remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime)
+        if (remaining <= 0) return false
+        wait(remaining)
+      }
+    }
+    true
+  }
+
+}
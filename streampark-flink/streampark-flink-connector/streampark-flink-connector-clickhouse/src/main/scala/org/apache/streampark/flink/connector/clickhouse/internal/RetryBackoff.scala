@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * The exponential backoff with jitter: the delay of the attempt n is between the half and the whole
+ * of `base * 2^(n-1)`, at most `max`, so the retries of the requests failed at the same time are
+ * spread out.
+ *
+ * @param base
+ *   the backoff(ms) of the first attempt
+ * @param max
+ *   the max backoff(ms)
+ */
+case class RetryBackoff(base: Long, max: Long) {
+
+  require(base > 0 && max >= base, s"[StreamPark] invalid retry backoff: base = $base, max = $max")
+
+  def delay(attempt: Int): Long = {
+    val exponential = math.min(max, base << math.min(math.max(attempt - 1, 0), 30))
+    val half = exponential / 2
+    half + ThreadLocalRandom.current.nextLong(exponential - half + 1)
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import com.github.luben.zstd.ZstdOutputStream
+import net.jpountz.lz4.LZ4FrameOutputStream
+
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.util
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.zip.GZIPOutputStream
+
+/**
+ * The growable buffer of the rows encoded in RowBinary format, the numbers are written in
+ * little-endian. The buffers are reused by [[RowBinaryBufferPool]].
+ *
+ * @param initialCapacity
+ *   the initial capacity of the buffer in bytes
+ */
+class RowBinaryBuffer(initialCapacity: Int) {
+
+  private[this] var bytes = new Array[Byte](initialCapacity)
+
+  private[this] var length = 0
+
+  /** The number of the bytes written. */
+  def size: Int = length
+
+  def capacity: Int = bytes.length
+
+  /** Discard the bytes written after the size, e.g. the bytes of the row failed to encode. */
+  def truncate(size: Int): Unit = length = size
+
+  def reset(): Unit = length = 0
+
+  def writeByte(value: Int): Unit = {
+    ensureCapacity(1)
+    bytes(length) = value.toByte
+    length += 1
+  }
+
+  def writeShort(value: Int): Unit = {
+    ensureCapacity(2)
+    bytes(length) = value.toByte
+    bytes(length + 1) = (value >>> 8).toByte
+    length += 2
+  }
+
+  def writeInt(value: Int): Unit = {
+    ensureCapacity(4)
+    bytes(length) = value.toByte
+    bytes(length + 1) = (value >>> 8).toByte
+    bytes(length + 2) = (value >>> 16).toByte
+    bytes(length + 3) = (value >>> 24).toByte
+    length += 4
+  }
+
+  def writeLong(value: Long): Unit = {
+    writeInt(value.toInt)
+    writeInt((value >>> 32).toInt)
+  }
+
+  def writeFloat(value: Float): Unit = writeInt(java.lang.Float.floatToIntBits(value))
+
+  def writeDouble(value: Double): Unit = writeLong(java.lang.Double.doubleToLongBits(value))
+
+  /** Write the unsigned LEB128 number, the lengths of the strings and the arrays. */
+  def writeVarInt(value: Long): Unit = {
+    var v = value
+    while ((v & ~0x7fL) != 0) {
+      writeByte(((v & 0x7f) | 0x80).toInt)
+      v >>>= 7
+    }
+    writeByte(v.toInt)
+  }
+
+  def writeBytes(src: Array[Byte], offset: Int, len: Int): Unit = {
+    ensureCapacity(len)
+    System.arraycopy(src, offset, bytes, length, len)
+    length += len
+  }
+
+  /** Write the length and the UTF-8 bytes of the string, the ASCII string without a copy. */
+  def writeString(value: String): Unit = {
+    val len = value.length
+    var i = 0
+    while (i < len && value.charAt(i) < 0x80) i += 1
+    if (i == len) {
+      writeVarInt(len)
+      ensureCapacity(len)
+      i = 0
+      while (i < len) {
+        bytes(length + i) = value.charAt(i).toByte
+        i += 1
+      }
+      length += len
+    } else {
+      val utf8 = value.getBytes(StandardCharsets.UTF_8)
+      writeVarInt(utf8.length)
+      writeBytes(utf8, 0, utf8.length)
+    }
+  }
+
+  /** The bytes written, sharing the buffer. */
+  def toByteBuffer: ByteBuffer = ByteBuffer.wrap(bytes, 0, length)
+
+  /** The stream writing to the buffer, e.g. the compressed bytes. */
+  def outputStream: OutputStream = new OutputStream {
+    override def write(b: Int): Unit = writeByte(b)
+
+    override def write(b: Array[Byte], off: Int, len: Int): Unit = writeBytes(b, off, len)
+  }
+
+  private[this] def ensureCapacity(extra: Int): Unit = {
+    if (length + extra > bytes.length) {
+      bytes = util.Arrays.copyOf(bytes, math.max(bytes.length * 2, length + extra))
+    }
+  }
+
+}
+
+object RowBinaryBuffer {
+
+  /**
+   * Compress the bytes of the source buffer to the target buffer, the codecs are of the HTTP
+   * Content-Encoding ClickHouse accepts.
+   *
+   * @param codec
+   *   gzip, lz4 or zstd
+   */
+  def compress(codec: String, source: RowBinaryBuffer, target: RowBinaryBuffer): Unit = {
+    val out = codec match {
+      case "gzip" => new GZIPOutputStream(target.outputStream, 64 * 1024)
+      case "lz4" => new LZ4FrameOutputStream(target.outputStream)
+      case "zstd" => new ZstdOutputStream(target.outputStream)
+      case _ => throw new IllegalArgumentException(s"[StreamPark] unsupported compression: $codec")
+    }
+    try {
+      val bytes = source.toByteBuffer
+      out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining())
+    } finally {
+      out.close()
+    }
+  }
+
+}
+
+/**
+ * The pool of the buffers reused by the batches of the rows, the buffers grown too large are not
+ * kept.
+ *
+ * @param maxPooled
+ *   the max number of the buffers kept
+ * @param initialCapacity
+ *   the initial capacity of the buffers created
+ */
+class RowBinaryBufferPool(maxPooled: Int, initialCapacity: Int) {
+
+  private[this] val pool = new ArrayBlockingQueue[RowBinaryBuffer](math.max(maxPooled, 1))
+
+  def acquire(): RowBinaryBuffer = {
+    val buffer = pool.poll()
+    if (buffer == null) new RowBinaryBuffer(initialCapacity) else buffer
+  }
+
+  def release(buffer: RowBinaryBuffer): Unit = {
+    buffer.reset()
+    if (buffer.capacity <= RowBinaryBufferPool.MAX_POOLED_CAPACITY) pool.offer(buffer)
+  }
+
+}
+
+object RowBinaryBufferPool {
+
+  private val MAX_POOLED_CAPACITY: Int = 32 * 1024 * 1024
+
+}
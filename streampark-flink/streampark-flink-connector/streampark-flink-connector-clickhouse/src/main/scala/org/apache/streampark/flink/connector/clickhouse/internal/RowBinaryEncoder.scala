@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.apache.flink.types.Row
+
+import java.lang.reflect.Field
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentHashMap
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable.ListBuffer
+
+/**
+ * The encoder of the records to the rows of the table in RowBinary format. The values of the columns
+ * are read from the records:
+ *   - [[Row]], arrays and lists: by the positions of the columns.
+ *   - maps: by the names of the columns.
+ *   - other objects: by the fields of the names of the columns, e.g. the case classes, the POJOs.
+ *
+ * @param table
+ *   the table inserted, e.g. db.table
+ * @param columns
+ *   the names and the types of the columns inserted, in the order of the values
+ */
+class RowBinaryEncoder(val table: String, val columns: List[(String, ClickHouseColumnType)])
+  extends Serializable {
+
+  require(columns.nonEmpty, s"[StreamPark] the columns of the RowBinary table $table must not be empty")
+
+  private[this] val names: Array[String] = columns.map(_._1).toArray
+
+  private[this] val types: Array[ClickHouseColumnType] = columns.map(_._2).toArray
+
+  @transient private[this] lazy val fields = new ConcurrentHashMap[Class[_], Array[Field]]()
+
+  /** The query of the insert, the rows in the request body. */
+  val insertQuery: String = s"INSERT INTO $table (${names.mkString(",")}) FORMAT RowBinary"
+
+  /** Encode the record to a row, nothing is written if any value fails to encode. */
+  def encode(record: Any, out: RowBinaryBuffer): Unit = {
+    val mark = out.size
+    try {
+      record match {
+        case row: Row => encodeEach(out)(i => row.getField(i))
+        case array: Array[_] => encodeEach(out)(i => array(i))
+        case list: java.util.List[_] => encodeEach(out)(i => list.get(i))
+        case map: java.util.Map[_, _] => encodeEach(out)(i => map.get(names(i)))
+        case map: scala.collection.Map[String, Any] @unchecked =>
+          encodeEach(out)(i => map.getOrElse(names(i), null))
+        case obj =>
+          val accessors = fieldsOf(obj.getClass)
+          encodeEach(out)(accessors(_).get(obj))
+      }
+    } catch {
+      case e: Exception =>
+        out.truncate(mark)
+        throw new IllegalArgumentException(s"[StreamPark] failed to encode the record of $table: $record", e)
+    }
+  }
+
+  /** Decode the rows of the bytes, the values in the order of the columns. */
+  def decode(bytes: ByteBuffer): List[Array[Any]] = {
+    val in = ClickHouseColumnType.littleEndian(bytes.duplicate())
+    val rows = ListBuffer[Array[Any]]()
+    while (in.hasRemaining) {
+      rows += types.map(_.read(in))
+    }
+    rows.toList
+  }
+
+  /** The insert statements of the rows decoded, e.g. to fail over the rows not inserted. */
+  def toInsertStatements(bytes: ByteBuffer): List[String] = {
+    val prefix = s"INSERT INTO $table (${names.mkString(",")}) VALUES "
+    decode(bytes).map {
+      row => row.indices.map(i => types(i).literal(row(i))).mkString(prefix + "(", ",", ")")
+    }
+  }
+
+  private[this] def encodeEach(out: RowBinaryBuffer)(valueOf: Int => Any): Unit = {
+    var i = 0
+    while (i < types.length) {
+      types(i).write(out, valueOf(i))
+      i += 1
+    }
+  }
+
+  private[this] def fieldsOf(clazz: Class[_]): Array[Field] = {
+    fields.computeIfAbsent(
+      clazz,
+      _ => {
+        names.map {
+          name =>
+            val field = findField(clazz, name).getOrElse(
+              throw new IllegalArgumentException(s"[StreamPark] no field $name of the column in $clazz"))
+            field.setAccessible(true)
+            field
+        }
+      })
+  }
+
+  private[this] def findField(clazz: Class[_], name: String): Option[Field] = {
+    Option(clazz).flatMap {
+      c => c.getDeclaredFields.find(_.getName == name).orElse(findField(c.getSuperclass, name))
+    }
+  }
+
+}
+
+object RowBinaryEncoder {
+
+  /**
+   * The encoder of the columns of the table.
+   *
+   * @param columns
+   *   the names and the types of the columns, e.g. id UInt64, name String, ts DateTime
+   */
+  def apply(table: String, columns: String): RowBinaryEncoder = {
+    require(table != null && table.nonEmpty, "[StreamPark] the table of the RowBinary format must not be empty")
+    require(columns != null && columns.nonEmpty, "[StreamPark] the columns of the RowBinary format must not be empty")
+    val parsed = ClickHouseColumnType.splitTopLevel(columns).map {
+      column =>
+        column.split("\\s+", 2) match {
+          case Array(name, typeName) => name.stripPrefix("`").stripSuffix("`") -> ClickHouseColumnType.parse(typeName)
+          case _ => throw new IllegalArgumentException(s"[StreamPark] invalid column of the RowBinary format: $column")
+        }
+    }
+    new RowBinaryEncoder(table, parsed)
+  }
+
+}
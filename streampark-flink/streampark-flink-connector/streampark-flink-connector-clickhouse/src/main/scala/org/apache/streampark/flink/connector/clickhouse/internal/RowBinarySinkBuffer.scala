@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.apache.streampark.common.util.Logger
+import org.apache.streampark.flink.connector.failover.FlushableBuffer
+
+/**
+ * The buffer of the records encoded in RowBinary format. Like the SinkBuffer of the sql statements,
+ * the rows are handed to the writer once the buffer is full or the delay is exceeded, the records are
+ * encoded as they are put, into the buffers reused by the pool.
+ */
+class RowBinarySinkBuffer(
+    writer: ClickHouseSinkWriter,
+    encoder: RowBinaryEncoder,
+    flushInterval: Long,
+    val bufferSize: Int)
+  extends FlushableBuffer
+  with AutoCloseable
+  with Logger {
+
+  private[this] var rows: RowBinaryBuffer = writer.bufferPool.acquire()
+
+  private[this] var rowCount = 0
+
+  private[this] var timestamp = 0L
+
+  def put(record: Any): Unit = {
+    tryAddToQueue()
+    this.synchronized {
+      encoder.encode(record, rows)
+      rowCount += 1
+    }
+    timestamp = System.currentTimeMillis
+  }
+
+  override def tryAddToQueue(): Unit = {
+    this.synchronized {
+      if (flush) {
+        addToQueue()
+      }
+    }
+  }
+
+  private[this] def addToQueue(): Unit = {
+    logDebug(s"Build RowBinary request: rows = $rowCount, bytes = ${rows.size}")
+    writer.write(RowBinaryRequest(encoder, rows, rowCount))
+    rows = writer.bufferPool.acquire()
+    rowCount = 0
+  }
+
+  private[this] def flush: Boolean = {
+    rowCount > 0 && (rowCount >= bufferSize || {
+      timestamp != 0 && System.currentTimeMillis - timestamp > flushInterval
+    })
+  }
+
+  override def drain(): Unit = this.synchronized {
+    if (rowCount > 0) addToQueue()
+  }
+
+  override def close(): Unit = drain()
+
+}
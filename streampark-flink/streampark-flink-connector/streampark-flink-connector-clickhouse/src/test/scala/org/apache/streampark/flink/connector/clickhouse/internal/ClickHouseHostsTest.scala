@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+class ClickHouseHostsTest {
+
+  var now = 0L
+
+  val hosts = new ClickHouseHosts(List("http://a", "http://b", "http://c"), RetryBackoff(100L, 1000L), () => now)
+
+  @Test
+  def routeAroundFailingHosts(): Unit = {
+    hosts.failed("http://a")
+    (1 to 100).foreach(_ => Assertions.assertNotEquals("http://a", hosts.select()))
+
+    // tried again once suspended for the backoff, at most the base backoff of the first failure
+    now += 100
+    Assertions.assertTrue((1 to 100).map(_ => hosts.select()).contains("http://a"))
+
+    // the healthier of the two hosts
+    hosts.failed("http://b")
+    now += 100
+    Assertions.assertTrue(hosts.getScores("http://b") < hosts.getScores("http://c"))
+    Assertions.assertTrue((1 to 1000).map(_ => hosts.select()).count(_ == "http://c") > 450)
+
+    hosts.succeeded("http://a")
+    hosts.succeeded("http://b")
+    Assertions.assertTrue(hosts.getScores("http://b") > 0.7d)
+  }
+
+  @Test
+  def resumeFirstIfAllSuspended(): Unit = {
+    (1 to 5).foreach(_ => hosts.failed("http://a"))
+    hosts.failed("http://b")
+    hosts.failed("http://c")
+    hosts.succeeded("http://c")
+    hosts.failed("http://c")
+    // a is suspended for 500 - 1000 ms after 5 failures, b and c for 50 - 100 ms
+    now += 5
+    Assertions.assertNotEquals("http://a", hosts.select())
+  }
+
+  @Test
+  def backoffWithJitter(): Unit = {
+    val backoff = RetryBackoff(100L, 1000L)
+    (1 to 100).foreach {
+      _ =>
+        Assertions.assertTrue((50L to 100L).contains(backoff.delay(1)))
+        Assertions.assertTrue((200L to 400L).contains(backoff.delay(3)))
+        Assertions.assertTrue((500L to 1000L).contains(backoff.delay(10)))
+        Assertions.assertTrue((500L to 1000L).contains(backoff.delay(100)))
+    }
+    Assertions.assertTrue((1 to 100).map(_ => backoff.delay(5)).distinct.size > 1)
+  }
+
+}
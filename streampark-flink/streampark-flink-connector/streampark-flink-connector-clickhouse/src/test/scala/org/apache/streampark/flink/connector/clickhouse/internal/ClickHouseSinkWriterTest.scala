@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfig
+import org.apache.streampark.flink.connector.failover.SinkBuffer
+
+import com.sun.net.httpserver.HttpServer
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.io.ByteArrayOutputStream
+import java.net.{InetSocketAddress, ServerSocket}
+import java.nio.charset.StandardCharsets
+import java.util.Properties
+import java.util.concurrent.{ConcurrentHashMap, Executors}
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.apache.streampark.common.util.Implicits._
+
+class ClickHouseSinkWriterTest {
+
+  private val VALUE = "\\((\\d+)\\)".r
+
+  @Test
+  def flushThroughIntermittentFailures(): Unit = {
+    val requests = new AtomicInteger()
+    val inserted = ConcurrentHashMap.newKeySet[String]()
+    val server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+    server.setExecutor(Executors.newFixedThreadPool(4))
+    server.createContext(
+      "/",
+      exchange => {
+        val out = new ByteArrayOutputStream()
+        val bytes = new Array[Byte](8192)
+        Iterator
+          .continually(exchange.getRequestBody.read(bytes))
+          .takeWhile(_ != -1)
+          .foreach(out.write(bytes, 0, _))
+        // every third request fails, like an overloaded replica
+        if (requests.incrementAndGet() % 3 == 0) {
+          exchange.sendResponseHeaders(503, -1)
+        } else {
+          VALUE
+            .findAllMatchIn(new String(out.toByteArray, StandardCharsets.UTF_8))
+            .foreach(m => inserted.add(m.group(1)))
+          exchange.sendResponseHeaders(200, -1)
+        }
+        exchange.close()
+      }
+    )
+    server.start()
+
+    // the port of no server, a replica down
+    val downPort = {
+      val socket = new ServerSocket(0)
+      try socket.getLocalPort
+      finally socket.close()
+    }
+
+    val properties = new Properties()
+    properties.put("clickhouse.sink.hosts", s"127.0.0.1:${server.getAddress.getPort},127.0.0.1:$downPort")
+    properties.put("clickhouse.sink.user", "default")
+    properties.put("clickhouse.sink.retryBackoff", "10")
+    properties.put("clickhouse.sink.maxRetryBackoff", "200")
+    properties.put("clickhouse.sink.maxInFlightRequests", "4")
+    properties.put("clickhouse.sink.threshold.retries", "20")
+    properties.put("clickhouse.sink.threshold.numWriters", "2")
+
+    val writer = ClickHouseSinkWriter(new ClickHouseHttpConfig(properties))
+    try {
+      val buffer = SinkBuffer(writer, 60000L, 10)
+      (1 to 500).foreach(i => buffer.put(s"INSERT INTO default.t VALUES ($i)"))
+      // like a checkpoint, all the records are inserted once flushed
+      buffer.drain()
+      writer.flush()
+
+      Assertions.assertEquals(0L, writer.inFlight.get)
+      Assertions.assertEquals((1 to 500).map(_.toString).toSet, inserted.toSet)
+      val scores = writer.hosts.getScores
+      Assertions.assertTrue(scores(s"http://127.0.0.1:$downPort") < scores(s"http://127.0.0.1:${server.getAddress.getPort}"))
+    } finally {
+      writer.close()
+      server.stop(0)
+    }
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.clickhouse.internal
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfig
+import org.apache.streampark.flink.connector.clickhouse.util.ClickhouseConvertUtils
+
+import com.sun.net.httpserver.HttpServer
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.io.{ByteArrayOutputStream, InputStream}
+import java.math.BigInteger
+import java.net.{InetSocketAddress, URLDecoder}
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.time.LocalDate
+import java.util.{Properties, UUID}
+import java.util.concurrent.{ConcurrentLinkedQueue, TimeUnit}
+import java.util.zip.GZIPInputStream
+
+case class Click(
+    id: Long,
+    user: String,
+    url: String,
+    referer: String,
+    score: Double,
+    day: LocalDate,
+    ts: Long,
+    tags: List[String])
+
+class RowBinarySinkTest {
+
+  val columns =
+    "id UInt64, user LowCardinality(String), url String, referer Nullable(String), score Float64, " +
+      "day Date, ts DateTime('UTC'), tags Array(String)"
+
+  val encoder: RowBinaryEncoder = RowBinaryEncoder("default.clicks", columns)
+
+  def click(i: Int): Click = Click(
+    i,
+    s"user-${i % 100}",
+    s"https://example.com/page/$i?from=home",
+    if (i % 3 == 0) null else s"https://example.com/page/${i - 1}",
+    i * 0.5,
+    LocalDate.of(2024, 1, 1).plusDays(i % 30),
+    1704067200L + i,
+    List("web", s"campaign-${i % 7}")
+  )
+
+  @Test
+  def encodeAndDecode(): Unit = {
+    val buffer = new RowBinaryBuffer(16)
+    (1 to 3).foreach(i => encoder.encode(click(i), buffer))
+    // the values of a row by the positions of the columns
+    encoder.encode(Array[Any](4L, "ü", "u", null, 1.0d, "2024-02-01", 1704067200L, Array("a")), buffer)
+
+    val rows = encoder.decode(buffer.toByteBuffer)
+    Assertions.assertEquals(4, rows.size)
+    Assertions.assertEquals(List[Any](BigInteger.ONE, "user-1", click(1).url, click(1).referer, 0.5d,
+      LocalDate.of(2024, 1, 2), 1704067201L, List("web", "campaign-1")), rows.head.toList)
+    Assertions.assertNull(rows(2)(3))
+    Assertions.assertEquals("ü", rows(3)(1))
+
+    val statements = encoder.toInsertStatements(buffer.toByteBuffer)
+    Assertions.assertEquals(
+      "INSERT INTO default.clicks (id,user,url,referer,score,day,ts,tags) VALUES " +
+        "(3,'user-3','https://example.com/page/3?from=home',NULL,1.5,'2024-01-04',1704067203,['web','campaign-3'])",
+      statements(2))
+
+    // the row failed to encode is discarded
+    val size = buffer.size
+    Assertions.assertThrows(classOf[IllegalArgumentException], () => encoder.encode(Array[Any](5L, "u"), buffer))
+    Assertions.assertEquals(size, buffer.size)
+  }
+
+  def readAll(in: InputStream): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    val bytes = new Array[Byte](8192)
+    Iterator.continually(in.read(bytes)).takeWhile(_ != -1).foreach(out.write(bytes, 0, _))
+    out.toByteArray
+  }
+
+  @Test
+  def sendToStubEndpoint(): Unit = {
+    val received = new ConcurrentLinkedQueue[Array[Any]]()
+    val queries = new ConcurrentLinkedQueue[String]()
+    val server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+    server.createContext(
+      "/",
+      exchange => {
+        queries.add(URLDecoder.decode(exchange.getRequestURI.getRawQuery, "UTF-8"))
+        val in: InputStream = exchange.getRequestHeaders.getFirst("Content-Encoding") match {
+          case "gzip" => new GZIPInputStream(exchange.getRequestBody)
+          case _ => exchange.getRequestBody
+        }
+        encoder.decode(ByteBuffer.wrap(readAll(in))).foreach(received.add)
+        exchange.sendResponseHeaders(200, -1)
+        exchange.close()
+      }
+    )
+    server.start()
+
+    val properties = new Properties()
+    properties.put("clickhouse.sink.hosts", s"127.0.0.1:${server.getAddress.getPort}")
+    properties.put("clickhouse.sink.user", "default")
+    properties.put("clickhouse.sink.format", "RowBinary")
+    properties.put("clickhouse.sink.table", "default.clicks")
+    properties.put("clickhouse.sink.columns", columns)
+    properties.put("clickhouse.sink.compression", "gzip")
+    properties.put("clickhouse.sink.threshold.bufferSize", "100")
+    properties.put("clickhouse.sink.threshold.numWriters", "2")
+
+    val writer = ClickHouseSinkWriter(new ClickHouseHttpConfig(properties))
+    try {
+      val buffer = new RowBinarySinkBuffer(writer, encoder, 1000L, 100)
+      (1 to 1000).foreach(i => buffer.put(click(i)))
+      buffer.close()
+
+      val deadline = System.currentTimeMillis + TimeUnit.SECONDS.toMillis(30)
+      while (received.size < 1000 && System.currentTimeMillis < deadline) Thread.sleep(10)
+      Assertions.assertEquals(1000, received.size)
+      Assertions.assertEquals((1 to 1000).map(BigInteger.valueOf(_)).toSet, received.asScala.map(_.head).toSet)
+      Assertions.assertEquals(
+        Set("INSERT INTO default.clicks (id,user,url,referer,score,day,ts,tags) FORMAT RowBinary"),
+        queries.asScala.toSet)
+    } finally {
+      writer.close()
+      server.stop(0)
+    }
+  }
+
+  @Test
+  def encodeSmallerThanValues(): Unit = {
+    val records = (1 to 20000).map(click)
+    val buffer = new RowBinaryBuffer(1024 * 1024)
+    records.foreach(encoder.encode(_, buffer))
+
+    val sql = new java.lang.StringBuilder("INSERT INTO default.clicks VALUES ")
+    records.foreach(r => sql.append(ClickhouseConvertUtils.convert(r)).append(','))
+    Assertions.assertTrue(buffer.size < sql.toString.getBytes(StandardCharsets.UTF_8).length)
+    Assertions.assertEquals(records.size, encoder.decode(buffer.toByteBuffer).size)
+  }
+
+}
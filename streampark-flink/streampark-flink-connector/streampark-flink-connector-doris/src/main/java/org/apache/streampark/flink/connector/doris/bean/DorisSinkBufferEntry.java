@@ -19,6 +19,7 @@ package org.apache.streampark.flink.connector.doris.bean;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /** doris sink buffer */
@@ -37,6 +38,8 @@ public class DorisSinkBufferEntry implements Serializable {
   private String database;
   private String table;
   private String labelPrefix;
+  // the time the first records buffered, for flushing at the interval
+  private final long createTime = System.currentTimeMillis();
 
   public DorisSinkBufferEntry(String database, String table, String labelPrefix) {
     this.database = database;
@@ -49,6 +52,10 @@ public class DorisSinkBufferEntry implements Serializable {
     this.buffer = buffer;
   }
 
+  public long getCreateTime() {
+    return createTime;
+  }
+
   public int getBatchCount() {
     return batchCount;
   }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.doris.internal;
+
+import org.apache.streampark.connector.doris.conf.DorisConfig;
+import org.apache.streampark.flink.connector.doris.util.DorisDelimiterParser;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The rows of a batch as the body of the stream load, written straight from the buffer without
+ * joining them into one array. The body of the compressed rows is sent by chunked transfer as the
+ * length is unknown before written, the entity is repeatable so the request can be redirected.
+ */
+public class DorisRowsEntity extends AbstractHttpEntity {
+
+  private static final int COMPRESS_BUFFER_SIZE = 64 * 1024;
+
+  private final List<byte[]> rows;
+  private final byte[] prefix;
+  private final byte[] delimiter;
+  private final byte[] suffix;
+  // whether the delimiter follows the last row too
+  private final boolean trailingDelimiter;
+  private final String compression;
+  private final long contentLength;
+
+  public DorisRowsEntity(
+      List<byte[]> rows, long rowsBytes, String format, String rowDelimiter, String compression) {
+    this.rows = rows;
+    this.compression = compression;
+    if (DorisConfig.CSV().equalsIgnoreCase(format)) {
+      this.prefix = new byte[0];
+      this.delimiter = DorisDelimiterParser.parse(rowDelimiter).getBytes(StandardCharsets.UTF_8);
+      this.suffix = new byte[0];
+      this.trailingDelimiter = true;
+    } else if (DorisConfig.JSON().equalsIgnoreCase(format)) {
+      this.prefix = "[".getBytes(StandardCharsets.UTF_8);
+      this.delimiter = ",".getBytes(StandardCharsets.UTF_8);
+      this.suffix = "]".getBytes(StandardCharsets.UTF_8);
+      this.trailingDelimiter = false;
+    } else {
+      throw new RuntimeException(
+          "Failed to join rows data, unsupported `format` from stream load properties: " + format);
+    }
+    if (DorisConfig.COMPRESSION_NONE().equals(compression)) {
+      int delimiters = trailingDelimiter ? rows.size() : Math.max(rows.size() - 1, 0);
+      this.contentLength =
+          prefix.length + rowsBytes + (long) delimiters * delimiter.length + suffix.length;
+    } else {
+      this.contentLength = -1;
+    }
+    setChunked(contentLength < 0);
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    if (!DorisConfig.COMPRESSION_NONE().equals(compression)) {
+      // the compressed rows are known only once written
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      writeTo(out);
+      return new ByteArrayInputStream(out.toByteArray());
+    }
+    List<InputStream> parts = new ArrayList<>(rows.size() * 2 + 2);
+    parts.add(new ByteArrayInputStream(prefix));
+    for (int i = 0; i < rows.size(); i++) {
+      if (i > 0 && !trailingDelimiter) {
+        parts.add(new ByteArrayInputStream(delimiter));
+      }
+      parts.add(new ByteArrayInputStream(rows.get(i)));
+      if (trailingDelimiter) {
+        parts.add(new ByteArrayInputStream(delimiter));
+      }
+    }
+    parts.add(new ByteArrayInputStream(suffix));
+    return new SequenceInputStream(Collections.enumeration(parts));
+  }
+
+  @Override
+  public void writeTo(OutputStream outStream) throws IOException {
+    // the compressor is closed to write its trailer, not the stream of the connection
+    OutputStream out =
+        compress(
+            new FilterOutputStream(outStream) {
+              @Override
+              public void write(byte[] b, int off, int len) throws IOException {
+                outStream.write(b, off, len);
+              }
+
+              @Override
+              public void close() throws IOException {
+                flush();
+              }
+            });
+    out.write(prefix);
+    for (int i = 0; i < rows.size(); i++) {
+      if (i > 0 && !trailingDelimiter) {
+        out.write(delimiter);
+      }
+      out.write(rows.get(i));
+      if (trailingDelimiter) {
+        out.write(delimiter);
+      }
+    }
+    out.write(suffix);
+    out.close();
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return false;
+  }
+
+  private OutputStream compress(OutputStream out) throws IOException {
+    switch (compression) {
+      case "gzip":
+        return new GZIPOutputStream(out, COMPRESS_BUFFER_SIZE);
+      case "lz4":
+        return new LZ4FrameOutputStream(out);
+      default:
+        return out;
+    }
+  }
+}
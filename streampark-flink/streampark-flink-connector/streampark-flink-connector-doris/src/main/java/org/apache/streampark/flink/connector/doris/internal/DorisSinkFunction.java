@@ -70,8 +70,8 @@ public class DorisSinkFunction<T> extends RichSinkFunction<T> implements Checkpo
     totalInvokeRows = getRuntimeContext().getMetricGroup().counter(COUNTER_INVOKE_ROWS);
     totalInvokeRowsTime =
         getRuntimeContext().getMetricGroup().counter(COUNTER_INVOKE_ROWS_COST_TIME);
-    dorisSinkWriter.startScheduler();
     dorisSinkWriter.startAsyncFlushing();
+    dorisSinkWriter.startScheduler();
   }
 
   @Override
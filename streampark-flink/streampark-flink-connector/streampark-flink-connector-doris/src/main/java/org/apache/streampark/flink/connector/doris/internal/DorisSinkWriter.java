@@ -25,6 +25,10 @@ import org.apache.streampark.flink.connector.doris.bean.LoadStatusFailedExceptio
 
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,14 +36,20 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DorisSinkWriter implements Serializable {
   private static final long serialVersionUID = 1L;
@@ -51,6 +61,7 @@ public class DorisSinkWriter implements Serializable {
   private ScheduledExecutorService schedule;
   private ScheduledFuture<?> scheduledFuture;
 
+  private transient MetricGroup metricGroup;
   private transient Counter totalFlushBytes;
   private transient Counter totalFlushRows;
   private transient Counter totalFlushTime;
@@ -59,12 +70,18 @@ public class DorisSinkWriter implements Serializable {
   private transient Counter totalFlushFailedTimes;
 
   private final Map<String, DorisSinkBufferEntry> bufferMap = new ConcurrentHashMap<>();
-  private final Long timeout = 3000L;
+  // the flushers of the tables, each loads the batches of its table in order
+  private transient Map<String, TableFlusher> flushers;
+  private transient ExecutorService flushExecutor;
   private volatile boolean closed = false;
-  private volatile boolean flushThreadAlive = false;
   private volatile Throwable flushException;
+  // the batches offered and not loaded yet
+  private final AtomicInteger pendingLoads = new AtomicInteger();
 
-  final LinkedBlockingDeque<DorisSinkBufferEntry> flushQueue = new LinkedBlockingDeque<>(10);
+  // the batches of a table waiting for loading at most, beyond the writer waits
+  private static final int FLUSH_QUEUE_CAPACITY = 10;
+  private static final long MAX_SCHEDULE_INTERVAL_MS = 1000L;
+  private static final int FLUSH_LATENCY_WINDOW = 100;
 
   private static final String COUNTER_TOTAL_FLUSH_BYTES = "totalFlushBytes";
   private static final String COUNTER_TOTAL_FLUSH_ROWS = "totalFlushRows";
@@ -73,6 +90,11 @@ public class DorisSinkWriter implements Serializable {
   private static final String COUNTER_TOTAL_FLUSH_COST_TIME = "totalFlushTimeNs";
   private static final String COUNTER_TOTAL_FLUSH_SUCCEEDED_TIMES = "totalFlushSucceededTimes";
   private static final String COUNTER_TOTAL_FLUSH_FAILED_TIMES = "totalFlushFailedTimes";
+  private static final String METRIC_GROUP_TABLE = "table";
+  private static final String GAUGE_BUFFERED_ROWS = "bufferedRows";
+  private static final String GAUGE_BUFFERED_BYTES = "bufferedBytes";
+  private static final String GAUGE_PENDING_BATCHES = "pendingBatches";
+  private static final String HISTOGRAM_FLUSH_LATENCY = "flushLatencyMs";
 
   private final Semantic semantic;
 
@@ -83,6 +105,7 @@ public class DorisSinkWriter implements Serializable {
   }
 
   public void setRuntimeContext(RuntimeContext runtimeCtx) {
+    metricGroup = runtimeCtx.getMetricGroup();
     totalFlushBytes = runtimeCtx.getMetricGroup().counter(COUNTER_TOTAL_FLUSH_BYTES);
     totalFlushRows = runtimeCtx.getMetricGroup().counter(COUNTER_TOTAL_FLUSH_ROWS);
     totalFlushTime = runtimeCtx.getMetricGroup().counter(COUNTER_TOTAL_FLUSH_COST_TIME);
@@ -94,58 +117,50 @@ public class DorisSinkWriter implements Serializable {
   }
 
   public void startAsyncFlushing() {
-    final Thread flushThread =
-        new Thread(
-            () -> {
-              while (true) {
-                try {
-                  if (!asyncFlush()) {
-                    LOG.info("doris flush thread is about to exit.");
-                    flushThreadAlive = false;
-                    break;
-                  }
-                } catch (Exception e) {
-                  flushException = e;
-                }
-              }
-            });
-    flushThread.setUncaughtExceptionHandler(
-        (t, e) -> {
-          LOG.error("dorics flush thread uncaught exception occurred:" + e.getMessage(), e);
-          flushException = e;
-          flushThreadAlive = false;
-        });
-    flushThread.setName("doris-flush");
-    flushThread.setDaemon(true);
-    flushThread.start();
-    flushThreadAlive = true;
+    flushers = new ConcurrentHashMap<>();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            dorisConfig.flushWorkers(),
+            dorisConfig.flushWorkers(),
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadUtils.threadFactory("doris-flush"));
+    executor.allowCoreThreadTimeOut(true);
+    flushExecutor = executor;
   }
 
+  /** Flush the buffers of the tables not flushed for the interval. */
   public void startScheduler() {
     if (semantic.equals(Semantic.EXACTLY_ONCE)) {
       return;
     }
     stopSchedule();
+    long period = Math.min(dorisConfig.flushInterval(), MAX_SCHEDULE_INTERVAL_MS);
     this.schedule =
         Executors.newScheduledThreadPool(1, ThreadUtils.threadFactory("doris-interval-sink"));
     this.scheduledFuture =
-        this.schedule.schedule(
+        this.schedule.scheduleWithFixedDelay(
             () -> {
-              synchronized (DorisSinkWriter.this) {
-                if (!closed) {
-                  try {
-                    LOG.info("doris interval sinking trigger");
-                    if (bufferMap.isEmpty()) {
-                      startScheduler();
+              if (!closed) {
+                try {
+                  long now = System.currentTimeMillis();
+                  for (Map.Entry<String, DorisSinkBufferEntry> entry : bufferMap.entrySet()) {
+                    if (now - entry.getValue().getCreateTime() >= dorisConfig.flushInterval()) {
+                      LOG.info("doris interval sinking trigger: [{}]", entry.getKey());
+                      // the table with a full flush queue is flushed by the next round
+                      if (!flushInternal(entry.getKey(), false)) {
+                        LOG.info("doris flush queue of [{}] is full, skip it", entry.getKey());
+                      }
                     }
-                    flush(null, false);
-                  } catch (Exception e) {
-                    flushException = e;
                   }
+                } catch (Exception e) {
+                  flushException = e;
                 }
               }
             },
-            dorisConfig.flushInterval(),
+            period,
+            period,
             TimeUnit.MILLISECONDS);
   }
 
@@ -156,7 +171,7 @@ public class DorisSinkWriter implements Serializable {
     }
   }
 
-  public final synchronized void writeRecords(String database, String table, String... records)
+  public final void writeRecords(String database, String table, String... records)
       throws IOException {
     checkFlushException();
     try {
@@ -164,12 +179,24 @@ public class DorisSinkWriter implements Serializable {
         return;
       }
       final String bufferKey = String.format("%s.%s", database, table);
-      final DorisSinkBufferEntry bufferEntity =
-          bufferMap.computeIfAbsent(
-              bufferKey, k -> new DorisSinkBufferEntry(database, table, dorisConfig.labelPrefix()));
-      for (String record : records) {
-        byte[] bts = record.getBytes(StandardCharsets.UTF_8);
-        bufferEntity.addToBuffer(bts);
+      DorisSinkBufferEntry bufferEntity;
+      while (true) {
+        bufferEntity =
+            bufferMap.computeIfAbsent(
+                bufferKey,
+                k -> new DorisSinkBufferEntry(database, table, dorisConfig.labelPrefix()));
+        // the buffer of the table is locked only, not the buffers of the other tables
+        synchronized (bufferEntity) {
+          if (bufferMap.get(bufferKey) != bufferEntity) {
+            // flushed meanwhile, write to the new buffer
+            continue;
+          }
+          for (String record : records) {
+            byte[] bts = record.getBytes(StandardCharsets.UTF_8);
+            bufferEntity.addToBuffer(bts);
+          }
+        }
+        break;
       }
       if (Semantic.EXACTLY_ONCE.equals(semantic)) {
         return;
@@ -187,63 +214,54 @@ public class DorisSinkWriter implements Serializable {
     }
   }
 
-  public synchronized void flush(String bufferKey, boolean waitUntilDone) throws Exception {
-    if (bufferMap.isEmpty()) {
-      flushInternal(null, waitUntilDone);
-      return;
-    }
+  public void flush(String bufferKey, boolean waitUntilDone) throws Exception {
+    checkFlushException();
     if (null == bufferKey) {
       for (String key : bufferMap.keySet()) {
-        flushInternal(key, waitUntilDone);
+        flushInternal(key, true);
       }
-      return;
+    } else {
+      flushInternal(bufferKey, true);
+    }
+    if (waitUntilDone) {
+      waitAsyncFlushingDone();
     }
-    flushInternal(bufferKey, waitUntilDone);
   }
 
-  private synchronized void flushInternal(String bufferKey, boolean waitUntilDone)
-      throws Exception {
-    checkFlushException();
-    if (null == bufferKey || bufferMap.isEmpty() || !bufferMap.containsKey(bufferKey)) {
-      if (waitUntilDone) {
-        waitAsyncFlushingDone();
-      }
-      return;
+  private boolean flushInternal(String bufferKey, boolean block) throws InterruptedException {
+    if (!bufferMap.containsKey(bufferKey)) {
+      return true;
     }
-    offer(bufferMap.get(bufferKey));
-    bufferMap.remove(bufferKey);
-    if (waitUntilDone) {
-      // wait the last flush
-      waitAsyncFlushingDone();
+    return getFlusher(bufferKey).offer(bufferKey, block);
+  }
+
+  private TableFlusher getFlusher(String bufferKey) {
+    if (flushers == null) {
+      throw new RuntimeException(
+          "Flush workers not start ,please exec  startAsyncFlushing() , ignore offer request");
     }
+    return flushers.computeIfAbsent(bufferKey, TableFlusher::new);
   }
 
   private void waitAsyncFlushingDone() throws InterruptedException {
     // wait for previous flushings
-    offer(new DorisSinkBufferEntry(null, null, null));
+    synchronized (pendingLoads) {
+      while (pendingLoads.get() > 0 && flushException == null) {
+        pendingLoads.wait(MAX_SCHEDULE_INTERVAL_MS);
+      }
+    }
     checkFlushException();
   }
 
-  private void offer(DorisSinkBufferEntry bufferEntity) throws InterruptedException {
-    if (!flushThreadAlive) {
-      throw new RuntimeException(
-          "Flush thread already exit or not start ,please exec  startAsyncFlushing() , ignore offer request for label[%s] ");
-    }
-    if (!flushQueue.offer(bufferEntity, dorisConfig.sinkOfferTimeout(), TimeUnit.MILLISECONDS)) {
-      throw new RuntimeException(
-          "Timeout while offering data to flushQueue, exceed "
-              + dorisConfig.sinkOfferTimeout()
-              + " ms, see "
-              + dorisConfig.sinkOption().sinkOfferTimeout().key());
+  private void loadDone() {
+    synchronized (pendingLoads) {
+      pendingLoads.decrementAndGet();
+      pendingLoads.notifyAll();
     }
   }
 
-  private boolean asyncFlush() throws Exception {
-    final DorisSinkBufferEntry flushData = flushQueue.poll(timeout, TimeUnit.MILLISECONDS);
-    if (flushData == null || flushData.getBatchCount() == 0) {
-      return true;
-    }
-    stopSchedule();
+  private void streamLoad(DorisSinkBufferEntry flushData, Histogram flushLatency)
+      throws Exception {
     LOG.info(
         String.format(
             "Async stream load: db[%s] table[%s] rows[%d] bytes[%d] label[%s].",
@@ -258,6 +276,9 @@ public class DorisSinkWriter implements Serializable {
         long start = System.nanoTime();
         streamLoader.doStreamLoad(flushData);
         LOG.info(String.format("Async stream load finished: label[%s].", flushData.getLabel()));
+        if (null != flushLatency) {
+          flushLatency.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startWithRetries));
+        }
         if (null != totalFlushBytes) {
           totalFlushBytes.inc(flushData.getBatchSize());
           totalFlushRows.inc(flushData.getBatchCount());
@@ -265,14 +286,13 @@ public class DorisSinkWriter implements Serializable {
           totalFlushTimeWithoutRetries.inc(System.nanoTime() - start);
           totalFlushSucceededTimes.inc();
         }
-        startScheduler();
         break;
       } catch (Exception e) {
         if (totalFlushFailedTimes != null) {
           totalFlushFailedTimes.inc();
         }
         LOG.warn("Failed to flush batch data to doris, retry times = {}", i, e);
-        if (i >= dorisConfig.sinkMaxRetries()) {
+        if (i >= dorisConfig.sinkMaxRetries() - 1) {
           throw e;
         }
         if (e instanceof LoadStatusFailedException
@@ -285,24 +305,47 @@ public class DorisSinkWriter implements Serializable {
         }
       }
       try {
-        Thread.sleep(1000L * (i + 1));
+        Thread.sleep(
+            backoff(dorisConfig.sinkRetryBackoff(), dorisConfig.sinkMaxRetryBackoff(), i + 1));
       } catch (InterruptedException ex) {
         Thread.currentThread().interrupt();
         throw new IOException("Unable to flush, interrupted while doing another attempt", ex);
       }
     }
-    return true;
+  }
+
+  /**
+   * The exponential backoff with jitter of the attempt, between the half and the whole of `base *
+   * 2^(attempt-1)`, at most `max`.
+   */
+  static long backoff(long base, long max, int attempt) {
+    long exponential = Math.min(max, base << Math.min(Math.max(attempt - 1, 0), 30));
+    long half = exponential / 2;
+    return half + ThreadLocalRandom.current().nextLong(exponential - half + 1);
   }
 
   public synchronized void close() throws Exception {
     if (!closed) {
       closed = true;
       LOG.info("Sink is about to close.");
-      flush(null, false);
-      this.bufferMap.clear();
-      if (scheduledFuture != null) {
-        scheduledFuture.cancel(false);
-        schedule.shutdown();
+      try {
+        stopSchedule();
+        flush(null, false);
+        // the connections are released once the loads queued are done
+        synchronized (pendingLoads) {
+          while (pendingLoads.get() > 0 && flushException == null) {
+            pendingLoads.wait(MAX_SCHEDULE_INTERVAL_MS);
+          }
+        }
+      } finally {
+        this.bufferMap.clear();
+        try {
+          if (flushExecutor != null) {
+            ThreadUtils.shutdownExecutorService(flushExecutor);
+          }
+        } finally {
+          streamLoader.close();
+        }
       }
     }
     checkFlushException();
@@ -333,4 +376,111 @@ public class DorisSinkWriter implements Serializable {
       bufferMap.putAll(newBufferMap);
     }
   }
+
+  /**
+   * Loads the batches of a table in order on the flush workers, the batches of the other tables are
+   * loaded meanwhile by the other workers.
+   */
+  private class TableFlusher implements Runnable {
+    private final Deque<DorisSinkBufferEntry> batches = new ArrayDeque<>();
+    private final Histogram flushLatency;
+    private boolean running = false;
+
+    TableFlusher(String bufferKey) {
+      if (metricGroup == null) {
+        this.flushLatency = null;
+        return;
+      }
+      MetricGroup tableGroup = metricGroup.addGroup(METRIC_GROUP_TABLE, bufferKey);
+      tableGroup.gauge(
+          GAUGE_BUFFERED_ROWS,
+          (Gauge<Integer>)
+              () -> {
+                DorisSinkBufferEntry entry = bufferMap.get(bufferKey);
+                return entry == null ? 0 : entry.getBatchCount();
+              });
+      tableGroup.gauge(
+          GAUGE_BUFFERED_BYTES,
+          (Gauge<Long>)
+              () -> {
+                DorisSinkBufferEntry entry = bufferMap.get(bufferKey);
+                return entry == null ? 0L : entry.getBatchSize();
+              });
+      tableGroup.gauge(GAUGE_PENDING_BATCHES, (Gauge<Integer>) this::pendingBatches);
+      this.flushLatency =
+          tableGroup.histogram(
+              HISTOGRAM_FLUSH_LATENCY, new DescriptiveStatisticsHistogram(FLUSH_LATENCY_WINDOW));
+    }
+
+    synchronized int pendingBatches() {
+      return batches.size() + (running ? 1 : 0);
+    }
+
+    /**
+     * Take the buffer of the table and queue it for loading. The buffer is removed and queued under
+     * the monitor of the flusher, so the batches of the table flushed by the writer and the
+     * scheduler at the same time are queued in the order they were buffered.
+     *
+     * @param block wait for the full queue up to the offer timeout, or return at once
+     * @return false if the queue is full and the buffer is not taken
+     */
+    synchronized boolean offer(String bufferKey, boolean block) throws InterruptedException {
+      if (!block && batches.size() >= FLUSH_QUEUE_CAPACITY) {
+        return false;
+      }
+      long deadline = System.currentTimeMillis() + dorisConfig.sinkOfferTimeout();
+      while (batches.size() >= FLUSH_QUEUE_CAPACITY) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new RuntimeException(
+              "Timeout while offering data to flushQueue, exceed "
+                  + dorisConfig.sinkOfferTimeout()
+                  + " ms, see "
+                  + dorisConfig.sinkOption().sinkOfferTimeout().key());
+        }
+        wait(remaining);
+      }
+      DorisSinkBufferEntry bufferEntity = bufferMap.get(bufferKey);
+      if (bufferEntity == null) {
+        return true;
+      }
+      synchronized (bufferEntity) {
+        if (!bufferMap.remove(bufferKey, bufferEntity)) {
+          return true;
+        }
+      }
+      pendingLoads.incrementAndGet();
+      batches.addLast(bufferEntity);
+      if (!running) {
+        running = true;
+        flushExecutor.execute(this);
+      }
+      return true;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        DorisSinkBufferEntry flushData;
+        synchronized (this) {
+          flushData = batches.pollFirst();
+          if (flushData == null) {
+            running = false;
+            return;
+          }
+          notifyAll();
+        }
+        try {
+          if (flushData.getBatchCount() > 0) {
+            streamLoad(flushData, flushLatency);
+          }
+        } catch (Throwable e) {
+          LOG.error("doris flush worker exception occurred:" + e.getMessage(), e);
+          flushException = e;
+        } finally {
+          loadDone();
+        }
+      }
+    }
+  }
 }
@@ -21,20 +21,21 @@ import org.apache.streampark.connector.doris.conf.DorisConfig;
 import org.apache.streampark.flink.connector.doris.bean.DorisSinkBufferEntry;
 import org.apache.streampark.flink.connector.doris.bean.LoadStatusFailedException;
 import org.apache.streampark.flink.connector.doris.bean.RespContent;
-import org.apache.streampark.flink.connector.doris.util.DorisDelimiterParser;
 
 import org.apache.streampark.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpHostConnectException;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 import org.slf4j.Logger;
@@ -44,12 +45,11 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class DorisStreamLoader implements Serializable {
@@ -69,11 +69,43 @@ public class DorisStreamLoader implements Serializable {
   private static final String RESULT_LABEL_PREPARE = "PREPARE";
   private static final String RESULT_LABEL_ABORTED = "ABORTED";
   private static final String RESULT_LABEL_UNKNOWN = "UNKNOWN";
+  private static final int DEFAULT_MAX_CONNECTIONS = 10;
+  // the backend redirected to is reused for a while, then asked to the frontend again for balance
+  private static final long REDIRECT_TARGET_TTL_MS = 60_000L;
+
+  // the client shared by all the stream loads, created once the sink is running
+  private transient CloseableHttpClient httpClient;
+  // the backend urls redirected to and the time redirected, by the load urls of the frontends
+  private transient Map<String, RedirectTarget> redirectTargets;
 
   public DorisStreamLoader(DorisConfig dorisConfig) {
     this.dorisConfig = dorisConfig;
   }
 
+  private synchronized CloseableHttpClient getHttpClient() {
+    if (httpClient == null) {
+      int maxConnections =
+          dorisConfig.maxConnections() > 0 ? dorisConfig.maxConnections() : DEFAULT_MAX_CONNECTIONS;
+      PoolingHttpClientConnectionManager connectionManager =
+          new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(maxConnections);
+      connectionManager.setDefaultMaxPerRoute(maxConnections);
+      httpClient =
+          HttpClients.custom()
+              .setConnectionManager(connectionManager)
+              .setDefaultRequestConfig(
+                  RequestConfig.custom()
+                      .setConnectTimeout(dorisConfig.timeout())
+                      .setExpectContinueEnabled(true)
+                      .build())
+              // the redirects of the frontends are followed and remembered by the loader
+              .disableRedirectHandling()
+              .build();
+      redirectTargets = new ConcurrentHashMap<>();
+    }
+    return httpClient;
+  }
+
   public RespContent doStreamLoad(DorisSinkBufferEntry bufferEntity) throws IOException {
     String host = getWorkerHost();
     if (null == host) {
@@ -83,11 +115,14 @@ public class DorisStreamLoader implements Serializable {
     LOG.info(String.format("Start to join batch data: label[%s].", bufferEntity.getLabel()));
     String loadUrl =
         String.format(LOAD_URL_PATTERN, host, bufferEntity.getDatabase(), bufferEntity.getTable());
-    LoadResponse loadResponse =
-        doHttpPut(
-            loadUrl,
-            bufferEntity.getLabel(),
-            joinRows(bufferEntity.getBuffer(), (int) bufferEntity.getBatchSize()));
+    DorisRowsEntity entity =
+        new DorisRowsEntity(
+            bufferEntity.getBuffer(),
+            bufferEntity.getBatchSize(),
+            dorisConfig.loadFormat(),
+            dorisConfig.rowDelimiter(),
+            dorisConfig.compression());
+    LoadResponse loadResponse = doHttpPut(loadUrl, bufferEntity.getLabel(), entity);
     if (LOG.isDebugEnabled()) {
       LOG.debug(String.format("Stream Load response: \n%s\n", loadResponse.respContent));
     }
@@ -122,59 +157,56 @@ public class DorisStreamLoader implements Serializable {
       } catch (InterruptedException e) {
         return;
       }
-      try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
-        HttpGet httpGet = new HttpGet(String.format(GET_LOAD_STATUS_URL, host, database, label));
-        httpGet.setHeader(
-            HttpHeaders.AUTHORIZATION,
-            getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
-        httpGet.setHeader("Connection", "close");
-        try (CloseableHttpResponse response = httpclient.execute(httpGet)) {
-          final int statusCode = response.getStatusLine().getStatusCode();
-          String loadResult = "{}";
-          if (response.getEntity() != null) {
-            loadResult = EntityUtils.toString(response.getEntity());
-          }
-          if (statusCode != 200) {
+      HttpGet httpGet = new HttpGet(String.format(GET_LOAD_STATUS_URL, host, database, label));
+      httpGet.setHeader(
+          HttpHeaders.AUTHORIZATION,
+          getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
+      try (CloseableHttpResponse response = getHttpClient().execute(httpGet)) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        String loadResult = "{}";
+        if (response.getEntity() != null) {
+          loadResult = EntityUtils.toString(response.getEntity());
+        }
+        if (statusCode != 200) {
+          throw new LoadStatusFailedException(
+              String.format(
+                  "Failed to flush data to doris, Error "
+                      + "could not get the final state of label[%s].%n",
+                  label),
+              null);
+        }
+        Map<String, Object> result = OBJECT_MAPPER.readValue(loadResult, HashMap.class);
+        String labelState = (String) result.get("state");
+        if (null == labelState) {
+          throw new LoadStatusFailedException(
+              String.format(
+                  "Failed to flush data to doris, Error "
+                      + "could not get the final state of label[%s]. response[%s]%n",
+                  label, loadResult),
+              null);
+        }
+        LOG.info(String.format("Checking label[%s] state[%s]%n", label, labelState));
+        switch (labelState) {
+          case LAEBL_STATE_VISIBLE:
+            return;
+          case LAEBL_STATE_COMMITTED:
+            return;
+          case RESULT_LABEL_PREPARE:
+            continue;
+          case RESULT_LABEL_ABORTED:
             throw new LoadStatusFailedException(
                 String.format(
-                    "Failed to flush data to doris, Error "
-                        + "could not get the final state of label[%s].%n",
-                    label),
-                null);
-          }
-          Map<String, Object> result = OBJECT_MAPPER.readValue(loadResult, HashMap.class);
-          String labelState = (String) result.get("state");
-          if (null == labelState) {
+                    "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
+                    label, labelState),
+                null,
+                true);
+          case RESULT_LABEL_UNKNOWN:
+          default:
             throw new LoadStatusFailedException(
                 String.format(
-                    "Failed to flush data to doris, Error "
-                        + "could not get the final state of label[%s]. response[%s]%n",
-                    label, loadResult),
+                    "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
+                    label, labelState),
                 null);
-          }
-          LOG.info(String.format("Checking label[%s] state[%s]%n", label, labelState));
-          switch (labelState) {
-            case LAEBL_STATE_VISIBLE:
-              return;
-            case LAEBL_STATE_COMMITTED:
-              return;
-            case RESULT_LABEL_PREPARE:
-              continue;
-            case RESULT_LABEL_ABORTED:
-              throw new LoadStatusFailedException(
-                  String.format(
-                      "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
-                      label, labelState),
-                  null,
-                  true);
-            case RESULT_LABEL_UNKNOWN:
-            default:
-              throw new LoadStatusFailedException(
-                  String.format(
-                      "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
-                      label, labelState),
-                  null);
-          }
         }
       }
     }
@@ -186,74 +218,72 @@ public class DorisStreamLoader implements Serializable {
     return "Basic " + new String(encodedAuth);
   }
 
-  private LoadResponse doHttpPut(String loadUrl, String label, byte[] data) throws IOException {
+  private LoadResponse doHttpPut(String loadUrl, String label, DorisRowsEntity entity)
+      throws IOException {
+    getHttpClient();
+    RedirectTarget redirectTarget = redirectTargets.get(loadUrl);
+    if (redirectTarget != null
+        && System.currentTimeMillis() - redirectTarget.redirectTime < REDIRECT_TARGET_TTL_MS) {
+      try {
+        return execute(loadUrl, redirectTarget.url, label, entity);
+      } catch (HttpHostConnectException | ConnectTimeoutException e) {
+        // nothing loaded if the backend can not be connected, ask the frontend again
+        LOG.warn("Failed to connect to the backend redirected: {}", redirectTarget.url, e);
+        redirectTargets.remove(loadUrl, redirectTarget);
+      } catch (IOException e) {
+        // the rows may be loaded, the load is failed rather than sent twice
+        redirectTargets.remove(loadUrl, redirectTarget);
+        throw e;
+      }
+    }
+    return execute(loadUrl, loadUrl, label, entity);
+  }
+
+  private LoadResponse execute(String loadUrl, String url, String label, DorisRowsEntity entity)
+      throws IOException {
     LOG.info(
         String.format(
             "Executing stream load to: '%s', size: '%s', thread: %d",
-            loadUrl, data.length, Thread.currentThread().getId()));
-    final HttpClientBuilder httpClientBuilder =
-        HttpClients.custom()
-            .setRedirectStrategy(
-                new DefaultRedirectStrategy() {
-                  @Override
-                  protected boolean isRedirectable(String method) {
-                    return true;
-                  }
-                });
-    try (CloseableHttpClient httpclient = httpClientBuilder.build()) {
-      final HttpPut put = new HttpPut(loadUrl);
-      final Properties properties = dorisConfig.loadProperties();
-      properties.forEach((k, v) -> put.setHeader(k.toString(), v.toString()));
-      if (properties.containsKey("columns")) {
-        put.setHeader("timeout", String.valueOf(dorisConfig.timeout()));
+            url, entity.getContentLength(), Thread.currentThread().getId()));
+    final HttpPut put = new HttpPut(url);
+    final Properties properties = dorisConfig.loadProperties();
+    properties.forEach((k, v) -> put.setHeader(k.toString(), v.toString()));
+    if (properties.containsKey("columns")) {
+      put.setHeader("timeout", String.valueOf(dorisConfig.timeout()));
+    }
+    if (!DorisConfig.COMPRESSION_NONE().equals(dorisConfig.compression())) {
+      put.setHeader("compress_type", DorisConfig.COMPRESSIONS().apply(dorisConfig.compression()));
+    }
+    put.setHeader(HttpHeaders.EXPECT, "100-continue");
+    put.setHeader(
+        HttpHeaders.AUTHORIZATION, getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
+    put.setHeader("label", label);
+    put.setEntity(entity);
+    try (CloseableHttpResponse response = getHttpClient().execute(put)) {
+      final int statusCode = response.getStatusLine().getStatusCode();
+      if (statusCode == HttpStatus.SC_TEMPORARY_REDIRECT
+          && response.containsHeader(HttpHeaders.LOCATION)
+          && url.equals(loadUrl)) {
+        // the frontend redirects to a backend before the rows are sent, as 100-continue expected
+        EntityUtils.consume(response.getEntity());
+        String location = response.getFirstHeader(HttpHeaders.LOCATION).getValue();
+        redirectTargets.put(loadUrl, new RedirectTarget(location, System.currentTimeMillis()));
+        return execute(loadUrl, location, label, entity);
       }
-      put.setHeader(HttpHeaders.EXPECT, "100-continue");
-      put.setHeader(
-          HttpHeaders.AUTHORIZATION,
-          getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
-      put.setHeader("label", label);
-      put.setEntity(new ByteArrayEntity(data));
-      try (CloseableHttpResponse response = httpclient.execute(put)) {
-        final int statusCode = response.getStatusLine().getStatusCode();
-        final String reasonPhrase = response.getStatusLine().getReasonPhrase();
-        String loadResult = "";
-        if (response.getEntity() != null) {
-          loadResult = EntityUtils.toString(response.getEntity());
-        }
-        return new LoadResponse(statusCode, reasonPhrase, loadResult);
+      final String reasonPhrase = response.getStatusLine().getReasonPhrase();
+      String loadResult = "";
+      if (response.getEntity() != null) {
+        loadResult = EntityUtils.toString(response.getEntity());
       }
+      return new LoadResponse(statusCode, reasonPhrase, loadResult);
     }
   }
 
-  private byte[] joinRows(List<byte[]> rows, int totalBytes) {
-    if (DorisConfig.CSV().equalsIgnoreCase(dorisConfig.loadFormat())) {
-      byte[] lineDelimiter =
-          DorisDelimiterParser.parse(dorisConfig.rowDelimiter()).getBytes(StandardCharsets.UTF_8);
-      ByteBuffer bos = ByteBuffer.allocate(totalBytes + rows.size() * lineDelimiter.length);
-      for (byte[] row : rows) {
-        bos.put(row);
-        bos.put(lineDelimiter);
-      }
-      return bos.array();
-    }
-
-    if (DorisConfig.JSON().equalsIgnoreCase(dorisConfig.loadFormat())) {
-      ByteBuffer bos = ByteBuffer.allocate(totalBytes + (rows.isEmpty() ? 2 : rows.size() + 1));
-      bos.put("[".getBytes(StandardCharsets.UTF_8));
-      byte[] jsonDelimiter = ",".getBytes(StandardCharsets.UTF_8);
-      boolean isFirstElement = true;
-      for (byte[] row : rows) {
-        if (!isFirstElement) {
-          bos.put(jsonDelimiter);
-        }
-        bos.put(row);
-        isFirstElement = false;
-      }
-      bos.put("]".getBytes(StandardCharsets.UTF_8));
-      return bos.array();
+  public synchronized void close() throws IOException {
+    if (httpClient != null) {
+      httpClient.close();
+      httpClient = null;
     }
-    throw new RuntimeException(
-        "Failed to join rows data, unsupported `format` from stream load properties:");
   }
 
   private String getWorkerHost() {
@@ -280,6 +310,16 @@ public class DorisStreamLoader implements Serializable {
     }
   }
 
+  private static class RedirectTarget {
+    private final String url;
+    private final long redirectTime;
+
+    private RedirectTarget(String url, long redirectTime) {
+      this.url = url;
+      this.redirectTime = redirectTime;
+    }
+  }
+
   public static class LoadResponse {
     public int status;
     public String respMsg;
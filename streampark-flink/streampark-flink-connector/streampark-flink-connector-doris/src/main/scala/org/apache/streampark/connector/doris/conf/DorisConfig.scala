@@ -28,6 +28,11 @@ object DorisConfig {
 
   val JSON = "json"
 
+  val COMPRESSION_NONE = "none"
+
+  // the compressions by the compress_type of the stream load
+  val COMPRESSIONS: Map[String, String] = Map("gzip" -> "gz", "lz4" -> "lz4")
+
   def apply(properties: Properties = new Properties): DorisConfig = new DorisConfig(properties)
 
 }
@@ -48,12 +53,34 @@ class DorisConfig(parameters: Properties) {
 
   val timeout: Int = sinkOption.connectTimeout.get()
 
+  val maxConnections: Int = sinkOption.maxConnections.get()
+
+  val compression: String = sinkOption.compression.get().toLowerCase
+
+  require(
+    compression == DorisConfig.COMPRESSION_NONE || DorisConfig.COMPRESSIONS.contains(compression),
+    s"[StreamPark] unsupported doris sink compression: $compression, must be one of none,${DorisConfig.COMPRESSIONS.keys
+        .mkString(",")}")
+
+  // the compress_type of the stream load is only supported by the csv format
+  require(
+    compression == DorisConfig.COMPRESSION_NONE || DorisConfig.CSV.equalsIgnoreCase(loadFormat),
+    s"[StreamPark] doris sink compression $compression is not supported by the format $loadFormat, only by csv")
+
   val sinkMaxRow: Int = sinkOption.maxRow.get()
 
   val sinkMaxBytes: Int = sinkOption.maxBytes.get()
 
   val sinkMaxRetries: Int = sinkOption.maxRetries.get()
 
+  val sinkRetryBackoff: Long = sinkOption.retryBackoff.get()
+
+  val sinkMaxRetryBackoff: Long = sinkOption.maxRetryBackoff.get()
+
+  val flushWorkers: Int = sinkOption.flushWorkers.get()
+
+  require(flushWorkers > 0, s"[StreamPark] doris sink flushWorkers must be positive: $flushWorkers")
+
   val flushInterval: Long = sinkOption.flushInterval.get()
 
   val sinkOfferTimeout: Long = sinkOption.sinkOfferTimeout.get()
@@ -114,11 +114,18 @@ class DorisSinkConfigOption(prefixStr: String, properties: Properties) extends S
     defaultValue = -1,
     classType = classOf[Int])
 
+  val compression: ConfigOption[String] = ConfigOption(
+    key = "compression",
+    required = false,
+    defaultValue = "none",
+    classType = classOf[String],
+    description = "the compression of the stream load body: none, gzip, lz4, see compress_type of doris")
+
   val maxRow: ConfigOption[Int] =
     ConfigOption(key = "maxRow", required = false, defaultValue = 100000, classType = classOf[Int])
 
   val maxBytes: ConfigOption[Int] = ConfigOption(
-    key = "maxRow",
+    key = "maxBytes",
     required = false,
     defaultValue = 94371840,
     classType = classOf[Int])
@@ -126,6 +133,36 @@ class DorisSinkConfigOption(prefixStr: String, properties: Properties) extends S
   val maxRetries: ConfigOption[Int] =
     ConfigOption(key = "maxRetries", required = false, defaultValue = 1, classType = classOf[Int])
 
+  val retryBackoff: ConfigOption[Long] = ConfigOption(
+    key = "retryBackoff",
+    required = false,
+    defaultValue = 1000L,
+    classType = classOf[Long],
+    handle = k => {
+      properties.remove(k).toString.toLong
+    },
+    description = "the base backoff(ms) of retrying a stream load, doubled every attempt with jitter"
+  )
+
+  val maxRetryBackoff: ConfigOption[Long] = ConfigOption(
+    key = "maxRetryBackoff",
+    required = false,
+    defaultValue = 60000L,
+    classType = classOf[Long],
+    handle = k => {
+      properties.remove(k).toString.toLong
+    },
+    description = "the max backoff(ms) of retrying a stream load"
+  )
+
+  val flushWorkers: ConfigOption[Int] = ConfigOption(
+    key = "flushWorkers",
+    required = false,
+    defaultValue = 4,
+    classType = classOf[Int],
+    description = "the number of the workers loading the tables in parallel, a table is loaded in order"
+  )
+
   val labelPrefix: ConfigOption[String] = ConfigOption(
     key = "labelPrefix",
     required = false,
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.doris.internal;
+
+import org.apache.streampark.connector.doris.conf.DorisConfig;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The stream loads of the tables to a stub server, the loads of the table "slow" are delayed, the
+ * loads of the table "stuck" wait until they are released.
+ */
+class DorisSinkWriterTest {
+
+  private static final long SLOW_LOAD_MS = 2000L;
+
+  private final Map<String, AtomicInteger> loadedRows = new ConcurrentHashMap<>();
+  private final Map<String, List<String>> loadedBatches = new ConcurrentHashMap<>();
+  private final CountDownLatch stuckLoads = new CountDownLatch(1);
+  private ExecutorService serverExecutor;
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext(
+        "/",
+        exchange -> {
+          // /api/{db}/{table}/_stream_load
+          String table = exchange.getRequestURI().getPath().split("/")[3];
+          BufferedReader reader =
+              new BufferedReader(
+                  new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+          List<String> rows = new ArrayList<>();
+          String row;
+          while ((row = reader.readLine()) != null) {
+            rows.add(row);
+          }
+          if ("slow".equals(table)) {
+            try {
+              TimeUnit.MILLISECONDS.sleep(SLOW_LOAD_MS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          if ("stuck".equals(table)) {
+            try {
+              stuckLoads.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          loadedBatches
+              .computeIfAbsent(table, k -> Collections.synchronizedList(new ArrayList<>()))
+              .add(rows.get(0));
+          loadedRows.computeIfAbsent(table, k -> new AtomicInteger()).addAndGet(rows.size());
+          byte[] response =
+              String.format(
+                      "{\"Status\":\"Success\",\"Label\":\"%s\",\"NumberLoadedRows\":%d}",
+                      exchange.getRequestHeaders().getFirst("label"), rows.size())
+                  .getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(200, response.length);
+          exchange.getResponseBody().write(response);
+          exchange.close();
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    stuckLoads.countDown();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  private DorisSinkWriter newWriter() {
+    return newWriter(new Properties());
+  }
+
+  private DorisSinkWriter newWriter(Properties properties) {
+    properties.put("doris.sink.load_url", "127.0.0.1:" + server.getAddress().getPort());
+    properties.put("doris.sink.user", "root");
+    properties.put("doris.sink.password", "");
+    properties.put("doris.sink.properties.row_delimiter", "\\x0A");
+    properties.put("doris.sink.maxRow", "10");
+    properties.put("doris.sink.flushWorkers", "4");
+    DorisSinkWriter writer = new DorisSinkWriter(new DorisConfig(properties));
+    writer.startAsyncFlushing();
+    return writer;
+  }
+
+  private static String[] rows(String table, int from, int to) {
+    String[] rows = new String[to - from];
+    for (int i = from; i < to; i++) {
+      rows[i - from] = String.format("%d,%s", i, table);
+    }
+    return rows;
+  }
+
+  private int loaded(String table) {
+    AtomicInteger rows = loadedRows.get(table);
+    return rows == null ? 0 : rows.get();
+  }
+
+  @Test
+  void slowTableNotBlockOthers() throws Exception {
+    DorisSinkWriter writer = newWriter();
+    try {
+      long start = System.currentTimeMillis();
+      writer.writeRecords("db", "slow", rows("slow", 0, 10));
+      for (String table : Arrays.asList("t1", "t2", "t3")) {
+        writer.writeRecords("db", table, rows(table, 0, 10));
+      }
+      while (loaded("t1") + loaded("t2") + loaded("t3") < 30
+          && System.currentTimeMillis() - start < SLOW_LOAD_MS) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      // the other tables are loaded while the slow table is still loading
+      Assertions.assertEquals(30, loaded("t1") + loaded("t2") + loaded("t3"));
+      Assertions.assertEquals(0, loaded("slow"));
+
+      writer.flush(null, true);
+      Assertions.assertEquals(10, loaded("slow"));
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  void loadBatchesOfTableInOrder() throws Exception {
+    DorisSinkWriter writer = newWriter();
+    try {
+      for (int i = 0; i < 50; i += 5) {
+        writer.writeRecords("db", "ordered", rows("ordered", i, i + 5));
+      }
+      writer.writeRecords("db", "ordered", rows("ordered", 50, 55));
+      writer.flush(null, true);
+      Assertions.assertEquals(55, loaded("ordered"));
+      Assertions.assertEquals(
+          Arrays.asList(
+              "0,ordered", "10,ordered", "20,ordered", "30,ordered", "40,ordered", "50,ordered"),
+          loadedBatches.get("ordered"));
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  void loadBatchesInOrderFlushedConcurrently() throws Exception {
+    DorisSinkWriter writer = newWriter();
+    ExecutorService flusher = Executors.newSingleThreadExecutor();
+    try {
+      // the batches of the table flushed by the scheduler meanwhile, like the interval flushes
+      java.util.concurrent.Future<?> flushing =
+          flusher.submit(
+              () -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                  writer.flush("db.concurrent", false);
+                }
+                return null;
+              });
+      for (int i = 0; i < 500; i += 3) {
+        writer.writeRecords("db", "concurrent", rows("concurrent", i, i + 3));
+      }
+      flushing.cancel(true);
+      writer.flush(null, true);
+      Assertions.assertEquals(501, loaded("concurrent"));
+      int last = -1;
+      for (String firstRow : loadedBatches.get("concurrent")) {
+        int first = Integer.parseInt(firstRow.split(",")[0]);
+        Assertions.assertTrue(first > last, "out of order: " + loadedBatches.get("concurrent"));
+        last = first;
+      }
+    } finally {
+      flusher.shutdownNow();
+      writer.close();
+    }
+  }
+
+  @Test
+  void schedulerSkipFullQueue() throws Exception {
+    Properties properties = new Properties();
+    properties.put("doris.sink.flushInterval", "100");
+    DorisSinkWriter writer = newWriter(properties);
+    try {
+      // one batch loading and the flush queue of the table full
+      writer.writeRecords("db", "stuck", rows("stuck", 0, 10));
+      TimeUnit.MILLISECONDS.sleep(100);
+      for (int i = 10; i < 110; i += 10) {
+        writer.writeRecords("db", "stuck", rows("stuck", i, i + 10));
+      }
+      writer.writeRecords("db", "stuck", rows("stuck", 110, 115));
+      writer.startScheduler();
+
+      // the scheduler is not blocked by the full queue of the table "stuck"
+      for (String table : Arrays.asList("t1", "t2")) {
+        TimeUnit.MILLISECONDS.sleep(300);
+        long start = System.currentTimeMillis();
+        writer.writeRecords("db", table, rows(table, 0, 5));
+        while (loaded(table) < 5 && System.currentTimeMillis() - start < SLOW_LOAD_MS) {
+          TimeUnit.MILLISECONDS.sleep(10);
+        }
+        Assertions.assertEquals(5, loaded(table));
+      }
+      Assertions.assertEquals(0, loaded("stuck"));
+
+      stuckLoads.countDown();
+      writer.flush(null, true);
+      Assertions.assertEquals(115, loaded("stuck"));
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  void backoffWithJitter() {
+    for (int attempt = 1; attempt <= 10; attempt++) {
+      long expected = Math.min(60000L, 1000L << (attempt - 1));
+      for (int i = 0; i < 100; i++) {
+        long backoff = DorisSinkWriter.backoff(1000L, 60000L, attempt);
+        Assertions.assertTrue(backoff >= expected / 2 && backoff <= expected);
+      }
+    }
+    Assertions.assertTrue(DorisSinkWriter.backoff(1000L, 60000L, 100) <= 60000L);
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.doris.internal;
+
+import org.apache.streampark.connector.doris.conf.DorisConfig;
+import org.apache.streampark.flink.connector.doris.bean.DorisSinkBufferEntry;
+
+import com.sun.net.httpserver.HttpServer;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/** The stream loads to a stub frontend redirecting to a stub backend. */
+class DorisStreamLoaderTest {
+
+  private static final int ROWS = 200_000;
+
+  private final AtomicInteger frontendLoads = new AtomicInteger();
+  private final AtomicLong backendRows = new AtomicLong();
+  // the backend drops the connection after reading the rows
+  private volatile boolean backendDropping;
+  private HttpServer frontend;
+  private volatile HttpServer backend;
+
+  private void startBackend() throws IOException {
+    backend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    backend.createContext(
+        "/",
+        exchange -> {
+          String compressType = exchange.getRequestHeaders().getFirst("compress_type");
+          InputStream in = exchange.getRequestBody();
+          if ("gz".equals(compressType)) {
+            in = new GZIPInputStream(in);
+          } else if ("lz4".equals(compressType)) {
+            in = new LZ4FrameInputStream(in);
+          }
+          BufferedReader reader =
+              new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+          long rows = 0;
+          while (reader.readLine() != null) {
+            rows++;
+          }
+          if (backendDropping) {
+            exchange.close();
+            return;
+          }
+          backendRows.addAndGet(rows);
+          byte[] response =
+              String.format(
+                      "{\"Status\":\"Success\",\"Label\":\"%s\",\"NumberLoadedRows\":%d}",
+                      exchange.getRequestHeaders().getFirst("label"), rows)
+                  .getBytes(StandardCharsets.UTF_8);
+          // not kept alive, so a stopped backend is a connect failure
+          exchange.getResponseHeaders().set("Connection", "close");
+          exchange.sendResponseHeaders(200, response.length);
+          exchange.getResponseBody().write(response);
+          exchange.close();
+        });
+    backend.start();
+  }
+
+  @BeforeEach
+  void startServers() throws IOException {
+    startBackend();
+    frontend = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    frontend.createContext(
+        "/",
+        exchange -> {
+          frontendLoads.incrementAndGet();
+          // unlike doris, the stub server continues the expectation, the rows are sent and dropped
+          byte[] bytes = new byte[8192];
+          while (exchange.getRequestBody().read(bytes) != -1) {
+            // drop
+          }
+          exchange
+              .getResponseHeaders()
+              .set(
+                  "Location",
+                  String.format(
+                      "http://127.0.0.1:%d%s",
+                      backend.getAddress().getPort(), exchange.getRequestURI()));
+          exchange.sendResponseHeaders(307, -1);
+          exchange.close();
+        });
+    frontend.start();
+  }
+
+  @AfterEach
+  void stopServers() {
+    frontend.stop(0);
+    backend.stop(0);
+  }
+
+  private DorisStreamLoader newLoader(String compression) {
+    return new DorisStreamLoader(new DorisConfig(newProperties("csv", compression)));
+  }
+
+  private Properties newProperties(String format, String compression) {
+    Properties properties = new Properties();
+    properties.put("doris.sink.load_url", "127.0.0.1:" + frontend.getAddress().getPort());
+    properties.put("doris.sink.user", "root");
+    properties.put("doris.sink.password", "");
+    properties.put("doris.sink.properties.row_delimiter", "\\x0A");
+    properties.put("doris.sink.loadFormat", format);
+    properties.put("doris.sink.compression", compression);
+    return properties;
+  }
+
+  private DorisSinkBufferEntry newBatch() {
+    DorisSinkBufferEntry entry = new DorisSinkBufferEntry("db", "tbl", "test");
+    for (int i = 0; i < ROWS; i++) {
+      entry.addToBuffer(
+          String.format("%d,user-%d,https://example.com/page/%d", i, i % 100, i)
+              .getBytes(StandardCharsets.UTF_8));
+    }
+    return entry;
+  }
+
+  @Test
+  void reuseRedirectedBackend() throws IOException {
+    DorisStreamLoader loader = newLoader("gzip");
+    try {
+      for (int i = 0; i < 3; i++) {
+        Assertions.assertEquals("Success", loader.doStreamLoad(newBatch()).getStatus());
+      }
+    } finally {
+      loader.close();
+    }
+    Assertions.assertEquals(1, frontendLoads.get());
+    Assertions.assertEquals(3L * ROWS, backendRows.get());
+  }
+
+  @Test
+  void compressByLz4() throws IOException {
+    DorisStreamLoader loader = newLoader("lz4");
+    try {
+      loader.doStreamLoad(newBatch());
+    } finally {
+      loader.close();
+    }
+    Assertions.assertEquals(ROWS, backendRows.get());
+  }
+
+  @Test
+  void streamRowsWithoutCopy() throws IOException {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    DorisStreamLoader loader = newLoader("none");
+    try {
+      // warm up the connections and the classes
+      loader.doStreamLoad(newBatch());
+
+      DorisSinkBufferEntry batch = newBatch();
+      long allocated = threads.getThreadAllocatedBytes(threadId);
+      loader.doStreamLoad(batch);
+      allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+      // the rows joined would allocate the whole batch at least
+      Assertions.assertTrue(allocated < batch.getBatchSize() / 2);
+    } finally {
+      loader.close();
+    }
+    Assertions.assertEquals(2L * ROWS, backendRows.get());
+  }
+
+  @Test
+  void askFrontendOnceBackendUnreachable() throws Exception {
+    DorisStreamLoader loader = newLoader("none");
+    try {
+      loader.doStreamLoad(newBatch());
+      // the backend redirected to is moved
+      backend.stop(0);
+      startBackend();
+      Assertions.assertEquals("Success", loader.doStreamLoad(newBatch()).getStatus());
+    } finally {
+      loader.close();
+    }
+    Assertions.assertEquals(2, frontendLoads.get());
+    Assertions.assertEquals(2L * ROWS, backendRows.get());
+  }
+
+  @Test
+  void failWithoutResponseOfBackend() throws IOException {
+    DorisStreamLoader loader = newLoader("none");
+    try {
+      loader.doStreamLoad(newBatch());
+      backendDropping = true;
+      Assertions.assertThrows(IOException.class, () -> loader.doStreamLoad(newBatch()));
+    } finally {
+      loader.close();
+    }
+    // the rows may be loaded by the backend, not sent again by the frontend
+    Assertions.assertEquals(1, frontendLoads.get());
+  }
+
+  @Test
+  void readContentOfRows() throws IOException {
+    DorisSinkBufferEntry entry = new DorisSinkBufferEntry("db", "tbl", "test");
+    entry.addToBuffer("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    entry.addToBuffer("{\"id\":2}".getBytes(StandardCharsets.UTF_8));
+    DorisRowsEntity json =
+        new DorisRowsEntity(entry.getBuffer(), entry.getBatchSize(), "json", "\\x0A", "none");
+    Assertions.assertTrue(json.getContent() instanceof SequenceInputStream);
+    Assertions.assertEquals("[{\"id\":1},{\"id\":2}]", EntityUtils.toString(json));
+    Assertions.assertEquals(json.getContentLength(), EntityUtils.toByteArray(json).length);
+
+    DorisRowsEntity gzip =
+        new DorisRowsEntity(entry.getBuffer(), entry.getBatchSize(), "csv", "\\x0A", "gzip");
+    try (InputStream in = new GZIPInputStream(gzip.getContent())) {
+      Assertions.assertEquals(
+          "{\"id\":1}\n{\"id\":2}\n", new String(readAll(in), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void rejectCompressedJson() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new DorisConfig(newProperties("json", "gzip")));
+    Assertions.assertEquals("none", new DorisConfig(newProperties("json", "none")).compression());
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] bytes = new byte[8192];
+    int read;
+    while ((read = in.read(bytes)) != -1) {
+      out.write(bytes, 0, read);
+    }
+    return out.toByteArray();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.streampark.flink.connector.jdbc.sink;
 import org.apache.streampark.common.util.ConfigUtils;
 import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.TransformFunction;
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcStatement;
 import org.apache.streampark.flink.connector.jdbc.internal.JdbcSinkFunction;
 import org.apache.streampark.flink.core.scala.StreamingContext;
 
@@ -33,6 +34,8 @@ public class JdbcJavaSink<T> {
   private final StreamingContext context;
   private Properties jdbc;
   private TransformFunction<T, String> sqlFunc;
+  private JdbcStatement statement;
+  private TransformFunction<T, Object[]> valuesFunc;
   private String alias = "";
 
   public JdbcJavaSink(StreamingContext context) {
@@ -54,11 +57,27 @@ public class JdbcJavaSink<T> {
     return this;
   }
 
+  /**
+   * The typed mode, the values of the columns bound to the prepared statements rather than the sql
+   * statements of the records.
+   */
+  public JdbcJavaSink<T> statement(JdbcStatement statement, TransformFunction<T, Object[]> func) {
+    this.statement = statement;
+    this.valuesFunc = func;
+    return this;
+  }
+
   public DataStreamSink<T> sink(DataStream<T> dataStream) {
-    Utils.requireNotNull(sqlFunc, "TransformFunction can not be null");
     this.jdbc =
         this.jdbc == null ? ConfigUtils.getJdbcConf(context.parameter().toMap(), alias) : this.jdbc;
-    JdbcSinkFunction<T> sinkFun = new JdbcSinkFunction<>(this.jdbc, this.sqlFunc);
+    JdbcSinkFunction<T> sinkFun;
+    if (statement != null) {
+      Utils.requireNotNull(valuesFunc, "TransformFunction can not be null");
+      sinkFun = new JdbcSinkFunction<>(this.jdbc, this.statement, this.valuesFunc);
+    } else {
+      Utils.requireNotNull(sqlFunc, "TransformFunction can not be null");
+      sinkFun = new JdbcSinkFunction<>(this.jdbc, this.sqlFunc);
+    }
     return dataStream.addSink(sinkFun);
   }
 }
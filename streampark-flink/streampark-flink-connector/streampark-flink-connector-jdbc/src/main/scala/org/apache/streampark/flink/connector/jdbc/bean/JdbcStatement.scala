@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.bean
+
+import java.util.{Collections, List => JavaList}
+
+import org.apache.streampark.common.util.Implicits._
+
+/**
+ * The statement of the typed jdbc sink, the fields of a record are bound to the columns in order.
+ *
+ * @param table
+ *   the table written
+ * @param columns
+ *   the columns written
+ * @param keys
+ *   the key columns, the records are upserted by the keys, or inserted only if empty
+ */
+case class JdbcStatement(table: String, columns: Seq[String], keys: Seq[String] = Nil) {
+
+  require(table != null && table.nonEmpty, "[StreamPark] JdbcStatement table can not be empty")
+  require(columns != null && columns.nonEmpty, "[StreamPark] JdbcStatement columns can not be empty")
+  require(keys.forall(columns.contains), "[StreamPark] JdbcStatement keys must be in the columns")
+
+  def this(table: String, columns: JavaList[String], keys: JavaList[String]) =
+    this(table, columns.asScala.toList, keys.asScala.toList)
+
+  def this(table: String, columns: JavaList[String]) =
+    this(table, columns, Collections.emptyList[String]())
+
+  def upsert: Boolean = keys.nonEmpty
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcStatement
+
+import java.sql.{Connection, PreparedStatement, Statement, Types}
+
+import scala.collection.mutable
+import scala.util.Try
+
+/** The records buffered by the sink, written to the database in a batch. */
+trait JdbcBatchWriter[T] extends AutoCloseable {
+
+  def add(record: T): Unit
+
+  /** The records buffered. */
+  def size: Int
+
+  /** Write the records buffered, returns the records written, the records are cleared even if failed. */
+  def executeBatch(): Int
+}
+
+/** The records converted to the sql statements, every statement parsed by the database. */
+class SqlBatchWriter[T](connection: Connection, toSQL: T => String)
+  extends JdbcBatchWriter[T]
+  with Logger {
+
+  private[this] val statement: Statement = connection.createStatement()
+
+  private[this] var buffered = 0
+
+  override def add(record: T): Unit = {
+    val sql = toSQL(record)
+    try statement.addBatch(sql)
+    catch {
+      case e: Exception =>
+        logError(s"JdbcSink batch invoke error:$sql")
+        throw e
+    }
+    buffered += 1
+  }
+
+  override def size: Int = buffered
+
+  override def executeBatch(): Int = {
+    val count = buffered
+    try {
+      statement.executeBatch()
+      count
+    } finally {
+      statement.clearBatch()
+      buffered = 0
+    }
+  }
+
+  override def close(): Unit = JdbcUtils.close(statement)
+}
+
+/**
+ * The fields of the records bound to the prepared statements cached, the full groups of the rows
+ * are written by the multi-row statement if the dialect supports, the rest by the single-row
+ * statement, e.g. 250 rows are written by 2 statements of 100 rows and 50 statements of a row.
+ *
+ * @param rowsPerStatement
+ *   the rows of the multi-row statement
+ */
+class PreparedBatchWriter[T](
+    connection: Connection,
+    jdbcStatement: JdbcStatement,
+    dialect: JdbcDialect,
+    rowsPerStatement: Int,
+    toValues: T => Array[AnyRef])
+  extends JdbcBatchWriter[T] {
+
+  private[this] val columns = jdbcStatement.columns.size
+
+  private[this] val keyIndexes = jdbcStatement.keys.map(jdbcStatement.columns.indexOf)
+
+  // the parameters of a statement are limited to 32767 by some databases, e.g. postgresql
+  private[this] val groupRows =
+    if (dialect.supportsMultiRowValues) math.max(1, math.min(rowsPerStatement, 32767 / columns))
+    else 1
+
+  private[this] val rows = mutable.ArrayBuffer[Array[AnyRef]]()
+
+  private[this] var singleRow: PreparedStatement = _
+
+  private[this] var multiRow: PreparedStatement = _
+
+  // the sql types of the columns, for binding the nulls
+  private[this] var sqlTypes: Array[Int] = _
+
+  private[this] def sql(rows: Int): String =
+    if (jdbcStatement.upsert) dialect.upsertSql(jdbcStatement.table, jdbcStatement.columns, jdbcStatement.keys, rows)
+    else dialect.insertSql(jdbcStatement.table, jdbcStatement.columns, rows)
+
+  override def add(record: T): Unit = {
+    val values = toValues(record)
+    require(
+      values != null && values.length == columns,
+      s"[StreamPark] JdbcSink the values of the record must be the $columns columns of ${jdbcStatement.table}")
+    rows += values
+  }
+
+  override def size: Int = rows.size
+
+  override def executeBatch(): Int = {
+    val count = rows.size
+    try {
+      val batch =
+        if (jdbcStatement.upsert) {
+          // a key upserted once by the latest row, the rows of a key can't be in a statement of some databases
+          val latest = mutable.LinkedHashMap[Seq[AnyRef], Array[AnyRef]]()
+          rows.foreach(row => latest.put(keyIndexes.map(row(_)), row))
+          latest.values.toIndexedSeq
+        } else rows
+      val groups = batch.size / groupRows
+      if (groupRows > 1 && groups > 0) {
+        if (multiRow == null) {
+          multiRow = connection.prepareStatement(sql(groupRows))
+        }
+        for (group <- 0 until groups) {
+          for (i <- 0 until groupRows) {
+            bind(multiRow, i * columns, batch(group * groupRows + i))
+          }
+          multiRow.addBatch()
+        }
+        multiRow.executeBatch()
+      }
+      val rest = if (groupRows > 1) groups * groupRows else 0
+      if (rest < batch.size) {
+        if (singleRow == null) {
+          singleRow = connection.prepareStatement(sql(1))
+        }
+        for (i <- rest until batch.size) {
+          bind(singleRow, 0, batch(i))
+          singleRow.addBatch()
+        }
+        singleRow.executeBatch()
+      }
+      count
+    } finally {
+      rows.clear()
+      if (multiRow != null) {
+        multiRow.clearBatch()
+      }
+      if (singleRow != null) {
+        singleRow.clearBatch()
+      }
+    }
+  }
+
+  private[this] def bind(statement: PreparedStatement, offset: Int, row: Array[AnyRef]): Unit = {
+    for (i <- 0 until columns) {
+      row(i) match {
+        case null => statement.setNull(offset + i + 1, sqlType(statement, i))
+        case value => statement.setObject(offset + i + 1, value)
+      }
+    }
+  }
+
+  private[this] def sqlType(statement: PreparedStatement, column: Int): Int = {
+    if (sqlTypes == null) {
+      // the drivers may not support the parameter metadata at all, or for some parameters
+      val metaData = Try(statement.getParameterMetaData).toOption
+      sqlTypes = Array.tabulate(columns)(
+        i => metaData.flatMap(m => Try(m.getParameterType(i + 1)).toOption).getOrElse(Types.NULL))
+    }
+    sqlTypes(column)
+  }
+
+  override def close(): Unit = JdbcUtils.close(singleRow, multiRow)
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+/**
+ * The sql of inserting and upserting the rows of the typed jdbc sink, some databases insert
+ * multiple rows by a statement, e.g. `INSERT INTO t (a, b) VALUES (?, ?), (?, ?)`, so the database
+ * parses a statement for the rows rather than for every row.
+ */
+trait JdbcDialect extends Serializable {
+
+  def name: String
+
+  /** Whether a statement inserts multiple rows by the values list. */
+  def supportsMultiRowValues: Boolean = true
+
+  def insertSql(table: String, columns: Seq[String], rows: Int): String =
+    s"INSERT INTO $table (${columns.mkString(", ")}) VALUES ${values(columns.size, rows)}"
+
+  /** The rows are inserted, or the non-key columns updated if the keys exist. */
+  def upsertSql(table: String, columns: Seq[String], keys: Seq[String], rows: Int): String =
+    throw new UnsupportedOperationException(s"[StreamPark] jdbc dialect $name does not support upsert")
+
+  protected def values(columns: Int, rows: Int): String = {
+    val row = Seq.fill(columns)("?").mkString("(", ", ", ")")
+    Seq.fill(rows)(row).mkString(", ")
+  }
+}
+
+object JdbcDialect {
+
+  object MySQL extends JdbcDialect {
+    override def name: String = "mysql"
+
+    override def upsertSql(table: String, columns: Seq[String], keys: Seq[String], rows: Int): String = {
+      val updates = columns.filterNot(keys.contains) match {
+        // the keys updated to themselves, the duplicate rows ignored
+        case Nil => keys.map(c => s"$c = $c")
+        case cols => cols.map(c => s"$c = VALUES($c)")
+      }
+      s"${insertSql(table, columns, rows)} ON DUPLICATE KEY UPDATE ${updates.mkString(", ")}"
+    }
+  }
+
+  object PostgreSQL extends JdbcDialect {
+    override def name: String = "postgresql"
+
+    override def upsertSql(table: String, columns: Seq[String], keys: Seq[String], rows: Int): String = {
+      val action = columns.filterNot(keys.contains) match {
+        case Nil => "DO NOTHING"
+        case cols => s"DO UPDATE SET ${cols.map(c => s"$c = EXCLUDED.$c").mkString(", ")}"
+      }
+      s"${insertSql(table, columns, rows)} ON CONFLICT (${keys.mkString(", ")}) $action"
+    }
+  }
+
+  object H2 extends JdbcDialect {
+    override def name: String = "h2"
+
+    override def upsertSql(table: String, columns: Seq[String], keys: Seq[String], rows: Int): String =
+      s"MERGE INTO $table (${columns.mkString(", ")}) KEY (${keys.mkString(", ")}) VALUES ${values(columns.size, rows)}"
+  }
+
+  /** The MERGE of derby merges the rows of a table only, so the rows are inserted only. */
+  object Derby extends JdbcDialect {
+    override def name: String = "derby"
+  }
+
+  /** The dialect of the other databases, a row inserted by a statement. */
+  object Generic extends JdbcDialect {
+    override def name: String = "generic"
+
+    override def supportsMultiRowValues: Boolean = false
+  }
+
+  def of(jdbcUrl: String): JdbcDialect = Option(jdbcUrl).map(_.toLowerCase).getOrElse("") match {
+    case url if url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:") => MySQL
+    case url if url.startsWith("jdbc:postgresql:") => PostgreSQL
+    case url if url.startsWith("jdbc:h2:") => H2
+    case url if url.startsWith("jdbc:derby:") => Derby
+    case _ => Generic
+  }
+}
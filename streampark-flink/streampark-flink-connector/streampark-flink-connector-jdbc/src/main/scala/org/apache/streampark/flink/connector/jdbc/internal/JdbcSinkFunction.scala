@@ -17,34 +17,66 @@
 
 package org.apache.streampark.flink.connector.jdbc.internal
 
-import org.apache.streampark.common.conf.ConfigKeys.{DEFAULT_JDBC_INSERT_BATCH, KEY_JDBC_INSERT_BATCH}
+import org.apache.streampark.common.conf.ConfigKeys._
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
-import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.common.util.{JdbcUtils, Logger, ThreadUtils}
 import org.apache.streampark.flink.connector.function.TransformFunction
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcStatement
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.metrics.{Counter, Histogram}
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.{RichSinkFunction, SinkFunction}
 
-import java.sql.{Connection, PreparedStatement, Statement}
+import java.sql.Connection
 import java.util.Properties
-import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.{Executors, ScheduledExecutorService, TimeUnit}
 
+import scala.util.Try
+
+/**
+ * Writes the records to the database in batches, flushed when the batch is full, at the interval
+ * and on checkpoints. The records are converted to the sql statements by the user, or bound to the
+ * cached prepared statements of the [[JdbcStatement]] in the typed mode, so the database parses a
+ * statement rather than a statement for every record.
+ */
 class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   extends RichSinkFunction[T]
+  with CheckpointedFunction
   with Logger {
   private var connection: Connection = _
-  private var statement: Statement = _
+  private var writer: JdbcBatchWriter[T] = _
   private var scalaToSQLFn: T => String = _
   private var javaToSQLFunc: TransformFunction[T, String] = _
-  private val offset: AtomicLong = new AtomicLong(0L)
-  private var timestamp: Long = 0L
+  private var jdbcStatement: JdbcStatement = _
+  private var scalaToValuesFn: T => Seq[Any] = _
+  private var javaToValuesFunc: TransformFunction[T, Array[AnyRef]] = _
+
+  @transient private var scheduler: ScheduledExecutorService = _
+  @volatile private var flushException: Throwable = _
+
+  @transient private var batchSizes: Histogram = _
+  @transient private var flushLatency: Histogram = _
+  @transient private var flushedRows: Counter = _
 
   private val batchSize = jdbc.remove(KEY_JDBC_INSERT_BATCH) match {
     case null => DEFAULT_JDBC_INSERT_BATCH
     case batch => batch.toString.toInt
   }
 
+  private val batchInterval = jdbc.remove(KEY_JDBC_INSERT_BATCH_INTERVAL) match {
+    case null => DEFAULT_JDBC_INSERT_BATCH_INTERVAL
+    case interval => interval.toString.toLong
+  }
+
+  private val rowsPerStatement = jdbc.remove(KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT) match {
+    case null => DEFAULT_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT
+    case rows => rows.toString.toInt
+  }
+
   def this(jdbc: Properties, toSQLFn: T => String) {
     this(ApiType.scala, jdbc)
     this.scalaToSQLFn = toSQLFn
@@ -56,66 +88,130 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
     this.javaToSQLFunc = toSQLFn
   }
 
+  def this(jdbc: Properties, statement: JdbcStatement, toValuesFn: T => Seq[Any]) {
+    this(ApiType.scala, jdbc)
+    require(statement != null, "[StreamPark] JdbcStatement can not be null")
+    this.jdbcStatement = statement
+    this.scalaToValuesFn = toValuesFn
+  }
+
+  def this(jdbc: Properties, statement: JdbcStatement, toValuesFunc: TransformFunction[T, Array[AnyRef]]) {
+    this(ApiType.java, jdbc)
+    require(statement != null, "[StreamPark] JdbcStatement can not be null")
+    require(toValuesFunc != null, "[StreamPark] ToValuesFunction can not be null")
+    this.jdbcStatement = statement
+    this.javaToValuesFunc = toValuesFunc
+  }
+
   @throws[Exception]
   override def open(parameters: Configuration): Unit = {
     require(jdbc != null, "[StreamPark] JdbcSink jdbc can not be null")
     logInfo("JdbcSink Open....")
     connection = JdbcUtils.getConnection(jdbc)
     connection.setAutoCommit(false)
-    if (batchSize > 1) {
-      statement = connection.createStatement()
+    writer = jdbcStatement match {
+      case null => new SqlBatchWriter[T](connection, toSQL)
+      case statement =>
+        val dialect = JdbcDialect.of(jdbc.getProperty(KEY_JDBC_URL))
+        logInfo(s"JdbcSink typed mode, table: ${statement.table}, dialect: ${dialect.name}")
+        new PreparedBatchWriter[T](connection, statement, dialect, rowsPerStatement, toValues)
+    }
+    // the metrics of the sink function, not of the output format without the runtime context
+    Try(getRuntimeContext.getMetricGroup).foreach {
+      group =>
+        batchSizes = group.histogram("batchSize", new DescriptiveStatisticsHistogram(100))
+        flushLatency = group.histogram("flushLatencyMs", new DescriptiveStatisticsHistogram(100))
+        flushedRows = group.counter("flushedRows")
+    }
+    if (batchSize > 1 && batchInterval > 0) {
+      scheduler = Executors.newScheduledThreadPool(1, ThreadUtils.threadFactory("jdbc-sink-flush"))
+      scheduler.scheduleWithFixedDelay(
+        new Runnable {
+          override def run(): Unit = JdbcSinkFunction.this.synchronized {
+            if (flushException == null) {
+              try flush()
+              catch {
+                case e: Exception => logError("JdbcSink flush at the interval error", e)
+              }
+            }
+          }
+        },
+        batchInterval,
+        batchInterval,
+        TimeUnit.MILLISECONDS
+      )
     }
   }
 
-  override def invoke(value: T, context: SinkFunction.Context): Unit = {
+  private[this] def toSQL(value: T): String = apiType match {
+    case ApiType.scala => scalaToSQLFn(value)
+    case ApiType.java => javaToSQLFunc.transform(value)
+  }
+
+  private[this] def toValues(value: T): Array[AnyRef] = apiType match {
+    case ApiType.scala => scalaToValuesFn(value).map(_.asInstanceOf[AnyRef]).toArray
+    case ApiType.java => javaToValuesFunc.transform(value)
+  }
+
+  override def invoke(value: T, context: SinkFunction.Context): Unit = this.synchronized {
     require(connection != null)
-    val sql = apiType match {
-      case ApiType.scala => scalaToSQLFn(value)
-      case ApiType.java => javaToSQLFunc.transform(value)
+    checkFlushException()
+    writer.add(value)
+    if (writer.size >= batchSize) {
+      flush()
     }
-    batchSize match {
-      case 1 =>
-        try {
-          statement = connection.prepareStatement(sql)
-          statement.asInstanceOf[PreparedStatement].executeUpdate
-          connection.commit()
-        } catch {
-          case e: Exception =>
-            logError(s"JdbcSink invoke error:$sql")
-            throw e
-          case _: Throwable =>
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = this.synchronized {
+    checkFlushException()
+    flush()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
+  override def close(): Unit = {
+    ThreadUtils.shutdownExecutorService(scheduler)
+    this.synchronized {
+      try {
+        if (writer != null && flushException == null) {
+          flush()
         }
-      case batch =>
+      } finally {
+        JdbcUtils.close(writer, connection)
+      }
+    }
+  }
+
+  private[this] def flush(): Unit = {
+    if (writer.size > 0) {
+      val start = System.currentTimeMillis()
+      val count =
         try {
-          statement.addBatch(sql)
-          (offset.incrementAndGet() % batch, System.currentTimeMillis()) match {
-            case (0, _) => execBatch()
-            case (_, current) if current - timestamp > 1000 => execBatch()
-            case _ =>
-          }
+          val count = writer.executeBatch()
+          connection.commit()
+          count
         } catch {
           case e: Exception =>
-            logError(s"JdbcSink batch invoke error:$sql")
+            // the records of the failed batch are dropped by the writer, the sink fails and isn't flushed on close
+            Try(connection.rollback()).failed.foreach(e.addSuppressed)
+            flushException = e
             throw e
-          case _: Throwable =>
         }
+      val elapsed = System.currentTimeMillis() - start
+      if (batchSize > 1) {
+        logInfo(s"JdbcSink batch $count use $elapsed MS")
+      }
+      if (flushedRows != null) {
+        batchSizes.update(count)
+        flushLatency.update(elapsed)
+        flushedRows.inc(count)
+      }
     }
   }
 
-  override def close(): Unit = {
-    execBatch()
-    JdbcUtils.close(statement, connection)
-  }
-
-  private[this] def execBatch(): Unit = {
-    if (offset.get() > 0) {
-      offset.set(0L)
-      val start = System.currentTimeMillis()
-      val count = statement.executeBatch().sum
-      statement.clearBatch()
-      connection.commit()
-      logInfo(s"JdbcSink batch $count use ${System.currentTimeMillis() - start} MS")
-      timestamp = System.currentTimeMillis()
+  private[this] def checkFlushException(): Unit = {
+    if (flushException != null) {
+      throw new RuntimeException("[StreamPark] JdbcSink writing records failed.", flushException)
     }
   }
 
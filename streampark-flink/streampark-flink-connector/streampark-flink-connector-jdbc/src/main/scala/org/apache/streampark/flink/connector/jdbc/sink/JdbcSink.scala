@@ -20,6 +20,7 @@ package org.apache.streampark.flink.connector.jdbc.sink
 import org.apache.streampark.common.conf.ConfigKeys._
 import org.apache.streampark.common.enums.Semantic
 import org.apache.streampark.common.util.{ConfigUtils, Logger}
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcStatement
 import org.apache.streampark.flink.connector.jdbc.internal.{Jdbc2PCSinkFunction, JdbcSinkFunction}
 import org.apache.streampark.flink.connector.sink.Sink
 import org.apache.streampark.flink.core.scala.StreamingContext
@@ -87,6 +88,26 @@ class JdbcSink(
     }
     afterSink(sink, parallelism, name, uid)
   }
+
+  /**
+   * @param stream
+   *   : DataStream
+   * @param statement
+   *   : The table and the columns written, the records are upserted by the keys if not empty.
+   * @param toValuesFn
+   *   : The function converted to the values of the columns is provided by the user.
+   * @tparam T
+   *   : The data type of the stream in the DataStream
+   * @return
+   */
+  def sink[T](stream: DataStream[T], statement: JdbcStatement)(toValuesFn: T => Seq[Any]): DataStreamSink[T] = {
+    val prop = ConfigUtils.getJdbcConf(ctx.parameter.toMap, alias)
+    if (Semantic.of(prop.getProperty(KEY_SEMANTIC, Semantic.NONE.name())) == Semantic.EXACTLY_ONCE) {
+      logWarn("Jdbc Semantic EXACTLY_ONCE is not supported by the typed sink, the batches are flushed on checkpoints.")
+    }
+    val sink = stream.addSink(new JdbcSinkFunction[T](prop, statement, toValuesFn))
+    afterSink(sink, parallelism, name, uid)
+  }
 }
 
 class JdbcOutputFormat[T: TypeInformation](implicit prop: Properties, toSQlFun: T => String)
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.common.util.JdbcUtils
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcStatement
+
+import org.apache.flink.configuration.Configuration
+import org.junit.jupiter.api.{Assertions, BeforeEach, Test}
+
+import java.util.Properties
+import java.util.concurrent.TimeUnit
+
+case class Order(id: Long, user: String, amount: Double)
+
+/** The sink writes to the embedded h2 database. */
+class JdbcSinkFunctionTest {
+
+  implicit val jdbc: Properties = {
+    val prop = new Properties()
+    prop.put(KEY_ALIAS, "jdbc-sink-test")
+    prop.put(KEY_JDBC_DRIVER, "org.h2.Driver")
+    prop.put(KEY_JDBC_URL, "jdbc:h2:mem:jdbc-sink-test;DB_CLOSE_DELAY=-1")
+    prop.put(KEY_JDBC_USER, "sa")
+    prop.put(KEY_JDBC_PASSWORD, "")
+    prop
+  }
+
+  val statement: JdbcStatement = JdbcStatement("orders", List("id", "user_name", "amount"))
+
+  val upsert: JdbcStatement = statement.copy(keys = List("id"))
+
+  @BeforeEach
+  def createTable(): Unit = {
+    JdbcUtils.execute("DROP TABLE IF EXISTS orders")
+    JdbcUtils.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_name VARCHAR(64), amount DOUBLE)")
+  }
+
+  def order(id: Long): Order = Order(id, s"user-${id % 100}", id * 1.5)
+
+  def count(): Long = JdbcUtils.count("SELECT COUNT(1) FROM orders")
+
+  def newSink(batch: Map[String, Any], toSink: Properties => JdbcSinkFunction[Order]): JdbcSinkFunction[Order] = {
+    val prop = new Properties()
+    jdbc.stringPropertyNames().forEach(k => prop.put(k, jdbc.getProperty(k)))
+    batch.foreach(kv => prop.put(kv._1, kv._2.toString))
+    val sink = toSink(prop)
+    sink.open(new Configuration)
+    sink
+  }
+
+  def typedSink(batch: (String, Any)*): JdbcSinkFunction[Order] =
+    newSink(batch.toMap, new JdbcSinkFunction[Order](_, statement, (o: Order) => Seq(o.id, o.user, o.amount)))
+
+  def upsertSink(batch: (String, Any)*): JdbcSinkFunction[Order] =
+    newSink(batch.toMap, new JdbcSinkFunction[Order](_, upsert, (o: Order) => Seq(o.id, o.user, o.amount)))
+
+  def sqlSink(batch: (String, Any)*): JdbcSinkFunction[Order] =
+    newSink(
+      batch.toMap,
+      new JdbcSinkFunction[Order](
+        _,
+        (o: Order) => s"INSERT INTO orders (id, user_name, amount) VALUES (${o.id}, '${o.user}', ${o.amount})"))
+
+  @Test
+  def dialectSql(): Unit = {
+    Assertions.assertEquals(
+      "INSERT INTO t (a, b) VALUES (?, ?), (?, ?)",
+      JdbcDialect.MySQL.insertSql("t", List("a", "b"), 2))
+    Assertions.assertEquals(
+      "INSERT INTO t (a, b) VALUES (?, ?) ON DUPLICATE KEY UPDATE b = VALUES(b)",
+      JdbcDialect.MySQL.upsertSql("t", List("a", "b"), List("a"), 1))
+    Assertions.assertEquals(
+      "INSERT INTO t (a, b) VALUES (?, ?) ON CONFLICT (a) DO UPDATE SET b = EXCLUDED.b",
+      JdbcDialect.PostgreSQL.upsertSql("t", List("a", "b"), List("a"), 1))
+    Assertions.assertEquals(
+      "MERGE INTO t (a, b) KEY (a) VALUES (?, ?), (?, ?)",
+      JdbcDialect.H2.upsertSql("t", List("a", "b"), List("a"), 2))
+    Assertions.assertEquals(JdbcDialect.Derby, JdbcDialect.of("jdbc:derby:memory:db;create=true"))
+    Assertions.assertThrows(
+      classOf[UnsupportedOperationException],
+      () => JdbcDialect.Derby.upsertSql("t", List("a", "b"), List("a"), 1))
+    Assertions.assertFalse(JdbcDialect.of("jdbc:oracle:thin:@localhost:1521:db").supportsMultiRowValues)
+  }
+
+  @Test
+  def insertByMultiRowStatements(): Unit = {
+    val sink = typedSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 100)
+    // 2 statements of 100 rows and 50 of a row
+    (1L to 250L).foreach(id => sink.invoke(order(id), null))
+    Assertions.assertEquals(0, count())
+    sink.snapshotState(null)
+    Assertions.assertEquals(250, count())
+    sink.invoke(Order(251, null, 0), null)
+    sink.close()
+    Assertions.assertEquals(251, count())
+    Assertions.assertEquals(
+      null,
+      JdbcUtils.unique("SELECT user_name FROM orders WHERE id = 251").values.head)
+  }
+
+  @Test
+  def upsertByKeys(): Unit = {
+    val sink = upsertSink(KEY_JDBC_INSERT_BATCH -> 100, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 10)
+    (1L to 95L).foreach(id => sink.invoke(order(id), null))
+    // the same keys in the batch and in the table
+    (1L to 10L).foreach(id => sink.invoke(Order(id % 3 + 1, "updated", id), null))
+    sink.close()
+    Assertions.assertEquals(95, count())
+    Assertions.assertEquals(3, JdbcUtils.count("SELECT COUNT(1) FROM orders WHERE user_name = 'updated'"))
+    // the latest row of the key
+    Assertions.assertEquals(
+      "10.0",
+      JdbcUtils.unique("SELECT amount FROM orders WHERE id = 2").values.head.toString)
+  }
+
+  @Test
+  def flushAtInterval(): Unit = {
+    val sink = sqlSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_INTERVAL -> 100)
+    try {
+      (1L to 5L).foreach(id => sink.invoke(order(id), null))
+      val start = System.currentTimeMillis()
+      while (count() < 5 && System.currentTimeMillis() - start < 5000) {
+        TimeUnit.MILLISECONDS.sleep(50)
+      }
+      Assertions.assertEquals(5, count())
+    } finally {
+      sink.close()
+    }
+  }
+
+  @Test
+  def writeBySqlAndPreparedStatements(): Unit = {
+    val rows = 10000L
+    Seq(
+      sqlSink(KEY_JDBC_INSERT_BATCH -> 1000),
+      typedSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 1),
+      typedSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 100)
+    ).foreach {
+      sink =>
+        createTable()
+        (1L to rows).foreach(id => sink.invoke(order(id), null))
+        sink.close()
+        Assertions.assertEquals(rows, count())
+    }
+  }
+
+  @Test
+  def rollbackFailedBatch(): Unit = {
+    Seq(
+      sqlSink(KEY_JDBC_INSERT_BATCH -> 1000),
+      typedSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 1),
+      typedSink(KEY_JDBC_INSERT_BATCH -> 1000, KEY_JDBC_INSERT_BATCH_ROWS_PER_STATEMENT -> 4)
+    ).foreach {
+      sink =>
+        createTable()
+        JdbcUtils.execute("INSERT INTO orders (id, user_name, amount) VALUES (5, 'user-5', 7.5)")
+        // the key 5 is duplicated
+        (1L to 10L).foreach(id => sink.invoke(order(id), null))
+        Assertions.assertThrows(classOf[Exception], () => sink.snapshotState(null))
+        Assertions.assertEquals(1, count())
+        // the sink is failed, the batch isn't written again on close
+        Assertions.assertThrows(classOf[RuntimeException], () => sink.invoke(order(11), null))
+        sink.close()
+        Assertions.assertEquals(1, count())
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ package org.apache.streampark.flink.kubernetes
 
 import org.apache.streampark.common.util.{Logger, Utils}
 import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.kubernetes.enums.FlinkK8sDeployMode
 import org.apache.streampark.flink.kubernetes.model._
 
 import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
@@ -47,6 +48,9 @@ class FlinkK8sWatchController extends Logger with AutoCloseable {
   // cache for last each flink cluster metrics (such as a session cluster or a application cluster)
   lazy val flinkMetrics: MetricCache = MetricCache.build()
 
+  // cache for the static metadata of each flink cluster, such as the jobmanager configurations
+  lazy val clusterMetadata: ClusterMetadataCache = ClusterMetadataCache.build()
+
   override def close(): Unit = {
     jobStatuses.cleanUp()
     k8sDeploymentEvents.cleanUp()
@@ -70,6 +74,7 @@ class FlinkK8sWatchController extends Logger with AutoCloseable {
       canceling.invalidate(trackId)
       jobStatuses.invalidate(trackId)
       flinkMetrics.invalidate(ClusterKey.of(trackId))
+      clusterMetadata.invalidate(ClusterKey.of(trackId))
     }
   }
 
@@ -106,6 +111,8 @@ class FlinkK8sWatchController extends Logger with AutoCloseable {
     if (restUrl.nonEmpty) {
       endpoints.put(clusterKey, restUrl.get)
     }
+    // the jobmanager may be replaced
+    clusterMetadata.invalidate(clusterKey)
     restUrl
   }
 
@@ -248,3 +255,30 @@ object MetricCache {
   def build(): MetricCache = new MetricCache()
 
 }
+
+class ClusterMetadataCache {
+
+  private[this] lazy val cache: Cache[ClusterKey, ClusterMetadataCV] =
+    Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).build()
+
+  def put(k: ClusterKey, v: ClusterMetadataCV): Unit = cache.put(k, v)
+
+  /** get the metadata fetched from the rest url, the metadata of another endpoint is stale. */
+  def get(key: ClusterKey, restUrl: String): ClusterMetadataCV = {
+    val metadata = cache.getIfPresent(key)
+    if (metadata != null && metadata.restUrl == restUrl) metadata else null
+  }
+
+  def invalidate(key: ClusterKey): Unit = cache.invalidate(key)
+
+  /** invalidate the metadata of the cluster in every deploy mode, e.g. when it is redeployed. */
+  def invalidate(namespace: String, clusterId: String): Unit =
+    FlinkK8sDeployMode.values.foreach(mode => cache.invalidate(ClusterKey(mode, namespace, clusterId)))
+
+}
+
+object ClusterMetadataCache {
+
+  def build(): ClusterMetadataCache = new ClusterMetadataCache()
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes
+
+import org.apache.streampark.common.conf.ConfigKeys
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
+import org.apache.streampark.common.util.Implicits._
+
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.{HasMetadata, Pod, Service}
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.apps.Deployment
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.KubernetesClient
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.dsl.Informable
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.informers.SharedIndexInformer
+
+import java.util.concurrent.{ConcurrentHashMap, Executors, ScheduledExecutorService, TimeUnit}
+
+import scala.util.Try
+
+/**
+ * The local caches of the flink native kubernetes resources, i.e. the deployments, services and
+ * pods labeled `type=flink-native-kubernetes`, fed by the informers of each namespace looked up.
+ *
+ * The lookups are served from memory once the informer of the namespace is watching, and are sent
+ * to the kubernetes api by name before that, e.g. while the informer is syncing or reconnecting.
+ * The informers of a namespace not looked up for long are stopped, and started again on demand.
+ *
+ * @param client
+ *   the shared kubernetes client, which is not closed by the cache
+ * @param maxIdleMillis
+ *   the idle time after which the informers of a namespace are stopped
+ */
+class KubernetesResourceCache(client: KubernetesClient, maxIdleMillis: Long = TimeUnit.MINUTES.toMillis(30))
+  extends AutoCloseable
+  with Logger {
+
+  private[this] class NamespaceInformers(namespace: String) {
+
+    val deployments: SharedIndexInformer[Deployment] =
+      start(client.apps().deployments().inNamespace(namespace).withLabel("type", ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL))
+
+    val services: SharedIndexInformer[Service] =
+      start(client.services().inNamespace(namespace).withLabel("type", ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL))
+
+    val pods: SharedIndexInformer[Pod] =
+      start(client.pods().inNamespace(namespace).withLabel("type", ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL))
+
+    private[this] def start[T <: HasMetadata](informable: Informable[T]): SharedIndexInformer[T] = {
+      // no resync, the caches are only read
+      val informer = informable.runnableInformer(0)
+      informer
+        .start()
+        .whenComplete((_, e) => if (e != null) logWarn(s"[flink-k8s] start informer in namespace $namespace failed: $e"))
+      informer
+    }
+
+    @volatile var lastAccess: Long = System.currentTimeMillis()
+
+    def isWatching: Boolean = List(deployments, services, pods).forall(_.isWatching)
+
+    def close(): Unit = List(deployments, services, pods).foreach(informer => Try(informer.stop()))
+  }
+
+  private[this] val informers = new ConcurrentHashMap[String, NamespaceInformers]()
+
+  @volatile private[this] var closed = false
+
+  private[this] val evictor: ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("flink-k8s-informer-evictor"))
+
+  private[this] val evictPeriod = math.max(1000L, maxIdleMillis / 2)
+
+  evictor.scheduleWithFixedDelay(
+    () => Try(evictIdle()).failed.foreach(e => logWarn(s"[flink-k8s] evict idle informers failed: $e")),
+    evictPeriod,
+    evictPeriod,
+    TimeUnit.MILLISECONDS)
+
+  /** Get the flink native deployment of the name. */
+  def getDeployment(namespace: String, name: String): Option[Deployment] = {
+    lookup(namespace)(_.deployments, name) {
+      client.apps().deployments().inNamespace(namespace).withName(name).get()
+    }.filter(isFlinkNative)
+  }
+
+  /** Get the flink native service of the name, e.g. the rest service `<clusterId>-rest`. */
+  def getService(namespace: String, name: String): Option[Service] = {
+    lookup(namespace)(_.services, name) {
+      client.services().inNamespace(namespace).withName(name).get()
+    }.filter(isFlinkNative)
+  }
+
+  /** Get the flink native pods with all the labels, e.g. the match labels of a deployment. */
+  def getPods(namespace: String, labels: Map[String, String]): List[Pod] = {
+    informersOf(namespace).map(_.pods) match {
+      case Some(informer) if informer.isWatching =>
+        informer.getStore.list().filter(pod => hasLabels(pod, labels)).toList
+      case _ =>
+        client
+          .pods()
+          .inNamespace(namespace)
+          .withLabels(labels + ("type" -> ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL))
+          .list()
+          .getItems
+          .toList
+    }
+  }
+
+  /** Whether the lookups of the namespace are served from memory. */
+  private[kubernetes] def isWatching(namespace: String): Boolean = {
+    informersOf(namespace).exists(_.isWatching)
+  }
+
+  /** Stop the informers of the namespaces not looked up for longer than the max idle time. */
+  private[kubernetes] def evictIdle(): Unit = {
+    val now = System.currentTimeMillis()
+    informers.forEach((namespace, namespaceInformers) => {
+      if (now - namespaceInformers.lastAccess > maxIdleMillis && informers.remove(namespace, namespaceInformers)) {
+        logInfo(s"[flink-k8s] stop the informers of the idle namespace $namespace")
+        namespaceInformers.close()
+      }
+    })
+  }
+
+  /** Stop all the informers. */
+  override def close(): Unit = {
+    closed = true
+    evictor.shutdownNow()
+    informers.values().foreach(_.close())
+    informers.clear()
+  }
+
+  private[this] def lookup[T <: HasMetadata](namespace: String)(
+      informerOf: NamespaceInformers => SharedIndexInformer[T],
+      name: String)(get: => T): Option[T] = {
+    informersOf(namespace).map(informerOf) match {
+      case Some(informer) if informer.isWatching =>
+        Option(informer.getStore.getByKey(s"$namespace/$name"))
+      case _ => Option(get)
+    }
+  }
+
+  private[this] def informersOf(namespace: String): Option[NamespaceInformers] = {
+    if (closed) None
+    else {
+      Try(informers.computeIfAbsent(namespace, ns => new NamespaceInformers(ns))).toOption
+        .map(namespaceInformers => {
+          namespaceInformers.lastAccess = System.currentTimeMillis()
+          namespaceInformers
+        })
+    }
+  }
+
+  private[this] def isFlinkNative(resource: HasMetadata): Boolean = {
+    hasLabels(resource, Map("type" -> ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL))
+  }
+
+  private[this] def hasLabels(resource: HasMetadata, labels: Map[String, String]): Boolean = {
+    val resourceLabels = resource.getMetadata.getLabels
+    resourceLabels != null && labels.forall { case (k, v) => v == resourceLabels.get(k) }
+  }
+
+}
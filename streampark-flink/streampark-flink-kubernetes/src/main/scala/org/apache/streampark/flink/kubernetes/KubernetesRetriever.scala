@@ -17,8 +17,8 @@
 
 package org.apache.streampark.flink.kubernetes
 
+import org.apache.streampark.common.util.{KeyedResourcePool, Logger}
 import org.apache.streampark.common.util.Implicits._
-import org.apache.streampark.common.util.Logger
 import org.apache.streampark.flink.kubernetes.enums.FlinkK8sDeployMode
 import org.apache.streampark.flink.kubernetes.ingress.IngressController
 import org.apache.streampark.flink.kubernetes.model.ClusterKey
@@ -29,11 +29,13 @@ import org.apache.flink.client.program.ClusterClient
 import org.apache.flink.configuration.{Configuration, DeploymentOptions, RestOptions}
 import org.apache.flink.kubernetes.KubernetesClusterDescriptor
 import org.apache.flink.kubernetes.configuration.KubernetesConfigOptions
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.{DefaultKubernetesClient, KubernetesClient, KubernetesClientException}
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.{Config, DefaultKubernetesClient, KubernetesClient, KubernetesClientException}
 import org.apache.hc.core5.util.Timeout
 
 import javax.annotation.Nullable
 
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+
 import scala.util.{Failure, Success, Try}
 
 object KubernetesRetriever extends Logger {
@@ -48,15 +50,43 @@ object KubernetesRetriever extends Logger {
 
   private val DEPLOYMENT_LOST_TIME = collection.mutable.Map[String, Long]()
 
-  /** get new KubernetesClient */
+  // kube context -> the shared kubernetes client and its resource caches
+  private[this] val SHARED_K8S_CLIENTS =
+    new ConcurrentHashMap[String, (KubernetesClient, KubernetesResourceCache)]()
+
+  /** get new KubernetesClient, which should be closed by the caller */
   @throws(classOf[KubernetesClientException])
   def newK8sClient(): KubernetesClient = {
     new DefaultKubernetesClient()
   }
 
+  /**
+   * get the long-lived KubernetesClient of the kube context shared by all the callers, which should
+   * not be closed.
+   *
+   * @param context
+   *   the kube context, the current context of the kube config by default
+   */
+  @throws(classOf[KubernetesClientException])
+  def sharedK8sClient(@Nullable context: String = null): KubernetesClient = shared(context)._1
+
+  /** get the cached flink native deployments, services and pods of the kube context */
+  def k8sResourceCache(@Nullable context: String = null): KubernetesResourceCache = shared(context)._2
+
+  private[this] def shared(context: String): (KubernetesClient, KubernetesResourceCache) = {
+    SHARED_K8S_CLIENTS.computeIfAbsent(
+      Option(context).getOrElse(""),
+      ctx => {
+        logInfo(s"[flink-k8s] create shared kubernetes client of context: ${if (ctx.isEmpty) "current" else ctx}")
+        val client = new DefaultKubernetesClient(Config.autoConfigure(if (ctx.isEmpty) null else ctx))
+        client -> new KubernetesResourceCache(client)
+      }
+    )
+  }
+
   /** check connection of kubernetes cluster */
   def checkK8sConnection(): Boolean = {
-    Try(newK8sClient().getVersion != null).getOrElse(false)
+    Try(sharedK8sClient().getVersion != null).getOrElse(false)
   }
 
   private val clusterClientServiceLoader =
@@ -101,6 +131,40 @@ object KubernetesRetriever extends Logger {
         })
   }
 
+  // the flink cluster clients shared by the retrievals of the same cluster
+  private[this] lazy val clusterClientPool = new KeyedResourcePool[ClusterKey, ClusterClient[String]](
+    "flink-k8s-cluster-client",
+    key =>
+      newFinkClusterClient(key.clusterId, key.namespace, key.executeMode)
+        .getOrElse(throw new IllegalStateException(s"[StreamPark] retrieve flink cluster client of $key failed")),
+    _.close(),
+    client => Try(client.listJobs().get(FLINK_CLIENT_TIMEOUT_SEC.toMilliseconds, TimeUnit.MILLISECONDS)).isSuccess,
+    64,
+    TimeUnit.MINUTES.toMillis(5),
+    TimeUnit.SECONDS.toMillis(30),
+    KeyedResourcePool.isConnectionFailure
+  )
+
+  /**
+   * Run the function with the shared flink cluster client of kubernetes mode, the client is
+   * discarded if the function fails to reach the cluster.
+   *
+   * @return
+   *   none if the client is not available or the function fails
+   */
+  def withFlinkClusterClient[T](clusterKey: ClusterKey)(func: ClusterClient[String] => T): Option[T] = {
+    Try(clusterClientPool.use(clusterKey)(func)) match {
+      case Success(v) => Some(v)
+      case Failure(e) =>
+        logError(s"Use flink cluster client of $clusterKey error, the error is: $e")
+        None
+    }
+  }
+
+  /** The metrics of the shared flink cluster clients: size, inUse, hits, misses, evictions and failures. */
+  def getClusterClientMetrics: JavaMap[String, JavaLong] =
+    clusterClientPool.getMetrics.map { case (k, v) => k -> Long.box(v) }.asJava
+
   /**
    * check whether deployment exists on kubernetes cluster
    *
@@ -110,59 +174,57 @@ object KubernetesRetriever extends Logger {
    *   deployment name
    */
   def isDeploymentExists(namespace: String, deploymentName: String): Boolean = {
-
-    KubernetesRetriever
-      .newK8sClient()
-      .autoClose(client => {
-        client
-          .apps()
-          .deployments()
-          .inNamespace(namespace)
-          .withLabel("type", "flink-native-kubernetes")
-          .list()
-          .getItems
-          .exists(_.getMetadata.getName == deploymentName)
-      }) {
-        e =>
-          logWarn(
-            s"""
-               |[StreamPark] check deploymentExists WARN,
-               |namespace: $namespace,
-               |deploymentName: $deploymentName,
-               |error: $e
-               |""".stripMargin)
-          val key = s"${namespace}_$deploymentName"
-          DEPLOYMENT_LOST_TIME.get(key) match {
-            case Some(time) =>
-              val timeOut = 1000 * 60 * 3L
-              if (System.currentTimeMillis() - time >= timeOut) {
-                logError(
-                  s"""
-                     |[StreamPark] check deploymentExists Failed,
-                     |namespace: $namespace,
-                     |deploymentName: $deploymentName,
-                     |detail: deployment: $deploymentName Not Found more than 3 minutes, $e
-                     |""".stripMargin)
-                DEPLOYMENT_LOST_TIME -= key
-                return false
-              }
-              return true
-            case _ =>
-              DEPLOYMENT_LOST_TIME += key -> System.currentTimeMillis()
+    Try(k8sResourceCache().getDeployment(namespace, deploymentName).isDefined) match {
+      case Success(exists) => exists
+      case Failure(e) =>
+        logWarn(
+          s"""
+             |[StreamPark] check deploymentExists WARN,
+             |namespace: $namespace,
+             |deploymentName: $deploymentName,
+             |error: $e
+             |""".stripMargin)
+        val key = s"${namespace}_$deploymentName"
+        DEPLOYMENT_LOST_TIME.get(key) match {
+          case Some(time) =>
+            val timeOut = 1000 * 60 * 3L
+            if (System.currentTimeMillis() - time >= timeOut) {
+              logError(
+                s"""
+                   |[StreamPark] check deploymentExists Failed,
+                   |namespace: $namespace,
+                   |deploymentName: $deploymentName,
+                   |detail: deployment: $deploymentName Not Found more than 3 minutes, $e
+                   |""".stripMargin)
+              DEPLOYMENT_LOST_TIME -= key
+              false
+            } else {
               true
-          }
-      }
+            }
+          case _ =>
+            DEPLOYMENT_LOST_TIME += key -> System.currentTimeMillis()
+            true
+        }
+    }
   }
 
-  /** retrieve flink jobManager rest url */
+  /**
+   * retrieve flink jobManager rest url by a new cluster client, as the url of the shared client is
+   * resolved once it is created, which is stale after the jobManager is replaced, so the shared
+   * client of the cluster is discarded too.
+   */
   def retrieveFlinkRestUrl(clusterKey: ClusterKey): Option[String] = {
-    val client = KubernetesRetriever
-      .newFinkClusterClient(clusterKey.clusterId, clusterKey.namespace, clusterKey.executeMode)
-      .getOrElse(return None)
-    val url =
-      IngressController.getIngressUrlAddress(clusterKey.namespace, clusterKey.clusterId, client)
-    logger.info(s"retrieve flink jobManager rest url: $url")
-    Some(url)
+    clusterClientPool.invalidate(clusterKey)
+    newFinkClusterClient(clusterKey.clusterId, clusterKey.namespace, clusterKey.executeMode).flatMap(
+      _.autoClose(client =>
+        Try(IngressController.getIngressUrlAddress(clusterKey.namespace, clusterKey.clusterId, client)) match {
+          case Success(url) =>
+            logger.info(s"retrieve flink jobManager rest url: $url")
+            Some(url)
+          case Failure(e) =>
+            logError(s"retrieve flink jobManager rest url of $clusterKey error, the error is: $e")
+            None
+        }))
   }
 
 }
@@ -48,11 +48,20 @@ case class MetricWatcherConfig(requestTimeoutSec: Long, requestIntervalSec: Long
  *   interval seconds between two single tracking task
  * @param silentStateJobKeepTrackingSec
  *   retained tracking time for SILENT state flink tasks
+ * @param maxConcurrency
+ *   max number of the clusters tracked at the same time
+ * @param circuitBreakerFailures
+ *   consecutive failures of a cluster after which its requests are suspended
+ * @param circuitBreakerOpenSec
+ *   seconds for which the requests of a failing cluster are suspended
  */
 case class JobStatusWatcherConfig(
     requestTimeoutSec: Long,
     requestIntervalSec: Long,
-    silentStateJobKeepTrackingSec: Int)
+    silentStateJobKeepTrackingSec: Int,
+    maxConcurrency: Int = Math.max(4, Runtime.getRuntime.availableProcessors * 2),
+    circuitBreakerFailures: Int = 3,
+    circuitBreakerOpenSec: Long = 60)
 
 object FlinkTrackConfig {
   def defaultConf: FlinkTrackConfig =
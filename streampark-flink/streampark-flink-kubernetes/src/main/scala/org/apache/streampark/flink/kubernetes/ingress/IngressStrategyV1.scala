@@ -18,6 +18,7 @@
 package org.apache.streampark.flink.kubernetes.ingress
 
 import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
 import org.apache.flink.client.program.ClusterClient
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.networking.v1.IngressBuilder
@@ -31,39 +32,41 @@ class IngressStrategyV1 extends IngressStrategy {
       nameSpace: String,
       clusterId: String,
       clusterClient: ClusterClient[_]): String = {
-    new DefaultKubernetesClient().autoClose(client =>
-      Try {
-        Option(
-          Try(
-            client.network.v1
-              .ingresses()
-              .inNamespace(nameSpace)
-              .withName(clusterId)
-              .get())
-            .getOrElse(null)) match {
-          case Some(ingress) =>
-            Option(ingress)
-              .map(ingress => ingress.getSpec.getRules.head)
-              .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
-              .map { case (host, path) => s"http://$host$path" }
-              .getOrElse(clusterClient.autoClose(_.getWebInterfaceURL))
-          case None => clusterClient.autoClose(_.getWebInterfaceURL)
-        }
-      } match {
-        case Success(value) => value
-        case Failure(e) =>
-          throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
-      })
+    val client = KubernetesRetriever.sharedK8sClient()
+    Try {
+      Option(
+        Try(
+          client.network.v1
+            .ingresses()
+            .inNamespace(nameSpace)
+            .withName(clusterId)
+            .get())
+          .getOrElse(null)) match {
+        case Some(ingress) =>
+          Option(ingress)
+            .map(ingress => ingress.getSpec.getRules.head)
+            .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
+            .map { case (host, path) => s"http://$host$path" }
+            .getOrElse(clusterClient.getWebInterfaceURL)
+        case None => clusterClient.getWebInterfaceURL
+      }
+    } match {
+      case Success(value) => value
+      case Failure(e) =>
+        throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    }
   }
 
   private[this] def touchIngressBackendRestPort(
       client: DefaultKubernetesClient,
       clusterId: String,
       nameSpace: String): Int = {
-    var ports = client.services
-      .inNamespace(nameSpace)
-      .withName(s"$clusterId-$REST_SERVICE_IDENTIFICATION")
-      .get()
+    val serviceName = s"$clusterId-$REST_SERVICE_IDENTIFICATION"
+    // the service just created may not be in the cache yet
+    var ports = KubernetesRetriever
+      .k8sResourceCache()
+      .getService(nameSpace, serviceName)
+      .getOrElse(client.services.inNamespace(nameSpace).withName(serviceName).get())
       .getSpec
       .getPorts
     ports =
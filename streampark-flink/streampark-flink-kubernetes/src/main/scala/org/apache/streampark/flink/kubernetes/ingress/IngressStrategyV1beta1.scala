@@ -18,6 +18,7 @@
 package org.apache.streampark.flink.kubernetes.ingress
 
 import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
 import org.apache.commons.lang3.StringUtils
 import org.apache.flink.client.program.ClusterClient
@@ -33,29 +34,28 @@ class IngressStrategyV1beta1 extends IngressStrategy {
       nameSpace: String,
       clusterId: String,
       clusterClient: ClusterClient[_]): String = {
-    new DefaultKubernetesClient().autoClose(client => {
-      Try {
-        Option(
-          Try(
-            client.network.v1beta1.ingresses
-              .inNamespace(nameSpace)
-              .withName(clusterId)
-              .get)
-            .getOrElse(null)) match {
-          case Some(ingress) =>
-            Option(ingress)
-              .map(ingress => ingress.getSpec.getRules.head)
-              .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
-              .map { case (host, path) => s"http://$host$path" }
-              .getOrElse(clusterClient.autoClose(_.getWebInterfaceURL))
-          case None => clusterClient.autoClose(_.getWebInterfaceURL)
-        }
-      } match {
-        case Success(value) => value
-        case Failure(e) =>
-          throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    val client = KubernetesRetriever.sharedK8sClient()
+    Try {
+      Option(
+        Try(
+          client.network.v1beta1.ingresses
+            .inNamespace(nameSpace)
+            .withName(clusterId)
+            .get)
+          .getOrElse(null)) match {
+        case Some(ingress) =>
+          Option(ingress)
+            .map(ingress => ingress.getSpec.getRules.head)
+            .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
+            .map { case (host, path) => s"http://$host$path" }
+            .getOrElse(clusterClient.getWebInterfaceURL)
+        case None => clusterClient.getWebInterfaceURL
       }
-    })
+    } match {
+      case Success(value) => value
+      case Failure(e) =>
+        throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    }
   }
 
   override def buildIngressAnnotations(
@@ -17,10 +17,10 @@
 
 package org.apache.streampark.flink.kubernetes.watcher
 
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.common.util.Implicits._
-import org.apache.streampark.common.util.Logger
 import org.apache.streampark.flink.kubernetes._
-import org.apache.streampark.flink.kubernetes.enums.{FlinkJobState, FlinkK8sDeployMode}
+import org.apache.streampark.flink.kubernetes.enums.FlinkJobState
 import org.apache.streampark.flink.kubernetes.enums.FlinkK8sDeployMode.{APPLICATION, SESSION}
 import org.apache.streampark.flink.kubernetes.event.FlinkJobStatusChangeEvent
 import org.apache.streampark.flink.kubernetes.helper.KubernetesDeploymentHelper
@@ -32,6 +32,7 @@ import org.apache.flink.configuration.JobManagerOptions
 import org.apache.flink.core.fs.Path
 import org.apache.flink.runtime.history.FsJobArchivist
 import org.apache.hc.client5.http.fluent.Request
+import org.apache.hc.core5.util.Timeout
 import org.json4s.{DefaultFormats, JNothing, JNull}
 import org.json4s.JsonAST.JArray
 import org.json4s.jackson.JsonMethods.parse
@@ -41,11 +42,9 @@ import javax.annotation.concurrent.ThreadSafe
 
 import java.io.File
 import java.nio.charset.StandardCharsets
-import java.util.concurrent.{ScheduledFuture, TimeUnit}
+import java.util.concurrent.{ConcurrentHashMap, LinkedBlockingQueue, ScheduledFuture, ThreadPoolExecutor, TimeUnit}
+import java.util.concurrent.atomic.AtomicBoolean
 
-import scala.concurrent.{Await, ExecutionContext, ExecutionContextExecutorService, Future}
-import scala.concurrent.duration.DurationLong
-import scala.language.postfixOps
 import scala.util.{Failure, Success, Try}
 
 /**
@@ -60,8 +59,27 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
   extends Logger
   with FlinkWatcher {
 
-  implicit private val trackTaskExecutor: ExecutionContextExecutorService =
-    ExecutionContext.fromExecutorService(watchExecutor)
+  // the clusters are tracked in parallel, at most maxConcurrency at the same time
+  private[this] val clusterExecutor = {
+    val executor = new ThreadPoolExecutor(
+      conf.maxConcurrency,
+      conf.maxConcurrency,
+      60L,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue[Runnable],
+      ThreadUtils.threadFactory("streampark-flink-k8s-job-status"))
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+
+  private[this] val clusterTrackings = new ConcurrentHashMap[ClusterKey, ClusterTracking]()
+
+  // the timeouts of the rest requests of a cluster
+  private[this] val connectTimeout: Timeout = Timeout.ofSeconds(
+    math.min(conf.requestTimeoutSec, KubernetesRetriever.FLINK_REST_AWAIT_TIMEOUT_SEC.toSeconds))
+
+  private[this] val responseTimeout: Timeout = Timeout.ofSeconds(
+    math.min(conf.requestTimeoutSec, KubernetesRetriever.FLINK_CLIENT_TIMEOUT_SEC.toSeconds))
 
   private var timerSchedule: ScheduledFuture[_] = _
 
@@ -86,77 +104,74 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
 
   /** closes resource, relinquishing any underlying resources. */
   override def doClose(): Unit = {
-    trackTaskExecutor.shutdownNow()
+    clusterExecutor.shutdownNow()
     logInfo("[flink-k8s] FlinkJobStatusWatcher closed.")
   }
 
-  /** single flink job status tracking task */
+  /**
+   * single flink job status tracking task, each cluster is tracked independently, the cluster
+   * still in tracking since the last rounds is skipped, so a slow cluster never blocks the others.
+   */
   override def doWatch(): Unit = {
-    this.synchronized {
-      // get all legal tracking ids
-      val trackIds = Try(watchController.getAllWatchingIds())
-        .filter(_.nonEmpty)
-        .getOrElse(return
-        )
+    // get all legal tracking ids
+    val trackIds = Try(watchController.getAllWatchingIds())
+      .filter(_.nonEmpty)
+      .getOrElse(return
+      )
+    val clusters = trackIds.groupBy(_.toClusterKey)
+    // forget the clusters no longer tracked
+    clusterTrackings.keySet().removeIf(clusterKey => !clusters.contains(clusterKey))
+
+    clusters.foreach {
+      case (clusterKey, ids) =>
+        val tracking = clusterTrackings.computeIfAbsent(clusterKey, _ => new ClusterTracking)
+        if (tracking.inFlight.compareAndSet(false, true)) {
+          Try(clusterExecutor.execute(() =>
+            try {
+              watchCluster(clusterKey, ids)
+            } catch {
+              case e: Throwable =>
+                logWarn(s"[FlinkJobStatusWatcher] tracking flink job status of $clusterKey failed: $e")
+            } finally {
+              tracking.inFlight.set(false)
+            })).failed.foreach(_ => tracking.inFlight.set(false))
+        } else {
+          logDebug(s"[FlinkJobStatusWatcher] $clusterKey is still in tracking, skip it this round.")
+        }
+    }
+  }
 
+  /** track the jobs of a cluster, the jobs of a session cluster share one jobs overview request. */
+  private[this] def watchCluster(clusterKey: ClusterKey, trackIds: Set[TrackId]): Unit = {
+    clusterKey.executeMode match {
       // 1) k8s application mode
-      val appFuture: Set[Future[Option[JobStatusCV]]] =
-        trackIds.filter(_.executeMode == FlinkK8sDeployMode.APPLICATION).map {
+      case APPLICATION =>
+        trackIds.foreach(
           id =>
-            val future = Future(touchApplicationJob(id))
-            future.onComplete(_.getOrElse(None) match {
+            touchApplicationJob(id) match {
               case Some(jobState) =>
                 updateState(id.copy(jobId = jobState.jobId), jobState)
               case _ =>
             })
-            future
-        }
-
       // 2) k8s session mode
-      val sessionIds =
-        trackIds.filter(_.executeMode == FlinkK8sDeployMode.SESSION)
-      val sessionCluster =
-        sessionIds.groupBy(_.toClusterKey.toString).flatMap(_._2).toSet
-      val sessionFuture = sessionCluster.map {
-        trackId =>
-          val future = Future(touchSessionAllJob(trackId))
-          future.onComplete(_.toOption match {
-            case Some(map) =>
-              map.find(_._1.jobId == trackId.jobId) match {
-                case Some(job) =>
-                  updateState(job._1.copy(appId = trackId.appId), job._2)
-                case _ =>
-                  touchSessionJob(trackId) match {
-                    case Some(state) =>
-                      if (FlinkJobState.isEndState(state.jobState)) {
-                        // can't find that job in the k8s cluster.
-                        watchController.unWatching(trackId)
-                      }
-                      eventBus.postSync(FlinkJobStatusChangeEvent(trackId, state))
-                    case _ =>
-                  }
-              }
-            case _ =>
-          })
-          future
-      }
-
-      // blocking until all future are completed or timeout is reached
-      Try(Await.result(Future.sequence(appFuture), conf.requestTimeoutSec seconds)).failed.map {
-        _ =>
-          logWarn(
-            s"[FlinkJobStatusWatcher] tracking flink job status on kubernetes native application mode timeout," +
-              s" limitSeconds=${conf.requestTimeoutSec}," +
-              s" trackIds=${trackIds.mkString(",")}")
-      }
-
-      Try(Await.result(Future.sequence(sessionFuture), conf.requestTimeoutSec seconds)).failed.map {
-        _ =>
-          logWarn(
-            s"[FlinkJobStatusWatcher] tracking flink job status on kubernetes native session mode timeout," +
-              s" limitSeconds=${conf.requestTimeoutSec}," +
-              s" trackIds=${trackIds.mkString(",")}")
-      }
+      case SESSION =>
+        val jobs = touchSessionAllJob(trackIds.head)
+        trackIds.foreach(
+          trackId =>
+            jobs.find(_._1.jobId == trackId.jobId) match {
+              case Some(job) => updateState(trackId, job._2)
+              case _ =>
+                // can't find that job in the k8s cluster.
+                inferState(trackId) match {
+                  case Some(state) =>
+                    if (FlinkJobState.isEndState(state.jobState)) {
+                      watchController.unWatching(trackId)
+                    }
+                    eventBus.postSync(FlinkJobStatusChangeEvent(trackId, state))
+                  case _ =>
+                }
+            })
+      case _ =>
     }
   }
 
@@ -193,7 +208,7 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
             val trackItem = trackId.copy(jobId = d.jid, appId = null)
             trackItem -> jobStatus
         }.toMap
-      case None => Map.empty[TrackId, JobStatusCV]
+      case _ => Map.empty[TrackId, JobStatusCV]
     }
   }
 
@@ -235,6 +250,7 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
             trackId.clusterId)
           if (!deployExists) {
             watchController.endpoints.invalidate(trackId.toClusterKey)
+            watchController.clusterMetadata.invalidate(trackId.toClusterKey)
             watchController.unWatching(trackId)
           }
         case SESSION =>
@@ -266,8 +282,20 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
     Option(jobState)
   }
 
-  /** list flink jobs details */
+  /** list flink jobs details, none if the requests of the cluster fail or are suspended. */
   private def listJobsDetails(clusterKey: ClusterKey): Option[JobDetails] = {
+    val tracking = clusterTrackings.computeIfAbsent(clusterKey, _ => new ClusterTracking)
+    if (tracking.isOpen) {
+      logDebug(s"[FlinkJobStatusWatcher] the requests of $clusterKey are suspended after failures.")
+      None
+    } else {
+      val jobDetails = requestJobsDetails(clusterKey)
+      tracking.record(jobDetails.isDefined)
+      jobDetails
+    }
+  }
+
+  private def requestJobsDetails(clusterKey: ClusterKey): Option[JobDetails] = {
     // get flink rest api
     Try {
       val clusterRestUrl =
@@ -298,8 +326,8 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
     JobDetails.as(
       Request
         .get(s"$restUrl/jobs/overview")
-        .connectTimeout(KubernetesRetriever.FLINK_REST_AWAIT_TIMEOUT_SEC)
-        .responseTimeout(KubernetesRetriever.FLINK_CLIENT_TIMEOUT_SEC)
+        .connectTimeout(connectTimeout)
+        .responseTimeout(responseTimeout)
         .execute
         .returnContent()
         .asString(StandardCharsets.UTF_8))
@@ -374,6 +402,32 @@ class FlinkJobStatusWatcher(conf: JobStatusWatcherConfig = JobStatusWatcherConfi
     case _ => FlinkJobState.SILENT
   }
 
+  /** the tracking state of a cluster, whether it is in tracking and its circuit breaker. */
+  private[this] class ClusterTracking {
+
+    val inFlight = new AtomicBoolean(false)
+
+    // guarded by this
+    private[this] var failures = 0
+
+    @volatile private[this] var openUntil = 0L
+
+    def isOpen: Boolean = System.currentTimeMillis < openUntil
+
+    /** suspend the requests after the consecutive failures, a failure after the suspension does it again. */
+    def record(success: Boolean): Unit = this.synchronized {
+      if (success) {
+        failures = 0
+        openUntil = 0L
+      } else {
+        failures += 1
+        if (failures >= conf.circuitBreakerFailures) {
+          openUntil = System.currentTimeMillis + conf.circuitBreakerOpenSec * 1000
+        }
+      }
+    }
+  }
+
 }
 
 object FlinkJobStatusWatcher {
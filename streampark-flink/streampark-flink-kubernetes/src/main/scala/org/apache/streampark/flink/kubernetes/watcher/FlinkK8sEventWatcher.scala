@@ -89,6 +89,10 @@ class FlinkK8sEventWatcher(implicit watchController: FlinkK8sWatchController)
     watchController.k8sDeploymentEvents.put(
       K8sEventKey(namespace, clusterId),
       K8sDeploymentEventCV(action, event, System.currentTimeMillis()))
+    // the cluster is redeployed or gone
+    if (action == Watcher.Action.ADDED || action == Watcher.Action.DELETED) {
+      watchController.clusterMetadata.invalidate(namespace, clusterId)
+    }
   }
 
 }
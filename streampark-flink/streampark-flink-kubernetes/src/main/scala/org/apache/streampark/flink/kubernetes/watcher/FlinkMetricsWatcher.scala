@@ -20,7 +20,7 @@ package org.apache.streampark.flink.kubernetes.watcher
 import org.apache.streampark.common.util.Logger
 import org.apache.streampark.flink.kubernetes.{ChangeEventBus, FlinkK8sWatchController, KubernetesRetriever, MetricWatcherConfig}
 import org.apache.streampark.flink.kubernetes.event.FlinkClusterMetricChangeEvent
-import org.apache.streampark.flink.kubernetes.model.{ClusterKey, FlinkMetricCV, TrackId}
+import org.apache.streampark.flink.kubernetes.model.{ClusterKey, ClusterMetadataCV, FlinkMetricCV, TrackId}
 
 import org.apache.flink.configuration.{JobManagerOptions, MemorySize, TaskManagerOptions}
 import org.apache.hc.client5.http.fluent.Request
@@ -31,6 +31,7 @@ import javax.annotation.concurrent.ThreadSafe
 
 import java.nio.charset.StandardCharsets
 import java.util.concurrent.{ScheduledFuture, TimeUnit}
+import java.util.concurrent.atomic.LongAdder
 
 import scala.concurrent.{Await, ExecutionContext, ExecutionContextExecutorService, Future}
 import scala.concurrent.duration.DurationLong
@@ -75,6 +76,19 @@ class FlinkMetricWatcher(conf: MetricWatcherConfig = MetricWatcherConfig.default
     logInfo("[flink-k8s] FlinkMetricWatcher closed.")
   }
 
+  // the rest requests of the current tracking cycle
+  private[this] val overviewRequests = new LongAdder
+
+  private[this] val jmConfigRequests = new LongAdder
+
+  @volatile private[this] var lastCycleRequests: Map[String, Long] = Map.empty
+
+  /**
+   * The counts of the last tracking cycle: the trackIds and the clusters tracked, the overview and
+   * the jobmanager config requests sent.
+   */
+  def getLastCycleRequestCounts: Map[String, Long] = lastCycleRequests
+
   /** single flink metrics tracking task */
   override def doWatch(): Unit = {
     // get all legal tracking cluster key
@@ -82,26 +96,31 @@ class FlinkMetricWatcher(conf: MetricWatcherConfig = MetricWatcherConfig.default
       .filter(_.nonEmpty)
       .getOrElse(return
       )
+    // the trackIds on the same session cluster share the requests of the cluster
+    val clusters: Map[ClusterKey, Set[TrackId]] = trackIds.groupBy(_.toClusterKey)
     // retrieve flink metrics in thread pool
     val futures: Set[Future[Option[FlinkMetricCV]]] =
-      trackIds.map(id => {
-        val future = Future(collectMetrics(id))
-        future.onComplete(_.getOrElse(None) match {
-          case Some(metric) =>
-            val clusterKey = id.toClusterKey
-            val isMetricChanged = {
-              val preMetric = watchController.flinkMetrics.get(clusterKey)
-              preMetric == null || !preMetric.equalsPayload(metric)
-            }
-            if (isMetricChanged) {
-              eventBus.postAsync(FlinkClusterMetricChangeEvent(id, metric))
-              // update current flink cluster metrics on cache
-              watchController.flinkMetrics.put(clusterKey, metric)
-            }
-          case _ =>
-        })
-        future
-      })
+      clusters.map {
+        case (clusterKey, ids) =>
+          Future {
+            val clusterMetric = collectMetrics(clusterKey)
+            clusterMetric.foreach(
+              clusterMetric =>
+                ids.foreach(id => {
+                  val metric = clusterMetric.copy(groupId = id.groupId)
+                  val isMetricChanged = {
+                    val preMetric = watchController.flinkMetrics.get(clusterKey)
+                    preMetric == null || !preMetric.equalsPayload(metric)
+                  }
+                  if (isMetricChanged) {
+                    eventBus.postAsync(FlinkClusterMetricChangeEvent(id, metric))
+                    // update current flink cluster metrics on cache
+                    watchController.flinkMetrics.put(clusterKey, metric)
+                  }
+                }))
+            clusterMetric
+          }
+      }.toSet
     // blocking until all future are completed or timeout is reached
     Try(Await.result(Future.sequence(futures), conf.requestTimeoutSec seconds)).failed.map {
       _ =>
@@ -110,18 +129,23 @@ class FlinkMetricWatcher(conf: MetricWatcherConfig = MetricWatcherConfig.default
             s" limitSeconds=${conf.requestTimeoutSec}," +
             s" trackingClusterKeys=${trackIds.mkString(",")}")
     }
+    lastCycleRequests = Map(
+      "trackIds" -> trackIds.size.toLong,
+      "clusters" -> clusters.size.toLong,
+      "overview" -> overviewRequests.sumThenReset(),
+      "jobmanagerConfig" -> jmConfigRequests.sumThenReset())
+    logDebug(s"[FlinkMetricWatcher] tracking cycle requests: ${lastCycleRequests.mkString(", ")}")
   }
 
   /**
    * Collect flink runtime metrics from kubernetes-native cluster. Returns None when the
    * flink-cluster-client request fails (or in case of the relevant flink rest api require failure).
    *
-   * This method can be called directly from outside, without affecting the current cachePool
-   * result.
+   * The jobmanager configurations are requested only once for the jobmanager endpoint of the
+   * cluster, the overview is requested on every call.
    */
-  private def collectMetrics(id: TrackId): Option[FlinkMetricCV] = {
+  private def collectMetrics(clusterKey: ClusterKey): Option[FlinkMetricCV] = {
     // get flink rest api
-    val clusterKey: ClusterKey = ClusterKey.of(id)
     val flinkJmRestUrl =
       watchController
         .getClusterRestUrl(clusterKey)
@@ -129,37 +153,51 @@ class FlinkMetricWatcher(conf: MetricWatcherConfig = MetricWatcherConfig.default
         .getOrElse(return None)
 
     // call flink rest overview api
-    val flinkOverview: FlinkRestOverview = FlinkRestOverview
-      .as(
-        Request
-          .get(s"$flinkJmRestUrl/overview")
-          .connectTimeout(KubernetesRetriever.FLINK_REST_AWAIT_TIMEOUT_SEC)
-          .responseTimeout(KubernetesRetriever.FLINK_CLIENT_TIMEOUT_SEC)
-          .execute
-          .returnContent
-          .asString(StandardCharsets.UTF_8))
-      .getOrElse(return None)
-
-    // call flink rest jm config api
-    val flinkJmConfigs = Try(
-      FlinkRestJmConfigItem
+    overviewRequests.increment()
+    val flinkOverview: FlinkRestOverview = Try(
+      FlinkRestOverview
         .as(
           Request
-            .get(s"$flinkJmRestUrl/jobmanager/config")
+            .get(s"$flinkJmRestUrl/overview")
             .connectTimeout(KubernetesRetriever.FLINK_REST_AWAIT_TIMEOUT_SEC)
             .responseTimeout(KubernetesRetriever.FLINK_CLIENT_TIMEOUT_SEC)
             .execute
             .returnContent
-            .asString(StandardCharsets.UTF_8))
-        .map(e => (e.key, e.value))
-        .toMap).getOrElse(return None)
+            .asString(StandardCharsets.UTF_8))).toOption.flatten.getOrElse {
+      // the jobmanager may be gone
+      watchController.clusterMetadata.invalidate(clusterKey)
+      return None
+    }
+
+    // the jm configs of the current jobmanager endpoint
+    val flinkJmConfigs = Option(watchController.clusterMetadata.get(clusterKey, flinkJmRestUrl))
+      .map(_.jmConfigs)
+      .getOrElse {
+        // call flink rest jm config api
+        jmConfigRequests.increment()
+        val jmConfigs = Try(
+          FlinkRestJmConfigItem
+            .as(
+              Request
+                .get(s"$flinkJmRestUrl/jobmanager/config")
+                .connectTimeout(KubernetesRetriever.FLINK_REST_AWAIT_TIMEOUT_SEC)
+                .responseTimeout(KubernetesRetriever.FLINK_CLIENT_TIMEOUT_SEC)
+                .execute
+                .returnContent
+                .asString(StandardCharsets.UTF_8))
+            .map(e => (e.key, e.value))
+            .toMap).getOrElse(return None)
+        watchController.clusterMetadata.put(
+          clusterKey,
+          ClusterMetadataCV(flinkJmRestUrl, jmConfigs, System.currentTimeMillis))
+        jmConfigs
+      }
 
     val ackTime = System.currentTimeMillis
     val flinkMetricCV = {
       val tmMemStr = flinkJmConfigs.getOrElse(TaskManagerOptions.TOTAL_PROCESS_MEMORY.key, "0b")
       val jmMemStr = flinkJmConfigs.getOrElse(JobManagerOptions.TOTAL_PROCESS_MEMORY.key, "0b")
       FlinkMetricCV(
-        groupId = id.groupId,
         totalJmMemory = MemorySize.parse(jmMemStr).getMebiBytes,
         totalTmMemory = MemorySize.parse(tmMemStr).getMebiBytes * flinkOverview.taskManagers,
         totalTm = flinkOverview.taskManagers,
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes
+
+import org.apache.streampark.flink.kubernetes.enums.{FlinkJobState, FlinkK8sDeployMode}
+import org.apache.streampark.flink.kubernetes.model.{ClusterKey, TrackId}
+import org.apache.streampark.flink.kubernetes.watcher.FlinkJobStatusWatcher
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.junit.jupiter.api.{AfterEach, BeforeEach, Test}
+import org.junit.jupiter.api.Assertions.{assertEquals, assertTrue}
+
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util.Properties
+import java.util.concurrent.{ConcurrentHashMap, Executors, ExecutorService}
+import java.util.concurrent.atomic.AtomicInteger
+
+/** Track the session clusters on a stub server where one of the clusters responds in 30s. */
+class FlinkJobStatusWatcherTest {
+
+  private val namespace = "streampark"
+
+  private val clusters = 10
+
+  private val jobsPerCluster = 3
+
+  private val slowCluster = "cluster-0"
+
+  private var server: HttpServer = _
+
+  private var serverExecutor: ExecutorService = _
+
+  private var watchController: FlinkK8sWatchController = _
+
+  private var watcher: FlinkJobStatusWatcher = _
+
+  // cluster -> jobs overview calls
+  private val calls = new ConcurrentHashMap[String, AtomicInteger]()
+
+  @BeforeEach
+  def setUp(): Unit = {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    serverExecutor = Executors.newCachedThreadPool()
+    server.setExecutor(serverExecutor)
+    server.createContext("/", (exchange: HttpExchange) => handle(exchange))
+    server.start()
+
+    watchController = new FlinkK8sWatchController()
+    for (c <- 0 until clusters; j <- 0 until jobsPerCluster) {
+      val clusterId = s"cluster-$c"
+      watchController.trackIds.set(
+        TrackId.onSession(namespace, clusterId, c * 100 + j, jobId(c, j), "group", new Properties()))
+      watchController.endpoints.put(
+        ClusterKey(FlinkK8sDeployMode.SESSION, namespace, clusterId),
+        s"http://localhost:${server.getAddress.getPort}/$clusterId")
+    }
+    val conf = JobStatusWatcherConfig(
+      requestTimeoutSec = 2,
+      requestIntervalSec = 1,
+      silentStateJobKeepTrackingSec = 60,
+      maxConcurrency = 4,
+      circuitBreakerFailures = 2,
+      circuitBreakerOpenSec = 60)
+    watcher = new FlinkJobStatusWatcher(conf)(watchController, new ChangeEventBus)
+  }
+
+  @AfterEach
+  def tearDown(): Unit = {
+    watcher.close()
+    server.stop(0)
+    serverExecutor.shutdownNow()
+  }
+
+  private def jobId(cluster: Int, job: Int): String = f"$cluster%016x$job%016x"
+
+  private def count(clusterId: String): Int = Option(calls.get(clusterId)).map(_.get()).getOrElse(0)
+
+  private def trackedJobs(): Int = {
+    watchController.jobStatuses.asMap().values.count(_.jobState == FlinkJobState.RUNNING)
+  }
+
+  @Test
+  def testSlowClusterNotBlockingOthers(): Unit = {
+    val start = System.currentTimeMillis()
+    watcher.doWatch()
+    while (trackedJobs() < (clusters - 1) * jobsPerCluster && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(50)
+    }
+    val elapsed = System.currentTimeMillis() - start
+    assertEquals((clusters - 1) * jobsPerCluster, trackedJobs())
+    // far less than the 30s of the slow cluster
+    assertTrue(elapsed < 5000)
+    // one jobs overview request per session cluster
+    (1 until clusters).foreach(c => assertEquals(1, count(s"cluster-$c")))
+
+    // more rounds, the slow cluster is skipped while in tracking and suspended after the failures
+    val rounds = 8
+    for (_ <- 1 until rounds) {
+      Thread.sleep(1000)
+      watcher.doWatch()
+    }
+    Thread.sleep(500)
+    (1 until clusters).foreach(c => assertEquals(rounds, count(s"cluster-$c")))
+    assertTrue(count(slowCluster) <= 2, s"calls of the slow cluster: ${count(slowCluster)}")
+  }
+
+  private def handle(exchange: HttpExchange): Unit = {
+    // /<clusterId>/jobs/overview
+    val clusterId = exchange.getRequestURI.getPath.split("/")(1)
+    calls.computeIfAbsent(clusterId, _ => new AtomicInteger()).incrementAndGet()
+    if (clusterId == slowCluster) {
+      try {
+        Thread.sleep(30000)
+      } catch {
+        case _: InterruptedException =>
+      }
+    }
+    val c = clusterId.stripPrefix("cluster-").toInt
+    val jobs = (0 until jobsPerCluster)
+      .map(j => s"""{"jid":"${jobId(c, j)}","name":"job-$j","state":"RUNNING","tasks":{"total":1}}""")
+      .mkString(",")
+    val bytes = s"""{"jobs":[$jobs]}""".getBytes(StandardCharsets.UTF_8)
+    exchange.getResponseHeaders.add("Content-Type", "application/json")
+    exchange.sendResponseHeaders(200, bytes.length)
+    exchange.getResponseBody.write(bytes)
+    exchange.close()
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes
+
+import org.apache.streampark.flink.kubernetes.enums.FlinkK8sDeployMode
+import org.apache.streampark.flink.kubernetes.model.{ClusterKey, TrackId}
+import org.apache.streampark.flink.kubernetes.watcher.FlinkMetricWatcher
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.junit.jupiter.api.{AfterEach, BeforeEach, Test}
+import org.junit.jupiter.api.Assertions.assertEquals
+
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/** Count the rest requests of the metrics tracking cycles to a stub jobmanager. */
+class FlinkMetricWatcherTest {
+
+  private val namespace = "streampark"
+
+  private var server: HttpServer = _
+
+  private var watchController: FlinkK8sWatchController = _
+
+  private var watcher: FlinkMetricWatcher = _
+
+  // path -> calls
+  private val calls = new ConcurrentHashMap[String, AtomicInteger]()
+
+  private val sessionKey = ClusterKey(FlinkK8sDeployMode.SESSION, namespace, "session")
+
+  private val applicationKey = ClusterKey(FlinkK8sDeployMode.APPLICATION, namespace, "application")
+
+  @BeforeEach
+  def setUp(): Unit = {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext("/", (exchange: HttpExchange) => handle(exchange))
+    server.start()
+
+    watchController = new FlinkK8sWatchController()
+    // 5 jobs on a session cluster and an application job
+    for (i <- 1 to 5) {
+      watchController.trackIds.set(TrackId.onSession(namespace, "session", i, s"job-$i", "group", new Properties()))
+    }
+    watchController.trackIds.set(
+      TrackId.onApplication(namespace, "application", 6, "job-6", "group", new Properties()))
+    watchController.endpoints.put(sessionKey, restUrl("localhost"))
+    watchController.endpoints.put(applicationKey, restUrl("localhost"))
+
+    watcher = new FlinkMetricWatcher()(watchController, new ChangeEventBus)
+  }
+
+  @AfterEach
+  def tearDown(): Unit = {
+    watcher.close()
+    server.stop(0)
+  }
+
+  private def restUrl(host: String): String = s"http://$host:${server.getAddress.getPort}"
+
+  private def count(path: String): Int = Option(calls.get(path)).map(_.get()).getOrElse(0)
+
+  @Test
+  def testJmConfigFetchedOncePerEndpoint(): Unit = {
+    val cycles = 20
+    for (_ <- 0 until cycles) {
+      watcher.doWatch()
+    }
+    // an overview per cluster and cycle, the jm configs once per cluster
+    assertEquals(2 * cycles, count("/overview"))
+    assertEquals(2, count("/jobmanager/config"))
+    assertEquals(
+      Map("trackIds" -> 6L, "clusters" -> 2L, "overview" -> 2L, "jobmanagerConfig" -> 0L),
+      watcher.getLastCycleRequestCounts)
+
+    val metric = watchController.flinkMetrics.get(sessionKey)
+    assertEquals(1600, metric.totalJmMemory)
+    assertEquals(2 * 1728, metric.totalTmMemory)
+    assertEquals(5, metric.runningJob)
+  }
+
+  @Test
+  def testJmConfigRefetchedOnChange(): Unit = {
+    watcher.doWatch()
+    assertEquals(2, count("/jobmanager/config"))
+
+    // the endpoint of the application cluster changes
+    watchController.endpoints.put(applicationKey, restUrl("127.0.0.1"))
+    watcher.doWatch()
+    assertEquals(3, count("/jobmanager/config"))
+    assertEquals(1L, watcher.getLastCycleRequestCounts("jobmanagerConfig"))
+
+    // the session cluster is redeployed
+    watchController.clusterMetadata.invalidate(namespace, "session")
+    watcher.doWatch()
+    assertEquals(4, count("/jobmanager/config"))
+
+    watcher.doWatch()
+    assertEquals(4, count("/jobmanager/config"))
+    assertEquals(8, count("/overview"))
+  }
+
+  private def handle(exchange: HttpExchange): Unit = {
+    val path = exchange.getRequestURI.getPath
+    calls.computeIfAbsent(path, _ => new AtomicInteger()).incrementAndGet()
+    val body = path match {
+      case "/overview" =>
+        """{"taskmanagers":2,"slots-total":4,"slots-available":0,"jobs-running":5,
+          |"jobs-finished":0,"jobs-cancelled":0,"jobs-failed":0,"flink-version":"1.18.1"}""".stripMargin
+      case "/jobmanager/config" =>
+        """[{"key":"jobmanager.memory.process.size","value":"1600m"},
+          |{"key":"taskmanager.memory.process.size","value":"1728m"}]""".stripMargin
+    }
+    val bytes = body.getBytes(StandardCharsets.UTF_8)
+    exchange.getResponseHeaders.add("Content-Type", "application/json")
+    exchange.sendResponseHeaders(200, bytes.length)
+    exchange.getResponseBody.write(bytes)
+    exchange.close()
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.{ConfigBuilder, DefaultKubernetesClient, KubernetesClient}
+import org.junit.jupiter.api.{AfterEach, BeforeEach, Test}
+import org.junit.jupiter.api.Assertions.{assertEquals, assertFalse, assertTrue}
+
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{ConcurrentHashMap, CountDownLatch, Executors}
+import java.util.concurrent.atomic.AtomicInteger
+
+/** Count the calls to a fake kubernetes api server which serves the flink native resources. */
+class KubernetesResourceCacheTest {
+
+  private val namespace = "streampark"
+
+  private val jobs = 100
+
+  private var server: HttpServer = _
+
+  private var client: KubernetesClient = _
+
+  // "<list|watch|get> <path>" -> calls
+  private val calls = new ConcurrentHashMap[String, AtomicInteger]()
+
+  private val stopped = new CountDownLatch(1)
+
+  @BeforeEach
+  def setUp(): Unit = {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.setExecutor(Executors.newCachedThreadPool())
+    server.createContext("/", (exchange: HttpExchange) => handle(exchange))
+    server.start()
+    client = new DefaultKubernetesClient(
+      new ConfigBuilder()
+        .withMasterUrl(s"http://localhost:${server.getAddress.getPort}")
+        .withRequestRetryBackoffLimit(0)
+        // the watches hold their requests
+        .withMaxConcurrentRequestsPerHost(64)
+        .build())
+  }
+
+  @AfterEach
+  def tearDown(): Unit = {
+    stopped.countDown()
+    client.close()
+    server.stop(0)
+  }
+
+  private def awaitLists(lists: Int): Unit = {
+    val deadline = System.currentTimeMillis() + 30000
+    while (count("list") < lists && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100)
+    }
+  }
+
+  private def count(kind: String): Int = {
+    var total = 0
+    calls.forEach((k, v) => if (k.startsWith(kind)) total += v.get())
+    total
+  }
+
+  @Test
+  def testLookupsServedFromCache(): Unit = {
+    val cache = new KubernetesResourceCache(client)
+    // the first lookup starts the informers of the namespace
+    assertTrue(cache.getDeployment(namespace, "job-1").isDefined)
+    val deadline = System.currentTimeMillis() + 30000
+    while (!cache.isWatching(namespace) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(100)
+    }
+    assertTrue(cache.isWatching(namespace))
+
+    val before = count("")
+    val lookups = 500
+    for (i <- 0 until lookups) {
+      val name = s"job-${i % (jobs * 2)}"
+      assertEquals(i % (jobs * 2) < jobs, cache.getDeployment(namespace, name).isDefined)
+      if (i % (jobs * 2) < jobs) {
+        assertTrue(cache.getService(namespace, s"$name-rest").isDefined)
+        assertEquals(1, cache.getPods(namespace, Map("app" -> name)).size)
+      }
+    }
+    assertEquals(before, count(""))
+    assertEquals(3, count("list"))
+    cache.close()
+  }
+
+  @Test
+  def testIdleNamespaceEvicted(): Unit = {
+    val cache = new KubernetesResourceCache(client, 200)
+    // the informers of the namespace list the resources once started
+    assertTrue(cache.getDeployment(namespace, "job-1").isDefined)
+    awaitLists(3)
+    assertEquals(3, count("list"))
+
+    Thread.sleep(300)
+    cache.evictIdle()
+    // the informers of the idle namespace are stopped, and started again by the next lookup
+    assertTrue(cache.getDeployment(namespace, "job-1").isDefined)
+    awaitLists(6)
+    assertEquals(6, count("list"))
+    cache.close()
+  }
+
+  @Test
+  def testLookupsOfClosedCache(): Unit = {
+    val cache = new KubernetesResourceCache(client)
+    cache.close()
+    // a closed cache falls back to the lookups by name
+    assertTrue(cache.getDeployment(namespace, "job-1").isDefined)
+    assertFalse(cache.getDeployment(namespace, s"job-$jobs").isDefined)
+    assertEquals(2, count("get"))
+    assertEquals(0, count("list"))
+  }
+
+  private def handle(exchange: HttpExchange): Unit = {
+    val path = exchange.getRequestURI.getPath
+    val query = Option(exchange.getRequestURI.getQuery).getOrElse("")
+    val base = s"/namespaces/$namespace/"
+    val (kind, resource, name) = path.substring(path.indexOf(base) + base.length).split("/") match {
+      case Array(resource) if query.contains("watch=true") && exchange.getRequestHeaders.containsKey("Upgrade") =>
+        ("websocket", resource, null)
+      case Array(resource) if query.contains("watch=true") => ("watch", resource, null)
+      case Array(resource) => ("list", resource, null)
+      case Array(resource, name) => ("get", resource, name)
+    }
+    calls.computeIfAbsent(s"$kind $path", _ => new AtomicInteger()).incrementAndGet()
+    kind match {
+      case "websocket" =>
+        // no websocket, the client falls back to the http watch
+        respond(exchange, 200, "{}")
+      case "watch" =>
+        // a hanging watch without events
+        exchange.getResponseHeaders.add("Content-Type", "application/json")
+        exchange.sendResponseHeaders(200, 0)
+        exchange.getResponseBody.flush()
+        stopped.await()
+        exchange.close()
+      case "list" =>
+        val items = (0 until jobs).map(i => item(resource, s"job-$i")).mkString(",")
+        respond(exchange, 200, s"""{"kind":"List","metadata":{"resourceVersion":"1"},"items":[$items]}""")
+      case "get" =>
+        val jobName = name.stripSuffix("-rest")
+        if (jobName.stripPrefix("job-").toInt < jobs) respond(exchange, 200, item(resource, jobName))
+        else respond(exchange, 404, """{"kind":"Status","code":404}""")
+    }
+  }
+
+  private def item(resource: String, jobName: String): String = {
+    val labels = s"""{"type":"flink-native-kubernetes","app":"$jobName"}"""
+    resource match {
+      case "deployments" =>
+        s"""{"apiVersion":"apps/v1","kind":"Deployment",
+           |"metadata":{"name":"$jobName","namespace":"$namespace","resourceVersion":"1","labels":$labels},
+           |"spec":{"selector":{"matchLabels":{"app":"$jobName"}}}}""".stripMargin
+      case "services" =>
+        s"""{"apiVersion":"v1","kind":"Service",
+           |"metadata":{"name":"$jobName-rest","namespace":"$namespace","resourceVersion":"1","labels":$labels}}""".stripMargin
+      case "pods" =>
+        s"""{"apiVersion":"v1","kind":"Pod",
+           |"metadata":{"name":"$jobName-taskmanager-1-1","namespace":"$namespace","resourceVersion":"1","labels":$labels}}""".stripMargin
+    }
+  }
+
+  private def respond(exchange: HttpExchange, code: Int, body: String): Unit = {
+    val bytes = body.getBytes(StandardCharsets.UTF_8)
+    exchange.getResponseHeaders.add("Content-Type", "application/json")
+    exchange.sendResponseHeaders(code, bytes.length)
+    exchange.getResponseBody.write(bytes)
+    exchange.close()
+  }
+
+}
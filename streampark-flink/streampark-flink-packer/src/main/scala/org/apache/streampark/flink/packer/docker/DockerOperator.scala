@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.docker
+
+import org.apache.streampark.common.util.Implicits._
+
+import com.github.dockerjava.api.exception.NotFoundException
+import com.github.dockerjava.api.model.{AuthConfig, PullResponseItem, PushResponseItem}
+import com.github.dockerjava.core.DockerClientConfig
+import com.github.dockerjava.core.command.{HackBuildImageCmd, HackPullImageCmd, HackPushImageCmd}
+import com.github.dockerjava.transport.DockerHttpClient
+import com.google.common.collect.Sets
+
+import javax.annotation.Nullable
+
+import java.io.File
+import java.util.Base64
+
+/**
+ * The local image of the docker daemon.
+ *
+ * @param id
+ *   the image id
+ * @param repoDigests
+ *   the digests of the image in the registries, empty if the image is only built locally
+ */
+case class DockerImageInfo(id: String, repoDigests: List[String])
+
+/** The docker operations of the image building pipelines. */
+trait DockerOperator {
+
+  /** Inspect the local image of the tag, None if the image is not present. */
+  def inspectImage(imageTag: String): Option[DockerImageInfo]
+
+  /** Pull the image, the progress is reported to the listener. */
+  def pullImage(imageTag: String, @Nullable authConf: AuthConfig)(
+      listener: PullResponseItem => Unit): Unit
+
+  /** Build the image of the dockerfile and tag it, return the image id. */
+  def buildImage(baseDirectory: File, dockerfile: File, imageTag: String)(
+      listener: String => Unit): String
+
+  /** Push the image, the progress is reported to the listener. */
+  def pushImage(imageTag: String, authConf: AuthConfig)(listener: PushResponseItem => Unit): Unit
+
+  /** Inspect the digest of the image of the tag in the registry, None if it is not present. */
+  def inspectRegistryImage(imageTag: String, @Nullable authConf: AuthConfig): Option[String]
+
+}
+
+/** The docker operations by the docker client of DockerRetriever. */
+object DockerClientOperator extends DockerOperator {
+
+  override def inspectImage(imageTag: String): Option[DockerImageInfo] = {
+    usingDockerClient {
+      dockerClient =>
+        try {
+          val image = dockerClient.inspectImageCmd(imageTag).exec()
+          Some(DockerImageInfo(image.getId, Option(image.getRepoDigests).map(_.toList).getOrElse(Nil)))
+        } catch {
+          case _: NotFoundException => None
+        }
+    }(err => throw new Exception(s"Inspect docker image failed, imageTag=$imageTag", err))
+  }
+
+  override def pullImage(imageTag: String, @Nullable authConf: AuthConfig)(
+      listener: PullResponseItem => Unit): Unit = {
+    usingDockerClient {
+      dockerClient =>
+        val pullImageCmd = dockerClient.pullImageCmd(imageTag)
+        if (authConf != null) {
+          pullImageCmd.withAuthConfig(authConf)
+        }
+        pullImageCmd
+          .asInstanceOf[HackPullImageCmd]
+          .start(watchDockerPullProcess(listener))
+          .awaitCompletion
+    }(err => throw new Exception(s"Pull docker image failed, imageTag=$imageTag", err))
+  }
+
+  override def buildImage(baseDirectory: File, dockerfile: File, imageTag: String)(
+      listener: String => Unit): String = {
+    usingDockerClient {
+      dockerClient =>
+        dockerClient
+          .buildImageCmd()
+          .withBaseDirectory(baseDirectory)
+          .withDockerfile(dockerfile)
+          .withTags(Sets.newHashSet(imageTag))
+          .asInstanceOf[HackBuildImageCmd]
+          .start(watchDockerBuildStep(listener))
+          .awaitImageId
+    }(err => throw new Exception(s"Build docker image failed. tag=$imageTag", err))
+  }
+
+  override def pushImage(imageTag: String, authConf: AuthConfig)(
+      listener: PushResponseItem => Unit): Unit = {
+    usingDockerClient {
+      dockerClient =>
+        dockerClient
+          .pushImageCmd(imageTag)
+          .withAuthConfig(authConf)
+          .asInstanceOf[HackPushImageCmd]
+          .start(watchDockerPushProcess(listener))
+          .awaitCompletion
+    }(err => throw new Exception(s"Push docker image failed. tag=$imageTag", err))
+  }
+
+  override def inspectRegistryImage(
+      imageTag: String,
+      @Nullable authConf: AuthConfig): Option[String] = {
+    // the distribution api of the docker engine, which queries the registry
+    val request = {
+      val builder = DockerHttpClient.Request
+        .builder()
+        .method(DockerHttpClient.Request.Method.GET)
+        .path(s"/distribution/$imageTag/json")
+      if (authConf != null) {
+        val auth = DockerClientConfig.getDefaultObjectMapper.writeValueAsBytes(authConf)
+        builder.putHeader("X-Registry-Auth", Base64.getUrlEncoder.encodeToString(auth))
+      }
+      builder.build()
+    }
+    val httpClient = DockerRetriever.newDockerHttpClient()
+    try {
+      val response = httpClient.execute(request)
+      try {
+        response.getStatusCode match {
+          case 200 =>
+            val descriptor = DockerClientConfig.getDefaultObjectMapper
+              .readTree(response.getBody)
+              .path("Descriptor")
+            Option(descriptor.path("digest").asText(null))
+          case _ => None
+        }
+      } finally {
+        response.close()
+      }
+    } catch {
+      case err: Exception =>
+        throw new Exception(s"Inspect docker image in the registry failed, imageTag=$imageTag", err)
+    } finally {
+      httpClient.close()
+    }
+  }
+
+}
@@ -23,6 +23,7 @@ import org.apache.streampark.common.util.Utils
 import com.github.dockerjava.api.DockerClient
 import com.github.dockerjava.core.{DefaultDockerClientConfig, DockerClientConfig, HackDockerClient}
 import com.github.dockerjava.httpclient5.ApacheDockerHttpClient
+import com.github.dockerjava.transport.DockerHttpClient
 
 import java.net.URI
 import java.time.Duration
@@ -58,6 +59,12 @@ object DockerRetriever {
     HackDockerClient.getInstance(dockerClientConf, dockerHttpClientBuilder.build())
   }
 
+  /** get new DockerHttpClient instance, for the docker engine apis not covered by DockerClient */
+  def newDockerHttpClient(): DockerHttpClient = {
+    setDockerHost()
+    dockerHttpClientBuilder.build()
+  }
+
   /** set docker-host for kata */
   private def setDockerHost(): Unit = {
     val dockerHost: String = InternalConfigHolder.get(CommonConfig.DOCKER_HOST)
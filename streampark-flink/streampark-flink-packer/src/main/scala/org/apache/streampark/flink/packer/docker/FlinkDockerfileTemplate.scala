@@ -17,6 +17,8 @@
 
 package org.apache.streampark.flink.packer.docker
 
+import javax.annotation.Nullable
+
 /**
  * Base flink docker file image template.
  *
@@ -28,12 +30,15 @@ package org.apache.streampark.flink.packer.docker
  *   Path of flink job main jar which would copy to $FLINK_HOME/usrlib/
  * @param flinkExtraLibPaths
  *   Path of additional flink lib path which would copy to $FLINK_HOME/lib/
+ * @param flinkDependencyJarPath
+ *   Path of flink job dependency jar which would copy to $FLINK_HOME/usrlib/
  */
 case class FlinkDockerfileTemplate(
     workspacePath: String,
     flinkBaseImage: String,
     flinkMainJarPath: String,
-    flinkExtraLibPaths: Set[String])
+    flinkExtraLibPaths: Set[String],
+    @Nullable flinkDependencyJarPath: String = null)
   extends FlinkDockerfileTemplateTrait {
 
   /** offer content of DockerFile */
@@ -41,7 +46,7 @@ case class FlinkDockerfileTemplate(
     s"""FROM $flinkBaseImage
        |RUN mkdir -p $FLINK_HOME/usrlib
        |COPY $extraLibName $FLINK_HOME/lib/
-       |COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
+       |$usrLibInstructions
        |""".stripMargin
   }
 
@@ -22,6 +22,8 @@ import org.apache.streampark.common.fs.LfsOperator
 
 import org.apache.commons.io.FileUtils
 
+import javax.annotation.Nullable
+
 import java.io.File
 import java.nio.file.{Path, Paths}
 
@@ -40,6 +42,12 @@ trait FlinkDockerfileTemplateTrait {
   /** Path of additional flink lib path which would copy to $FLINK_HOME/lib/ */
   def flinkExtraLibPaths: Set[String]
 
+  /**
+   * Path of flink job dependency jar which would copy to $FLINK_HOME/usrlib/, in a lower image layer
+   * than the main jar, null if the dependencies are in the main jar.
+   */
+  @Nullable def flinkDependencyJarPath: String
+
   /** Offer content of DockerFile. */
   def offerDockerfileContent: String
 
@@ -62,14 +70,27 @@ trait FlinkDockerfileTemplateTrait {
    * flink main jar name, the main jar would copy from `flinkMainjarPath` to
    * `workspacePath/mainJarName.jar`.
    */
-  lazy val mainJarName: String = {
-    val mainJarPath = Paths.get(flinkMainJarPath).toAbsolutePath
-    if (mainJarPath.getParent != workspace) {
-      LfsOperator.copy(
-        mainJarPath.toString,
-        s"${workspace.toString}/${mainJarPath.getFileName.toString}")
+  lazy val mainJarName: String = copyToWorkspace(flinkMainJarPath)
+
+  /** flink dependency jar name, the dependency jar would copy to the workspace like the main jar. */
+  lazy val dependencyJarName: Option[String] = Option(flinkDependencyJarPath).map(copyToWorkspace)
+
+  /**
+   * The COPY instructions of the jars to $FLINK_HOME/usrlib/, the dependency jar rarely changed is
+   * copied first, so a new main jar only changes the top layer of the image.
+   */
+  protected def usrLibInstructions: String = {
+    (dependencyJarName.toList :+ mainJarName)
+      .map(name => s"COPY $name $FLINK_HOME/usrlib/$name")
+      .mkString("\n")
+  }
+
+  private[this] def copyToWorkspace(jarPath: String): String = {
+    val path = Paths.get(jarPath).toAbsolutePath
+    if (path.getParent != workspace) {
+      LfsOperator.copy(path.toString, s"${workspace.toString}/${path.getFileName.toString}")
     }
-    mainJarPath.getFileName.toString
+    path.getFileName.toString
   }
 
   /**
@@ -39,6 +39,8 @@ import java.nio.file.Paths
  *   Path of hadoop conf directory.
  * @param hiveConfDirPath
  *   Path of hive conf directory.
+ * @param flinkDependencyJarPath
+ *   Path of flink job dependency jar which would copy to $FLINK_HOME/usrlib/
  */
 case class FlinkHadoopDockerfileTemplate(
     workspacePath: String,
@@ -46,7 +48,8 @@ case class FlinkHadoopDockerfileTemplate(
     flinkMainJarPath: String,
     flinkExtraLibPaths: Set[String],
     @Nullable hadoopConfDirPath: String,
-    @Nullable hiveConfDirPath: String)
+    @Nullable hiveConfDirPath: String,
+    @Nullable flinkDependencyJarPath: String = null)
   extends FlinkDockerfileTemplateTrait {
 
   val hadoopConfDir: String =
@@ -82,7 +85,7 @@ case class FlinkHadoopDockerfileTemplate(
     dockerfile +=
       s"""
          |COPY $extraLibName $FLINK_HOME/lib/
-         |COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
+         |$usrLibInstructions
          |""".stripMargin
     dockerfile
   }
@@ -96,7 +99,8 @@ object FlinkHadoopDockerfileTemplate {
       workspacePath: String,
       flinkBaseImage: String,
       flinkMainJarPath: String,
-      flinkExtraLibPaths: Set[String]): FlinkHadoopDockerfileTemplate = {
+      flinkExtraLibPaths: Set[String],
+      @Nullable flinkDependencyJarPath: String = null): FlinkHadoopDockerfileTemplate = {
     // get hadoop and hive config directory from system and copy to workspacePath
     val hadoopConfDir = HadoopConfigUtils.getSystemHadoopConfDir match {
       case None => ""
@@ -122,7 +126,8 @@ object FlinkHadoopDockerfileTemplate {
       flinkMainJarPath,
       flinkExtraLibPaths,
       hadoopConfDir,
-      hiveConfDir)
+      hiveConfDir,
+      flinkDependencyJarPath)
   }
 
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.maven
+
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
+import org.apache.streampark.common.util.Implicits._
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils
+import org.eclipse.aether.{DefaultRepositoryCache, RepositorySystem, RepositorySystemSession}
+import org.eclipse.aether.artifact.{Artifact => AetherArtifact}
+import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory
+import org.eclipse.aether.graph.Dependency
+import org.eclipse.aether.repository.{LocalArtifactRequest, LocalRepository, RemoteRepository}
+import org.eclipse.aether.resolution.{ArtifactDescriptorRequest, ArtifactRequest}
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory
+import org.eclipse.aether.spi.connector.transport.TransporterFactory
+import org.eclipse.aether.transport.file.FileTransporterFactory
+import org.eclipse.aether.transport.http.HttpTransporterFactory
+
+import java.io.File
+import java.util.concurrent.{ConcurrentHashMap, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
+import java.util.concurrent.atomic.LongAdder
+
+import scala.concurrent.{Await, ExecutionContext, ExecutionContextExecutorService, Future, Promise}
+import scala.concurrent.duration.{Duration, DurationInt}
+
+/**
+ * The long-lived resolver of the maven artifacts, sharing one repository system and session by the
+ * resolutions of the same remote repositories:
+ *   - The descriptors read and the artifacts resolved are kept in memory, the snapshots excepted.
+ *     They are dropped with the session once the remote repositories change, e.g. the url or the
+ *     credentials of the maven settings.
+ *   - The artifacts already in the local repository are returned without accessing the remote
+ *     repositories.
+ *   - The descriptors and the artifacts not in the local repository are read in parallel, by at most
+ *     `parallelism` threads, a resolution taking longer than `timeout` fails.
+ *
+ * @param localRepoPath
+ *   the path of the local repository
+ * @param parallelism
+ *   the max number of the artifacts read at the same time
+ * @param timeout
+ *   the max time of reading the descriptors or the artifacts of a resolution
+ */
+class ArtifactResolver(localRepoPath: String, parallelism: Int, timeout: Duration = 30.minutes)
+  extends AutoCloseable
+  with Logger {
+
+  private[this] lazy val repoSystem: RepositorySystem = {
+    val locator = MavenRepositorySystemUtils.newServiceLocator
+    locator.addService(classOf[RepositoryConnectorFactory], classOf[BasicRepositoryConnectorFactory])
+    locator.addService(classOf[TransporterFactory], classOf[FileTransporterFactory])
+    locator.addService(classOf[TransporterFactory], classOf[HttpTransporterFactory])
+    locator.getService(classOf[RepositorySystem])
+  }
+
+  /** The session and the caches of the resolutions of the remote repositories. */
+  private[this] class RepoSession(val remoteRepos: List[RemoteRepository]) {
+
+    val session: RepositorySystemSession = {
+      val session = MavenRepositorySystemUtils.newSession
+      session.setLocalRepositoryManager(
+        repoSystem.newLocalRepositoryManager(session, new LocalRepository(localRepoPath)))
+      // the poms and the metadata read are shared by the resolutions
+      session.setCache(new DefaultRepositoryCache)
+      session
+    }
+
+    // the dependencies of the artifacts by coordinates
+    val descriptors = new ConcurrentHashMap[String, JavaList[Dependency]]()
+
+    // the files of the artifacts by coordinates
+    val resolved = new ConcurrentHashMap[String, File]()
+  }
+
+  @volatile private[this] var repoSession: RepoSession = _
+
+  private[this] val executorService = {
+    val executor = new ThreadPoolExecutor(
+      parallelism,
+      parallelism,
+      60L,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue[Runnable](),
+      ThreadUtils.threadFactory("streampark-maven-resolver"))
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+
+  private[this] implicit val executionContext: ExecutionContextExecutorService =
+    ExecutionContext.fromExecutorService(executorService)
+
+  private[this] val localHits = new LongAdder
+
+  private[this] val remoteReads = new LongAdder
+
+  /** Read the direct dependencies of the artifacts, in the order of the artifacts. */
+  @throws[Exception]
+  def readDependencies(
+      artifacts: Seq[AetherArtifact],
+      remoteRepos: List[RemoteRepository]): Seq[Dependency] = {
+    val repo = repoSessionOf(remoteRepos)
+    parallel(artifacts) {
+      artifact =>
+        val coords = artifact.toString
+        Option(repo.descriptors.get(coords)).getOrElse {
+          val request = new ArtifactDescriptorRequest(artifact, remoteRepos, null)
+          val dependencies = repoSystem.readArtifactDescriptor(repo.session, request).getDependencies
+          if (!artifact.isSnapshot) repo.descriptors.put(coords, dependencies)
+          dependencies
+        }
+    }.flatMap(_.toList)
+  }
+
+  /**
+   * Resolve the files of the artifacts, in the order of the artifacts. The artifacts not in the
+   * local repository are downloaded.
+   */
+  @throws[Exception]
+  def resolveArtifacts(
+      artifacts: Seq[AetherArtifact],
+      remoteRepos: List[RemoteRepository]): List[File] = {
+    val repo = repoSessionOf(remoteRepos)
+    val local = artifacts.map(artifact => artifact -> findLocal(repo, artifact))
+    val missing = local.filter(_._2.isEmpty).map(_._1)
+    if (missing.isEmpty) {
+      logInfo(s"all ${artifacts.size} artifacts found in the local repository")
+    } else {
+      logInfo(s"${artifacts.size - missing.size} artifacts found in the local repository, resolve: ${missing.mkString(",")}")
+    }
+    val downloaded = parallel(missing) {
+      artifact =>
+        remoteReads.increment()
+        val request = new ArtifactRequest(artifact, remoteRepos, null)
+        val file = repoSystem.resolveArtifact(repo.session, request).getArtifact.getFile
+        if (!artifact.isSnapshot) repo.resolved.put(artifact.toString, file)
+        artifact -> file
+    }.toMap
+    local.map {
+      case (_, Some(file)) => file
+      case (artifact, None) => downloaded(artifact)
+    }.toList
+  }
+
+  /** The metrics of the resolver: artifacts found locally, artifacts resolved remotely. */
+  def getMetrics: Map[String, Long] = Map("localHits" -> localHits.sum(), "remoteReads" -> remoteReads.sum())
+
+  override def close(): Unit = ThreadUtils.shutdownExecutorService(executorService)
+
+  /**
+   * The session of the remote repositories, the session of other remote repositories is replaced, so
+   * nothing read from the repositories before is reused.
+   */
+  private[this] def repoSessionOf(remoteRepos: List[RemoteRepository]): RepoSession = {
+    val current = repoSession
+    if (current != null && current.remoteRepos == remoteRepos) current
+    else {
+      synchronized {
+        if (repoSession == null || repoSession.remoteRepos != remoteRepos) {
+          if (repoSession != null) {
+            val urls = remoteRepos.map(_.getUrl).mkString(",")
+            logInfo(s"the remote repositories changed, create a new session of: $urls")
+          }
+          repoSession = new RepoSession(remoteRepos)
+        }
+        repoSession
+      }
+    }
+  }
+
+  /** Find the released artifact in the local repository, the snapshots are always resolved. */
+  private[this] def findLocal(repo: RepoSession, artifact: AetherArtifact): Option[File] = {
+    if (artifact.isSnapshot) None
+    else {
+      val coords = artifact.toString
+      val file = Option(repo.resolved.get(coords)).filter(_.isFile).orElse {
+        val result = repo.session.getLocalRepositoryManager
+          .find(repo.session, new LocalArtifactRequest(artifact, repo.remoteRepos, null))
+        Option(result.getFile).filter(file => result.isAvailable && file.isFile)
+      }
+      file.foreach {
+        f =>
+          localHits.increment()
+          repo.resolved.put(coords, f)
+      }
+      file
+    }
+  }
+
+  private[this] def parallel[A, B](items: Seq[A])(func: A => B): Seq[B] = {
+    items match {
+      case Seq() => Seq.empty
+      case Seq(item) => Seq(func(item))
+      case _ =>
+        val futures = items.map {
+          item =>
+            val promise = Promise[B]()
+            // fail on any error, e.g. a class missing, otherwise the future never completes
+            executionContext.execute(() => {
+              try promise.success(func(item))
+              catch {
+                case e: Throwable => promise.failure(e)
+              }
+            })
+            promise.future
+        }
+        Await.result(Future.sequence(futures), timeout)
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.maven
+
+import org.apache.streampark.common.util.Logger
+
+import org.apache.commons.codec.digest.DigestUtils
+
+import java.io.{File, FileInputStream}
+import java.nio.file.{Files, StandardCopyOption}
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+import scala.util.Try
+
+/**
+ * The fat-jars cached by the content of their inputs, so rebuilding a fat-jar of the unchanged jars
+ * copies the cached one rather than shading all the jars again.
+ *
+ * The key of a fat-jar is the digest of the contents of its jars and the descriptor of the shading,
+ * e.g. the main class, the transformers, the filters and the relocations. The cached fat-jars are
+ * read-only and never shared with the outputs, which may be modified or deleted by the builds; the
+ * least recently used ones are evicted once the cache exceeds its max size.
+ *
+ * @param cacheDir
+ *   the directory of the cached fat-jars
+ * @param maxBytes
+ *   the max total size of the cached fat-jars
+ */
+class FatJarCache(cacheDir: File, maxBytes: Long) extends Logger {
+
+  /** Bump it when the shading changes, so the fat-jars built before are not reused. */
+  private[this] val VERSION = "1"
+
+  private[this] case class JarDigest(length: Long, lastModified: Long, digest: String)
+
+  // the content digests of the jars by path, a jar is not read again until it is modified
+  private[this] val digests = new ConcurrentHashMap[String, JarDigest]()
+
+  private[this] val hits = new LongAdder
+
+  private[this] val misses = new LongAdder
+
+  /**
+   * Get the fat-jar of the jars from the cache, or build it and cache it.
+   *
+   * @param jars
+   *   the jars of the fat-jar
+   * @param shadeDescriptor
+   *   the descriptor of everything else affecting the fat-jar, e.g. the main class and the filters
+   * @param outJar
+   *   the output fat-jar
+   * @param build
+   *   build the fat-jar to the output
+   */
+  def getOrBuild(jars: Iterable[File], shadeDescriptor: String, outJar: File)(build: => Unit): File = {
+    val key = cacheKey(jars, shadeDescriptor)
+    val cached = new File(cacheDir, s"$key.jar")
+    if (cached.isFile && Try(copy(cached, outJar)).isSuccess) {
+      hits.increment()
+      // keep the recently used fat-jars from eviction
+      cached.setLastModified(System.currentTimeMillis())
+      logInfo(s"fat-jar cache hit: $key, output: ${outJar.getAbsolutePath}")
+    } else {
+      misses.increment()
+      logInfo(s"fat-jar cache miss: $key, build fat-jar: ${outJar.getAbsolutePath}")
+      build
+      Try(store(outJar, cached)).failed.foreach(e => logWarn(s"cache fat-jar $key failed: $e"))
+      Try(evict()).failed.foreach(e => logWarn(s"evict fat-jar cache failed: $e"))
+    }
+    outJar
+  }
+
+  /** The metrics of the cache: hits and misses. */
+  def getMetrics: Map[String, Long] = Map("hits" -> hits.sum(), "misses" -> misses.sum())
+
+  private[maven] def cacheKey(jars: Iterable[File], shadeDescriptor: String): String = {
+    // the jars are shaded as a set, the key does not depend on their order or paths
+    val jarDigests = jars.map(digest).toList.sorted
+    DigestUtils.sha256Hex((VERSION :: shadeDescriptor :: jarDigests).mkString("\n"))
+  }
+
+  private[this] def digest(jar: File): String = {
+    val (length, lastModified) = jar.length() -> jar.lastModified()
+    digests
+      .compute(
+        jar.getAbsolutePath,
+        (_, known) => {
+          if (known != null && known.length == length && known.lastModified == lastModified) known
+          else {
+            val in = new FileInputStream(jar)
+            try JarDigest(length, lastModified, DigestUtils.sha256Hex(in))
+            finally in.close()
+          }
+        })
+      .digest
+  }
+
+  private[this] def store(outJar: File, cached: File): Unit = {
+    Files.createDirectories(cacheDir.toPath)
+    // the fat-jar is visible in the cache only when complete
+    val tmp = new File(cacheDir, s".${UUID.randomUUID()}.tmp")
+    try {
+      copy(outJar, tmp)
+      tmp.setReadOnly()
+      Files.move(tmp.toPath, cached.toPath, StandardCopyOption.ATOMIC_MOVE)
+    } finally {
+      tmp.delete()
+    }
+  }
+
+  private[this] def copy(source: File, target: File): Unit = {
+    Option(target.getParentFile).foreach(dir => Files.createDirectories(dir.toPath))
+    // not linked, a hard link would share the cached fat-jar with the output
+    Files.copy(source.toPath, target.toPath, StandardCopyOption.REPLACE_EXISTING)
+    target.setWritable(true)
+  }
+
+  private[this] def evict(): Unit = {
+    val cachedJars = Option(cacheDir.listFiles()).getOrElse(Array.empty[File]).filter(_.getName.endsWith(".jar"))
+    var total = cachedJars.map(_.length()).sum
+    if (total > maxBytes) {
+      cachedJars.sortBy(_.lastModified()).foreach {
+        jar =>
+          if (total > maxBytes) {
+            val size = jar.length()
+            if (jar.delete()) {
+              total -= size
+              logInfo(s"evict cached fat-jar: ${jar.getName}, size: $size")
+            }
+          }
+      }
+    }
+  }
+
+}
@@ -18,7 +18,7 @@
 package org.apache.streampark.flink.packer.maven
 
 import org.apache.streampark.common.conf.{InternalConfigHolder, Workspace}
-import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_REMOTE_URL}
+import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB, MAVEN_REMOTE_URL}
 import org.apache.streampark.common.constants.Constants
 import org.apache.streampark.common.util.{AssertUtils, Logger, Utils}
 import org.apache.streampark.common.util.Implicits._
@@ -27,18 +27,10 @@ import com.google.common.collect.Lists
 import org.apache.maven.plugins.shade.{DefaultShader, ShadeRequest}
 import org.apache.maven.plugins.shade.filter.Filter
 import org.apache.maven.plugins.shade.resource.{ManifestResourceTransformer, ResourceTransformer, ServicesResourceTransformer}
-import org.apache.maven.repository.internal.MavenRepositorySystemUtils
 import org.codehaus.plexus.logging.{Logger => PlexusLog}
 import org.codehaus.plexus.logging.console.ConsoleLogger
-import org.eclipse.aether.{RepositorySystem, RepositorySystemSession}
 import org.eclipse.aether.artifact.DefaultArtifact
-import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory
-import org.eclipse.aether.repository.{LocalRepository, RemoteRepository}
-import org.eclipse.aether.resolution.{ArtifactDescriptorRequest, ArtifactRequest}
-import org.eclipse.aether.spi.connector.RepositoryConnectorFactory
-import org.eclipse.aether.spi.connector.transport.TransporterFactory
-import org.eclipse.aether.transport.file.FileTransporterFactory
-import org.eclipse.aether.transport.http.HttpTransporterFactory
+import org.eclipse.aether.repository.RemoteRepository
 import org.eclipse.aether.util.repository.AuthenticationBuilder
 
 import javax.annotation.{Nonnull, Nullable}
@@ -54,6 +46,21 @@ object MavenTool extends Logger {
   private[this] lazy val plexusLog =
     new ConsoleLogger(PlexusLog.LEVEL_INFO, "streampark-maven")
 
+  /** the fat-jars built before, shared by all the builds */
+  private[this] lazy val fatJarCache = new FatJarCache(
+    new File(Workspace.FAT_JAR_CACHE_PATH),
+    InternalConfigHolder.get[JavaLong](MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB) * 1024 * 1024)
+
+  private[this] val RESOLVE_PARALLELISM = 8
+
+  /** The metrics of the fat-jar cache: hits and misses. */
+  def getFatJarCacheMetrics: JavaMap[String, JavaLong] =
+    fatJarCache.getMetrics.map { case (k, v) => k -> Long.box(v) }.asJava
+
+  /** the resolver shared by all the resolutions, so the repository session and its caches are reused */
+  private[this] lazy val artifactResolver =
+    new ArtifactResolver(Workspace.MAVEN_LOCAL_PATH, RESOLVE_PARALLELISM)
+
   private[this] val excludeArtifact = List(
     Artifact.of("org.apache.flink:force-shading:*"),
     Artifact.of("com.google.code.findbugs:jsr305:*"),
@@ -100,6 +107,16 @@ object MavenTool extends Logger {
       @Nullable mainClass: String,
       @Nonnull jarLibs: Set[String],
       @Nonnull outFatJarPath: String): File = {
+    buildFatJar(mainClass, jarLibs, outFatJarPath, fatJarCache)
+  }
+
+  /** Build a fat-jar with custom jar libraries, the fat-jar of the same jars is reused from the cache. */
+  @throws[Exception]
+  private[packer] def buildFatJar(
+      @Nullable mainClass: String,
+      @Nonnull jarLibs: Set[String],
+      @Nonnull outFatJarPath: String,
+      @Nonnull cache: FatJarCache): File = {
     // check userJarPath
     val uberJar = new File(outFatJarPath)
     require(
@@ -117,7 +134,20 @@ object MavenTool extends Logger {
           libFile.listFiles.filter(isJarFile).foreach(jarSet.add)
         case _ =>
       }
-    logInfo(s"start shaded fat-jar: ${jarLibs.mkString(",")}")
+    // everything affecting the fat-jar other than the jars
+    val shadeDescriptor = Seq(
+      s"mainClass=$mainClass",
+      s"transformers=${classOf[ServicesResourceTransformer].getName},${classOf[ManifestResourceTransformer].getName}",
+      s"filters=${ShadeFilter.DESCRIPTOR}",
+      "relocators="
+    ).mkString("\n")
+    cache.getOrBuild(jarSet, shadeDescriptor, uberJar) {
+      shade(mainClass, jarSet, uberJar)
+    }
+  }
+
+  private[this] def shade(mainClass: String, jarSet: JavaSet[File], uberJar: File): Unit = {
+    logInfo(s"start shaded fat-jar: ${jarSet.mkString(",")}")
     // shade jars
     val shadeRequest = {
       val req = new ShadeRequest
@@ -141,7 +171,6 @@ object MavenTool extends Logger {
     shader.enableLogging(plexusLog)
     shader.shade(shadeRequest)
     logInfo(s"finish build fat-jar: ${uberJar.getAbsolutePath}")
-    uberJar
   }
 
   /**
@@ -181,10 +210,16 @@ object MavenTool extends Logger {
    *   jar File Object of resolved artifacts
    */
   @throws[Exception]
-  def resolveArtifacts(mavenArtifacts: JavaSet[Artifact]): JavaList[File] = {
+  def resolveArtifacts(mavenArtifacts: JavaSet[Artifact]): JavaList[File] =
+    resolveArtifacts(mavenArtifacts, artifactResolver, getRemoteRepos())
+
+  @throws[Exception]
+  private[packer] def resolveArtifacts(
+      mavenArtifacts: JavaSet[Artifact],
+      resolver: ArtifactResolver,
+      remoteRepos: List[RemoteRepository]): JavaList[File] = {
     if (mavenArtifacts == null) List.empty[File]
     else {
-      val (repoSystem, session) = getMavenEndpoint()
       val artifacts = mavenArtifacts.map(e => {
         val artifact =
           new DefaultArtifact(e.groupId, e.artifactId, e.classifier, "jar", e.version)
@@ -193,13 +228,10 @@ object MavenTool extends Logger {
       })
       logInfo(s"start resolving dependencies: ${artifacts.mkString}")
 
-      val remoteRepos = getRemoteRepos()
       // read relevant artifact descriptor info
       // plz don't simplify the following lambda syntax to maintain the readability of the code.
-      val resolvedArtifacts = artifacts
-        .map(artifact => new ArtifactDescriptorRequest(artifact, remoteRepos, null))
-        .map(artDescReq => repoSystem.readArtifactDescriptor(session, artDescReq))
-        .flatMap(_.getDependencies)
+      val resolvedArtifacts = resolver
+        .readDependencies(artifacts.toSeq, remoteRepos)
         .filter(_.getScope == "compile")
         .filter(x => !excludeArtifact.exists(_.eq(x.getArtifact)))
         .map(_.getArtifact)
@@ -208,44 +240,13 @@ object MavenTool extends Logger {
       logInfo(s"resolved dependencies: ${mergedArtifacts.mkString}")
 
       // download artifacts
-      val artReqs =
-        mergedArtifacts.map(artifact => new ArtifactRequest(artifact, remoteRepos, null))
-      repoSystem
-        .resolveArtifacts(session, artReqs)
-        .map(_.getArtifact.getFile)
-        .toList
+      resolver.resolveArtifacts(mergedArtifacts.toSeq, remoteRepos)
     }
   }
 
-  /** create composite maven endpoint */
-  private[this] def getMavenEndpoint(): (RepositorySystem, RepositorySystemSession) = {
-
-    /** create maven repository endpoint */
-
-    lazy val locator = MavenRepositorySystemUtils.newServiceLocator
-
-    /** default maven local repository */
-    lazy val localRepo = new LocalRepository(Workspace.MAVEN_LOCAL_PATH)
-
-    def newRepoSystem(): RepositorySystem = {
-      locator.addService(
-        classOf[RepositoryConnectorFactory],
-        classOf[BasicRepositoryConnectorFactory])
-      locator.addService(classOf[TransporterFactory], classOf[FileTransporterFactory])
-      locator.addService(classOf[TransporterFactory], classOf[HttpTransporterFactory])
-      locator.getService(classOf[RepositorySystem])
-    }
-
-    /** create maven repository session endpoint */
-    def newSession(system: RepositorySystem): RepositorySystemSession = {
-      val session = MavenRepositorySystemUtils.newSession
-      session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo))
-      session
-    }
-
-    val repoSystem = newRepoSystem()
-    val session = newSession(repoSystem)
-    (repoSystem, session)
+  private[this] object ShadeFilter {
+    // the files filtered, change it together with isFiltered
+    val DESCRIPTOR = "META-INF/*.SF,*.DSA,*.RSA"
   }
 
   private[this] class ShadeFilter extends Filter {
@@ -17,11 +17,12 @@
 
 package org.apache.streampark.flink.packer.pipeline
 
+import org.apache.streampark.common.conf.{CommonConfig, InternalConfigHolder}
 import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.common.util.Implicits._
-import org.apache.streampark.flink.packer.pipeline.BuildPipeline.executor
 
-import java.util.concurrent.{Callable, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
+import java.lang.{Integer => JavaInt}
+import java.util.concurrent.{CancellationException, CompletableFuture, CompletionException, CompletionStage, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 
 import scala.collection.mutable
 import scala.concurrent.{ExecutionContext, ExecutionContextExecutorService}
@@ -42,6 +43,9 @@ trait BuildPipelineProcess {
 
   /** the build params of build process */
   protected def offerBuildParam: BuildParam
+
+  /** the resource classes of the steps, StepSeq -> resource class, the steps absent are unlimited */
+  protected def stepResources: Map[Int, BuildResourceEnum] = Map.empty
 }
 
 /** Callable methods exposed by BuildPipeline to the outside. */
@@ -56,15 +60,33 @@ trait BuildPipelineExpose {
   /** get all of the steps status StepSeq -> (PipeStepStatus -> status update timestamp) */
   def getStepsStatus: Map[Int, (PipelineStepStatusEnum, Long)]
 
+  /** get the elapsed milliseconds of the steps finished, StepSeq -> elapsed millis */
+  def getStepsElapsed: Map[Int, Long]
+
   /** get current build step index */
   def getCurStep: Int
 
   /** get count of all build steps */
   def allSteps: Int
 
-  /** launch the pipeline instance */
+  /** get the position of the pipeline in the build queue, from 1, 0 if it is not queued */
+  def getQueuePosition: Int
+
+  /** launch the pipeline instance as an interactive build */
   def launch(): BuildResult
 
+  /** launch the pipeline instance, queued by the priority until the build scheduler runs it */
+  def launch(priority: BuildPriorityEnum): BuildResult
+
+  /**
+   * launch the pipeline instance without waiting for it, queued by the priority until the build
+   * scheduler runs it, the result is completed once the watcher has been notified of the finish.
+   */
+  def launchAsync(priority: BuildPriorityEnum): CompletionStage[BuildResult]
+
+  /** cancel the queued or running pipeline instance, false if it is finished */
+  def cancel(): Boolean
+
   def as[T <: BuildPipeline](implicit clz: Class[T]): T = this.asInstanceOf[T]
 }
 
@@ -83,31 +105,46 @@ trait BuildPipeline extends BuildPipelineProcess with BuildPipelineExpose with L
         .map(e => e._1.toInt -> (PipelineStepStatusEnum.waiting -> System.currentTimeMillis))
         .toSeq: _*)
 
+  protected val stepsElapsed: mutable.Map[Int, Long] = mutable.Map()
+
   /** use to identify the log record that belongs to which pipeline instance */
   private val logSuffix: String = s"appName=${offerBuildParam.appName}"
 
   protected var watcher: PipeWatcher = new SilentPipeWatcher
 
+  @volatile private[this] var buildTask: BuildTask[BuildResult] = _
+
+  @volatile private[this] var canceled: Boolean = false
+
+  /** the scheduler running the pipeline */
+  protected def scheduler: BuildScheduler = BuildScheduler.shared
+
   def registerWatcher(watcher: PipeWatcher): BuildPipeline = {
     this.watcher = watcher
     this
   }
 
   protected def execStep[R](seq: Int)(process: => R): Option[R] = {
+    val start = System.currentTimeMillis
     Try {
       curStep = seq
-      stepsStatus(seq) = PipelineStepStatusEnum.running -> System.currentTimeMillis
+      stepsStatus(seq) = PipelineStepStatusEnum.running -> start
       logInfo(s"Building pipeline step[$seq/$allSteps] running => ${pipeType.getSteps.get(seq)}")
       watcher.onStepStateChange(snapshot)
-      process
+      stepResources.get(seq) match {
+        case Some(resource) => scheduler.withResource(resource)(process)
+        case None => process
+      }
     } match {
       case Success(result) =>
         stepsStatus(seq) = PipelineStepStatusEnum.success -> System.currentTimeMillis
-        logInfo(s"Building pipeline step[$seq/$allSteps] success")
+        stepsElapsed(seq) = System.currentTimeMillis - start
+        logInfo(s"Building pipeline step[$seq/$allSteps] success, elapsed: ${stepsElapsed(seq)} ms")
         watcher.onStepStateChange(snapshot)
         Some(result)
       case Failure(cause) =>
         stepsStatus(seq) = PipelineStepStatusEnum.failure -> System.currentTimeMillis
+        stepsElapsed(seq) = System.currentTimeMillis - start
         pipeStatus = PipelineStatusEnum.failure
         error = PipeError.of(cause.getMessage, cause)
         logInfo(s"Building pipeline step[$seq/$allSteps] failure => ${pipeType.getSteps
@@ -117,41 +154,115 @@ trait BuildPipeline extends BuildPipelineProcess with BuildPipelineExpose with L
     }
   }
 
+  /**
+   * Execute the step unless it succeeded last time with the same inputs, and its output is still
+   * usable.
+   *
+   * @param fingerprints
+   *   the fingerprints of the steps succeeded last time
+   * @param fingerprint
+   *   the fingerprint of the inputs of the step
+   * @param reuse
+   *   the output of the step succeeded last time, None if it is not usable
+   */
+  protected def execStepIfChanged[R](seq: Int, fingerprints: StepFingerprints, fingerprint: String)(
+      reuse: => Option[R])(process: => R): Option[R] = {
+    val reused = if (fingerprints.matches(seq, fingerprint)) Try(reuse).toOption.flatten else None
+    reused match {
+      case Some(result) =>
+        logInfo(s"Building pipeline step[$seq/$allSteps] inputs unchanged, fingerprint: $fingerprint")
+        skipStep(seq)
+        Some(result)
+      case None =>
+        fingerprints.invalidate(seq)
+        val result = execStep(seq)(process)
+        if (result.isDefined) fingerprints.update(seq, fingerprint)
+        result
+    }
+  }
+
   protected def skipStep(step: Int): Unit = {
     curStep = step
     stepsStatus(step) = PipelineStepStatusEnum.skipped -> System.currentTimeMillis
+    stepsElapsed(step) = 0L
     logInfo(s"Building pipeline step[$step/$allSteps] skipped => ${pipeType.getSteps.get(step)}")
     watcher.onStepStateChange(snapshot)
   }
 
   /** Launch the building pipeline. */
-  override def launch(): BuildResult = {
+  override def launch(): BuildResult = launch(BuildPriorityEnum.INTERACTIVE)
+
+  /** Launch the building pipeline, blocked until the build is finished. */
+  override def launch(priority: BuildPriorityEnum): BuildResult =
+    launchAsync(priority).toCompletableFuture.get()
+
+  /**
+   * Launch the building pipeline, the watcher is notified of the start on the watcher executor,
+   * then the build is queued in the scheduler, no thread waits for it while it is queued or running.
+   */
+  override def launchAsync(priority: BuildPriorityEnum): CompletionStage[BuildResult] = {
     pipeStatus = PipelineStatusEnum.running
-    Try {
-      watcher.onStart(snapshot)
-      logInfo(s"Building pipeline is launching, params=${offerBuildParam.toString}")
-      executor
-        .submit(new Callable[BuildResult] {
-          override def call(): BuildResult = buildProcess()
+    CompletableFuture
+      .supplyAsync(
+        () => {
+          watcher.onStart(snapshot)
+          logInfo(s"Building pipeline is launching, priority=$priority, params=${offerBuildParam.toString}")
+          val task = scheduler.submit(
+            priority,
+            offerBuildParam.appName,
+            InternalConfigHolder.get[JavaInt](CommonConfig.PIPELINE_QUEUE_TIMEOUT_MIN).toLong,
+            InternalConfigHolder.get[JavaInt](CommonConfig.PIPELINE_BUILD_TIMEOUT_MIN).toLong,
+            TimeUnit.MINUTES
+          )(buildProcess())
+          buildTask = task
+          if (canceled) task.cancel(true)
+          task
+        },
+        BuildPipeline.execPool
+      )
+      .thenCompose((task: BuildTask[BuildResult]) => task.completionStage)
+      .handle((result: BuildResult, cause: Throwable) =>
+        Option(cause) match {
+          case None => finish(Success(result))
+          case Some(e: CompletionException) if e.getCause != null => finish(Failure(e.getCause))
+          case Some(e) => finish(Failure(e))
         })
-        .get(20, TimeUnit.MINUTES)
-    } match {
-      case Success(result) =>
-        pipeStatus = PipelineStatusEnum.success
-        logInfo(s"Building pipeline has finished successfully.")
-        watcher.onFinish(snapshot, result)
-        result
-      case Failure(cause) =>
-        pipeStatus = PipelineStatusEnum.failure
-        error = PipeError.of(cause.getMessage, cause)
-        // log and print error trace stack
-        logError(s"Building pipeline has failed.", cause)
-        val result = ErrorResult()
-        watcher.onFinish(snapshot, result)
-        result
+  }
+
+  private[this] def finish(build: Try[BuildResult]): BuildResult = build match {
+    case Success(result) =>
+      pipeStatus = PipelineStatusEnum.success
+      logInfo(s"Building pipeline has finished successfully.")
+      watcher.onFinish(snapshot, result)
+      result
+    case Failure(cause: CancellationException) =>
+      pipeStatus = PipelineStatusEnum.failure
+      error = PipeError.of("Building pipeline has been canceled.", cause)
+      logInfo(s"Building pipeline has been canceled.")
+      val result = ErrorResult()
+      watcher.onFinish(snapshot, result)
+      result
+    case Failure(cause) =>
+      pipeStatus = PipelineStatusEnum.failure
+      error = PipeError.of(cause.getMessage, cause)
+      // log and print error trace stack
+      logError(s"Building pipeline has failed.", cause)
+      val result = ErrorResult()
+      watcher.onFinish(snapshot, result)
+      result
+  }
+
+  override def cancel(): Boolean = {
+    canceled = true
+    Option(buildTask) match {
+      case Some(task) => task.cancel(true)
+      // the build is canceled once it is queued
+      case None => pipeStatus == PipelineStatusEnum.pending || pipeStatus == PipelineStatusEnum.running
     }
   }
 
+  override def getQueuePosition: Int = Option(buildTask).map(_.queuePosition).getOrElse(0)
+
   override def getPipeStatus: PipelineStatusEnum = pipeStatus
 
   override def getError: PipeError = error.copy()
@@ -159,6 +270,8 @@ trait BuildPipeline extends BuildPipelineProcess with BuildPipelineExpose with L
   override def getStepsStatus: Map[Int, (PipelineStepStatusEnum, Long)] =
     stepsStatus.toMap
 
+  override def getStepsElapsed: Map[Int, Long] = stepsElapsed.toMap
+
   override def getCurStep: Int = curStep
 
   override def allSteps: Int = pipeType.getSteps.size
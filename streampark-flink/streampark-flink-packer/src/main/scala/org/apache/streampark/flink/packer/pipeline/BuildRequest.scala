@@ -63,6 +63,12 @@ sealed trait FlinkBuildParam extends BuildParam {
     s"$rootWorkspace/streampark-flinkjob_$safeAppName.jar"
   }
 
+  /** the shaded jar of the dependencies, apart from the job jar, e.g. for a separate image layer */
+  def getDependencyJarPath(rootWorkspace: String): String = {
+    val safeAppName: String = appName.replaceAll("\\s+", "_")
+    s"$rootWorkspace/streampark-flinkjob_$safeAppName-dependencies.jar"
+  }
+
 }
 
 sealed trait FlinkK8sBuildParam extends FlinkBuildParam {
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.pipeline
+
+import org.apache.streampark.common.conf.{CommonConfig, InternalConfigHolder, InternalOption}
+import org.apache.streampark.common.util.{LatencyHistogram, Logger, ThreadUtils}
+import org.apache.streampark.common.util.Implicits._
+
+import java.util.Comparator
+import java.util.concurrent.{BlockingQueue, Callable, CancellationException, CompletableFuture, CompletionStage, ConcurrentLinkedQueue, CountDownLatch, ExecutionException, FutureTask, PriorityBlockingQueue, ScheduledFuture, ScheduledThreadPoolExecutor, Semaphore, ThreadPoolExecutor, TimeoutException, TimeUnit}
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.util.{Failure, Success, Try}
+
+/**
+ * The scheduler of the building pipelines:
+ *   - At most `maxConcurrentBuilds` builds run at the same time, the others wait in the queue, the
+ *     interactive ones before the bulk ones, first in first out of the same priority.
+ *   - The running steps of each resource class are limited by the permits of the class, e.g. only a
+ *     few cpu-bound shadings at the same time however many builds are running.
+ *   - The queued and the running builds can be canceled, or timed out by the timer without a thread
+ *     waiting for them.
+ *
+ * @param maxConcurrentBuilds
+ *   the max number of the builds running at the same time
+ * @param resourceLimits
+ *   the max number of the steps running at the same time by resource class, unlimited if absent
+ */
+class BuildScheduler(maxConcurrentBuilds: Int, resourceLimits: Map[BuildResourceEnum, Int])
+  extends AutoCloseable
+  with Logger {
+
+  private[this] val sequence = new AtomicLong
+
+  private[this] val queue = new PriorityBlockingQueue[Runnable](64, BuildTask.ORDERING)
+
+  private[this] val executorService = {
+    val executor = new ThreadPoolExecutor(
+      maxConcurrentBuilds,
+      maxConcurrentBuilds,
+      60L,
+      TimeUnit.SECONDS,
+      queue,
+      ThreadUtils.threadFactory("streampark-pipeline-build-executor"))
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+
+  // cancels the builds queued or running over their timeouts
+  private[this] val timer = {
+    val timer = new ScheduledThreadPoolExecutor(1, ThreadUtils.threadFactory("streampark-pipeline-build-timer"))
+    timer.setRemoveOnCancelPolicy(true)
+    timer
+  }
+
+  private[this] val permits: Map[BuildResourceEnum, Semaphore] =
+    resourceLimits.map { case (resource, limit) => resource -> new Semaphore(limit, true) }
+
+  private[this] val queueWait = new LatencyHistogram
+
+  private[this] val runTime = new LatencyHistogram
+
+  /** Queue the build, it is run once the builds queued before it are started and a thread is free. */
+  def submit[T](priority: BuildPriorityEnum, name: String)(build: => T): BuildTask[T] = {
+    val task = newTask(priority, name)(build)
+    executorService.execute(task)
+    task
+  }
+
+  /**
+   * Queue the build without a thread waiting for it, the build is canceled if it is queued longer
+   * than the queue timeout, or runs longer than the timeout, the time queued excluded, and its
+   * completion fails with a TimeoutException.
+   */
+  def submit[T](priority: BuildPriorityEnum, name: String, queueTimeout: Long, timeout: Long, unit: TimeUnit)(
+      build: => T): BuildTask[T] = {
+    val task = newTask(priority, name)(build)
+    task.scheduleTimeouts(timer, queueTimeout, timeout, unit)
+    executorService.execute(task)
+    task
+  }
+
+  private[this] def newTask[T](priority: BuildPriorityEnum, name: String)(build: => T): BuildTask[T] = {
+    val submitted = System.nanoTime()
+    new BuildTask[T](
+      priority,
+      sequence.getAndIncrement(),
+      name,
+      queue,
+      new Callable[T] {
+        override def call(): T = {
+          val start = System.nanoTime()
+          queueWait.record(start - submitted)
+          try build
+          finally runTime.record(System.nanoTime() - start)
+        }
+      })
+  }
+
+  /** Run the step holding a permit of the resource class, waiting for the permit if all are taken. */
+  @throws[InterruptedException]
+  def withResource[T](resource: BuildResourceEnum)(step: => T): T = {
+    permits.get(resource) match {
+      case None => step
+      case Some(semaphore) =>
+        if (!semaphore.tryAcquire()) {
+          logInfo(s"all the $resource permits are taken, wait for a permit")
+          semaphore.acquire()
+        }
+        try step
+        finally semaphore.release()
+    }
+  }
+
+  /** The number of the builds waiting in the queue. */
+  def getQueuedCount: Int = queue.size
+
+  /** The number of the builds running. */
+  def getRunningCount: Int = executorService.getActiveCount
+
+  /** The histograms of the time the builds waited in the queue and ran. */
+  def getLatencyHistograms: Map[String, LatencyHistogram] =
+    Map("queueWait" -> queueWait, "runTime" -> runTime)
+
+  /**
+   * The metrics of the scheduler, the numbers of the queued and the running builds, and the count,
+   * mean and percentiles in microseconds of the histograms, like `queueWait.p99`.
+   */
+  def getMetrics: JavaMap[String, JavaLong] = {
+    val histograms = getLatencyHistograms.toList.flatMap { case (name, histogram) => histogram.toMetrics(name) }
+    val metrics = ("queued" -> getQueuedCount.toLong) :: ("running" -> getRunningCount.toLong) :: histograms
+    metrics.map { case (k, v) => k -> Long.box(v) }.toMap.asJava
+  }
+
+  override def close(): Unit = {
+    ThreadUtils.shutdownExecutorService(executorService)
+    timer.shutdownNow()
+  }
+
+}
+
+object BuildScheduler {
+
+  /** The scheduler shared by all the building pipelines. */
+  lazy val shared: BuildScheduler = {
+    def limit(option: InternalOption): Int = InternalConfigHolder.get[JavaInt](option)
+    new BuildScheduler(
+      limit(CommonConfig.PIPELINE_MAX_CONCURRENT_BUILDS),
+      Map(
+        BuildResourceEnum.CPU -> limit(CommonConfig.PIPELINE_MAX_CONCURRENT_CPU),
+        BuildResourceEnum.DISK_IO -> limit(CommonConfig.PIPELINE_MAX_CONCURRENT_DISK_IO),
+        BuildResourceEnum.NETWORK -> limit(CommonConfig.PIPELINE_MAX_CONCURRENT_NETWORK)
+      )
+    )
+  }
+
+}
+
+/**
+ * The build queued or running in the build scheduler.
+ *
+ * @param priority
+ *   the priority of the build in the queue
+ * @param seq
+ *   the order of the build submitted
+ */
+class BuildTask[T] private[pipeline] (
+    val priority: BuildPriorityEnum,
+    val seq: Long,
+    val name: String,
+    queue: BlockingQueue[Runnable],
+    callable: Callable[T])
+  extends FutureTask[T](callable) {
+
+  // counted down once the build is started or canceled
+  private[this] val started = new CountDownLatch(1)
+
+  // completed once the build is done, without a thread waiting for it
+  private[this] val completion = new CompletableFuture[T]()
+
+  // the timeouts scheduled, canceled once the build is done
+  private[this] val timeouts = new ConcurrentLinkedQueue[ScheduledFuture[_]]()
+
+  @volatile private[this] var runTimeout: () => Unit = () => ()
+
+  // the reason of the build canceled by a timeout
+  @volatile private[this] var timeoutMessage: String = _
+
+  /** Whether the build is waiting in the queue. */
+  def isQueued: Boolean = started.getCount > 0
+
+  /** The position of the build in the queue, from 1, 0 if the build is started or canceled. */
+  def queuePosition: Int = {
+    if (!isQueued) 0
+    else {
+      queue.toArray.count {
+        case task: BuildTask[_] => BuildTask.ORDERING.compare(task, this) <= 0
+        case _ => false
+      }
+    }
+  }
+
+  /**
+   * Wait for the result of the build, the build is canceled if it is queued longer than the queue
+   * timeout, or runs longer than the timeout, the time queued excluded.
+   */
+  @throws[Exception]
+  def await(queueTimeout: Long, timeout: Long, unit: TimeUnit): T = {
+    // the build taken from the queue is about to start
+    if (!started.await(queueTimeout, unit) && queue.remove(this)) {
+      cancel(false)
+      throw new TimeoutException(
+        s"The build $name has been queued over $queueTimeout ${unit.name.toLowerCase}")
+    }
+    try {
+      get(timeout, unit)
+    } catch {
+      case _: TimeoutException =>
+        cancel(true)
+        throw new TimeoutException(s"The build $name has run over $timeout ${unit.name.toLowerCase}")
+    }
+  }
+
+  /** The result of the build, completed once the build is done, canceled or timed out. */
+  def completionStage: CompletionStage[T] = completion
+
+  /** Cancel the build by the timer once it is queued over the queue timeout, or runs over the timeout. */
+  private[pipeline] def scheduleTimeouts(
+      timer: ScheduledThreadPoolExecutor,
+      queueTimeout: Long,
+      timeout: Long,
+      unit: TimeUnit): Unit = {
+    val unitName = unit.name.toLowerCase
+    // the build taken from the queue is about to start
+    timeouts.add(
+      timer.schedule(
+        new Runnable {
+          override def run(): Unit = if (queue.remove(BuildTask.this)) {
+            expire(s"The build $name has been queued over $queueTimeout $unitName", interrupt = false)
+          }
+        },
+        queueTimeout,
+        unit))
+    runTimeout = () =>
+      timeouts.add(
+        timer.schedule(
+          new Runnable {
+            override def run(): Unit = expire(s"The build $name has run over $timeout $unitName", interrupt = true)
+          },
+          timeout,
+          unit))
+  }
+
+  private[this] def expire(message: String, interrupt: Boolean): Unit = {
+    timeoutMessage = message
+    cancel(interrupt)
+  }
+
+  override def run(): Unit = {
+    started.countDown()
+    runTimeout()
+    super.run()
+  }
+
+  /** Cancel the build, the queued build is removed from the queue, the running one is interrupted. */
+  override def cancel(mayInterruptIfRunning: Boolean): Boolean = {
+    val canceled = super.cancel(mayInterruptIfRunning)
+    if (canceled) queue.remove(this)
+    canceled
+  }
+
+  override protected def done(): Unit = {
+    started.countDown()
+    timeouts.forEach(_.cancel(false))
+    if (isCancelled) {
+      completion.completeExceptionally(
+        Option(timeoutMessage)
+          .map(new TimeoutException(_))
+          .getOrElse(new CancellationException(s"The build $name has been canceled")))
+    } else {
+      Try(get()) match {
+        case Success(result) => completion.complete(result)
+        case Failure(e: ExecutionException) => completion.completeExceptionally(e.getCause)
+        case Failure(e) => completion.completeExceptionally(e)
+      }
+    }
+  }
+
+  override def toString: String = s"BuildTask(name=$name, priority=$priority, seq=$seq)"
+
+}
+
+object BuildTask {
+
+  /** The interactive builds first, then by the order submitted. */
+  val ORDERING: Comparator[Runnable] = new Comparator[Runnable] {
+    override def compare(a: Runnable, b: Runnable): Int = (a, b) match {
+      case (x: BuildTask[_], y: BuildTask[_]) =>
+        val byPriority = x.priority.compareTo(y.priority)
+        if (byPriority != 0) byPriority else java.lang.Long.compare(x.seq, y.seq)
+      case _ => 0
+    }
+  }
+
+}
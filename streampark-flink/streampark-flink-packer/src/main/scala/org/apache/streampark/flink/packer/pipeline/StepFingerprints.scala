@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.pipeline
+
+import org.apache.commons.codec.digest.DigestUtils
+
+import java.io.{File, FileInputStream, FileOutputStream}
+import java.nio.file.{Files, StandardCopyOption}
+import java.util.Properties
+
+import scala.util.Try
+
+/**
+ * The fingerprints of the inputs of the pipeline steps succeeded last time, persisted in the file, so
+ * the next build of the same workspace can skip the steps of the unchanged inputs.
+ *
+ * @param file
+ *   the file of the fingerprints
+ */
+class StepFingerprints(val file: File) {
+
+  private[this] val fingerprints = {
+    val props = new Properties()
+    if (file.isFile) {
+      Try {
+        val in = new FileInputStream(file)
+        try props.load(in)
+        finally in.close()
+      }
+    }
+    props
+  }
+
+  /** Whether the step succeeded last time with the same inputs. */
+  def matches(step: Int, fingerprint: String): Boolean = synchronized {
+    fingerprint == fingerprints.getProperty(step.toString)
+  }
+
+  /** Record the fingerprint of the step succeeded. */
+  def update(step: Int, fingerprint: String): Unit = synchronized {
+    fingerprints.setProperty(step.toString, fingerprint)
+    store()
+  }
+
+  /** Forget the step, e.g. before it runs, so it is not skipped next time if it fails. */
+  def invalidate(step: Int): Unit = synchronized {
+    if (fingerprints.remove(step.toString) != null) store()
+  }
+
+  /** Forget all the steps. */
+  def clear(): Unit = synchronized {
+    fingerprints.clear()
+    file.delete()
+  }
+
+  /** Write the fingerprints to a temp file then move it, so the file is never half written. */
+  private[this] def store(): Unit = {
+    val dir = file.getAbsoluteFile.getParentFile
+    dir.mkdirs()
+    val tmp = File.createTempFile(s".${file.getName}", ".tmp", dir)
+    try {
+      val out = new FileOutputStream(tmp)
+      try fingerprints.store(out, "fingerprints of the pipeline steps")
+      finally out.close()
+      Files.move(
+        tmp.toPath,
+        file.toPath,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING)
+    } finally {
+      tmp.delete()
+    }
+  }
+
+}
+
+object StepFingerprints {
+
+  /** The fingerprint of the inputs. */
+  def of(inputs: Any*): String = DigestUtils.sha256Hex(inputs.map(String.valueOf).mkString("\n"))
+
+  /**
+   * The fingerprint of the files by their paths, sizes and modification times, the files of the
+   * directories included.
+   */
+  def ofFiles(files: Iterable[File]): String = {
+    val stamps = files.toList
+      .flatMap(listFiles)
+      .map(f => s"${f.getAbsolutePath}:${f.length()}:${f.lastModified()}")
+      .sorted
+    of(stamps: _*)
+  }
+
+  private[this] def listFiles(file: File): List[File] = {
+    if (file.isDirectory) {
+      Option(file.listFiles()).map(_.toList).getOrElse(Nil).flatMap(listFiles)
+    } else if (file.isFile) {
+      List(file)
+    } else {
+      Nil
+    }
+  }
+
+}
@@ -17,27 +17,33 @@
 
 package org.apache.streampark.flink.packer.pipeline.impl
 
+import org.apache.streampark.common.constants.Constants
 import org.apache.streampark.common.fs.LfsOperator
-import org.apache.streampark.common.util.ThreadUtils
+import org.apache.streampark.common.util.{HadoopConfigUtils, ThreadUtils}
 import org.apache.streampark.flink.kubernetes.PodTemplateTool
 import org.apache.streampark.flink.kubernetes.ingress.IngressController
 import org.apache.streampark.flink.packer.docker._
-import org.apache.streampark.flink.packer.maven.MavenTool
+import org.apache.streampark.flink.packer.maven.{DependencyInfo, MavenTool}
 import org.apache.streampark.flink.packer.pipeline._
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline.executor
 
-import com.github.dockerjava.api.command.PushImageCmd
-import com.github.dockerjava.core.command.{HackBuildImageCmd, HackPullImageCmd, HackPushImageCmd}
-import com.google.common.collect.Sets
 import org.apache.commons.lang3.StringUtils
 
 import java.io.File
+import java.util.UUID
 import java.util.concurrent.{LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 
 import scala.concurrent.{ExecutionContext, Future}
 
-/** Building pipeline for flink kubernetes-native application mode */
-class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
+/**
+ * Building pipeline for flink kubernetes-native application mode.
+ *
+ * The steps succeeded last time are skipped if their inputs are unchanged, and the flink base image
+ * is not pulled again if it is present locally.
+ */
+class FlinkK8sApplicationBuildPipeline(
+    request: FlinkK8sApplicationBuildRequest,
+    docker: DockerOperator = DockerClientOperator)
   extends BuildPipeline {
 
   override def pipeType: PipelineTypeEnum =
@@ -55,6 +61,14 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
   override protected def offerBuildParam: FlinkK8sApplicationBuildRequest =
     request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] =
+    Map(
+      3 -> BuildResourceEnum.CPU,
+      4 -> BuildResourceEnum.DISK_IO,
+      5 -> BuildResourceEnum.NETWORK,
+      6 -> BuildResourceEnum.DISK_IO,
+      7 -> BuildResourceEnum.NETWORK)
+
   def registerDockerProgressWatcher(watcher: DockerProgressWatcher): Unit = {
     dockerProcessWatcher = watcher
   }
@@ -62,16 +76,40 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
   @throws[Throwable]
   override protected def buildProcess(): DockerImageBuildResponse = {
 
-    // Step-1: init build workspace of flink job
     // the sub workspace dir like: APP_WORKSPACE/k8s-clusterId@k8s-namespace/
-    val buildWorkspace =
-      execStep(1) {
-        val buildWorkspace =
-          s"${request.workspace}/${request.clusterId}@${request.k8sNamespace}"
+    val buildWorkspace = s"${request.workspace}/${request.clusterId}@${request.k8sNamespace}"
+    // out of the workspace, which is the docker build context
+    val fingerprints = new StepFingerprints(new File(s"$buildWorkspace.fingerprints"))
+    // the output shaded jar file name like: streampark-flinkjob_myjob-test.jar, the dependencies
+    // of the job jar are shaded apart, like: streampark-flinkjob_myjob-test-dependencies.jar
+    val shadedJarOutputPath = request.getShadedJarPath(buildWorkspace)
+    val dependencyJarOutputPath = request.getDependencyJarPath(buildWorkspace)
+    // the files of the workspace copied into the image by the dockerfile
+    val contextFiles = List(
+      new File(shadedJarOutputPath),
+      new File(dependencyJarOutputPath),
+      new File(buildWorkspace, "Dockerfile"),
+      new File(buildWorkspace, "lib"),
+      new File(buildWorkspace, "hadoop-conf"),
+      new File(buildWorkspace, "hive-conf"))
+
+    // Step-1: init build workspace of flink job
+    // the workspace of the last build is reused, so the steps of the unchanged inputs are skipped
+    execStep(1) {
+      if (fingerprints.file.isFile && LfsOperator.exists(buildWorkspace)) {
+        // the other files are written again by the steps, or stale ones of the last build
+        val contextFileNames = contextFiles.map(_.getName).toSet
+        Option(new File(buildWorkspace).listFiles())
+          .getOrElse(Array.empty[File])
+          .filterNot(f => contextFileNames.contains(f.getName))
+          .foreach(f => LfsOperator.delete(f.getAbsolutePath))
+        logInfo(s"Reuse building workspace: $buildWorkspace")
+      } else {
+        fingerprints.clear()
         LfsOperator.mkCleanDirs(buildWorkspace)
         logInfo(s"Recreate building workspace: $buildWorkspace")
-        buildWorkspace
-      }.getOrElse(throw getError.exception)
+      }
+    }.getOrElse(throw getError.exception)
 
     // Step-2: export k8s pod template files
     val podTemplatePaths = request.flinkPodTemplate match {
@@ -90,38 +128,78 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
     }
 
     // Step-3: build shaded flink job jar and handle extra jars
-    // the output shaded jar file name like: streampark-flinkjob_myjob-test.jar
-    val (shadedJar, extJarLibs) =
-      execStep(3) {
-        val shadedJarOutputPath = request.getShadedJarPath(buildWorkspace)
-        val shadedJar =
-          MavenTool.buildFatJar(request.mainClass, request.providedLibs, shadedJarOutputPath)
+    val extJarLibs = request.dependencyInfo.extJarLibs
+    val (jobJarLibs, dependencyLibs) = splitJobJar(request.providedLibs)
+    val shadeFingerprint = StepFingerprints.of(
+      request.mainClass,
+      StepFingerprints.ofFiles(request.providedLibs.extJarLibs.map(new File(_))),
+      request.providedLibs.mavenArts.toList.map(_.toString).sorted.mkString(","),
+      // the snapshots are always shaded again
+      if (request.providedLibs.mavenArts.exists(_.version.endsWith("-SNAPSHOT"))) UUID.randomUUID()
+      else "")
+    val (shadedJar, dependencyJar) =
+      execStepIfChanged(3, fingerprints, shadeFingerprint) {
+        val shadedJar = new File(shadedJarOutputPath)
+        val dependencyJar = dependencyLibs.map(_ => new File(dependencyJarOutputPath))
+        if (shadedJar.isFile && dependencyJar.forall(_.isFile)) Some(shadedJar -> dependencyJar)
+        else None
+      } {
+        val shadedJar = MavenTool.buildFatJar(request.mainClass, jobJarLibs, shadedJarOutputPath)
         logInfo(s"Output shaded flink job jar: ${shadedJar.getAbsolutePath}")
-        shadedJar -> request.dependencyInfo.extJarLibs
+        val dependencyJar = dependencyLibs.map {
+          libs =>
+            val dependencyJar = MavenTool.buildFatJar(null, libs, dependencyJarOutputPath)
+            logInfo(s"Output shaded flink job dependency jar: ${dependencyJar.getAbsolutePath}")
+            dependencyJar
+        }
+        shadedJar -> dependencyJar
       }.getOrElse(throw getError.exception)
 
     // Step-4: generate and Export flink image dockerfiles
-    val (dockerfile, dockerFileTemplate) =
-      execStep(4) {
+    val dockerfileFingerprint = StepFingerprints.of(
+      shadeFingerprint,
+      request.flinkBaseImage,
+      request.integrateWithHadoop,
+      StepFingerprints.ofFiles(extJarLibs.map(new File(_))),
+      if (request.integrateWithHadoop) {
+        StepFingerprints.ofFiles(
+          (HadoopConfigUtils.getSystemHadoopConfDir ++ HadoopConfigUtils.getSystemHiveConfDir)
+            .map(new File(_)))
+      } else ""
+    )
+    val (dockerfile, innerMainJarPath) =
+      execStepIfChanged(4, fingerprints, dockerfileFingerprint) {
+        val dockerfile = new File(buildWorkspace, "Dockerfile")
+        // the jars are in the workspace already
+        val template = FlinkDockerfileTemplate(
+          buildWorkspace,
+          request.flinkBaseImage,
+          shadedJar.getAbsolutePath,
+          extJarLibs)
+        if (dockerfile.isFile) Some(dockerfile -> template.innerMainJarPath) else None
+      } {
+        val dependencyJarPath = dependencyJar.map(_.getAbsolutePath).orNull
         val dockerFileTemplate = {
           if (request.integrateWithHadoop) {
             FlinkHadoopDockerfileTemplate.fromSystemHadoopConf(
               buildWorkspace,
               request.flinkBaseImage,
               shadedJar.getAbsolutePath,
-              extJarLibs)
+              extJarLibs,
+              dependencyJarPath)
           } else {
             FlinkDockerfileTemplate(
               buildWorkspace,
               request.flinkBaseImage,
               shadedJar.getAbsolutePath,
-              extJarLibs)
+              extJarLibs,
+              dependencyJarPath)
           }
         }
         val dockerFile = dockerFileTemplate.writeDockerfile
         logInfo(
           s"Output flink dockerfile: ${dockerFile.getAbsolutePath}, content: \n${dockerFileTemplate.offerDockerfileContent}")
-        dockerFile -> dockerFileTemplate
+        dockerFile -> dockerFileTemplate.innerMainJarPath
       }.getOrElse(throw getError.exception)
 
     val dockerConf = request.dockerConfig
@@ -136,76 +214,69 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
     }
 
     // Step-5: pull flink base image
-    execStep(5) {
-      usingDockerClient {
-        dockerClient =>
-          val pullImageCmd = {
-            // when the register address prefix is explicitly identified on base image tag,
-            // the user's pre-saved docker register auth info would be used.
-            val pullImageCmdState =
-              dockerConf.registerAddress != null && !baseImageTag.startsWith(
-                dockerConf.registerAddress)
-            if (pullImageCmdState) {
-              dockerClient.pullImageCmd(baseImageTag)
-            } else {
-              dockerClient
-                .pullImageCmd(baseImageTag)
-                .withAuthConfig(dockerConf.toAuthConf)
-            }
+    // the base image pulled before is reused, unless its tag may refer to a newer image
+    val baseImage = execStep(5) {
+      docker.inspectImage(baseImageTag) match {
+        case Some(image) if image.repoDigests.nonEmpty && !isMutableTag(baseImageTag) =>
+          logInfo(s"Docker image is present locally, imageTag=$baseImageTag, digests=${image.repoDigests
+              .mkString(",")}")
+          image
+        case _ =>
+          // when the register address prefix is explicitly identified on base image tag,
+          // the user's pre-saved docker register auth info would be used.
+          val pullImageCmdState =
+            dockerConf.registerAddress != null && !baseImageTag.startsWith(
+              dockerConf.registerAddress)
+          val authConf = if (pullImageCmdState) null else dockerConf.toAuthConf
+          docker.pullImage(baseImageTag, authConf) {
+            pullRsp =>
+              dockerProcess.pull.update(pullRsp)
+              Future(dockerProcessWatcher.onDockerPullProgressChange(dockerProcess.pull.snapshot))
           }
-          val pullCmdCallback = pullImageCmd
-            .asInstanceOf[HackPullImageCmd]
-            .start(watchDockerPullProcess {
-              pullRsp =>
-                dockerProcess.pull.update(pullRsp)
-                Future(dockerProcessWatcher.onDockerPullProgressChange(dockerProcess.pull.snapshot))
-            })
-          pullCmdCallback.awaitCompletion
           logInfo(s"Already pulled docker image from remote register, imageTag=$baseImageTag")
-      }(err => throw new Exception(s"Pull docker image failed, imageTag=$baseImageTag", err))
+          docker.inspectImage(baseImageTag).getOrElse {
+            throw new IllegalStateException(s"Docker image not found, imageTag=$baseImageTag")
+          }
+      }
     }.getOrElse(throw getError.exception)
 
     // Step-6: build flink image
-    execStep(6) {
-      usingDockerClient {
-        dockerClient =>
-          val buildImageCmd = dockerClient
-            .buildImageCmd()
-            .withBaseDirectory(new File(buildWorkspace))
-            .withDockerfile(dockerfile)
-            .withTags(Sets.newHashSet(pushImageTag))
-
-          val buildCmdCallback = buildImageCmd
-            .asInstanceOf[HackBuildImageCmd]
-            .start(watchDockerBuildStep {
-              buildStep =>
-                dockerProcess.build.update(buildStep)
-                Future(
-                  dockerProcessWatcher.onDockerBuildProgressChange(dockerProcess.build.snapshot))
-            })
-          val imageId = buildCmdCallback.awaitImageId
-          logInfo(s"Built docker image, imageId=$imageId, imageTag=$pushImageTag")
-      }(err => throw new Exception(s"Build docker image failed. tag=$pushImageTag", err))
-    }.getOrElse(throw getError.exception)
+    // the dockerfile and the files it copies are rewritten only if their inputs changed
+    val buildFingerprint = StepFingerprints.of(
+      dockerfileFingerprint,
+      StepFingerprints.ofFiles(contextFiles),
+      baseImage.id,
+      pushImageTag)
+    val imageId =
+      execStepIfChanged(6, fingerprints, buildFingerprint) {
+        docker.inspectImage(pushImageTag).map(_.id)
+      } {
+        val imageId = docker.buildImage(new File(buildWorkspace), dockerfile, pushImageTag) {
+          buildStep =>
+            dockerProcess.build.update(buildStep)
+            Future(dockerProcessWatcher.onDockerBuildProgressChange(dockerProcess.build.snapshot))
+        }
+        logInfo(s"Built docker image, imageId=$imageId, imageTag=$pushImageTag")
+        imageId
+      }.getOrElse(throw getError.exception)
 
     // Step-7: push flink image
-    execStep(7) {
-      usingDockerClient {
-        dockerClient =>
-          val pushCmd: PushImageCmd = dockerClient
-            .pushImageCmd(pushImageTag)
-            .withAuthConfig(dockerConf.toAuthConf)
-
-          val pushCmdCallback = pushCmd
-            .asInstanceOf[HackPushImageCmd]
-            .start(watchDockerPushProcess {
-              pushRsp =>
-                dockerProcess.push.update(pushRsp)
-                Future(dockerProcessWatcher.onDockerPushProgressChange(dockerProcess.push.snapshot))
-            })
-          pushCmdCallback.awaitCompletion
-          logInfo(s"Already pushed docker image, imageTag=$pushImageTag")
-      }(err => throw new Exception(s"Push docker image failed. tag=$pushImageTag", err))
+    val pushFingerprint =
+      StepFingerprints.of(buildFingerprint, imageId, pushImageTag, dockerConf.registerAddress)
+    execStepIfChanged(7, fingerprints, pushFingerprint) {
+      // the image pushed may be deleted or overwritten in the registry since
+      val pushedDigests = docker.inspectImage(pushImageTag).map(_.repoDigests).getOrElse(Nil)
+      docker
+        .inspectRegistryImage(pushImageTag, dockerConf.toAuthConf)
+        .filter(digest => pushedDigests.exists(_.endsWith(s"@$digest")))
+        .map(_ => ())
+    } {
+      docker.pushImage(pushImageTag, dockerConf.toAuthConf) {
+        pushRsp =>
+          dockerProcess.push.update(pushRsp)
+          Future(dockerProcessWatcher.onDockerPushProgressChange(dockerProcess.push.snapshot))
+      }
+      logInfo(s"Already pushed docker image, imageTag=$pushImageTag")
     }.getOrElse(throw getError.exception)
 
     // Step-8:  init build workspace of ingress
@@ -226,7 +297,34 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
       buildWorkspace,
       pushImageTag,
       podTemplatePaths,
-      dockerFileTemplate.innerMainJarPath)
+      innerMainJarPath)
+  }
+
+  /**
+   * Split the job jar apart from its dependencies, the dependencies rarely changed are shaded into
+   * a lower image layer than the job jar. The libs are not split without the job jar.
+   */
+  private[this] def splitJobJar(libs: DependencyInfo): (DependencyInfo, Option[DependencyInfo]) = {
+    Option(request.customFlinkUserJar).filter(jar => new File(jar).isFile) match {
+      case Some(jobJar) =>
+        val dependencyLibs = DependencyInfo(libs.mavenArts, libs.extJarLibs - jobJar)
+        val hasDependencies = dependencyLibs.mavenArts.nonEmpty ||
+          dependencyLibs.extJarLibs.map(new File(_)).exists {
+            case f if f.isDirectory =>
+              Option(f.listFiles()).exists(_.exists(_.getName.endsWith(Constants.JAR_SUFFIX)))
+            case f => f.isFile
+          }
+        DependencyInfo(Set(), Set(jobJar)) -> Some(dependencyLibs).filter(_ => hasDependencies)
+      case None => libs -> None
+    }
+  }
+
+  /** The tag may refer to another image later, e.g. `flink` or `flink:latest`. */
+  private[this] def isMutableTag(imageTag: String): Boolean = {
+    !imageTag.contains("@sha256:") && {
+      val name = imageTag.substring(imageTag.lastIndexOf('/') + 1)
+      !name.contains(":") || name.endsWith(":latest")
+    }
   }
 
   /** compile image tag with namespace and remote address. */
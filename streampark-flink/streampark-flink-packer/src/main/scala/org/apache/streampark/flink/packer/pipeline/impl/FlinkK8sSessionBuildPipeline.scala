@@ -29,6 +29,8 @@ class FlinkK8sSessionBuildPipeline(request: FlinkK8sSessionBuildRequest) extends
 
   override def offerBuildParam: FlinkK8sSessionBuildRequest = request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] = Map(2 -> BuildResourceEnum.CPU)
+
   /** The construction logic needs to be implemented by subclasses */
   @throws[Throwable]
   override protected def buildProcess(): ShadedBuildResponse = {
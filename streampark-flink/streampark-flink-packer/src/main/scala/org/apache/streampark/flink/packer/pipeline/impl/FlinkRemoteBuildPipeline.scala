@@ -32,6 +32,12 @@ class FlinkRemoteBuildPipeline(request: FlinkRemotePerJobBuildRequest) extends B
 
   override def offerBuildParam: FlinkRemotePerJobBuildRequest = request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] =
+    Map(
+      2 -> BuildResourceEnum.CPU,
+      3 -> BuildResourceEnum.NETWORK,
+      4 -> BuildResourceEnum.DISK_IO)
+
   /** The construction logic needs to be implemented by subclasses */
   @throws[Throwable]
   override protected def buildProcess(): ShadedBuildResponse = {
@@ -38,6 +38,11 @@ class FlinkYarnApplicationBuildPipeline(request: FlinkYarnApplicationBuildReques
 
   override def offerBuildParam: FlinkYarnApplicationBuildRequest = request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] =
+    Map(
+      2 -> BuildResourceEnum.NETWORK,
+      3 -> BuildResourceEnum.NETWORK)
+
   /**
    * the actual build process. the effective steps progress should be implemented in multiple
    * BuildPipeline.execStep() functions.
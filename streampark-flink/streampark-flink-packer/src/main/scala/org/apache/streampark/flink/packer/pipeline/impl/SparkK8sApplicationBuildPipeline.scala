@@ -54,6 +54,14 @@ class SparkK8sApplicationBuildPipeline(request: SparkK8sApplicationBuildRequest)
   override protected def offerBuildParam: SparkK8sApplicationBuildRequest =
     request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] =
+    Map(
+      3 -> BuildResourceEnum.DISK_IO,
+      4 -> BuildResourceEnum.DISK_IO,
+      5 -> BuildResourceEnum.NETWORK,
+      6 -> BuildResourceEnum.DISK_IO,
+      7 -> BuildResourceEnum.NETWORK)
+
   def registerDockerProgressWatcher(watcher: DockerProgressWatcher): Unit = {
     dockerProcessWatcher = watcher
   }
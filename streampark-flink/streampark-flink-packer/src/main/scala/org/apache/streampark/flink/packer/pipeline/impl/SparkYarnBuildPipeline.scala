@@ -38,6 +38,11 @@ class SparkYarnBuildPipeline(request: SparkYarnBuildRequest)
 
   override def offerBuildParam: SparkYarnBuildRequest = request
 
+  override protected def stepResources: Map[Int, BuildResourceEnum] =
+    Map(
+      2 -> BuildResourceEnum.NETWORK,
+      3 -> BuildResourceEnum.NETWORK)
+
   /**
    * the actual build process. the effective steps progress should be implemented in multiple
    * BuildPipeline.execStep() functions.
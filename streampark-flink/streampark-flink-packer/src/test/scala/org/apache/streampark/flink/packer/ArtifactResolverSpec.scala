@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.packer.maven.{Artifact, ArtifactResolver, MavenTool}
+
+import org.apache.commons.io.FileUtils
+import org.eclipse.aether.repository.RemoteRepository
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{File, FileOutputStream}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.jar.{JarEntry, JarOutputStream}
+
+class ArtifactResolverSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val workDir: File = Files.createTempDirectory("ArtifactResolverSpec").toFile
+
+  val remoteDir = new File(workDir, "remote")
+
+  val localRepoPath: String = new File(workDir, "local").getAbsolutePath
+
+  /** The number of the synthetic artifacts in the remote repository. */
+  val artifactCount = 300
+
+  override protected def beforeAll(): Unit = {
+    // lib-i depends on lib-(i+1) and lib-(i+2) in compile scope, and on lib-(i+3) in test scope
+    for (i <- 0 until artifactCount) {
+      val deps = Seq(i + 1 -> "compile", i + 2 -> "compile", i + 3 -> "test")
+        .filter(_._1 < artifactCount)
+        .map {
+          case (dep, scope) =>
+            s"""<dependency><groupId>org.example</groupId><artifactId>lib-$dep</artifactId>
+               |<version>1.0</version><scope>$scope</scope></dependency>""".stripMargin
+        }
+      val dir = new File(remoteDir, s"org/example/lib-$i/1.0")
+      FileUtils.writeStringToFile(
+        new File(dir, s"lib-$i-1.0.pom"),
+        s"""<project><modelVersion>4.0.0</modelVersion>
+           |<groupId>org.example</groupId><artifactId>lib-$i</artifactId><version>1.0</version>
+           |<dependencies>${deps.mkString}</dependencies></project>""".stripMargin,
+        StandardCharsets.UTF_8
+      )
+      val out = new JarOutputStream(new FileOutputStream(new File(dir, s"lib-$i-1.0.jar")))
+      try {
+        out.putNextEntry(new JarEntry(s"org/example/Lib$i.class"))
+        out.write(Array.fill[Byte](128)(i.toByte))
+        out.closeEntry()
+      } finally {
+        out.close()
+      }
+    }
+  }
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(workDir)
+  }
+
+  val remoteRepos: List[RemoteRepository] =
+    List(new RemoteRepository.Builder("fixture", "default", remoteDir.toURI.toString).build())
+
+  // every third artifact, with their direct dependencies all the artifacts are resolved
+  val artifacts: Set[Artifact] =
+    (0 until artifactCount by 3).map(i => Artifact.of(s"org.example:lib-$i:1.0")).toSet
+
+  "ArtifactResolver" when {
+    "resolve artifacts" should {
+      "resolve the compile dependencies from the remote repository" in {
+        val resolver = new ArtifactResolver(localRepoPath, 8)
+        try {
+          val jars = MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos)
+          jars.map(_.getName).toSet mustBe (0 until artifactCount).map(i => s"lib-$i-1.0.jar").toSet
+          jars.forall(_.getAbsolutePath.startsWith(localRepoPath)) mustBe true
+          resolver.getMetrics("remoteReads") mustBe artifactCount
+        } finally {
+          resolver.close()
+        }
+      }
+
+      "resolve the local artifacts by the shared session without the remote repository" in {
+        // a new repository system and session, resolved one by one
+        val expected = {
+          val fresh = new ArtifactResolver(localRepoPath, 1)
+          try MavenTool.resolveArtifacts(artifacts, fresh, remoteRepos)
+          finally fresh.close()
+        }
+
+        val resolver = new ArtifactResolver(localRepoPath, 8)
+        try {
+          MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos) mustBe expected
+          MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos) mustBe expected
+          resolver.getMetrics mustBe Map("localHits" -> 2L * artifactCount, "remoteReads" -> 0L)
+        } finally {
+          resolver.close()
+        }
+      }
+
+      "resolve the artifacts missing in the local repository" in {
+        val resolver = new ArtifactResolver(localRepoPath, 8)
+        try {
+          FileUtils.deleteDirectory(new File(localRepoPath, "org/example/lib-10"))
+          val jars = MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos)
+          jars.forall(_.isFile) mustBe true
+          resolver.getMetrics("remoteReads") mustBe 1L
+        } finally {
+          resolver.close()
+        }
+      }
+
+      "not reuse the artifacts read from other remote repositories" in {
+        val emptyDir = new File(workDir, "empty")
+        emptyDir.mkdirs()
+        val otherRepos = List(new RemoteRepository.Builder("other", "default", emptyDir.toURI.toString).build())
+        val resolver = new ArtifactResolver(localRepoPath, 8)
+        try {
+          MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos).size mustBe artifactCount
+          // the artifacts read from the fixture repository are not available from the other one
+          an[Exception] must be thrownBy MavenTool.resolveArtifacts(artifacts, resolver, otherRepos)
+          MavenTool.resolveArtifacts(artifacts, resolver, remoteRepos).size mustBe artifactCount
+        } finally {
+          resolver.close()
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.common.conf.FlinkVersion
+import org.apache.streampark.common.enums.{FlinkDeployMode, FlinkJobType}
+import org.apache.streampark.flink.packer.maven.DependencyInfo
+import org.apache.streampark.flink.packer.pipeline._
+
+import org.apache.commons.io.FileUtils
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.{CountDownLatch, ExecutionException, Executors, TimeoutException, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.mutable
+import scala.concurrent.{Await, ExecutionContext, ExecutionContextExecutorService, Future}
+import scala.concurrent.duration.Duration
+
+class BuildSchedulerSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val workDir: File = Files.createTempDirectory("BuildSchedulerSpec").toFile
+
+  System.setProperty("streampark.workspace.local", new File(workDir, "streampark").getAbsolutePath)
+
+  // the callers blocked by launching the pipelines
+  implicit val launchers: ExecutionContextExecutorService =
+    ExecutionContext.fromExecutorService(Executors.newCachedThreadPool())
+
+  override protected def afterAll(): Unit = {
+    launchers.shutdownNow()
+    FileUtils.deleteDirectory(workDir)
+  }
+
+  /** The max number of the calls running at the same time. */
+  class ConcurrencyGauge {
+    private[this] val current = new AtomicInteger
+    private[this] val max = new AtomicInteger
+
+    def track[T](func: => T): T = {
+      max.accumulateAndGet(current.incrementAndGet(), math.max)
+      try func
+      finally current.decrementAndGet()
+    }
+
+    def maxConcurrency: Int = max.get()
+  }
+
+  val builds = new ConcurrencyGauge
+
+  val shadings = new ConcurrencyGauge
+
+  val started: mutable.Buffer[String] = mutable.ArrayBuffer[String]()
+
+  /**
+   * The synthetic pipeline of two timed steps, creating the workspace and shading the jar, the
+   * second one cpu-bound.
+   */
+  class SyntheticPipeline(
+      name: String,
+      override val scheduler: BuildScheduler,
+      workspaceStep: => Unit = Thread.sleep(10),
+      shadeStep: => Unit = Thread.sleep(40))
+    extends BuildPipeline {
+
+    override def pipeType: PipelineTypeEnum = PipelineTypeEnum.FLINK_NATIVE_K8S_SESSION
+
+    override protected def offerBuildParam: FlinkK8sSessionBuildRequest = FlinkK8sSessionBuildRequest(
+      appName = name,
+      workspace = new File(workDir, name).getAbsolutePath,
+      mainClass = "org.example.Main",
+      customFlinkUserJar = null,
+      deployMode = FlinkDeployMode.KUBERNETES_NATIVE_SESSION,
+      flinkJobType = FlinkJobType.FLINK_SQL,
+      // without a flink home
+      flinkVersion = new FlinkVersion(workDir.getAbsolutePath) {
+        override def toString: String = "1.17.2"
+      },
+      dependencyInfo = DependencyInfo(),
+      clusterId = "my-cluster",
+      k8sNamespace = "default"
+    )
+
+    override protected def stepResources: Map[Int, BuildResourceEnum] = Map(2 -> BuildResourceEnum.CPU)
+
+    override protected def buildProcess(): ShadedBuildResponse = builds.track {
+      started.synchronized(started += name)
+      execStep(1)(workspaceStep).getOrElse(throw getError.exception)
+      execStep(2)(shadings.track(shadeStep)).getOrElse(throw getError.exception)
+      ShadedBuildResponse(name, s"$name.jar")
+    }
+  }
+
+  def launch(pipeline: BuildPipeline, priority: BuildPriorityEnum): Future[BuildResult] =
+    Future(pipeline.launch(priority))
+
+  def awaitAll[T](futures: Seq[Future[T]]): Seq[T] =
+    Await.result(Future.sequence(futures), Duration(1, TimeUnit.MINUTES))
+
+  def waitUntil(condition: => Boolean): Unit = {
+    val deadline = System.currentTimeMillis + 10000
+    while (!condition) {
+      if (System.currentTimeMillis > deadline) fail("timed out waiting for the condition")
+      Thread.sleep(5)
+    }
+  }
+
+  "BuildScheduler" when {
+    "run many pipelines" should {
+      "limit the running builds and the cpu-bound steps" in {
+        val scheduler = new BuildScheduler(4, Map(BuildResourceEnum.CPU -> 2))
+        try {
+          val pipelines = (1 to 50).map(i => new SyntheticPipeline(s"bulk-$i", scheduler))
+          val results = awaitAll(pipelines.map(launch(_, BuildPriorityEnum.BULK)))
+          results.forall(_.pass) mustBe true
+          pipelines.map(_.getPipeStatus).toSet mustBe Set(PipelineStatusEnum.success)
+          builds.maxConcurrency mustBe 4
+          shadings.maxConcurrency mustBe 2
+
+          val histograms = scheduler.getLatencyHistograms
+          histograms("queueWait").count mustBe 50
+          histograms("runTime").count mustBe 50
+          histograms("runTime").percentile(0.5) must be >= 40000L
+          scheduler.getQueuedCount mustBe 0
+
+          val metrics = scheduler.getMetrics
+          metrics.get("queued") mustBe 0L
+          metrics.get("runTime.count") mustBe 50L
+          metrics.get("runTime.p50") mustBe histograms("runTime").percentile(0.5)
+        } finally {
+          scheduler.close()
+        }
+      }
+
+      "run the interactive builds before the queued bulk builds" in {
+        val scheduler = new BuildScheduler(1, Map.empty)
+        try {
+          started.clear()
+          val blocker = new CountDownLatch(1)
+          val first = launch(new SyntheticPipeline("first", scheduler, blocker.await()), BuildPriorityEnum.BULK)
+          waitUntil(started.synchronized(started.nonEmpty))
+
+          val bulk = (1 to 10).map(i => new SyntheticPipeline(s"bulk-$i", scheduler))
+          val bulkResults = bulk.map {
+            pipeline =>
+              val result = launch(pipeline, BuildPriorityEnum.BULK)
+              waitUntil(pipeline.getQueuePosition > 0)
+              result
+          }
+          val interactive = new SyntheticPipeline("interactive", scheduler)
+          val interactiveResult = launch(interactive, BuildPriorityEnum.INTERACTIVE)
+          waitUntil(scheduler.getQueuedCount == 11)
+
+          // the interactive build is queued before all the bulk builds
+          interactive.getQueuePosition mustBe 1
+          bulk.map(_.getQueuePosition) mustBe (2 to 11)
+
+          blocker.countDown()
+          awaitAll(first +: interactiveResult +: bulkResults).forall(_.pass) mustBe true
+          started mustBe "first" +: "interactive" +: bulk.indices.map(i => s"bulk-${i + 1}")
+          interactive.getQueuePosition mustBe 0
+        } finally {
+          scheduler.close()
+        }
+      }
+
+      "cancel the queued and the running builds" in {
+        val scheduler = new BuildScheduler(1, Map.empty)
+        try {
+          started.clear()
+          val running = new SyntheticPipeline("running", scheduler, Thread.sleep(60000))
+          val runningResult = launch(running, BuildPriorityEnum.INTERACTIVE)
+          waitUntil(started.synchronized(started.nonEmpty))
+
+          val queued = new SyntheticPipeline("queued", scheduler)
+          val queuedResult = launch(queued, BuildPriorityEnum.INTERACTIVE)
+          waitUntil(queued.getQueuePosition == 1)
+
+          queued.cancel() mustBe true
+          Await.result(queuedResult, Duration(10, TimeUnit.SECONDS)).pass mustBe false
+          queued.getPipeStatus mustBe PipelineStatusEnum.failure
+          queued.getQueuePosition mustBe 0
+          scheduler.getQueuedCount mustBe 0
+
+          // the running step is interrupted
+          running.cancel() mustBe true
+          Await.result(runningResult, Duration(10, TimeUnit.SECONDS)).pass mustBe false
+          running.getPipeStatus mustBe PipelineStatusEnum.failure
+          running.cancel() mustBe false
+
+          started mustBe List("running")
+        } finally {
+          scheduler.close()
+        }
+      }
+
+      "cancel the build queued over the queue timeout" in {
+        val scheduler = new BuildScheduler(1, Map.empty)
+        try {
+          val blocker = new CountDownLatch(1)
+          val running = scheduler.submit(BuildPriorityEnum.INTERACTIVE, "running")(blocker.await())
+          val queued = scheduler.submit(BuildPriorityEnum.INTERACTIVE, "queued")("queued")
+          waitUntil(!running.isQueued)
+
+          a[TimeoutException] must be thrownBy queued.await(50, 60000, TimeUnit.MILLISECONDS)
+          queued.isCancelled mustBe true
+          scheduler.getQueuedCount mustBe 0
+
+          blocker.countDown()
+          running.await(50, 60000, TimeUnit.MILLISECONDS)
+          running.isCancelled mustBe false
+        } finally {
+          scheduler.close()
+        }
+      }
+
+      "cancel the builds over the timeouts by the timer" in {
+        val scheduler = new BuildScheduler(1, Map.empty)
+        try {
+          val running =
+            scheduler.submit(BuildPriorityEnum.INTERACTIVE, "running", 60000, 50, TimeUnit.MILLISECONDS)(
+              Thread.sleep(60000))
+          val queued =
+            scheduler.submit(BuildPriorityEnum.INTERACTIVE, "queued", 50, 60000, TimeUnit.MILLISECONDS)("queued")
+
+          // no thread waits for the builds
+          val queuedError = the[ExecutionException] thrownBy queued.completionStage.toCompletableFuture
+            .get(10, TimeUnit.SECONDS)
+          queuedError.getCause mustBe a[TimeoutException]
+          queuedError.getCause.getMessage must include("queued over")
+          queued.isCancelled mustBe true
+
+          val runningError = the[ExecutionException] thrownBy running.completionStage.toCompletableFuture
+            .get(10, TimeUnit.SECONDS)
+          runningError.getCause mustBe a[TimeoutException]
+          runningError.getCause.getMessage must include("run over")
+          scheduler.getQueuedCount mustBe 0
+        } finally {
+          scheduler.close()
+        }
+      }
+
+      "launch the pipeline without blocking the caller" in {
+        val scheduler = new BuildScheduler(1, Map.empty)
+        try {
+          val blocker = new CountDownLatch(1)
+          val pipeline = new SyntheticPipeline("async", scheduler, blocker.await())
+          val result = pipeline.launchAsync(BuildPriorityEnum.INTERACTIVE).toCompletableFuture
+          waitUntil(pipeline.getPipeStatus == PipelineStatusEnum.running && scheduler.getRunningCount == 1)
+          result.isDone mustBe false
+
+          blocker.countDown()
+          result.get(10, TimeUnit.SECONDS).pass mustBe true
+          pipeline.getPipeStatus mustBe PipelineStatusEnum.success
+        } finally {
+          scheduler.close()
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.flink.packer.maven.{FatJarCache, MavenTool}
+
+import org.apache.commons.io.FileUtils
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{File, FileOutputStream}
+import java.nio.file.Files
+import java.util.Random
+import java.util.jar.{JarEntry, JarFile, JarOutputStream}
+
+class FatJarCacheSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val outputDir: File = Files.createTempDirectory("FatJarCacheSpec-output").toFile
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(outputDir)
+  }
+
+  /** A synthetic jar of the classes with random contents. */
+  def writeJar(name: String, seed: Long, classes: Int = 500): File = {
+    val jar = new File(outputDir, s"libs/$name.jar")
+    FileUtils.forceMkdirParent(jar)
+    val random = new Random(seed)
+    val out = new JarOutputStream(new FileOutputStream(jar))
+    try {
+      for (i <- 0 until classes) {
+        out.putNextEntry(new JarEntry(s"org/example/$name/Class$i.class"))
+        val bytes = new Array[Byte](4096)
+        random.nextBytes(bytes)
+        out.write(bytes)
+        out.closeEntry()
+      }
+    } finally {
+      out.close()
+    }
+    jar
+  }
+
+  "FatJarCache" when {
+    "build fat-jar" should {
+      "reuse the fat-jar of the unchanged jars" in {
+        val cache = new FatJarCache(new File(outputDir, "cache-1"), Long.MaxValue)
+        val libs = (1 to 4).map(i => writeJar(s"reuse$i", i).getAbsolutePath).toSet
+
+        val first = MavenTool.buildFatJar(null, libs, new File(outputDir, "reuse-1.jar").getPath, cache)
+        val second = MavenTool.buildFatJar(null, libs, new File(outputDir, "reuse-2.jar").getPath, cache)
+
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 1L)
+        FileUtils.contentEquals(first, second) mustBe true
+        new JarFile(second).getJarEntry("org/example/reuse1/Class0.class") mustNot be(null)
+      }
+
+      "not share the cached fat-jar with the outputs" in {
+        val cache = new FatJarCache(new File(outputDir, "cache-4"), Long.MaxValue)
+        val libs = Set(writeJar("share", 1, 10).getAbsolutePath)
+        val first = MavenTool.buildFatJar(null, libs, new File(outputDir, "share-1.jar").getPath, cache)
+        val expected = FileUtils.readFileToByteArray(first)
+        val second = MavenTool.buildFatJar(null, libs, new File(outputDir, "share-2.jar").getPath, cache)
+        second.canWrite mustBe true
+
+        // the outputs modified in place do not corrupt the cache
+        FileUtils.writeByteArrayToFile(first, Array[Byte](1, 2, 3))
+        FileUtils.writeByteArrayToFile(second, Array[Byte](1, 2, 3))
+        val third = MavenTool.buildFatJar(null, libs, new File(outputDir, "share-3.jar").getPath, cache)
+        cache.getMetrics mustBe Map("hits" -> 2L, "misses" -> 1L)
+        FileUtils.readFileToByteArray(third) mustBe expected
+      }
+
+      "rebuild the fat-jar once any input changed" in {
+        val cache = new FatJarCache(new File(outputDir, "cache-2"), Long.MaxValue)
+        val lib1 = writeJar("change1", 1, 10).getAbsolutePath
+        val lib2 = writeJar("change2", 2, 10).getAbsolutePath
+        val out = new File(outputDir, "change.jar").getPath
+
+        MavenTool.buildFatJar(null, Set(lib1, lib2), out, cache)
+        MavenTool.buildFatJar(null, Set(lib1, lib2), out, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 1L)
+
+        // another main class
+        MavenTool.buildFatJar("org.example.Main", Set(lib1, lib2), out, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 2L)
+
+        // another jar set
+        MavenTool.buildFatJar(null, Set(lib1), out, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 3L)
+
+        // a jar of the same path and size with another content
+        val modified = writeJar("change2", 3, 10)
+        modified.setLastModified(modified.lastModified() + 2000)
+        MavenTool.buildFatJar(null, Set(lib1, lib2), out, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 4L)
+        jarEquals(new JarFile(out), new JarFile(modified), "org/example/change2/Class0.class") mustBe true
+
+        MavenTool.buildFatJar(null, Set(lib1, lib2), out, cache)
+        cache.getMetrics mustBe Map("hits" -> 2L, "misses" -> 4L)
+      }
+
+      "evict the least recently used fat-jars" in {
+        val cacheDir = new File(outputDir, "cache-3")
+        val libs = (1 to 3).map(i => writeJar(s"evict$i", i, 100).getAbsolutePath)
+        val fatJarSize = {
+          val probe = new FatJarCache(new File(outputDir, "cache-probe"), Long.MaxValue)
+          MavenTool.buildFatJar(null, Set(libs.head), new File(outputDir, "probe.jar").getPath, probe).length()
+        }
+        // room for two of the fat-jars
+        val cache = new FatJarCache(cacheDir, fatJarSize * 2 + fatJarSize / 2)
+        libs.zipWithIndex.foreach {
+          case (lib, i) =>
+            MavenTool.buildFatJar(null, Set(lib), new File(outputDir, s"evict-$i.jar").getPath, cache)
+            // the file times of a coarse resolution
+            Thread.sleep(1100)
+        }
+        cacheDir.listFiles().count(_.getName.endsWith(".jar")) mustBe 2
+
+        MavenTool.buildFatJar(null, Set(libs(2)), new File(outputDir, "evict-hit.jar").getPath, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 3L)
+        MavenTool.buildFatJar(null, Set(libs.head), new File(outputDir, "evict-miss.jar").getPath, cache)
+        cache.getMetrics mustBe Map("hits" -> 1L, "misses" -> 4L)
+      }
+    }
+  }
+
+}
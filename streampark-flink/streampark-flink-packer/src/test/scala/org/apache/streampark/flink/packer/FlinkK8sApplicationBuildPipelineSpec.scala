@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.common.conf.FlinkVersion
+import org.apache.streampark.common.enums.{FlinkDeployMode, FlinkJobType}
+import org.apache.streampark.flink.kubernetes.model.K8sPodTemplates
+import org.apache.streampark.flink.packer.docker.{DockerConf, DockerImageInfo, DockerOperator}
+import org.apache.streampark.flink.packer.maven.DependencyInfo
+import org.apache.streampark.flink.packer.pipeline.{DockerImageBuildResponse, FlinkK8sApplicationBuildRequest, PipelineStatusEnum, PipelineStepStatusEnum}
+import org.apache.streampark.flink.packer.pipeline.impl.FlinkK8sApplicationBuildPipeline
+
+import com.github.dockerjava.api.model.{AuthConfig, PullResponseItem, PushResponseItem}
+import org.apache.commons.io.FileUtils
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{File, FileOutputStream}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.jar.{JarEntry, JarOutputStream}
+
+import scala.collection.mutable
+
+class FlinkK8sApplicationBuildPipelineSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val workDir: File = Files.createTempDirectory("FlinkK8sApplicationBuildPipelineSpec").toFile
+
+  // the fat-jar cache in the local workspace
+  System.setProperty("streampark.workspace.local", new File(workDir, "streampark").getAbsolutePath)
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(workDir)
+  }
+
+  /** The docker daemon and registry in memory, the images are present once pulled or built. */
+  class FakeDockerOperator extends DockerOperator {
+
+    val images = mutable.Map[String, DockerImageInfo]()
+
+    val registry = mutable.Map[String, String]()
+
+    val calls = mutable.ArrayBuffer[String]()
+
+    override def inspectImage(imageTag: String): Option[DockerImageInfo] = images.get(imageTag)
+
+    override def pullImage(imageTag: String, authConf: AuthConfig)(
+        listener: PullResponseItem => Unit): Unit = {
+      calls += s"pull $imageTag"
+      images(imageTag) = DockerImageInfo(s"sha256:base-$imageTag", List(s"$imageTag@sha256:0001"))
+    }
+
+    override def buildImage(baseDirectory: File, dockerfile: File, imageTag: String)(
+        listener: String => Unit): String = {
+      calls += s"build $imageTag"
+      val imageId = s"sha256:image-${calls.size}"
+      images(imageTag) = DockerImageInfo(imageId, Nil)
+      imageId
+    }
+
+    override def pushImage(imageTag: String, authConf: AuthConfig)(
+        listener: PushResponseItem => Unit): Unit = {
+      calls += s"push $imageTag"
+      val digest = s"sha256:pushed-${calls.size}"
+      registry(imageTag) = digest
+      images(imageTag) = images(imageTag).copy(repoDigests = List(s"$imageTag@$digest"))
+    }
+
+    override def inspectRegistryImage(imageTag: String, authConf: AuthConfig): Option[String] =
+      registry.get(imageTag)
+  }
+
+  def writeJar(jar: File, content: String): File = {
+    FileUtils.forceMkdirParent(jar)
+    val out = new JarOutputStream(new FileOutputStream(jar))
+    try {
+      out.putNextEntry(new JarEntry(s"org/example/${jar.getName.stripSuffix(".jar")}.class"))
+      out.write(content.getBytes(StandardCharsets.UTF_8))
+      out.closeEntry()
+    } finally {
+      out.close()
+    }
+    jar
+  }
+
+  val userJar: File = writeJar(new File(workDir, "upload/my-job.jar"), "v1")
+
+  val dependencyJar: File = writeJar(new File(workDir, "upload/my-connector.jar"), "connector")
+
+  val request: FlinkK8sApplicationBuildRequest = FlinkK8sApplicationBuildRequest(
+    appName = "my-job",
+    workspace = new File(workDir, "workspace").getAbsolutePath,
+    mainClass = "org.example.Main",
+    customFlinkUserJar = userJar.getAbsolutePath,
+    deployMode = FlinkDeployMode.KUBERNETES_NATIVE_APPLICATION,
+    flinkJobType = FlinkJobType.FLINK_JAR,
+    // without a flink home, not parsed for a jar job
+    flinkVersion = new FlinkVersion(workDir.getAbsolutePath) {
+      override def toString: String = "1.17.2"
+    },
+    dependencyInfo = DependencyInfo(Set(), Set(dependencyJar.getAbsolutePath)),
+    clusterId = "my-cluster",
+    k8sNamespace = "default",
+    flinkBaseImage = "flink:1.17.2",
+    flinkPodTemplate = K8sPodTemplates.empty,
+    dockerConfig = DockerConf("registry.example.com", "streampark", "user", "password"),
+    ingressTemplate = ""
+  )
+
+  val docker = new FakeDockerOperator
+
+  def build(): (FlinkK8sApplicationBuildPipeline, DockerImageBuildResponse) = {
+    val pipeline = new FlinkK8sApplicationBuildPipeline(request, docker)
+    val result = pipeline.launch()
+    pipeline.getPipeStatus mustBe PipelineStatusEnum.success
+    pipeline -> result.asInstanceOf[DockerImageBuildResponse]
+  }
+
+  def skippedSteps(pipeline: FlinkK8sApplicationBuildPipeline): List[Int] =
+    pipeline.getStepsStatus.filter(_._2._1 == PipelineStepStatusEnum.skipped).keys.toList.sorted
+
+  val imageTag = "registry.example.com/streampark/streampark-flinkjob-default-my-cluster"
+
+  "FlinkK8sApplicationBuildPipeline" when {
+    "build image" should {
+      "run all the steps of the first build" in {
+        val (pipeline, response) = build()
+        docker.calls mustBe List("pull flink:1.17.2", s"build $imageTag", s"push $imageTag")
+        // no pod templates or ingress
+        skippedSteps(pipeline) mustBe List(2, 8)
+        pipeline.getStepsElapsed.keySet mustBe (1 to 8).toSet
+        response.flinkImageTag mustBe imageTag
+        response.dockerInnerMainJarPath mustBe "local:///opt/flink/usrlib/streampark-flinkjob_my-job.jar"
+
+        // the dependencies are in a lower layer than the job jar
+        val dockerfile = FileUtils.readFileToString(new File(response.workspacePath, "Dockerfile"), "UTF-8")
+        dockerfile.linesIterator.filter(_.startsWith("COPY")).toList mustBe List(
+          "COPY lib $FLINK_HOME/lib/",
+          "COPY streampark-flinkjob_my-job-dependencies.jar $FLINK_HOME/usrlib/streampark-flinkjob_my-job-dependencies.jar",
+          "COPY streampark-flinkjob_my-job.jar $FLINK_HOME/usrlib/streampark-flinkjob_my-job.jar"
+        )
+      }
+
+      "skip all the steps of the unchanged inputs" in {
+        docker.calls.clear()
+        val staleFile = new File(request.workspace, "my-cluster@default/stale-pod-template.yaml")
+        FileUtils.writeStringToFile(staleFile, "kind: Pod", StandardCharsets.UTF_8)
+        val (pipeline, response) = build()
+        docker.calls mustBe empty
+        // the base image is present locally
+        skippedSteps(pipeline) mustBe List(2, 3, 4, 6, 7, 8)
+        staleFile.exists() mustBe false
+        response.dockerInnerMainJarPath mustBe "local:///opt/flink/usrlib/streampark-flinkjob_my-job.jar"
+      }
+
+      "rebuild and push the image of a new job jar" in {
+        docker.calls.clear()
+        writeJar(userJar, "v2").setLastModified(userJar.lastModified() + 2000)
+        val (pipeline, _) = build()
+        docker.calls mustBe List(s"build $imageTag", s"push $imageTag")
+        skippedSteps(pipeline) mustBe List(2, 8)
+      }
+
+      "push the image deleted in the registry again" in {
+        docker.calls.clear()
+        docker.registry.remove(imageTag)
+        val (pipeline, _) = build()
+        docker.calls mustBe List(s"push $imageTag")
+        skippedSteps(pipeline) mustBe List(2, 3, 4, 6, 8)
+      }
+
+      "build the lost image again, and push it not known by the registry" in {
+        docker.calls.clear()
+        docker.images.remove(imageTag)
+        val (pipeline, _) = build()
+        docker.calls mustBe List(s"build $imageTag", s"push $imageTag")
+        skippedSteps(pipeline) mustBe List(2, 3, 4, 8)
+      }
+    }
+  }
+
+}
@@ -19,10 +19,9 @@ package org.apache.streampark.flink.proxy
 
 import org.apache.streampark.common.conf.{ConfigKeys, FlinkVersion}
 import org.apache.streampark.common.constants.Constants
-import org.apache.streampark.common.util.{ChildFirstClassLoader, ClassLoaderObjectInputStream, ClassLoaderUtils, Logger}
-import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.common.util.{ChildFirstClassLoader, ClassLoaderObjectCodec, ClassLoaderUtils, Logger}
 
-import java.io.{ByteArrayInputStream, ByteArrayOutputStream, File, ObjectOutputStream}
+import java.io.File
 import java.net.URL
 import java.util.function.{Function => JavaFunc}
 import java.util.regex.Pattern
@@ -87,6 +86,9 @@ object FlinkShimsProxy extends Logger {
     ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
   }
 
+  /** The shims class loaders created, by the full version of flink. */
+  def getShimsClassLoaders: Map[String, ClassLoader] = SHIMS_CLASS_LOADER_CACHE.toMap
+
   // need to load all flink-table dependencies compatible with different versions
   private def getVerifySqlLibClassLoader(flinkVersion: FlinkVersion): ClassLoader = {
     logInfo(s"Add verify sql lib,flink version: $flinkVersion")
@@ -212,18 +214,11 @@ object FlinkShimsProxy extends Logger {
     file.listFiles.filter(filterFun).map(_.toURI.toURL).toList
   }
 
+  /**
+   * Copy the object to the classes of the class loader, the requests and the responses are
+   * converted field by field, see [[ClassLoaderObjectCodec]].
+   */
   @throws[Exception]
-  def getObject[T](loader: ClassLoader, obj: Object): T = {
-    val arrayOutputStream = new ByteArrayOutputStream
-    new ObjectOutputStream(arrayOutputStream)
-      .autoClose(out => {
-        out.writeObject(obj)
-        val byteArrayInputStream =
-          new ByteArrayInputStream(arrayOutputStream.toByteArray)
-        new ClassLoaderObjectInputStream(loader, byteArrayInputStream)
-          .autoClose(_.readObject())
-      })
-      .asInstanceOf[T]
-  }
+  def getObject[T](loader: ClassLoader, obj: Object): T = ClassLoaderObjectCodec.convert[T](loader, obj)
 
 }
@@ -25,12 +25,12 @@ import enumeratum.EnumEntry
 import org.apache.commons.lang3.StringUtils
 
 import java.lang.{Boolean => JavaBool}
-import java.util.Scanner
-import java.util.regex.{Matcher, Pattern}
+import java.util.{Locale, Scanner}
+import java.util.regex.Pattern
 
 import scala.annotation.tailrec
 import scala.collection.{immutable, mutable}
-import scala.collection.mutable.ListBuffer
+import scala.collection.mutable.{ArrayBuffer, ListBuffer}
 import scala.util.control.Breaks.{break, breakable}
 
 object SqlCommandParser extends Logger {
@@ -92,18 +92,12 @@ object SqlCommandParser extends Logger {
   }
 
   private[this] def parseLine(sqlSegment: SqlSegment): Option[SqlCommandCall] = {
-    val sqlCommand = SqlCommand.get(sqlSegment.sql.trim)
-    if (sqlCommand == null) None
-    else {
-      val matcher = sqlCommand.matcher
-      val groups = new Array[String](matcher.groupCount)
-      for (i <- groups.indices) {
-        groups(i) = matcher.group(i + 1)
-      }
-      sqlCommand
-        .converter(groups)
-        .map(x =>
-          SqlCommandCall(sqlSegment.start, sqlSegment.end, sqlCommand, x, sqlSegment.sql.trim))
+    val sql = sqlSegment.sql.trim
+    SqlCommand.classify(sql).flatMap {
+      case (sqlCommand, groups) =>
+        sqlCommand
+          .converter(groups)
+          .map(x => SqlCommandCall(sqlSegment.start, sqlSegment.end, sqlCommand, x, sql))
     }
   }
 
@@ -119,36 +113,85 @@ sealed abstract class SqlCommand(
     val converter: Array[String] => Option[Array[String]] = (x: Array[String]) =>
       Some(Array[String](x.head)))
   extends EnumEntry {
-  var matcher: Matcher = _
 
-  def matches(input: String): Boolean = {
-    if (StringUtils.isBlank(regex)) false
+  // compiled once, a Pattern is immutable and safe to share, unlike its Matcher
+  private[core] val pattern: Pattern =
+    if (StringUtils.isBlank(regex)) null
+    else Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL)
+
+  /** The keyword the statements of the command start with, e.g. "CREATE" of "create table". */
+  private[core] lazy val keyword: String =
+    SqlCommand.leadingKeyword(StringUtils.stripStart(regex, "("))
+
+  def matches(input: String): Boolean = pattern != null && pattern.matcher(input).matches()
+
+  /**
+   * Match the input with the command.
+   *
+   * @param input
+   *   the sql statement
+   * @return
+   *   the groups of the regex if matched
+   */
+  def matchGroups(input: String): Option[Array[String]] = {
+    if (pattern == null) None
     else {
-      val pattern =
-        Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL)
-      matcher = pattern.matcher(input)
-      matcher.matches()
+      val matcher = pattern.matcher(input)
+      if (!matcher.matches()) None
+      else {
+        val groups = new Array[String](matcher.groupCount)
+        for (i <- groups.indices) {
+          groups(i) = matcher.group(i + 1)
+        }
+        Some(groups)
+      }
     }
   }
 }
 
 object SqlCommand extends enumeratum.Enum[SqlCommand] {
 
-  def get(stmt: String): SqlCommand = {
-    var cmd: SqlCommand = null
-    breakable {
-      this.values.foreach(x => {
-        if (x.matches(stmt)) {
-          cmd = x
-          break()
-        }
-      })
-    }
-    cmd
+  /**
+   * Get the command of the statement, only the commands of the leading keyword of the statement are
+   * tried, in the order of their declaration.
+   *
+   * @param stmt
+   *   the trimmed sql statement
+   * @return
+   *   the command, null if no command matches
+   */
+  def get(stmt: String): SqlCommand = classify(stmt).map(_._1).orNull
+
+  /**
+   * Classify the statement, the same as [[get]] and return the groups of the matched regex as well.
+   *
+   * @param stmt
+   *   the trimmed sql statement
+   * @return
+   *   the command and the groups of its regex
+   */
+  def classify(stmt: String): Option[(SqlCommand, Array[String])] = {
+    commandsByKeyword
+      .getOrElse(leadingKeyword(stmt), Nil)
+      .iterator
+      .map(cmd => cmd -> cmd.matchGroups(stmt))
+      .collectFirst { case (cmd, Some(groups)) => cmd -> groups }
   }
 
   val values: immutable.IndexedSeq[SqlCommand] = findValues
 
+  // the leading keyword -> the commands starting with it, in the order of the declaration
+  private[this] lazy val commandsByKeyword: Map[String, immutable.IndexedSeq[SqlCommand]] =
+    values.groupBy(_.keyword)
+
+  private[core] def leadingKeyword(text: String): String = {
+    var end = 0
+    while (end < text.length && Character.isLetter(text.charAt(end))) {
+      end += 1
+    }
+    text.substring(0, end).toUpperCase(Locale.ROOT)
+  }
+
   // ---- SELECT Statements--------------------------------------------------------------------------------------------------------------------------------
   case object SELECT extends SqlCommand("select", "(SELECT\\s+.+)")
 
@@ -440,7 +483,8 @@ object SqlSplitter {
    * @return
    */
   def splitSql(sql: String): List[SqlSegment] = {
-    val queries = ListBuffer[String]()
+    // indexed by the refinement below, which is linear on a ListBuffer
+    val queries = ArrayBuffer[String]()
     val lastIndex = if (StringUtils.isNotBlank(sql)) sql.length - 1 else 0
     var query = new mutable.StringBuilder
 
@@ -576,23 +620,28 @@ object SqlSplitter {
     }
 
     val refinedQueries = new collection.mutable.HashMap[Int, String]()
+    // the number of the line breaks of the last refined query, counted rather than scanned again,
+    // as every refined query holds the line breaks of all the queries before it
+    var lineBreaks = 0
     for (i <- queries.indices) {
       val currStatement = queries(i)
       if (isSingleLineComment(currStatement) || isMultipleLineComment(currStatement)) {
         // transform comment line as blank lines
         if (refinedQueries.nonEmpty) {
-          val lastRefinedQuery = refinedQueries.last
-          refinedQueries(refinedQueries.size - 1) =
-            lastRefinedQuery + extractLineBreaks(currStatement)
+          val last = refinedQueries.size - 1
+          val breaks = countLineBreaks(currStatement)
+          refinedQueries(last) = refinedQueries(last) + lineBreaksOf(breaks)
+          lineBreaks += breaks
         }
       } else {
-        var linesPlaceholder = ""
-        if (i > 0) {
-          linesPlaceholder = extractLineBreaks(refinedQueries(i - 1))
-        }
         // add some blank lines before the statement to keep the original line number
-        val refinedQuery = linesPlaceholder + currStatement
+        val placeholder = if (refinedQueries.nonEmpty) lineBreaks else 0
+        val refinedQuery = new mutable.StringBuilder(placeholder + currStatement.length)
+          .append(lineBreaksOf(placeholder))
+          .append(currStatement)
+          .toString
         refinedQueries += refinedQueries.size -> refinedQuery
+        lineBreaks = placeholder + countLineBreaks(currStatement)
       }
     }
 
@@ -605,19 +654,25 @@ object SqlSplitter {
   }
 
   /**
-   * extract line breaks
+   * count line breaks
    *
    * @param text
    * @return
    */
-  private[this] def extractLineBreaks(text: String): String = {
-    val builder = new mutable.StringBuilder
+  private[this] def countLineBreaks(text: String): Int = {
+    var count = 0
     for (i <- 0 until text.length) {
       if (text.charAt(i) == '\n') {
-        builder.append('\n')
+        count += 1
       }
     }
-    builder.toString
+    count
+  }
+
+  private[this] def lineBreaksOf(count: Int): String = {
+    val chars = new Array[Char](count)
+    java.util.Arrays.fill(chars, '\n')
+    new String(chars)
   }
 
   private[this] def isSingleLineComment(text: String) =
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import scala.Option;
+import scala.Tuple2;
+import scala.collection.JavaConverters;
+
+/** Test class for {@link SqlCommand} classification. */
+class SqlCommandParserTest {
+
+    private static final List<String> STATEMENTS = Arrays.asList(
+        "select * from t",
+        "SELECT\n  a,\n  b\nFROM t WHERE a = 1",
+        "create table t (a int) with ('connector' = 'datagen')",
+        "create temporary table t (a int) with ('connector' = 'datagen')",
+        "create catalog c with ('type' = 'hive')",
+        "create database if not exists db",
+        "create view v as select * from t",
+        "create temporary system function f as 'com.example.F' language java",
+        "drop catalog c",
+        "drop temporary table t",
+        "drop database db cascade",
+        "drop view v",
+        "drop function f",
+        "alter table t rename to t2",
+        "alter view v as select 1",
+        "alter database db set ('k' = 'v')",
+        "alter function f as 'com.example.F'",
+        "insert into t select * from s",
+        "insert overwrite t select * from s",
+        "desc t",
+        "describe t",
+        "explain plan for select * from t",
+        "use catalog c",
+        "use modules hive, core",
+        "use db",
+        "show catalogs",
+        "show current catalog",
+        "show databases",
+        "show current database",
+        "show tables",
+        "show create table t",
+        "show columns from t",
+        "show views",
+        "show create view v",
+        "show user functions",
+        "show full modules",
+        "load module hive with ('hive-version' = '3.1.2')",
+        "unload module hive",
+        "set",
+        "set 'table.exec.mini-batch.enabled' = 'true'",
+        "reset 'table.exec.mini-batch.enabled'",
+        "reset",
+        "begin statement set",
+        "end",
+        "delete from t where a = 1",
+        "update t set a = 1",
+        "selectx * from t",
+        "select",
+        "merge into t",
+        "");
+
+    @Test
+    void testClassify() {
+        for (String stmt : STATEMENTS) {
+            SqlCommand expected = linearGet(stmt);
+            Assertions.assertEquals(expected, SqlCommand.get(stmt), stmt);
+        }
+        Assertions.assertEquals(SqlCommand.USE_CATALOG$.MODULE$, SqlCommand.get("USE CATALOG c"));
+        Assertions.assertEquals(SqlCommand.USE_DATABASE$.MODULE$, SqlCommand.get("use db"));
+        Assertions.assertEquals(SqlCommand.RESET_ALL$.MODULE$, SqlCommand.get("reset"));
+        Assertions.assertNull(SqlCommand.get("merge into t"));
+
+        Option<Tuple2<SqlCommand, String[]>> set =
+            SqlCommand.classify("set 'table.exec.mini-batch.enabled' = 'true'");
+        Assertions.assertEquals(SqlCommand.SET$.MODULE$, set.get()._1());
+        Assertions.assertEquals("'table.exec.mini-batch.enabled'", set.get()._2()[1]);
+    }
+
+    @Test
+    void testClassifyConcurrently() throws Exception {
+        List<String> statements = new ArrayList<>();
+        List<SqlCommand> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String stmt = STATEMENTS.get(i % STATEMENTS.size()).replace(" t", " t" + i);
+            statements.add(stmt);
+            expected.add(linearGet(stmt));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    int mismatches = 0;
+                    for (int round = 0; round < 10; round++) {
+                        for (int i = 0; i < statements.size(); i++) {
+                            int index = (i + offset * 97) % statements.size();
+                            Option<Tuple2<SqlCommand, String[]>> result =
+                                SqlCommand.classify(statements.get(index));
+                            SqlCommand command = result.isDefined() ? result.get()._1() : null;
+                            if (command != expected.get(index)
+                                || (command != null && !Arrays.equals(
+                                    command.matchGroups(statements.get(index)).get(), result.get()._2()))) {
+                                mismatches++;
+                            }
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                Assertions.assertEquals(0, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** A script of 10k statements is split and classified as by trying every regex in order. */
+    @Test
+    void testSplitAndClassifyLargeScript() {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            String stmt = STATEMENTS.get(i % 46);
+            script.append("-- statement ").append(i).append('\n').append(stmt).append(";\n");
+        }
+        List<SqlSegment> segments =
+            JavaConverters.seqAsJavaList(SqlSplitter.splitSql(script.toString()));
+        Assertions.assertEquals(10000, segments.size());
+
+        // the segments are prefixed with blank lines to keep the line numbers, trim them first
+        for (SqlSegment segment : segments) {
+            String stmt = segment.sql().trim();
+            SqlCommand command = SqlCommand.get(stmt);
+            Assertions.assertNotNull(command);
+            Assertions.assertEquals(linearGet(stmt), command);
+        }
+    }
+
+    /** The classification before, which compiles and tries the regex of every command in order. */
+    private static SqlCommand linearGet(String stmt) {
+        for (SqlCommand command : JavaConverters.seqAsJavaList(SqlCommand.values())) {
+            if (Pattern.compile(command.pattern().pattern(), command.pattern().flags()).matcher(stmt).matches()) {
+                return command;
+            }
+        }
+        return null;
+    }
+}